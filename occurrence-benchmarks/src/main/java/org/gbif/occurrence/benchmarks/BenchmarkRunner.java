@@ -0,0 +1,27 @@
+package org.gbif.occurrence.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so the allocations per operation (gc.alloc.rate.norm) are reported
+ * along with the time per operation.
+ * Arguments are the usual JMH command line options, e.g. a regular expression to select the benchmarks to run.
+ */
+public class BenchmarkRunner {
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    new Runner(new OptionsBuilder().parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class).build()).run();
+  }
+
+  /**
+   * Hidden constructor.
+   */
+  private BenchmarkRunner() {
+    //empty constructor
+  }
+}
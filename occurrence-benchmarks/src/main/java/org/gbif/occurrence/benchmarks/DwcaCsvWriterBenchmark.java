@@ -0,0 +1,71 @@
+package org.gbif.occurrence.benchmarks;
+
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.occurrence.download.file.OccurrenceRowEncoder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.supercsv.io.CsvListWriter;
+import org.supercsv.io.ICsvListWriter;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Writing of the interpreted and verbatim files of small DwC-A downloads, as done by
+ * {@link org.gbif.occurrence.download.file.dwca.DownloadDwcaActor}, each operation writes all the recorded occurrences.
+ * Output is discarded so the measurements don't depend on the disk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class DwcaCsvWriterBenchmark {
+
+  private List<Occurrence> occurrences;
+
+  private OccurrenceRowEncoder interpretedEncoder;
+
+  private OccurrenceRowEncoder verbatimEncoder;
+
+  private ICsvListWriter interpretedWriter;
+
+  private ICsvListWriter verbatimWriter;
+
+  @Setup
+  public void setup() {
+    occurrences = Fixtures.occurrences();
+    interpretedEncoder = OccurrenceRowEncoder.interpreted();
+    verbatimEncoder = OccurrenceRowEncoder.verbatim();
+    interpretedWriter = new CsvListWriter(new NullWriter(), CsvPreference.TAB_PREFERENCE);
+    verbatimWriter = new CsvListWriter(new NullWriter(), CsvPreference.TAB_PREFERENCE);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    interpretedWriter.close();
+    verbatimWriter.close();
+  }
+
+  @Benchmark
+  public void writeRecords() throws IOException {
+    for (Occurrence occurrence : occurrences) {
+      interpretedWriter.write(interpretedEncoder.encode(occurrence));
+      verbatimWriter.write(verbatimEncoder.encode(occurrence));
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package org.gbif.occurrence.benchmarks;
+
+import org.gbif.occurrence.search.es.EsResponseParser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Conversion of search hits into occurrences, each operation converts all the recorded documents.
+ * The source of each hit is parsed in every operation, like it happens with the hits of each search response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class EsResponseParserBenchmark {
+
+  private byte[][] sources;
+
+  @Setup
+  public void setup() {
+    sources = Fixtures.occurrenceSources();
+  }
+
+  @Benchmark
+  public void toOccurrence(Blackhole blackhole) {
+    for (int i = 0; i < sources.length; i++) {
+      blackhole.consume(EsResponseParser.toOccurrence(Fixtures.searchHit(i, sources[i]), false));
+    }
+  }
+
+  @Benchmark
+  public void toVerbatimOccurrence(Blackhole blackhole) {
+    for (int i = 0; i < sources.length; i++) {
+      blackhole.consume(EsResponseParser.toVerbatimOccurrence(Fixtures.searchHit(i, sources[i])));
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package org.gbif.occurrence.benchmarks;
+
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.occurrence.search.es.EsResponseParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.search.SearchHit;
+
+/**
+ * Recorded Elasticsearch documents used by the benchmarks, they are read from the classpath so the benchmarks run
+ * without an Elasticsearch cluster.
+ */
+final class Fixtures {
+
+  private static final String ES_OCCURRENCES = "/occurrences-test.json";
+
+  private static final Text DOC_TYPE = new Text("record");
+
+  /**
+   * Source of each recorded occurrence document, as returned in the _source of the search hits.
+   */
+  static byte[][] occurrenceSources() {
+    try (InputStream in = Fixtures.class.getResourceAsStream(ES_OCCURRENCES)) {
+      ObjectMapper mapper = new ObjectMapper();
+      List<byte[]> sources = new ArrayList<>();
+      for (JsonNode document : mapper.readTree(in)) {
+        sources.add(mapper.writeValueAsBytes(document));
+      }
+      return sources.toArray(new byte[0][]);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Creates a new search hit from its source.
+   * Hits cache the source once it's parsed, a new one is needed to measure the parsing of each response.
+   */
+  static SearchHit searchHit(int docId, byte[] source) {
+    SearchHit hit = new SearchHit(docId, String.valueOf(docId), DOC_TYPE, Collections.emptyMap());
+    hit.sourceRef(new BytesArray(source));
+    return hit;
+  }
+
+  /**
+   * Recorded occurrences, as they are produced by the download search queries.
+   */
+  static List<Occurrence> occurrences() {
+    byte[][] sources = occurrenceSources();
+    List<Occurrence> occurrences = new ArrayList<>(sources.length);
+    for (int i = 0; i < sources.length; i++) {
+      occurrences.add(EsResponseParser.toOccurrence(searchHit(i, sources[i]), false));
+    }
+    return occurrences;
+  }
+
+  private Fixtures() {
+    //empty constructor
+  }
+}
@@ -0,0 +1,67 @@
+package org.gbif.occurrence.benchmarks;
+
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.occurrence.download.file.OccurrenceMapReader;
+import org.gbif.occurrence.download.file.OccurrenceRowEncoder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Transformation of occurrences into the values written by downloads, each operation transforms all the recorded
+ * occurrences.
+ * The map builders and the row encoders produce the same values, so both are measured side by side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class OccurrenceMapReaderBenchmark {
+
+  private List<Occurrence> occurrences;
+
+  private OccurrenceRowEncoder interpretedEncoder;
+
+  private OccurrenceRowEncoder verbatimEncoder;
+
+  @Setup
+  public void setup() {
+    occurrences = Fixtures.occurrences();
+    interpretedEncoder = OccurrenceRowEncoder.interpreted();
+    verbatimEncoder = OccurrenceRowEncoder.verbatim();
+  }
+
+  @Benchmark
+  public void buildInterpretedOccurrenceMap(Blackhole blackhole) {
+    occurrences.forEach(occurrence -> blackhole.consume(OccurrenceMapReader.buildInterpretedOccurrenceMap(occurrence)));
+  }
+
+  @Benchmark
+  public void buildVerbatimOccurrenceMap(Blackhole blackhole) {
+    occurrences.forEach(occurrence -> blackhole.consume(OccurrenceMapReader.buildVerbatimOccurrenceMap(occurrence)));
+  }
+
+  @Benchmark
+  public void encodeInterpretedRow(Blackhole blackhole) {
+    occurrences.forEach(occurrence -> blackhole.consume(interpretedEncoder.encode(occurrence)));
+  }
+
+  @Benchmark
+  public void encodeVerbatimRow(Blackhole blackhole) {
+    occurrences.forEach(occurrence -> blackhole.consume(verbatimEncoder.encode(occurrence)));
+  }
+}
@@ -0,0 +1,78 @@
+package org.gbif.occurrence.benchmarks;
+
+import org.gbif.api.model.occurrence.predicate.ConjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.DisjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.EqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.InPredicate;
+import org.gbif.api.model.occurrence.predicate.Predicate;
+import org.gbif.api.model.occurrence.predicate.WithinPredicate;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+import org.gbif.occurrence.download.query.EsQueryVisitor;
+import org.gbif.occurrence.download.query.HiveQueryVisitor;
+import org.gbif.occurrence.download.query.QueryBuildingException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Translation of large download predicates into Hive and Elasticsearch queries.
+ * The predicate combines a disjunction and an 'in' predicate of {@link #size} values each with a few simple
+ * predicates, like the downloads created from long lists of taxa and datasets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class QueryVisitorBenchmark {
+
+  private static final String POLYGON = "POLYGON((-130.0 20.0,-60.0 20.0,-60.0 55.0,-130.0 55.0,-130.0 20.0))";
+
+  @Param({"10", "100", "1000"})
+  public int size;
+
+  private Predicate predicate;
+
+  @Setup
+  public void setup() {
+    List<Predicate> taxa = new ArrayList<>(size);
+    List<String> datasets = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      taxa.add(new EqualsPredicate(OccurrenceSearchParameter.TAXON_KEY, String.valueOf(i + 1), false));
+      datasets.add(new UUID(0, i).toString());
+    }
+    predicate = new ConjunctionPredicate(Lists.newArrayList(
+      new DisjunctionPredicate(taxa),
+      new InPredicate(OccurrenceSearchParameter.DATASET_KEY, datasets, false),
+      new EqualsPredicate(OccurrenceSearchParameter.HAS_COORDINATE, "true", false),
+      new GreaterThanOrEqualsPredicate(OccurrenceSearchParameter.YEAR, "1900"),
+      new WithinPredicate(POLYGON)));
+  }
+
+  @Benchmark
+  public String getHiveQuery() throws QueryBuildingException {
+    return new HiveQueryVisitor().getHiveQuery(predicate);
+  }
+
+  @Benchmark
+  public String getEsQuery() throws QueryBuildingException {
+    return new EsQueryVisitor().getQuery(predicate);
+  }
+}
@@ -0,0 +1,55 @@
+package org.gbif.occurrence.benchmarks;
+
+import org.gbif.api.model.occurrence.VerbatimOccurrence;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.occurrence.processor.interpreting.TemporalInterpreter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Interpretation of the recorded date of verbatim records with the most common combinations of date fields.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class TemporalInterpreterBenchmark {
+
+  /**
+   * year, month, day and eventDate of each record, separated by '|'.
+   */
+  @Param({"2005|1|2|2005-01-02", "|||1996-01-26T01:00Z", "1984|3|22|", "|||2004-01-01/2004-12-31", "|||12/02/2016"})
+  public String dates;
+
+  private VerbatimOccurrence verbatim;
+
+  @Setup
+  public void setup() {
+    String[] fields = dates.split("\\|", -1);
+    verbatim = new VerbatimOccurrence();
+    verbatim.setVerbatimField(DwcTerm.year, fields[0]);
+    verbatim.setVerbatimField(DwcTerm.month, fields[1]);
+    verbatim.setVerbatimField(DwcTerm.day, fields[2]);
+    verbatim.setVerbatimField(DwcTerm.eventDate, fields[3]);
+  }
+
+  @Benchmark
+  public void interpretRecordedDate(Blackhole blackhole) {
+    blackhole.consume(TemporalInterpreter.interpretRecordedDate(verbatim));
+  }
+}
@@ -0,0 +1,42 @@
+package org.gbif.occurrence.benchmarks;
+
+import org.gbif.occurrence.processor.interpreting.util.Wgs84Projection;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reprojection of coordinates into WGS84 from datums that don't need a transformation, that need one and that can't
+ * be parsed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class Wgs84ProjectionBenchmark {
+
+  @Param({"WGS84", "EPSG:4326", "NAD27", "AGD66", "unknown"})
+  public String datum;
+
+  public double lat = 40.0;
+
+  public double lon = -73.0;
+
+  @Benchmark
+  public void reproject(Blackhole blackhole) {
+    blackhole.consume(Wgs84Projection.reproject(lat, lon, datum));
+  }
+}
@@ -0,0 +1,284 @@
+package org.gbif.occurrence.common.cache;
+
+import org.gbif.occurrence.common.config.OccurrenceCacheConfiguration;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import javax.annotation.Nullable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read-through in-process cache of occurrence records read by key, bounded in size and time.
+ * A single instance is shared by the services reading from different backends, each one uses its own namespace,
+ * e.g. fragments and verbatim records of the same key are different entries.
+ * The keys of the entries are indexed by the dataset of their record, so the records of a dataset can be dropped
+ * when the dataset changes or is deleted without scanning the cache; entries of unknown dataset are dropped
+ * separately.
+ * Absent records are not cached. Cached values are handed out as they are, so they should be immutable.
+ * Instances are thread-safe.
+ */
+public class OccurrenceCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OccurrenceCache.class);
+
+  // dataset in the index of the records of unknown dataset
+  private static final UUID UNKNOWN_DATASET = new UUID(0L, 0L);
+
+  private final Cache<Key, Entry> cache;
+
+  // keys of the cached records by dataset
+  private final ConcurrentMap<UUID, Set<Key>> datasetIndex = new ConcurrentHashMap<>();
+
+  // incremented on each invalidation, loads started before an invalidation are not cached
+  private final AtomicLong generation = new AtomicLong();
+
+  public OccurrenceCache(OccurrenceCacheConfiguration cfg) {
+    this(cfg.getMaxSize(), cfg.getExpireAfterSeconds(), TimeUnit.SECONDS);
+  }
+
+  /**
+   * @param maxSize     maximum number of cached records, 0 disables the cache
+   * @param expireAfter time a record is cached after being loaded
+   */
+  public OccurrenceCache(long maxSize, long expireAfter, TimeUnit unit) {
+    cache = CacheBuilder.newBuilder()
+      .maximumSize(maxSize)
+      .expireAfterWrite(expireAfter, unit)
+      .recordStats()
+      .removalListener((RemovalListener<Key, Entry>) this::unindex)
+      .build();
+  }
+
+  /**
+   * Gets a record from the cache, loading and caching it if it's not present.
+   *
+   * @param namespace  kind of record, e.g. "fragment"
+   * @param key        occurrence key
+   * @param loader     reads the record from the backend, returns null if the record doesn't exist
+   * @param datasetKey dataset of a loaded record, can return null if unknown
+   */
+  public <V> V get(String namespace, long key, LongFunction<V> loader, Function<? super V, UUID> datasetKey) {
+    Key cacheKey = new Key(namespace, key);
+    Entry entry = cache.getIfPresent(cacheKey);
+    if (entry != null) {
+      @SuppressWarnings("unchecked")
+      V value = (V) entry.value;
+      return value;
+    }
+    long loadGeneration = generation.get();
+    V value = loader.apply(key);
+    if (value != null) {
+      put(cacheKey, value, datasetKey.apply(value));
+      // drops the record if it was loaded while the cache was being invalidated
+      if (generation.get() != loadGeneration) {
+        cache.invalidate(cacheKey);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Gets a record of unknown dataset, see {@link #get(String, long, LongFunction, Function)}.
+   */
+  public <V> V get(String namespace, long key, LongFunction<V> loader) {
+    return get(namespace, key, loader, value -> null);
+  }
+
+  /**
+   * Gets several records from the cache, the records not present are loaded and cached in a single call.
+   *
+   * @param namespace  kind of record, e.g. "occurrence"
+   * @param keys       occurrence keys
+   * @param loader     reads the records of the keys from the backend, absent records are not included in the result
+   * @param datasetKey dataset of a loaded record, can return null if unknown
+   * @return the records found by key
+   */
+  public <V> Map<Long, V> getAll(String namespace, Collection<Long> keys,
+                                 Function<Collection<Long>, Map<Long, V>> loader,
+                                 Function<? super V, UUID> datasetKey) {
+    Map<Long, V> values = new HashMap<>();
+    Set<Long> missing = new LinkedHashSet<>();
+    for (Long key : keys) {
+      Entry entry = cache.getIfPresent(new Key(namespace, key));
+      if (entry != null) {
+        @SuppressWarnings("unchecked")
+        V value = (V) entry.value;
+        values.put(key, value);
+      } else {
+        missing.add(key);
+      }
+    }
+    if (!missing.isEmpty()) {
+      long loadGeneration = generation.get();
+      Map<Long, V> loaded = loader.apply(missing);
+      loaded.forEach((key, value) -> put(new Key(namespace, key), value, datasetKey.apply(value)));
+      if (generation.get() != loadGeneration) {
+        loaded.keySet().forEach(key -> cache.invalidate(new Key(namespace, key)));
+      }
+      values.putAll(loaded);
+    }
+    return values;
+  }
+
+  /**
+   * Drops the records of a dataset.
+   */
+  public void invalidateDataset(UUID datasetKey) {
+    generation.incrementAndGet();
+    LOG.debug("Dataset {} invalidated, {} records dropped", datasetKey, invalidateIndexed(datasetKey));
+  }
+
+  /**
+   * Drops the records of unknown dataset, e.g. fragments.
+   */
+  public void invalidateUnknownDataset() {
+    generation.incrementAndGet();
+    LOG.debug("Records of unknown dataset invalidated, {} records dropped", invalidateIndexed(UNKNOWN_DATASET));
+  }
+
+  /**
+   * Drops all the records.
+   */
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  /**
+   * Indexes the key before caching the record, so the key is unindexed if the entry is evicted straight away.
+   */
+  private void put(Key key, Object value, @Nullable UUID datasetKey) {
+    UUID indexKey = datasetKey == null ? UNKNOWN_DATASET : datasetKey;
+    datasetIndex.computeIfAbsent(indexKey, k -> ConcurrentHashMap.newKeySet()).add(key);
+    cache.put(key, new Entry(value, indexKey));
+  }
+
+  /**
+   * Removes the key of an entry dropped from the cache from the index, unless it was replaced by an entry of the same
+   * dataset.
+   */
+  private void unindex(RemovalNotification<Key, Entry> notification) {
+    Key key = notification.getKey();
+    UUID indexKey = notification.getValue().datasetKey;
+    if (notification.getCause() == RemovalCause.REPLACED) {
+      Entry current = cache.asMap().get(key);
+      if (current != null && current.datasetKey.equals(indexKey)) {
+        return;
+      }
+    }
+    datasetIndex.computeIfPresent(indexKey, (k, keys) -> {
+      keys.remove(key);
+      return keys.isEmpty() ? null : keys;
+    });
+  }
+
+  /**
+   * Drops the indexed records of a dataset, returns the number of keys dropped.
+   */
+  private int invalidateIndexed(UUID indexKey) {
+    Set<Key> keys = datasetIndex.remove(indexKey);
+    if (keys == null) {
+      return 0;
+    }
+    cache.invalidateAll(keys);
+    return keys.size();
+  }
+
+  /**
+   * Number of datasets in the index, including the unknown dataset.
+   */
+  int indexedDatasets() {
+    return datasetIndex.size();
+  }
+
+  /**
+   * Approximate number of cached records.
+   */
+  public long size() {
+    return cache.size();
+  }
+
+  public long hitCount() {
+    return cache.stats().hitCount();
+  }
+
+  public long missCount() {
+    return cache.stats().missCount();
+  }
+
+  /**
+   * Ratio of reads served from the cache, 1.0 if there were no reads.
+   */
+  public double hitRate() {
+    return cache.stats().hitRate();
+  }
+
+  public long evictionCount() {
+    return cache.stats().evictionCount();
+  }
+
+  @Override
+  public String toString() {
+    CacheStats stats = cache.stats();
+    return "OccurrenceCache[size=" + cache.size() + ", hits=" + stats.hitCount() + ", misses=" + stats.missCount()
+           + ", evictions=" + stats.evictionCount() + "]";
+  }
+
+  private static class Key {
+
+    private final String namespace;
+    private final long key;
+
+    private Key(String namespace, long key) {
+      this.namespace = namespace;
+      this.key = key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return key == other.key && namespace.equals(other.namespace);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(namespace, key);
+    }
+  }
+
+  private static class Entry {
+
+    private final Object value;
+    private final UUID datasetKey;
+
+    private Entry(Object value, UUID datasetKey) {
+      this.value = value;
+      this.datasetKey = datasetKey;
+    }
+  }
+}
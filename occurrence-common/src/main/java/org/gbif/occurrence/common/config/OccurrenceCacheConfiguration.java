@@ -0,0 +1,52 @@
+package org.gbif.occurrence.common.config;
+
+import java.util.StringJoiner;
+import javax.validation.constraints.Min;
+
+import com.beust.jcommander.Parameter;
+
+/**
+ * Configs of the in-process cache of occurrence records read by key.
+ * The cache is disabled by default: cached records can be stale for up to expireAfterSeconds, or until the dataset
+ * changes if the cache is invalidated by dataset changes.
+ */
+public class OccurrenceCacheConfiguration {
+
+  /**
+   * Maximum number of records kept in the cache, 0 disables the cache.
+   */
+  @Parameter(names = "--cache-max-size")
+  @Min(0)
+  public long maxSize = 0;
+
+  /**
+   * Seconds a record is kept in the cache after being read from the backend.
+   */
+  @Parameter(names = "--cache-expire-after-seconds")
+  @Min(1)
+  public long expireAfterSeconds = 300;
+
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  public void setMaxSize(long maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public long getExpireAfterSeconds() {
+    return expireAfterSeconds;
+  }
+
+  public void setExpireAfterSeconds(long expireAfterSeconds) {
+    this.expireAfterSeconds = expireAfterSeconds;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", OccurrenceCacheConfiguration.class.getSimpleName() + "[", "]")
+      .add("maxSize=" + maxSize)
+      .add("expireAfterSeconds=" + expireAfterSeconds)
+      .toString();
+  }
+}
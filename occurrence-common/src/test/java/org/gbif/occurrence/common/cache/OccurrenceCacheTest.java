@@ -0,0 +1,141 @@
+package org.gbif.occurrence.common.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class OccurrenceCacheTest {
+
+  private static final UUID DATASET_1 = UUID.fromString("7c8c5e4a-6c3a-4e1e-9b1a-2f4c2b6c1d01");
+  private static final UUID DATASET_2 = UUID.fromString("7c8c5e4a-6c3a-4e1e-9b1a-2f4c2b6c1d02");
+
+  @Test
+  public void testReadThrough() {
+    OccurrenceCache cache = new OccurrenceCache(100, 1, TimeUnit.HOURS);
+    AtomicInteger loads = new AtomicInteger();
+
+    assertEquals("record 1", cache.get("verbatim", 1L, key -> {
+      loads.incrementAndGet();
+      return "record " + key;
+    }));
+    assertEquals("record 1", cache.get("verbatim", 1L, key -> {
+      loads.incrementAndGet();
+      return "record " + key;
+    }));
+    assertEquals(1, loads.get());
+    assertEquals(1, cache.hitCount());
+    assertEquals(1, cache.missCount());
+    assertEquals(0.5, cache.hitRate(), 0.0001);
+
+    // namespaces don't share entries
+    assertEquals("fragment 1", cache.get("fragment", 1L, key -> "fragment " + key));
+  }
+
+  @Test
+  public void testGetAll() {
+    OccurrenceCache cache = new OccurrenceCache(100, 1, TimeUnit.HOURS);
+    cache.get("occurrence", 1L, key -> "record " + key);
+
+    List<Collection<Long>> loads = new ArrayList<>();
+    Map<Long, String> records = cache.getAll("occurrence", Arrays.asList(1L, 2L, 3L, 2L), keys -> {
+      loads.add(new ArrayList<>(keys));
+      // key 3 doesn't exist
+      return Collections.singletonMap(2L, "record 2");
+    }, value -> DATASET_1);
+
+    assertEquals(Collections.singletonList(Arrays.asList(2L, 3L)), loads);
+    assertEquals(2, records.size());
+    assertEquals("record 1", records.get(1L));
+    assertEquals("record 2", records.get(2L));
+    assertEquals("record 2", cache.get("occurrence", 2L, key -> "reloaded " + key));
+  }
+
+  @Test
+  public void testAbsentNotCached() {
+    OccurrenceCache cache = new OccurrenceCache(100, 1, TimeUnit.HOURS);
+    assertNull(cache.get("verbatim", 1L, key -> null));
+    assertEquals("record 1", cache.get("verbatim", 1L, key -> "record " + key));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testInvalidateDataset() {
+    OccurrenceCache cache = new OccurrenceCache(100, 1, TimeUnit.HOURS);
+    cache.get("verbatim", 1L, key -> "record " + key, value -> DATASET_1);
+    cache.get("verbatim", 2L, key -> "record " + key, value -> DATASET_2);
+    cache.get("fragment", 1L, key -> "fragment " + key);
+    assertEquals(3, cache.size());
+
+    // the fragment has no dataset, so it's kept
+    cache.invalidateDataset(DATASET_1);
+    assertEquals(2, cache.size());
+    assertEquals("record 2", cache.get("verbatim", 2L, key -> "reloaded " + key));
+    assertEquals("fragment 1", cache.get("fragment", 1L, key -> "reloaded " + key));
+    assertEquals("reloaded 1", cache.get("verbatim", 1L, key -> "reloaded " + key));
+
+    cache.invalidateAll();
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.indexedDatasets());
+  }
+
+  @Test
+  public void testInvalidateUnknownDataset() {
+    OccurrenceCache cache = new OccurrenceCache(100, 1, TimeUnit.HOURS);
+    cache.get("verbatim", 1L, key -> "record " + key, value -> DATASET_1);
+    cache.get("fragment", 1L, key -> "fragment " + key);
+    cache.get("fragment", 2L, key -> "fragment " + key);
+
+    cache.invalidateUnknownDataset();
+    assertEquals(1, cache.size());
+    assertEquals("record 1", cache.get("verbatim", 1L, key -> "reloaded " + key));
+    assertEquals("reloaded 2", cache.get("fragment", 2L, key -> "reloaded " + key));
+  }
+
+  @Test
+  public void testIndexFollowsEntries() {
+    OccurrenceCache cache = new OccurrenceCache(2, 1, TimeUnit.HOURS);
+    cache.get("verbatim", 1L, key -> "record " + key, value -> DATASET_1);
+    cache.get("verbatim", 2L, key -> "record " + key, value -> DATASET_1);
+    assertEquals(1, cache.indexedDatasets());
+
+    // evicted entries leave the index
+    cache.get("verbatim", 3L, key -> "record " + key, value -> DATASET_2);
+    cache.get("verbatim", 4L, key -> "record " + key, value -> DATASET_2);
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.indexedDatasets());
+
+    cache.invalidateDataset(DATASET_2);
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.indexedDatasets());
+  }
+
+  @Test
+  public void testLoadDuringInvalidationNotCached() {
+    OccurrenceCache cache = new OccurrenceCache(100, 1, TimeUnit.HOURS);
+    cache.get("verbatim", 1L, key -> {
+      // the record read could be stale
+      cache.invalidateDataset(DATASET_1);
+      return "record " + key;
+    }, value -> DATASET_1);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testMaxSize() {
+    OccurrenceCache cache = new OccurrenceCache(0, 1, TimeUnit.HOURS);
+    cache.get("verbatim", 1L, key -> "record " + key);
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.indexedDatasets());
+  }
+}
@@ -145,6 +145,14 @@ public class WorkflowConfiguration {
     return Integer.parseInt(settings.getProperty(key));
   }
 
+  /**
+   * Gets an integer setting, falling back to defaultValue if the setting is not present.
+   */
+  public int getIntSetting(String key, int defaultValue) {
+    String value = settings.getProperty(key);
+    return value == null || value.trim().isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+  }
+
   /**
    *
    * @return HDFS Hadoop configuration
@@ -3,6 +3,8 @@ package org.gbif.occurrence.download.file;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.gbif.wrangler.lock.Lock;
 
+import javax.annotation.Nullable;
+
 import com.google.common.base.Objects;
 import com.google.common.primitives.Ints;
 
@@ -10,17 +12,21 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 /**
  * Holds the job information about the work that each file writer job/thread has to do.
+ * Each work unit covers a range of occurrence keys (gbifId), the lower bound is inclusive and the upper bound exclusive,
+ * a null bound means that the range is open on that side.
  * Examples of instances of this class are:
- * - query:*:* from: 200, to: 500, dataFile:occurrence.txt3.
- * - query:collector_name:juan from: 1000, to: 5500, dataFile:occurrence.txt99.
+ * - query:*:* fromKey: 200, toKey: 500, dataFile:occurrence.txt3.
+ * - query:collector_name:juan fromKey: 1000, toKey: null, dataFile:occurrence.txt99.
  */
 public class DownloadFileWork implements Comparable<DownloadFileWork> {
 
   private final String query;
 
-  private final int from;
+  private final Long fromKey;
+
+  private final Long toKey;
 
-  private final int to;
+  private final int pageSize;
 
   private final int jobId;
 
@@ -36,12 +42,15 @@ public class DownloadFileWork implements Comparable<DownloadFileWork> {
   /**
    * Default constructor.
    */
-  public DownloadFileWork(int from, int to, String baseDataFileName, int jobId, String query, Lock lock,
-                          RestHighLevelClient esClient, String esIndex) {
-    checkArgument(to >= from, "'to' parameter should be greater than the 'from' argument");
+  public DownloadFileWork(@Nullable Long fromKey, @Nullable Long toKey, int pageSize, String baseDataFileName, int jobId,
+                          String query, Lock lock, RestHighLevelClient esClient, String esIndex) {
+    checkArgument(fromKey == null || toKey == null || toKey >= fromKey,
+                  "'toKey' parameter should be greater than the 'fromKey' argument");
+    checkArgument(pageSize > 0, "'pageSize' parameter should be greater than 0");
     this.query = query;
-    this.from = from;
-    this.to = to;
+    this.fromKey = fromKey;
+    this.toKey = toKey;
+    this.pageSize = pageSize;
     this.baseDataFileName = baseDataFileName;
     this.jobId = jobId;
     this.lock = lock;
@@ -50,11 +59,11 @@ public class DownloadFileWork implements Comparable<DownloadFileWork> {
   }
 
   /**
-   * Instance are compared by its job.from field.
+   * Instance are compared by its jobId field, jobs are created following the descending order of the key ranges.
    */
   @Override
   public int compareTo(DownloadFileWork that) {
-    return Ints.compare(getFrom(), that.getFrom());
+    return Ints.compare(getJobId(), that.getJobId());
   }
 
   /**
@@ -72,12 +81,13 @@ public class DownloadFileWork implements Comparable<DownloadFileWork> {
   }
 
   /**
-   * Offset in the complete result set returned by the query.
+   * Lower bound (inclusive) of the occurrence keys processed by this job.
    *
-   * @return the from
+   * @return the fromKey, null if the range has no lower bound
    */
-  public int getFrom() {
-    return from;
+  @Nullable
+  public Long getFromKey() {
+    return fromKey;
   }
 
   /**
@@ -90,12 +100,22 @@ public class DownloadFileWork implements Comparable<DownloadFileWork> {
   }
 
   /**
-   * Number of the last result to be processed.
+   * Upper bound (exclusive) of the occurrence keys processed by this job.
+   *
+   * @return the toKey, null if the range has no upper bound
+   */
+  @Nullable
+  public Long getToKey() {
+    return toKey;
+  }
+
+  /**
+   * Number of records fetched in each search request.
    *
-   * @return the to
+   * @return the page size
    */
-  public int getTo() {
-    return to;
+  public int getPageSize() {
+    return pageSize;
   }
 
   /**
@@ -129,7 +149,7 @@ public class DownloadFileWork implements Comparable<DownloadFileWork> {
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(baseDataFileName, jobId, query, from, to);
+    return Objects.hashCode(baseDataFileName, jobId, query, fromKey, toKey, pageSize);
   }
 
   @Override
@@ -145,15 +165,17 @@ public class DownloadFileWork implements Comparable<DownloadFileWork> {
     return Objects.equal(this.baseDataFileName, that.baseDataFileName)
            && Objects.equal(this.jobId, that.jobId)
            && Objects.equal(this.query, that.query)
-           && Objects.equal(this.from, that.from)
-           && Objects.equal(this.to, that.to);
+           && Objects.equal(this.fromKey, that.fromKey)
+           && Objects.equal(this.toKey, that.toKey)
+           && Objects.equal(this.pageSize, that.pageSize);
   }
 
   @Override
   public String toString() {
     return Objects.toStringHelper(this)
-      .add("from", from)
-      .add("to", to)
+      .add("fromKey", fromKey)
+      .add("toKey", toKey)
+      .add("pageSize", pageSize)
       .add("baseDataFileName", baseDataFileName)
       .add("jobId", jobId)
       .add("query", query)
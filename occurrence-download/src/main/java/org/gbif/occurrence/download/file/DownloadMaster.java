@@ -11,6 +11,7 @@ import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.gbif.api.model.occurrence.DownloadFormat;
 import org.gbif.occurrence.download.conf.WorkflowConfiguration;
+import org.gbif.occurrence.download.file.common.KeyRangeSplitter;
 import org.gbif.occurrence.download.file.dwca.DownloadDwcaActor;
 import org.gbif.occurrence.download.file.simplecsv.SimpleCsvDownloadActor;
 import org.gbif.occurrence.download.file.specieslist.SpeciesListDownloadActor;
@@ -137,17 +138,25 @@ public class DownloadMaster extends UntypedActor {
     return lockFactory.makeLock(conf.lockName);
   }
 
+  /**
+   * Creates the search query for the download, a match all query is used if the query is empty.
+   */
+  private static SearchSourceBuilder searchSource(String query) {
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    if (!Strings.isNullOrEmpty(query)) {
+      searchSourceBuilder.query(QueryBuilders.wrapperQuery(query));
+    } else {
+      searchSourceBuilder.query(QueryBuilders.matchAllQuery());
+    }
+    return searchSourceBuilder;
+  }
+
   /**
    * Executes a search and get number of records.
    */
   private Long getSearchCount(String query) {
     try {
-      SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder().size(0);
-      if (!Strings.isNullOrEmpty(query)) {
-        searchSourceBuilder.query(QueryBuilders.wrapperQuery(query));
-      } else {
-        searchSourceBuilder.query(QueryBuilders.matchAllQuery());
-      }
+      SearchSourceBuilder searchSourceBuilder = searchSource(query).size(0);
       SearchResponse searchResponse = esClient.search(new SearchRequest().indices(esIndex).source(searchSourceBuilder), RequestOptions.DEFAULT);
       return searchResponse.getHits().getTotalHits();
     } catch (Exception e) {
@@ -157,11 +166,10 @@ public class DownloadMaster extends UntypedActor {
   }
 
   /**
-   * Run the list of jobs. The amount of records is assigned evenly among the worker threads.
-   * If the amount of records is not divisible by the calcNrOfWorkers the remaining records are assigned "evenly" among
-   * the first jobs.
+   * Run the list of jobs. The records are split into disjoint ranges of occurrence keys, each range holds
+   * approximately the same amount of records and is processed independently by a worker thread.
    */
-  private void runActors() {
+  private void runActors() throws IOException {
     StopWatch stopwatch = new StopWatch();
     stopwatch.start();
     LOG.info("Acquiring Search Index Read Lock");
@@ -181,34 +189,22 @@ public class DownloadMaster extends UntypedActor {
         conf.minNrOfRecords >= nrOfRecords ? 1 : Math.min(conf.nrOfWorkers, nrOfRecords / conf.minNrOfRecords);
 
       ActorRef workerRouter =
-        getContext().actorOf(new Props(new DownloadActorsFactory(jobConfiguration.getDownloadFormat())).withRouter(new RoundRobinRouter(
+        getContext().actorOf(new Props(new DownloadActorsFactory(jobConfiguration.getDownloadFormat(),
+                                                           conf.speciesListMemoryBudget)).withRouter(new RoundRobinRouter(
           calcNrOfWorkers)), "downloadWorkerRouter");
 
-      // Number of records that will be assigned to each job
-      int sizeOfChunks = Math.max(nrOfRecords / calcNrOfWorkers, 1);
-
-      // Remaining jobs, that are not assigned to a job yet
-      int remaining = nrOfRecords - (sizeOfChunks * calcNrOfWorkers);
-
-      // How many of the remaining jobs will be assigned to one job
-      int remainingPerJob = remaining > 0 ? Math.max(remaining / calcNrOfWorkers, 1) : 0;
-      int to = 0;
-      int additionalJobsCnt = 0;
+      Long[] splitKeys = new KeyRangeSplitter(esClient, esIndex).split(jobConfiguration.getSearchQuery(),
+                                                                        calcNrOfWorkers,
+                                                                        recordCount,
+                                                                        nrOfRecords);
       for (int i = 0; i < calcNrOfWorkers; i++) {
-        int from = i == 0 ? 0 : to;
-        to = from + sizeOfChunks + remainingPerJob;
-
-        // Calculates the remaining jobs that will be assigned to the new FileJob.
-        additionalJobsCnt += remainingPerJob;
-        if (remainingPerJob != 0 && additionalJobsCnt > remaining) {
-          remainingPerJob = additionalJobsCnt - remaining;
-        } else if (additionalJobsCnt == remaining) {
-          remainingPerJob = 0;
-        }
         // Awaits for an available thread
         Lock lock = getLock();
-        DownloadFileWork work = new DownloadFileWork(from,
-                                                     to,
+        // records are written in descending order of key, the first job takes the greatest keys
+        int range = calcNrOfWorkers - 1 - i;
+        DownloadFileWork work = new DownloadFileWork(splitKeys[range],
+                                                     splitKeys[range + 1],
+                                                     conf.pageSize,
                                                      jobConfiguration.getSourceDir()
                                                      + Path.SEPARATOR
                                                      + jobConfiguration.getDownloadKey()
@@ -248,9 +244,11 @@ public class DownloadMaster extends UntypedActor {
      */
     private static final long serialVersionUID = 1L;
     private final DownloadFormat downloadFormat;
+    private final long speciesListMemoryBudget;
 
-    DownloadActorsFactory(DownloadFormat downloadFormat) {
+    DownloadActorsFactory(DownloadFormat downloadFormat, long speciesListMemoryBudget) {
       this.downloadFormat = downloadFormat;
+      this.speciesListMemoryBudget = speciesListMemoryBudget;
     }
 
     @Override
@@ -263,7 +261,7 @@ public class DownloadMaster extends UntypedActor {
           return new DownloadDwcaActor();
 
         case SPECIES_LIST:
-          return new SpeciesListDownloadActor();
+          return new SpeciesListDownloadActor(speciesListMemoryBudget);
 
         default:
           throw new IllegalStateException("Download format '"+downloadFormat+"' unknown or not supported for small downloads.");
@@ -290,6 +288,12 @@ public class DownloadMaster extends UntypedActor {
 
     // Occurrence download lock/counter name
     private final String lockName;
+
+    // Number of records fetched by each search request of a job
+    private final int pageSize;
+
+    // Memory in bytes that the species of each job can use before being spilled to disk
+    private final long speciesListMemoryBudget;
   }
 
 }
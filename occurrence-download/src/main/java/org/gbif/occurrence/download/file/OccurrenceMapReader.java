@@ -9,8 +9,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.gbif.api.model.occurrence.AgentIdentifier;
@@ -62,126 +65,182 @@ public class OccurrenceMapReader {
 
 
   public static Map<String, String> buildInterpretedOccurrenceMap(Occurrence occurrence) {
-
     Map<String,String> interpretedOccurrence = new HashMap<>();
+    populateInterpretedValues(occurrence, interpretedOccurrence::put);
+    return interpretedOccurrence;
+  }
+
+  /**
+   * Passes each interpreted value to the sink as (simpleName, value), later values of the same simpleName override
+   * previous ones.
+   */
+  static void populateInterpretedValues(Occurrence occurrence, BiConsumer<String, String> interpretedOccurrence) {
+    populateInterpretedValues(occurrence, name -> true, interpretedOccurrence);
+  }
+
+  /**
+   * Like {@link #populateInterpretedValues(Occurrence, BiConsumer)}, but only the values of the wanted simpleNames are
+   * computed and passed to the sink.
+   */
+  static void populateInterpretedValues(Occurrence occurrence, Predicate<String> wanted,
+                                        BiConsumer<String, String> interpretedOccurrence) {
 
     //Basic record terms
-    interpretedOccurrence.put(GbifTerm.gbifID.simpleName(), getSimpleValue(occurrence.getKey()));
-    interpretedOccurrence.put(DwcTerm.basisOfRecord.simpleName(), getSimpleValue(occurrence.getBasisOfRecord()));
-    interpretedOccurrence.put(DwcTerm.establishmentMeans.simpleName(), getSimpleValue(occurrence.getEstablishmentMeans()));
-    interpretedOccurrence.put(DwcTerm.individualCount.simpleName(), getSimpleValue(occurrence.getIndividualCount()));
-    interpretedOccurrence.put(DwcTerm.lifeStage.simpleName(), getSimpleValue(occurrence.getLifeStage()));
-    interpretedOccurrence.put(DcTerm.references.simpleName(), getSimpleValue(occurrence.getReferences()));
-    interpretedOccurrence.put(DwcTerm.sex.simpleName(), getSimpleValue(occurrence.getSex()));
-    interpretedOccurrence.put(DwcTerm.typeStatus.simpleName(), getSimpleValue(occurrence.getTypeStatus()));
-    interpretedOccurrence.put(GbifTerm.typifiedName.simpleName(), occurrence.getTypifiedName());
-    interpretedOccurrence.put(GbifTerm.lastParsed.simpleName(), getSimpleValue(occurrence.getLastParsed()));
-    interpretedOccurrence.put(GbifTerm.lastInterpreted.simpleName(), getSimpleValue(occurrence.getLastInterpreted()));
-    interpretedOccurrence.put(DwcTerm.occurrenceStatus.simpleName(), getSimpleValue(occurrence.getOccurrenceStatus()));
-
-    Optional.ofNullable(occurrence.getVerbatimField(DcTerm.identifier))
-      .ifPresent(x -> interpretedOccurrence.put(DcTerm.identifier.simpleName(), x));
+    accept(wanted, interpretedOccurrence, GbifTerm.gbifID, occurrence.getKey(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.basisOfRecord, occurrence.getBasisOfRecord(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.establishmentMeans, occurrence.getEstablishmentMeans(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.individualCount, occurrence.getIndividualCount(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.lifeStage, occurrence.getLifeStage(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DcTerm.references, occurrence.getReferences(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.sex, occurrence.getSex(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.typeStatus, occurrence.getTypeStatus(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, GbifTerm.typifiedName, occurrence.getTypifiedName());
+    accept(wanted, interpretedOccurrence, GbifTerm.lastParsed, occurrence.getLastParsed(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, GbifTerm.lastInterpreted, occurrence.getLastInterpreted(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.occurrenceStatus, occurrence.getOccurrenceStatus(), OccurrenceMapReader::getSimpleValue);
+
+    if (wanted.test(DcTerm.identifier.simpleName())) {
+      Optional.ofNullable(occurrence.getVerbatimField(DcTerm.identifier))
+        .ifPresent(x -> interpretedOccurrence.accept(DcTerm.identifier.simpleName(), x));
+    }
 
     //Dataset Metadata
-    interpretedOccurrence.put(GbifInternalTerm.crawlId.simpleName(), getSimpleValue(occurrence.getCrawlId()));
-    interpretedOccurrence.put(GbifTerm.datasetKey.simpleName(), getSimpleValue(occurrence.getDatasetKey()));
-    interpretedOccurrence.put(GbifTerm.publishingCountry.simpleName(), getCountryCode(occurrence.getPublishingCountry()));
-    interpretedOccurrence.put(GbifInternalTerm.installationKey.simpleName(), getSimpleValue(occurrence.getInstallationKey()));
-    interpretedOccurrence.put(DcTerm.license.simpleName(), getSimpleValue(occurrence.getLicense()));
-    interpretedOccurrence.put(GbifTerm.protocol.simpleName(), getSimpleValue(occurrence.getProtocol()));
-    interpretedOccurrence.put(GbifInternalTerm.networkKey.simpleName(), joinUUIDs(occurrence.getNetworkKeys()));
-    interpretedOccurrence.put(GbifInternalTerm.publishingOrgKey.simpleName(), getSimpleValue(occurrence.getPublishingOrgKey()));
-    interpretedOccurrence.put(GbifTerm.lastCrawled.simpleName(), getSimpleValue(occurrence.getLastCrawled()));
+    accept(wanted, interpretedOccurrence, GbifInternalTerm.crawlId, occurrence.getCrawlId(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, GbifTerm.datasetKey, occurrence.getDatasetKey(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, GbifTerm.publishingCountry, occurrence.getPublishingCountry(), OccurrenceMapReader::getCountryCode);
+    accept(wanted, interpretedOccurrence, GbifInternalTerm.installationKey, occurrence.getInstallationKey(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DcTerm.license, occurrence.getLicense(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, GbifTerm.protocol, occurrence.getProtocol(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, GbifInternalTerm.networkKey, occurrence.getNetworkKeys(), OccurrenceMapReader::joinUUIDs);
+    accept(wanted, interpretedOccurrence, GbifInternalTerm.publishingOrgKey, occurrence.getPublishingOrgKey(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, GbifTerm.lastCrawled, occurrence.getLastCrawled(), OccurrenceMapReader::getSimpleValue);
 
     //Temporal fields
-    interpretedOccurrence.put(DwcTerm.dateIdentified.simpleName(), getLocalDateValue(occurrence.getDateIdentified()));
-    interpretedOccurrence.put(DcTerm.modified.simpleName(),getSimpleValue(occurrence.getModified()));
-    interpretedOccurrence.put(DwcTerm.day.simpleName(), getSimpleValue(occurrence.getDay()));
-    interpretedOccurrence.put(DwcTerm.month.simpleName(), getSimpleValue(occurrence.getMonth()));
-    interpretedOccurrence.put(DwcTerm.year.simpleName(), getSimpleValue(occurrence.getYear()));
-    interpretedOccurrence.put(DwcTerm.eventDate.simpleName(), getLocalDateValue(occurrence.getEventDate()));
+    accept(wanted, interpretedOccurrence, DwcTerm.dateIdentified, occurrence.getDateIdentified(), OccurrenceMapReader::getLocalDateValue);
+    accept(wanted, interpretedOccurrence, DcTerm.modified, occurrence.getModified(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.day, occurrence.getDay(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.month, occurrence.getMonth(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.year, occurrence.getYear(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.eventDate, occurrence.getEventDate(), OccurrenceMapReader::getLocalDateValue);
 
     // taxonomy terms
-    interpretedOccurrence.put(GbifTerm.taxonKey.simpleName(), getSimpleValue(occurrence.getTaxonKey()));
-    interpretedOccurrence.put(GbifTerm.acceptedTaxonKey.simpleName(), getSimpleValue(occurrence.getAcceptedTaxonKey()));
-    interpretedOccurrence.put(DwcTerm.scientificName.simpleName(), occurrence.getScientificName());
-    interpretedOccurrence.put(GbifTerm.acceptedScientificName.simpleName(), occurrence.getAcceptedScientificName());
-    interpretedOccurrence.put(GbifTerm.verbatimScientificName.simpleName(), occurrence.getVerbatimScientificName());
-    interpretedOccurrence.put(GbifTerm.genericName.simpleName(), occurrence.getGenericName());
-    interpretedOccurrence.put(GbifTerm.subgenusKey.simpleName(), getSimpleValue(occurrence.getSubgenusKey()));
-    interpretedOccurrence.put(DwcTerm.specificEpithet.simpleName(), occurrence.getSpecificEpithet());
-    interpretedOccurrence.put(DwcTerm.infraspecificEpithet.simpleName(), occurrence.getInfraspecificEpithet());
-    interpretedOccurrence.put(DwcTerm.taxonRank.simpleName(), getSimpleValue(occurrence.getTaxonRank()));
-    interpretedOccurrence.put(DwcTerm.taxonomicStatus.simpleName(), getSimpleValue(occurrence.getTaxonomicStatus()));
-    interpretedOccurrence.put(GbifTerm.genericName.simpleName(), getSimpleValue(occurrence.getGenericName()));
+    accept(wanted, interpretedOccurrence, GbifTerm.taxonKey, occurrence.getTaxonKey(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, GbifTerm.acceptedTaxonKey, occurrence.getAcceptedTaxonKey(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.scientificName, occurrence.getScientificName());
+    accept(wanted, interpretedOccurrence, GbifTerm.acceptedScientificName, occurrence.getAcceptedScientificName());
+    accept(wanted, interpretedOccurrence, GbifTerm.verbatimScientificName, occurrence.getVerbatimScientificName());
+    accept(wanted, interpretedOccurrence, GbifTerm.genericName, occurrence.getGenericName());
+    accept(wanted, interpretedOccurrence, GbifTerm.subgenusKey, occurrence.getSubgenusKey(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.specificEpithet, occurrence.getSpecificEpithet());
+    accept(wanted, interpretedOccurrence, DwcTerm.infraspecificEpithet, occurrence.getInfraspecificEpithet());
+    accept(wanted, interpretedOccurrence, DwcTerm.taxonRank, occurrence.getTaxonRank(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.taxonomicStatus, occurrence.getTaxonomicStatus(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, GbifTerm.genericName, occurrence.getGenericName(), OccurrenceMapReader::getSimpleValue);
     Rank.DWC_RANKS.forEach(rank -> {
-                              Optional.ofNullable(ClassificationUtils.getHigherRankKey(occurrence, rank))
-                                .ifPresent(rankKey -> interpretedOccurrence.put(rank2KeyTerm.get(rank).simpleName(), rankKey.toString()));
-                              Optional.ofNullable(ClassificationUtils.getHigherRank(occurrence, rank))
-                                .ifPresent(rankClassification -> interpretedOccurrence.put(rank2Term.get(rank).simpleName(), rankClassification));
+                              if (wanted.test(rank2KeyTerm.get(rank).simpleName())) {
+                                Optional.ofNullable(ClassificationUtils.getHigherRankKey(occurrence, rank))
+                                  .ifPresent(rankKey -> interpretedOccurrence.accept(rank2KeyTerm.get(rank).simpleName(), rankKey.toString()));
+                              }
+                              if (wanted.test(rank2Term.get(rank).simpleName())) {
+                                Optional.ofNullable(ClassificationUtils.getHigherRank(occurrence, rank))
+                                  .ifPresent(rankClassification -> interpretedOccurrence.accept(rank2Term.get(rank).simpleName(), rankClassification));
+                              }
                            });
 
     //location fields
-    interpretedOccurrence.put(DwcTerm.countryCode.simpleName(), getCountryCode(occurrence.getCountry()));
-    interpretedOccurrence.put(DwcTerm.continent.simpleName(), getSimpleValue(occurrence.getContinent()));
-    interpretedOccurrence.put(DwcTerm.decimalLatitude.simpleName(), getSimpleValue(occurrence.getDecimalLatitude()));
-    interpretedOccurrence.put(DwcTerm.decimalLongitude.simpleName(), getSimpleValue(occurrence.getDecimalLongitude()));
-    interpretedOccurrence.put(DwcTerm.coordinatePrecision.simpleName(), getSimpleValue(occurrence.getCoordinatePrecision()));
-    interpretedOccurrence.put(DwcTerm.coordinateUncertaintyInMeters.simpleName(), getSimpleValue(occurrence.getCoordinateUncertaintyInMeters()));
-    interpretedOccurrence.put(GbifTerm.depth.simpleName(), getSimpleValue(occurrence.getDepth()));
-    interpretedOccurrence.put(GbifTerm.depthAccuracy.simpleName(), getSimpleValue(occurrence.getDepthAccuracy()));
-    interpretedOccurrence.put(GbifTerm.elevation.simpleName(), getSimpleValue(occurrence.getElevation()));
-    interpretedOccurrence.put(GbifTerm.elevationAccuracy.simpleName(), getSimpleValue(occurrence.getElevationAccuracy()));
-    interpretedOccurrence.put(DwcTerm.stateProvince.simpleName(), occurrence.getStateProvince());
-    interpretedOccurrence.put(DwcTerm.waterBody.simpleName(), occurrence.getWaterBody());
-    interpretedOccurrence.put(GbifTerm.hasGeospatialIssues.simpleName(), Boolean.toString(occurrence.hasSpatialIssue()));
-    interpretedOccurrence.put(GbifTerm.hasCoordinate.simpleName(), Boolean.toString(occurrence.getDecimalLatitude() != null && occurrence.getDecimalLongitude() != null));
-    interpretedOccurrence.put(GbifTerm.coordinateAccuracy.simpleName(), getSimpleValue(occurrence.getCoordinateAccuracy()));
-    getRepatriated(occurrence).ifPresent(repatriated -> interpretedOccurrence.put(GbifTerm.repatriated.simpleName(), repatriated));
-    interpretedOccurrence.put(DwcTerm.geodeticDatum.simpleName(), occurrence.getGeodeticDatum());
-    putGadmFeature(interpretedOccurrence, GadmTerm.level0Name, GadmTerm.level0Gid, occurrence.getGadm().getLevel0());
-    putGadmFeature(interpretedOccurrence, GadmTerm.level1Name, GadmTerm.level1Gid, occurrence.getGadm().getLevel1());
-    putGadmFeature(interpretedOccurrence, GadmTerm.level2Name, GadmTerm.level2Gid, occurrence.getGadm().getLevel2());
-    putGadmFeature(interpretedOccurrence, GadmTerm.level3Name, GadmTerm.level3Gid, occurrence.getGadm().getLevel3());
-
-    extractOccurrenceIssues(occurrence)
-      .ifPresent(issues -> interpretedOccurrence.put(GbifTerm.issue.simpleName(), issues));
-    extractMediaTypes(occurrence)
-      .ifPresent(mediaTypes -> interpretedOccurrence.put(GbifTerm.mediaType.simpleName(), mediaTypes));
-    extractAgentIds(occurrence.getRecordedByIds())
-      .ifPresent(uids -> interpretedOccurrence.put(GbifTerm.recordedByID.simpleName(), uids));
-    extractAgentIds(occurrence.getIdentifiedByIds())
-      .ifPresent(uids -> interpretedOccurrence.put(GbifTerm.identifiedByID.simpleName(), uids));
+    accept(wanted, interpretedOccurrence, DwcTerm.countryCode, occurrence.getCountry(), OccurrenceMapReader::getCountryCode);
+    accept(wanted, interpretedOccurrence, DwcTerm.continent, occurrence.getContinent(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.decimalLatitude, occurrence.getDecimalLatitude(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.decimalLongitude, occurrence.getDecimalLongitude(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.coordinatePrecision, occurrence.getCoordinatePrecision(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.coordinateUncertaintyInMeters, occurrence.getCoordinateUncertaintyInMeters(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, GbifTerm.depth, occurrence.getDepth(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, GbifTerm.depthAccuracy, occurrence.getDepthAccuracy(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, GbifTerm.elevation, occurrence.getElevation(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, GbifTerm.elevationAccuracy, occurrence.getElevationAccuracy(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.stateProvince, occurrence.getStateProvince());
+    accept(wanted, interpretedOccurrence, DwcTerm.waterBody, occurrence.getWaterBody());
+    accept(wanted, interpretedOccurrence, GbifTerm.hasGeospatialIssues, Boolean.toString(occurrence.hasSpatialIssue()));
+    accept(wanted, interpretedOccurrence, GbifTerm.hasCoordinate, Boolean.toString(occurrence.getDecimalLatitude() != null && occurrence.getDecimalLongitude() != null));
+    accept(wanted, interpretedOccurrence, GbifTerm.coordinateAccuracy, occurrence.getCoordinateAccuracy(), OccurrenceMapReader::getSimpleValue);
+    acceptIfPresent(wanted, interpretedOccurrence, GbifTerm.repatriated, occurrence, OccurrenceMapReader::getRepatriated);
+    accept(wanted, interpretedOccurrence, DwcTerm.geodeticDatum, occurrence.getGeodeticDatum());
+    putGadmFeature(wanted, interpretedOccurrence, GadmTerm.level0Name, GadmTerm.level0Gid, occurrence.getGadm().getLevel0());
+    putGadmFeature(wanted, interpretedOccurrence, GadmTerm.level1Name, GadmTerm.level1Gid, occurrence.getGadm().getLevel1());
+    putGadmFeature(wanted, interpretedOccurrence, GadmTerm.level2Name, GadmTerm.level2Gid, occurrence.getGadm().getLevel2());
+    putGadmFeature(wanted, interpretedOccurrence, GadmTerm.level3Name, GadmTerm.level3Gid, occurrence.getGadm().getLevel3());
+
+    acceptIfPresent(wanted, interpretedOccurrence, GbifTerm.issue, occurrence, OccurrenceMapReader::extractOccurrenceIssues);
+    acceptIfPresent(wanted, interpretedOccurrence, GbifTerm.mediaType, occurrence, OccurrenceMapReader::extractMediaTypes);
+    acceptIfPresent(wanted, interpretedOccurrence, GbifTerm.recordedByID, occurrence.getRecordedByIds(), OccurrenceMapReader::extractAgentIds);
+    acceptIfPresent(wanted, interpretedOccurrence, GbifTerm.identifiedByID, occurrence.getIdentifiedByIds(), OccurrenceMapReader::extractAgentIds);
 
     // Sampling
-    interpretedOccurrence.put(DwcTerm.sampleSizeUnit.simpleName(), occurrence.getSampleSizeUnit());
-    interpretedOccurrence.put(DwcTerm.sampleSizeValue.simpleName(), getSimpleValue(occurrence.getSampleSizeValue()));
-    interpretedOccurrence.put(DwcTerm.organismQuantity.simpleName(), getSimpleValue(occurrence.getOrganismQuantity()));
-    interpretedOccurrence.put(DwcTerm.organismQuantityType.simpleName(), occurrence.getOrganismQuantityType());
-    interpretedOccurrence.put(GbifTerm.relativeOrganismQuantity.simpleName(), getSimpleValue(occurrence.getRelativeOrganismQuantity()));
+    accept(wanted, interpretedOccurrence, DwcTerm.sampleSizeUnit, occurrence.getSampleSizeUnit());
+    accept(wanted, interpretedOccurrence, DwcTerm.sampleSizeValue, occurrence.getSampleSizeValue(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.organismQuantity, occurrence.getOrganismQuantity(), OccurrenceMapReader::getSimpleValue);
+    accept(wanted, interpretedOccurrence, DwcTerm.organismQuantityType, occurrence.getOrganismQuantityType());
+    accept(wanted, interpretedOccurrence, GbifTerm.relativeOrganismQuantity, occurrence.getRelativeOrganismQuantity(), OccurrenceMapReader::getSimpleValue);
 
     occurrence.getVerbatimFields().forEach( (term, value) -> {
       if (!INTERPRETED_SOURCE_TERMS.contains(term)) {
-       interpretedOccurrence.put(term.simpleName(), value);
+       accept(wanted, interpretedOccurrence, term, value);
       }
     });
+  }
 
-    return interpretedOccurrence;
+  /**
+   * Passes the value of a term to the sink if the term is wanted, the value is only converted in that case.
+   */
+  private static <T> void accept(Predicate<String> wanted, BiConsumer<String, String> sink, Term term, T source,
+                                 Function<T, String> toValue) {
+    String name = term.simpleName();
+    if (wanted.test(name)) {
+      sink.accept(name, toValue.apply(source));
+    }
+  }
+
+  /**
+   * Passes the value of a term to the sink if the term is wanted and the value is present.
+   */
+  private static <T> void acceptIfPresent(Predicate<String> wanted, BiConsumer<String, String> sink, Term term,
+                                          T source, Function<T, Optional<String>> toValue) {
+    String name = term.simpleName();
+    if (wanted.test(name)) {
+      toValue.apply(source).ifPresent(value -> sink.accept(name, value));
+    }
+  }
+
+  /**
+   * Passes the value of a term to the sink if the term is wanted.
+   */
+  private static void accept(Predicate<String> wanted, BiConsumer<String, String> sink, Term term, String value) {
+    String name = term.simpleName();
+    if (wanted.test(name)) {
+      sink.accept(name, value);
+    }
   }
 
   /**
    * Populate two verbatim fields for CSV downloads
    */
   public static void populateVerbatimCsvFields(Map<String, String> map, Occurrence occurrence) {
+    populateVerbatimCsvFields((BiConsumer<String, String>) map::put, occurrence);
+  }
+
+  /**
+   * Passes the two verbatim fields for CSV downloads to the sink.
+   */
+  static void populateVerbatimCsvFields(BiConsumer<String, String> sink, Occurrence occurrence) {
     Function<Term, String> keyFn =
       t -> "verbatim" + Character.toUpperCase(t.simpleName().charAt(0)) + t.simpleName().substring(1);
 
     Map<Term, String> verbatimFields = occurrence.getVerbatimFields();
 
     Optional.ofNullable(verbatimFields.get(DwcTerm.scientificName))
-      .ifPresent(x -> map.put(keyFn.apply(DwcTerm.scientificName), x));
+      .ifPresent(x -> sink.accept(keyFn.apply(DwcTerm.scientificName), x));
     Optional.ofNullable(verbatimFields.get(DwcTerm.scientificNameAuthorship))
-      .ifPresent(x -> map.put(keyFn.apply(DwcTerm.scientificNameAuthorship), x));
+      .ifPresent(x -> sink.accept(keyFn.apply(DwcTerm.scientificNameAuthorship), x));
   }
 
 
@@ -189,9 +248,10 @@ public class OccurrenceMapReader {
    * Builds Map that contains a lists of terms.
    */
   public static Map<String, String> buildInterpretedOccurrenceMap(Occurrence occurrence, Collection<Pair<DownloadTerms.Group, Term>> terms) {
-    return  buildInterpretedOccurrenceMap(occurrence).entrySet().stream()
-              .filter(entry -> terms.stream().anyMatch(term -> term.getRight().simpleName().equals(entry.getKey())))
-              .collect(HashMap::new, (m,v) -> m.put(v.getKey(), v.getValue()), HashMap::putAll);
+    Set<String> names = terms.stream().map(term -> term.getRight().simpleName()).collect(Collectors.toSet());
+    Map<String,String> interpretedOccurrence = new HashMap<>();
+    populateInterpretedValues(occurrence, names::contains, interpretedOccurrence::put);
+    return interpretedOccurrence;
   }
 
 
@@ -260,10 +320,10 @@ public class OccurrenceMapReader {
   /**
    * If present, populates the GADM gid and name.
    */
-  private static void putGadmFeature(Map<String,String> interpretedOccurrence, GadmTerm nameTerm, GadmTerm gidTerm, GadmFeature gadmFeature) {
+  private static void putGadmFeature(Predicate<String> wanted, BiConsumer<String,String> interpretedOccurrence, GadmTerm nameTerm, GadmTerm gidTerm, GadmFeature gadmFeature) {
     Optional.ofNullable(gadmFeature).ifPresent(gf -> {
-      interpretedOccurrence.put(nameTerm.simpleName(), gf.getName());
-      interpretedOccurrence.put(gidTerm.simpleName(), gf.getGid());
+      accept(wanted, interpretedOccurrence, nameTerm, gf.getName());
+      accept(wanted, interpretedOccurrence, gidTerm, gf.getGid());
     });
   }
 
@@ -302,10 +362,17 @@ public class OccurrenceMapReader {
    */
   public static Map<String, String> buildVerbatimOccurrenceMap(Occurrence occurrence) {
     HashMap<String, String> verbatimMap = new HashMap<>();
-    TermUtils.verbatimTerms().forEach( term -> verbatimMap.put(term.simpleName(), cleanString(occurrence.getVerbatimField(term))));
+    populateVerbatimValues(occurrence, verbatimMap::put);
     return verbatimMap;
   }
 
+  /**
+   * Passes each verbatim value to the sink as (simpleName, value).
+   */
+  static void populateVerbatimValues(Occurrence occurrence, BiConsumer<String, String> verbatimOccurrence) {
+    TermUtils.verbatimTerms().forEach( term -> verbatimOccurrence.accept(term.simpleName(), cleanString(occurrence.getVerbatimField(term))));
+  }
+
 
   /**
    * Removes all delimiters in a string.
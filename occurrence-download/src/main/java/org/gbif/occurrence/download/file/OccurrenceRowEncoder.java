@@ -0,0 +1,141 @@
+package org.gbif.occurrence.download.file;
+
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.dwc.terms.Term;
+import org.gbif.occurrence.common.TermUtils;
+import org.gbif.occurrence.download.hive.DownloadTerms;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.stream.StreamSupport;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Encodes occurrence records into rows of values ordered by column, the column positions are resolved once per
+ * encoder instead of per record.
+ * The values of each column are the same ones produced by {@link OccurrenceMapReader}, so writing the rows as
+ * lists of values produces the same output as writing the maps of values with the same column names, without
+ * building a map of ~200 entries for each record.
+ * Instances are immutable and thread-safe.
+ */
+public class OccurrenceRowEncoder {
+
+  private static final int[] NO_COLUMNS = new int[0];
+
+  private final String[] columns;
+
+  // column positions of each interpreted value name
+  private final Map<String, int[]> valueColumns;
+
+  // column positions of the verbatim fields added to CSV downloads, null if not used by this encoder
+  private final Map<String, int[]> verbatimCsvColumns;
+
+  private final BiConsumer<Occurrence, BiConsumer<String, String>> valuesProducer;
+
+  private OccurrenceRowEncoder(String[] columns, Map<String, int[]> valueColumns,
+                               Map<String, int[]> verbatimCsvColumns,
+                               BiConsumer<Occurrence, BiConsumer<String, String>> valuesProducer) {
+    this.columns = columns;
+    this.valueColumns = valueColumns;
+    this.verbatimCsvColumns = verbatimCsvColumns;
+    this.valuesProducer = valuesProducer;
+  }
+
+  /**
+   * Encoder of the interpreted terms, the columns are {@link TermUtils#interpretedTerms()}.
+   */
+  public static OccurrenceRowEncoder interpreted() {
+    String[] columns = simpleNames(TermUtils.interpretedTerms());
+    return new OccurrenceRowEncoder(columns, index(columns), null, OccurrenceMapReader::populateInterpretedValues);
+  }
+
+  /**
+   * Encoder of the verbatim terms, the columns are {@link TermUtils#verbatimTerms()}.
+   */
+  public static OccurrenceRowEncoder verbatim() {
+    String[] columns = simpleNames(TermUtils.verbatimTerms());
+    return new OccurrenceRowEncoder(columns, index(columns), null, OccurrenceMapReader::populateVerbatimValues);
+  }
+
+  /**
+   * Encoder of simple CSV downloads, the columns are the {@link DownloadTerms#simpleName(Pair)} of terms.
+   * Interpreted values are only computed if they belong to the terms and have a column, like
+   * {@link OccurrenceMapReader#buildInterpretedOccurrenceMap(Occurrence, Collection)}, verbatim fields are populated
+   * like {@link OccurrenceMapReader#populateVerbatimCsvFields(Map, Occurrence)}.
+   */
+  public static OccurrenceRowEncoder simpleCsv(Collection<Pair<DownloadTerms.Group, Term>> terms) {
+    String[] columns = terms.stream().map(DownloadTerms::simpleName).toArray(String[]::new);
+    Map<String, int[]> allColumns = index(columns);
+    Map<String, int[]> valueColumns = new HashMap<>();
+    terms.forEach(term -> {
+      String name = term.getRight().simpleName();
+      int[] positions = allColumns.get(name);
+      if (positions != null) {
+        valueColumns.put(name, positions);
+      }
+    });
+    Predicate<String> wanted = valueColumns::containsKey;
+    return new OccurrenceRowEncoder(columns, valueColumns, allColumns, (occurrence, sink) ->
+      OccurrenceMapReader.populateInterpretedValues(occurrence, wanted, sink));
+  }
+
+  /**
+   * Column names, in the same order as the encoded values.
+   */
+  public String[] getColumns() {
+    return columns.clone();
+  }
+
+  /**
+   * First position of a column, -1 if the encoder doesn't contain it.
+   */
+  public int indexOf(String column) {
+    int[] positions = valueColumns.getOrDefault(column, NO_COLUMNS);
+    return positions.length > 0 ? positions[0] : -1;
+  }
+
+  /**
+   * Encodes the occurrence into an array of values in column order, absent values are null.
+   */
+  public String[] encode(Occurrence occurrence) {
+    String[] row = new String[columns.length];
+    valuesProducer.accept(occurrence, (name, value) -> set(row, valueColumns, name, value));
+    if (verbatimCsvColumns != null) {
+      OccurrenceMapReader.populateVerbatimCsvFields((name, value) -> set(row, verbatimCsvColumns, name, value),
+                                                    occurrence);
+    }
+    return row;
+  }
+
+  private static void set(String[] row, Map<String, int[]> positions, String name, String value) {
+    int[] columnPositions = positions.get(name);
+    if (columnPositions != null) {
+      for (int position : columnPositions) {
+        row[position] = value;
+      }
+    }
+  }
+
+  private static String[] simpleNames(Iterable<? extends Term> terms) {
+    return StreamSupport.stream(terms.spliterator(), false).map(Term::simpleName).toArray(String[]::new);
+  }
+
+  /**
+   * Positions of each column name, names can be repeated.
+   */
+  private static Map<String, int[]> index(String[] columns) {
+    Map<String, int[]> index = new HashMap<>();
+    for (int i = 0; i < columns.length; i++) {
+      int[] positions = index.getOrDefault(columns[i], NO_COLUMNS);
+      int[] newPositions = new int[positions.length + 1];
+      System.arraycopy(positions, 0, newPositions, 0, positions.length);
+      newPositions[positions.length] = i;
+      index.put(columns[i], newPositions);
+    }
+    return index;
+  }
+}
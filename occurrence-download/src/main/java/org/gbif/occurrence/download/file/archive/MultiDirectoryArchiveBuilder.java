@@ -24,8 +24,8 @@ import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
-import java.util.zip.ZipOutputStream;
 
 /**
  * Utility class that creates a Zip file from one or more directories containing data of one
@@ -48,6 +48,10 @@ public class MultiDirectoryArchiveBuilder {
 
   private final List<ZipEntrySource> sources;
 
+  private int deflateThreads = ParallelDeflateOutputStream.DEFAULT_THREADS;
+
+  private int deflateChunkSize = ParallelDeflateOutputStream.DEFAULT_CHUNK_SIZE;
+
   /**
    * Data structure representing a Hive table (or other location) → Zip file entry
    */
@@ -64,6 +68,15 @@ public class MultiDirectoryArchiveBuilder {
     return new MultiDirectoryArchiveBuilder(sources);
   }
 
+  /**
+   * Sets the number of threads and the chunk size used to deflate uncompressed input.
+   */
+  public MultiDirectoryArchiveBuilder withParallelDeflate(int threads, int chunkSize) {
+    deflateThreads = threads;
+    deflateChunkSize = chunkSize;
+    return this;
+  }
+
   /**
    * Insert the source entries on the sourceFS as separate entries into targetFS:outputPath in a file called downloadKey.zip.
    */
@@ -81,11 +94,14 @@ public class MultiDirectoryArchiveBuilder {
           }
         }
       } else {
-        // Use standard Java libraries for uncompressed input
-        try (ZipOutputStream zos = new ZipOutputStream(zipped)) {
+        // Deflate uncompressed input in parallel
+        ExecutorService deflaters = ParallelDeflateOutputStream.newExecutor(deflateThreads);
+        try (ModalZipOutputStream zos = new ModalZipOutputStream(new BufferedOutputStream(zipped))) {
           for (ZipEntrySource source : sources) {
-            zipDefault(zos, sourceFS, source);
+            zipDefault(zos, sourceFS, source, deflaters);
           }
+        } finally {
+          deflaters.shutdownNow();
         }
       }
 
@@ -96,9 +112,10 @@ public class MultiDirectoryArchiveBuilder {
   }
 
   /**
-   * Create Zip file using the standard Java library java.util.zip.
+   * Create Zip file entries deflating them in parallel, the results are standard deflated Zip entries.
    */
-  private void zipDefault(ZipOutputStream zos, final FileSystem sourceFS, final ZipEntrySource source) throws IOException {
+  private void zipDefault(ModalZipOutputStream zos, final FileSystem sourceFS, final ZipEntrySource source,
+                          ExecutorService deflaters) throws IOException {
     LOG.info("Zipping uncompressed source {}/{} as entry {}", sourceFS, source.path, source.name);
 
     Path inputPath = new Path(source.path);
@@ -118,10 +135,16 @@ public class MultiDirectoryArchiveBuilder {
 
     int nextEntryNumber = 0;
     for (InputStream fileInZipInputStream : is) {
-      java.util.zip.ZipEntry ze = new java.util.zip.ZipEntry(String.format("%s/%06d", source.name, nextEntryNumber));
-      zos.putNextEntry(ze);
-      ByteStreams.copy(fileInZipInputStream, zos);
+      ZipEntry ze = new ZipEntry(String.format("%s/%06d", source.name, nextEntryNumber));
+      zos.putNextEntry(ze, ModalZipOutputStream.MODE.PRE_DEFLATED);
+      ParallelDeflateOutputStream deflated =
+        new ParallelDeflateOutputStream(zos, deflaters, deflateThreads, deflateChunkSize);
+      ByteStreams.copy(fileInZipInputStream, deflated);
       fileInZipInputStream.close();
+      deflated.finish();
+      ze.setSize(deflated.getUncompressedLength()); // important to set the sizes and CRC
+      ze.setCompressedSize(deflated.getCompressedLength());
+      ze.setCrc(deflated.getCrc32());
       zos.closeEntry();
       nextEntryNumber++;
     }
@@ -200,6 +223,11 @@ public class MultiDirectoryArchiveBuilder {
       DownloadFileUtils.getHdfs(properties.getProperty(DownloadWorkflowModule.DefaultSettings.NAME_NODE_KEY));
 
     MultiDirectoryArchiveBuilder.withEntries(Arrays.copyOfRange(args, 3, args.length))
+      .withParallelDeflate(
+        Integer.parseInt(properties.getProperty(DownloadWorkflowModule.DefaultSettings.ARCHIVE_DEFLATE_THREADS_KEY,
+                                                String.valueOf(ParallelDeflateOutputStream.DEFAULT_THREADS))),
+        Integer.parseInt(properties.getProperty(DownloadWorkflowModule.DefaultSettings.ARCHIVE_DEFLATE_CHUNK_SIZE_KEY,
+                                                String.valueOf(ParallelDeflateOutputStream.DEFAULT_CHUNK_SIZE))))
       .mergeAllToZip(sourceFileSystem, sourceFileSystem, args[0], args[1],
         ModalZipOutputStream.MODE.valueOf(args[2]));
   }
@@ -24,8 +24,8 @@ import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
-import java.util.zip.ZipOutputStream;
 
 /**
  * Utility class that creates a Zip file from one or more directories containing data of one or more Hive tables.
@@ -47,6 +47,10 @@ public class MultiFileArchiveBuilder {
 
   private final List<ZipEntrySource> sources;
 
+  private int deflateThreads = ParallelDeflateOutputStream.DEFAULT_THREADS;
+
+  private int deflateChunkSize = ParallelDeflateOutputStream.DEFAULT_CHUNK_SIZE;
+
   /**
    * Data structure representing a Hive table (or other location) → Zip file entry
    */
@@ -63,6 +67,15 @@ public class MultiFileArchiveBuilder {
     return new MultiFileArchiveBuilder(sources);
   }
 
+  /**
+   * Sets the number of threads and the chunk size used to deflate uncompressed input.
+   */
+  public MultiFileArchiveBuilder withParallelDeflate(int threads, int chunkSize) {
+    deflateThreads = threads;
+    deflateChunkSize = chunkSize;
+    return this;
+  }
+
   /**
    * Merge the content of source entries on the sourceFS into targetFS:outputPath in a file called downloadKey.zip.
    */
@@ -80,11 +93,14 @@ public class MultiFileArchiveBuilder {
           }
         }
       } else {
-        // Use standard Java libraries for uncompressed input
-        try (ZipOutputStream zos = new ZipOutputStream(zipped)) {
+        // Deflate uncompressed input in parallel
+        ExecutorService deflaters = ParallelDeflateOutputStream.newExecutor(deflateThreads);
+        try (ModalZipOutputStream zos = new ModalZipOutputStream(new BufferedOutputStream(zipped))) {
           for (ZipEntrySource source : sources) {
-            zipDefault(zos, sourceFS, source);
+            zipDefault(zos, sourceFS, source, deflaters);
           }
+        } finally {
+          deflaters.shutdownNow();
         }
       }
 
@@ -95,9 +111,10 @@ public class MultiFileArchiveBuilder {
   }
 
   /**
-   * Merge file using the standard Java library java.util.zip.
+   * Merge files deflating them in parallel, the result is a standard deflated Zip entry.
    */
-  private void zipDefault(ZipOutputStream zos, final FileSystem sourceFS, final ZipEntrySource source) throws IOException {
+  private void zipDefault(ModalZipOutputStream zos, final FileSystem sourceFS, final ZipEntrySource source,
+                          ExecutorService deflaters) throws IOException {
     LOG.info("Zipping uncompressed source {}/{} as entry {}", sourceFS, source.path, source.name);
 
     Path inputPath = new Path(source.path);
@@ -116,13 +133,18 @@ public class MultiFileArchiveBuilder {
         }
       }).collect(Collectors.toList());
 
-    java.util.zip.ZipEntry ze = new java.util.zip.ZipEntry(source.name);
-    zos.putNextEntry(ze);
+    ZipEntry ze = new ZipEntry(source.name);
+    zos.putNextEntry(ze, ModalZipOutputStream.MODE.PRE_DEFLATED);
+    ParallelDeflateOutputStream deflated =
+      new ParallelDeflateOutputStream(zos, deflaters, deflateThreads, deflateChunkSize);
     for (InputStream fileInZipInputStream : is) {
-      ByteStreams.copy(fileInZipInputStream, zos);
-      zos.flush();
+      ByteStreams.copy(fileInZipInputStream, deflated);
       fileInZipInputStream.close();
     }
+    deflated.finish();
+    ze.setSize(deflated.getUncompressedLength()); // important to set the sizes and CRC
+    ze.setCompressedSize(deflated.getCompressedLength());
+    ze.setCrc(deflated.getCrc32());
     zos.closeEntry();
   }
 
@@ -193,6 +215,11 @@ public class MultiFileArchiveBuilder {
       DownloadFileUtils.getHdfs(properties.getProperty(DownloadWorkflowModule.DefaultSettings.NAME_NODE_KEY));
 
     MultiFileArchiveBuilder.withEntries(Arrays.copyOfRange(args, 3, args.length))
+      .withParallelDeflate(
+        Integer.parseInt(properties.getProperty(DownloadWorkflowModule.DefaultSettings.ARCHIVE_DEFLATE_THREADS_KEY,
+                                                String.valueOf(ParallelDeflateOutputStream.DEFAULT_THREADS))),
+        Integer.parseInt(properties.getProperty(DownloadWorkflowModule.DefaultSettings.ARCHIVE_DEFLATE_CHUNK_SIZE_KEY,
+                                                String.valueOf(ParallelDeflateOutputStream.DEFAULT_CHUNK_SIZE))))
       .mergeAllToZip(sourceFileSystem, sourceFileSystem, args[0], args[1],
         ModalZipOutputStream.MODE.valueOf(args[2]));
   }
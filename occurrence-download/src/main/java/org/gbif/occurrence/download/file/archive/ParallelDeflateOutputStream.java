@@ -0,0 +1,209 @@
+package org.gbif.occurrence.download.file.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Output stream that deflates its content in parallel, like pigz does.
+ * The content is split into chunks that are compressed concurrently in a pool of threads, each chunk uses the last
+ * 32KB of the previous one as dictionary so the compression ratio is close to a sequential deflate.
+ * Chunks are ended with a sync flush and written in order, the result is a single raw deflate stream (no zlib or gzip
+ * wrapper) that can be used as the data of a standard zip entry with the sizes and CRC32 of this stream.
+ * Instances are not thread-safe.
+ */
+public class ParallelDeflateOutputStream extends OutputStream {
+
+  public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+
+  public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+  // maximum distance of deflate back-references
+  private static final int DICTIONARY_SIZE = 32 * 1024;
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final OutputStream out;
+  private final ExecutorService executor;
+  private final int chunkSize;
+  private final int maxPendingChunks;
+  private final int level;
+
+  // compressed chunks in the order they must be written
+  private final Deque<Future<byte[]>> pendingChunks = new ArrayDeque<>();
+  private final CRC32 crc = new CRC32();
+
+  private byte[] chunk;
+  private int chunkLength;
+  private byte[] dictionary;
+  private long uncompressedLength;
+  private long compressedLength;
+  private boolean finished;
+
+  /**
+   * @param out         stream that receives the deflated content
+   * @param executor    compresses the chunks, it can be shared by several streams
+   * @param parallelism number of chunks compressed concurrently by this stream
+   * @param chunkSize   size of the chunks in bytes, at least 32KB
+   */
+  public ParallelDeflateOutputStream(OutputStream out, ExecutorService executor, int parallelism, int chunkSize) {
+    checkArgument(parallelism > 0, "Parallelism must be positive");
+    checkArgument(chunkSize >= DICTIONARY_SIZE, "Chunks must be at least %s bytes", DICTIONARY_SIZE);
+    this.out = out;
+    this.executor = executor;
+    this.chunkSize = chunkSize;
+    // keeps the workers busy while the oldest chunk is written
+    maxPendingChunks = parallelism * 2;
+    level = Deflater.DEFAULT_COMPRESSION;
+    chunk = new byte[chunkSize];
+  }
+
+  /**
+   * Creates a pool of daemon threads to compress chunks.
+   */
+  public static ExecutorService newExecutor(int threads) {
+    return Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setDaemon(true)
+                                                   .setNameFormat("deflater-%d").build());
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[] {(byte) b}, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    checkArgument(!finished, "Stream already finished");
+    while (len > 0) {
+      int count = Math.min(len, chunkSize - chunkLength);
+      System.arraycopy(b, off, chunk, chunkLength, count);
+      chunkLength += count;
+      off += count;
+      len -= count;
+      if (chunkLength == chunkSize) {
+        submitChunk(false);
+      }
+    }
+  }
+
+  /**
+   * Compresses and writes the remaining content, ending the deflate stream, without closing the underlying stream.
+   */
+  public void finish() throws IOException {
+    if (!finished) {
+      submitChunk(true);
+      while (!pendingChunks.isEmpty()) {
+        writeNextChunk();
+      }
+      finished = true;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      finish();
+    } finally {
+      pendingChunks.forEach(pendingChunk -> pendingChunk.cancel(true));
+      out.close();
+    }
+  }
+
+  /**
+   * Number of bytes written to this stream.
+   */
+  public long getUncompressedLength() {
+    return uncompressedLength;
+  }
+
+  /**
+   * Number of deflated bytes written to the underlying stream.
+   */
+  public long getCompressedLength() {
+    return compressedLength;
+  }
+
+  /**
+   * CRC32 of the bytes written to this stream.
+   */
+  public long getCrc32() {
+    return crc.getValue();
+  }
+
+  private void submitChunk(boolean last) throws IOException {
+    byte[] input = chunk;
+    int length = chunkLength;
+    byte[] chunkDictionary = dictionary;
+    crc.update(input, 0, length);
+    uncompressedLength += length;
+    pendingChunks.add(executor.submit(() -> deflate(input, length, chunkDictionary, last)));
+    if (!last) {
+      // the chunk is full, so it's larger than the dictionary
+      dictionary = Arrays.copyOfRange(input, length - DICTIONARY_SIZE, length);
+      chunk = new byte[chunkSize];
+      chunkLength = 0;
+    }
+    while (pendingChunks.size() > maxPendingChunks) {
+      writeNextChunk();
+    }
+  }
+
+  private void writeNextChunk() throws IOException {
+    try {
+      byte[] deflated = pendingChunks.removeFirst().get();
+      out.write(deflated);
+      compressedLength += deflated.length;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while deflating");
+    } catch (ExecutionException ex) {
+      throw new IOException("Error deflating content", ex.getCause());
+    }
+  }
+
+  /**
+   * Deflates a chunk, the last one ends the deflate stream and the rest end with a sync flush so they can be
+   * concatenated.
+   */
+  private byte[] deflate(byte[] input, int length, byte[] chunkDictionary, boolean last) {
+    Deflater deflater = new Deflater(level, true);
+    try {
+      if (chunkDictionary != null) {
+        deflater.setDictionary(chunkDictionary);
+      }
+      deflater.setInput(input, 0, length);
+      ByteArrayOutputStream deflated = new ByteArrayOutputStream(length / 2 + 64);
+      byte[] buffer = new byte[BUFFER_SIZE];
+      if (last) {
+        deflater.finish();
+        while (!deflater.finished()) {
+          deflated.write(buffer, 0, deflater.deflate(buffer));
+        }
+      } else {
+        // the flush is complete when the output doesn't fill the buffer
+        int count;
+        do {
+          count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+          deflated.write(buffer, 0, count);
+        } while (count == buffer.length);
+      }
+      return deflated.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+}
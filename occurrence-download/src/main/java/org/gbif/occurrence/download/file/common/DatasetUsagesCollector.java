@@ -5,8 +5,6 @@ import org.gbif.api.vocabulary.License;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import java.util.Optional;
 import com.google.common.collect.Maps;
@@ -14,21 +12,52 @@ import com.google.common.collect.Sets;
 
 /**
  * Collects dataset records/information used in a occurrence download.
+ * Usages are counted in an open-addressing table keyed on the two longs of the dataset UUID with primitive counters,
+ * dataset keys in their canonical form are parsed in place, so counting a record doesn't allocate.
+ * The same table keeps the last license seen per dataset, so the set of license strings is only looked up when the
+ * license of a dataset changes, and each distinct license string is only converted once.
+ * Instances are not thread-safe.
  */
 public class DatasetUsagesCollector {
 
-  private Map<UUID, Long> datasetUsages = Maps.newHashMap();
+  private static final int INITIAL_CAPACITY = 64;
 
-  // we simply keep the String used to identify the licenses to avoid the conversion to License each time
-  private Set<String> datasetLicensesString = Sets.newHashSet();
-  private Set<License> datasetLicenses = Sets.newHashSet();
+  // length of the canonical form of a UUID, i.e. 8-4-4-4-12 hexadecimal digits
+  private static final int UUID_LENGTH = 36;
+
+  private long[] mostSigBits = new long[INITIAL_CAPACITY];
+  private long[] leastSigBits = new long[INITIAL_CAPACITY];
+  private long[] counts = new long[INITIAL_CAPACITY];
+  private boolean[] used = new boolean[INITIAL_CAPACITY];
+  // last license string seen for each dataset
+  private String[] licenses = new String[INITIAL_CAPACITY];
+  private int size;
+
+  // last license string of records without dataset
+  private String noDatasetLicense;
+
+  // halves of the last key parsed in place
+  private long parsedMostSigBits;
+  private long parsedLeastSigBits;
+
+  // distinct license strings already converted
+  private final Set<String> seenLicenses = Sets.newHashSet();
+
+  private final Set<License> datasetLicenses = Sets.newHashSet();
 
   /**
    * Increments in 1 the number of records coming from the dataset (if any) parameter.
    */
   public void incrementDatasetUsage(String datasetKey) {
+    slot(datasetKey, 1);
+  }
+
+  /**
+   * Increments in 1 the number of records coming from the dataset (if any) parameter.
+   */
+  public void incrementDatasetUsage(UUID datasetKey) {
     if (datasetKey != null) {
-      datasetUsages.compute(UUID.fromString(datasetKey), (key, count) -> (count == null) ? 1L : count +1);
+      add(datasetKey.getMostSignificantBits(), datasetKey.getLeastSignificantBits(), 1);
     }
   }
 
@@ -40,13 +69,20 @@ public class DatasetUsagesCollector {
    * @param license
    */
   public void collectDatasetUsage(String datasetKey, String license) {
-    incrementDatasetUsage(datasetKey);
+    int slot = slot(datasetKey, 1);
 
-    if(license != null && !datasetLicensesString.contains(license)) {
-      Optional<License> l = License.fromString(license);
-      if(l.isPresent()) {
-        datasetLicensesString.add(license);
-        datasetLicenses.add(l.get());
+    if (license != null) {
+      String previous = slot < 0 ? noDatasetLicense : licenses[slot];
+      if (!license.equals(previous)) {
+        if (slot < 0) {
+          noDatasetLicense = license;
+        } else {
+          licenses[slot] = license;
+        }
+        if (seenLicenses.add(license)) {
+          Optional<License> l = License.fromString(license);
+          l.ifPresent(datasetLicenses::add);
+        }
       }
     }
   }
@@ -55,19 +91,24 @@ public class DatasetUsagesCollector {
    * Sums all the dataset usages to current instance.
    */
   public void sumUsages(Map<UUID, Long> fromDatasetUsages) {
-    datasetUsages = Stream.concat(datasetUsages.entrySet().stream(), fromDatasetUsages.entrySet().stream())
-      .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, Long::sum));
+    fromDatasetUsages.forEach((key, count) -> add(key.getMostSignificantBits(), key.getLeastSignificantBits(), count));
   }
 
   public void mergeLicenses(Set<License> licenses){
-    // we don't really need to update datasetLicensesString
     datasetLicenses.addAll(licenses);
   }
 
   /**
    * Dataset usages: number of records used per dataset in download.
+   * A new map is built on each call.
    */
   public Map<UUID, Long> getDatasetUsages() {
+    Map<UUID, Long> datasetUsages = Maps.newHashMapWithExpectedSize(size);
+    for (int i = 0; i < used.length; i++) {
+      if (used[i]) {
+        datasetUsages.put(new UUID(mostSigBits[i], leastSigBits[i]), counts[i]);
+      }
+    }
     return datasetUsages;
   }
 
@@ -78,4 +119,106 @@ public class DatasetUsagesCollector {
   public Set<License> getDatasetLicenses(){
     return datasetLicenses;
   }
+
+  /**
+   * Adds count to the usages of the dataset, returns the slot of the dataset or -1 if the key is null.
+   */
+  private int slot(String datasetKey, long count) {
+    if (datasetKey == null) {
+      return -1;
+    }
+    if (parseCanonical(datasetKey)) {
+      return add(parsedMostSigBits, parsedLeastSigBits, count);
+    }
+    // other forms accepted by UUID and invalid keys
+    UUID key = UUID.fromString(datasetKey);
+    return add(key.getMostSignificantBits(), key.getLeastSignificantBits(), count);
+  }
+
+  /**
+   * Adds count to the usages of the dataset, returns its slot.
+   */
+  private int add(long msb, long lsb, long count) {
+    int mask = used.length - 1;
+    int slot = hash(msb, lsb) & mask;
+    while (used[slot]) {
+      if (mostSigBits[slot] == msb && leastSigBits[slot] == lsb) {
+        counts[slot] += count;
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    if ((size + 1) * 2 > used.length) {
+      grow();
+      return add(msb, lsb, count);
+    }
+    used[slot] = true;
+    mostSigBits[slot] = msb;
+    leastSigBits[slot] = lsb;
+    counts[slot] = count;
+    size++;
+    return slot;
+  }
+
+  /**
+   * Doubles the capacity of the table, keeping its load factor under 0.5.
+   */
+  private void grow() {
+    long[] oldMostSigBits = mostSigBits;
+    long[] oldLeastSigBits = leastSigBits;
+    long[] oldCounts = counts;
+    boolean[] oldUsed = used;
+    String[] oldLicenses = licenses;
+    int capacity = oldUsed.length * 2;
+    mostSigBits = new long[capacity];
+    leastSigBits = new long[capacity];
+    counts = new long[capacity];
+    used = new boolean[capacity];
+    licenses = new String[capacity];
+    size = 0;
+    for (int i = 0; i < oldUsed.length; i++) {
+      if (oldUsed[i]) {
+        licenses[add(oldMostSigBits[i], oldLeastSigBits[i], oldCounts[i])] = oldLicenses[i];
+      }
+    }
+  }
+
+  private static int hash(long msb, long lsb) {
+    long h = (msb ^ Long.rotateLeft(lsb, 32)) * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  /**
+   * Parses a key in the canonical UUID form into parsedMostSigBits and parsedLeastSigBits.
+   *
+   * @return false if the key isn't in the canonical form
+   */
+  private boolean parseCanonical(String key) {
+    if (key.length() != UUID_LENGTH) {
+      return false;
+    }
+    long msb = 0;
+    long lsb = 0;
+    for (int i = 0; i < UUID_LENGTH; i++) {
+      char c = key.charAt(i);
+      if (i == 8 || i == 13 || i == 18 || i == 23) {
+        if (c != '-') {
+          return false;
+        }
+      } else {
+        int digit = Character.digit(c, 16);
+        if (digit < 0) {
+          return false;
+        }
+        if (i < 18) {
+          msb = msb << 4 | digit;
+        } else {
+          lsb = lsb << 4 | digit;
+        }
+      }
+    }
+    parsedMostSigBits = msb;
+    parsedLeastSigBits = lsb;
+    return true;
+  }
 }
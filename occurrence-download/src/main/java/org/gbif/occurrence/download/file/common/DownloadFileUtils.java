@@ -4,9 +4,11 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import org.apache.hadoop.conf.Configuration;
@@ -38,8 +40,13 @@ public final class DownloadFileUtils {
 
   /**
    * Appends a result file to the output file.
+   * File outputs are appended through their channel, see {@link #appendAndDelete(String, FileChannel)}.
    */
   public static void appendAndDelete(String inputFileName, OutputStream outputFileStreamWriter) throws IOException {
+    if (outputFileStreamWriter instanceof FileOutputStream) {
+      appendAndDelete(inputFileName, ((FileOutputStream) outputFileStreamWriter).getChannel());
+      return;
+    }
     File inputFile = new File(inputFileName);
     try (FileInputStream fileReader = new FileInputStream(inputFile)) {
       ByteStreams.copy(fileReader, outputFileStreamWriter);
@@ -50,7 +57,28 @@ public final class DownloadFileUtils {
       inputFile.delete();
     }
   }
-  
+
+  /**
+   * Appends a result file to the output channel, the bytes are transferred by the operating system without being
+   * copied into the JVM.
+   */
+  public static void appendAndDelete(String inputFileName, FileChannel outputChannel) throws IOException {
+    File inputFile = new File(inputFileName);
+    try (FileChannel inputChannel = new FileInputStream(inputFile).getChannel()) {
+      long size = inputChannel.size();
+      long position = 0;
+      // transferTo can transfer fewer bytes than requested
+      while (position < size) {
+        position += inputChannel.transferTo(position, size - position, outputChannel);
+      }
+    } catch (FileNotFoundException e) {
+      LOG.info("Error creating occurrence files", e);
+      throw Throwables.propagate(e);
+    } finally {
+      inputFile.delete();
+    }
+  }
+
   /**
    * Reads count from table path. Helps in utilities for Species list download and SQL Download.
    * @param nameNode namenode of hdfs.
@@ -0,0 +1,127 @@
+package org.gbif.occurrence.download.file.common;
+
+import org.gbif.occurrence.search.es.OccurrenceEsField;
+
+import java.io.IOException;
+import java.util.Objects;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Strings;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.metrics.percentiles.Percentiles;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Splits the results of a query into disjoint ranges of occurrence keys (gbifId) holding a similar number of records.
+ * The split points are calculated by Elasticsearch using a percentiles aggregation on the key field, this requires
+ * a single request regardless of the number of ranges.
+ * Downloads list the records in descending order of key, so truncated results keep the greatest keys.
+ */
+public class KeyRangeSplitter {
+
+  private static final String KEY_FIELD = OccurrenceEsField.GBIF_ID.getFieldName();
+
+  private static final String SPLITS_AGG = "keySplits";
+
+  private final RestHighLevelClient esClient;
+
+  private final String esIndex;
+
+  public KeyRangeSplitter(RestHighLevelClient esClient, String esIndex) {
+    this.esClient = esClient;
+    this.esIndex = esIndex;
+  }
+
+  /**
+   * Calculates the nrOfRanges + 1 keys that delimit each range, range i is [splitKeys[i], splitKeys[i + 1]).
+   * The last element is always null (no upper bound) and the first one is null unless the results have to be truncated
+   * to maxRecords.
+   *
+   * @param query       Elasticsearch query of the download, can be empty
+   * @param nrOfRanges  number of ranges to create
+   * @param recordCount number of records returned by the query
+   * @param maxRecords  maximum number of records to be covered by all the ranges
+   */
+  public Long[] split(String query, int nrOfRanges, int recordCount, int maxRecords) throws IOException {
+    checkArgument(nrOfRanges > 0, "At least one range is required");
+    Long lowerKey = recordCount > maxRecords ? getKeyAt(query, maxRecords - 1) : null;
+    if (nrOfRanges == 1) {
+      return new Long[] {lowerKey, null};
+    }
+
+    double[] percents = new double[nrOfRanges - 1];
+    for (int i = 1; i < nrOfRanges; i++) {
+      percents[i - 1] = 100.0 * i / nrOfRanges;
+    }
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
+      .query(query(query, lowerKey))
+      .size(0)
+      .aggregation(AggregationBuilders.percentiles(SPLITS_AGG).field(KEY_FIELD).percentiles(percents));
+    SearchResponse searchResponse = esClient.search(new SearchRequest().indices(esIndex).source(searchSourceBuilder),
+                                                    RequestOptions.DEFAULT);
+    Percentiles percentiles = searchResponse.getAggregations().get(SPLITS_AGG);
+    double[] values = new double[percents.length];
+    for (int i = 0; i < percents.length; i++) {
+      values[i] = percentiles.percentile(percents[i]);
+    }
+    return toSplitKeys(values, lowerKey);
+  }
+
+  /**
+   * Converts the percentile values into split keys. Values are rounded up and forced to be non-decreasing since
+   * percentiles are approximations, empty ranges are valid.
+   */
+  static Long[] toSplitKeys(double[] percentileValues, @Nullable Long lowerKey) {
+    Long[] splitKeys = new Long[percentileValues.length + 2];
+    long previous = Objects.nonNull(lowerKey) ? lowerKey : Long.MIN_VALUE;
+    for (int i = 0; i < percentileValues.length; i++) {
+      // NaN is returned when there are no values, all the records end up in the first range
+      long key = Double.isNaN(percentileValues[i]) ? Long.MAX_VALUE : (long) Math.ceil(percentileValues[i]);
+      previous = Math.max(previous, key);
+      splitKeys[i + 1] = previous;
+    }
+    splitKeys[0] = lowerKey;
+    return splitKeys;
+  }
+
+  /**
+   * Gets the occurrence key found at the offset position of the results sorted by descending key.
+   */
+  private Long getKeyAt(String query, int offset) throws IOException {
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
+      .query(query(query, null))
+      .from(offset)
+      .size(1)
+      .fetchSource(false)
+      .sort(KEY_FIELD, SortOrder.DESC);
+    SearchHit[] hits = esClient.search(new SearchRequest().indices(esIndex).source(searchSourceBuilder),
+                                       RequestOptions.DEFAULT).getHits().getHits();
+    return hits.length > 0 ? ((Number) hits[0].getSortValues()[0]).longValue() : null;
+  }
+
+  /**
+   * Download query restricted to the keys greater or equal than lowerKey, if present.
+   */
+  private static BoolQueryBuilder query(String query, @Nullable Long lowerKey) {
+    BoolQueryBuilder boolQuery = QueryBuilders.boolQuery();
+    if (!Strings.isNullOrEmpty(query)) {
+      boolQuery.filter(QueryBuilders.wrapperQuery(query));
+    } else {
+      boolQuery.filter(QueryBuilders.matchAllQuery());
+    }
+    if (Objects.nonNull(lowerKey)) {
+      boolQuery.filter(QueryBuilders.rangeQuery(KEY_FIELD).gte(lowerKey));
+    }
+    return boolQuery;
+  }
+}
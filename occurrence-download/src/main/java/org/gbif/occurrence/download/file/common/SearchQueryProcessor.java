@@ -2,9 +2,12 @@ package org.gbif.occurrence.download.file.common;
 
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.elasticsearch.action.search.*;
 import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.query.RangeQueryBuilder;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.sort.SortOrder;
@@ -16,73 +19,223 @@ import org.gbif.occurrence.search.es.OccurrenceEsField;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Executes a Search query and applies a predicate to each result.
+ * Results are streamed using search_after on the occurrence key, so the cost of each page doesn't depend on its
+ * position in the result set.
+ * Fetching, conversion and processing of results run as a pipeline: the next page is fetched while the previous ones
+ * are converted in a thread pool, and the converted results are handled, in order, by the calling thread.
+ * The fetcher and converter threads are shared by all the jobs of the JVM.
  */
 public class SearchQueryProcessor {
 
   // Default page size for queries.
-  private static final int LIMIT = 300;
+  public static final int DEFAULT_PAGE_SIZE = 300;
+
+  // Maximum number of pages fetched or being converted that haven't been processed yet
+  private static final int PREFETCH_PAGES = 2;
 
   private static final String KEY_FIELD = OccurrenceEsField.GBIF_ID.getFieldName();
 
   private static final Logger LOG = LoggerFactory.getLogger(SearchQueryProcessor.class);
 
+  // one fetcher runs per running job, idle threads are released after a minute
+  private static final ExecutorService FETCHERS =
+    Executors.newCachedThreadPool(threadFactory("download-fetcher-%d"));
+
+  // converts the pages of all the running jobs
+  private static final ExecutorService CONVERTERS =
+    Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), threadFactory("download-converter-%d"));
+
+  /**
+   * Source of the successive pages of a query.
+   */
+  @FunctionalInterface
+  interface PageFetcher<P> {
+
+    /**
+     * @return the next page, null if there are no more pages
+     */
+    P next() throws Exception;
+  }
+
   /**
    * Executes a query and applies the predicate to each result.
    *
-   * @param downloadFileWork it's used to determine how to page through the results and the search query to be used
-   * @param downloadFileWork it's used to determine how to page through the results and the search query to be used
+   * @param downloadFileWork it's used to determine the key range, page size and the search query to be used
    * @param resultHandler    predicate that process each result, receives as parameter the occurrence key
    */
   public static void processQuery(DownloadFileWork downloadFileWork, Consumer<Occurrence> resultHandler) {
+    processQuery(downloadFileWork, Function.identity(), resultHandler);
+  }
 
-    // Calculates the amount of output records
-    int nrOfOutputRecords = downloadFileWork.getTo() - downloadFileWork.getFrom();
+  /**
+   * Executes a query, converts each result and applies the predicate to each converted result.
+   * The converter runs concurrently in a pool of threads, the result handler runs in the calling thread following
+   * the order of the search results.
+   * Errors in any stage of the pipeline stop the execution and are re-thrown to the caller.
+   *
+   * @param downloadFileWork it's used to determine the key range, page size and the search query to be used
+   * @param converter        transforms each occurrence, must be thread-safe
+   * @param resultHandler    predicate that process each converted result
+   */
+  public static <T> void processQuery(DownloadFileWork downloadFileWork, Function<Occurrence, T> converter,
+                                      Consumer<T> resultHandler) {
+    process(searchPages(downloadFileWork), response -> convert(response, converter), resultHandler);
+  }
 
+  /**
+   * Runs the pipeline: pages are fetched in a fetcher thread, converted in the converters pool and their results
+   * handled by the calling thread in the order of the pages.
+   * Errors in any stage stop the execution and are re-thrown to the caller, pending work is cancelled.
+   */
+  static <P, T> void process(PageFetcher<P> pageFetcher, Function<P, List<T>> pageConverter,
+                             Consumer<T> resultHandler) {
+    // bounded queue of converted pages, it blocks the fetcher when the handler can't keep up
+    BlockingQueue<Future<List<T>>> pages = new ArrayBlockingQueue<>(PREFETCH_PAGES);
+    Future<?> fetch = FETCHERS.submit(() -> fetchPages(pageFetcher, pageConverter, pages));
     try {
+      List<T> results;
+      while ((results = pages.take().get()) != null) {
+        results.forEach(resultHandler);
+      }
+      fetch.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while processing query", ex);
+    } catch (ExecutionException ex) {
+      throw Throwables.propagate(ex.getCause());
+    } finally {
+      // stops the fetcher if it's still running and the conversion of the pages not processed
+      fetch.cancel(true);
+      List<Future<List<T>>> pendingPages = new ArrayList<>();
+      pages.drainTo(pendingPages);
+      pendingPages.forEach(page -> page.cancel(true));
+    }
+  }
 
-      int recordCount = 0;
-      // Creates a search request instance using the search request that comes in the fileJob
-      SearchSourceBuilder searchSourceBuilder = createSearchQuery(downloadFileWork.getQuery());
-
-
-      while (recordCount < nrOfOutputRecords) {
-
-        searchSourceBuilder.size(recordCount + LIMIT > nrOfOutputRecords ? nrOfOutputRecords - recordCount : LIMIT);
-        searchSourceBuilder.from(downloadFileWork.getFrom() + recordCount);
-        searchSourceBuilder.fetchSource(null, "all"); //All field is not needed in the response
-        SearchRequest searchRequest = new SearchRequest().indices(downloadFileWork.getEsIndex()).source(searchSourceBuilder);
-
-        SearchResponse searchResponse = downloadFileWork.getEsClient().search(searchRequest, RequestOptions.DEFAULT);
-        consume(searchResponse, resultHandler);
-
-        SearchHit[] searchHits = searchResponse.getHits().getHits();
-        recordCount += searchHits.length;
+  /**
+   * Fetches all the pages and submits their conversion.
+   * A null list signals the end of the results, fetching errors are passed to the consumer as failed pages.
+   */
+  private static <P, T> void fetchPages(PageFetcher<P> pageFetcher, Function<P, List<T>> pageConverter,
+                                        BlockingQueue<Future<List<T>>> pages) {
+    try {
+      P page;
+      while ((page = pageFetcher.next()) != null) {
+        P fetchedPage = page;
+        pages.put(CONVERTERS.submit(() -> pageConverter.apply(fetchedPage)));
+      }
+      pages.put(CompletableFuture.completedFuture(null));
+    } catch (InterruptedException ex) {
+      // the consumer has stopped
+      Thread.currentThread().interrupt();
+    } catch (Exception ex) {
+      CompletableFuture<List<T>> failedPage = new CompletableFuture<>();
+      failedPage.completeExceptionally(ex);
+      try {
+        // the consumer gets the error after the pending pages
+        pages.put(failedPage);
+      } catch (InterruptedException iex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
 
+  /**
+   * Pages of the search results of the download work, the last page is the first one with less results than the
+   * page size.
+   */
+  private static PageFetcher<SearchResponse> searchPages(DownloadFileWork downloadFileWork) {
+    // Creates a search request instance using the search request that comes in the fileJob
+    SearchSourceBuilder searchSourceBuilder = createSearchQuery(downloadFileWork);
+    searchSourceBuilder.size(downloadFileWork.getPageSize());
+    searchSourceBuilder.fetchSource(null, "all"); //All field is not needed in the response
+    AtomicBoolean lastPageFetched = new AtomicBoolean();
+    AtomicInteger recordCount = new AtomicInteger();
+    return () -> {
+      if (lastPageFetched.get()) {
+        LOG.debug("{} records fetched for job {}", recordCount.get(), downloadFileWork);
+        return null;
       }
-    } catch (IOException ex) {
-      throw Throwables.propagate(ex);
+      SearchRequest searchRequest = new SearchRequest().indices(downloadFileWork.getEsIndex()).source(searchSourceBuilder);
+      SearchResponse searchResponse = downloadFileWork.getEsClient().search(searchRequest, RequestOptions.DEFAULT);
+
+      SearchHit[] searchHits = searchResponse.getHits().getHits();
+      recordCount.addAndGet(searchHits.length);
+      if (searchHits.length > 0) {
+        // next page starts right after the last (lowest) key of this one
+        searchSourceBuilder.searchAfter(searchHits[searchHits.length - 1].getSortValues());
+      }
+      lastPageFetched.set(searchHits.length < downloadFileWork.getPageSize());
+      return searchResponse;
+    };
+  }
+
+  private static <T> List<T> convert(SearchResponse searchResponse, Function<Occurrence, T> converter) {
+    List<Occurrence> occurrences =
+      EsResponseParser.buildDownloadResponse(searchResponse, new PagingRequest(0, searchResponse.getHits().getHits().length))
+        .getResults();
+    if (occurrences == null) {
+      return Collections.emptyList();
     }
+    List<T> results = new ArrayList<>(occurrences.size());
+    occurrences.forEach(occurrence -> results.add(converter.apply(occurrence)));
+    return results;
   }
 
-  private static void consume(SearchResponse searchResponse, Consumer<Occurrence> consumer) {
-    EsResponseParser.buildDownloadResponse(searchResponse, new PagingRequest(0, searchResponse.getHits().getHits().length))
-      .getResults().forEach(consumer);
+  /**
+   * Daemon threads, so the pools don't prevent the JVM from exiting.
+   */
+  private static ThreadFactory threadFactory(String nameFormat) {
+    return new ThreadFactoryBuilder().setDaemon(true).setNameFormat(nameFormat).build();
   }
+
   /**
-   * Creates a search query that contains the query parameter as the filter query value.
+   * Creates a search query that contains the query parameter as the filter query value, restricted to the key range
+   * of the download work.
    */
-  private static SearchSourceBuilder createSearchQuery(String query) {
+  private static SearchSourceBuilder createSearchQuery(DownloadFileWork downloadFileWork) {
     SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    if (!Strings.isNullOrEmpty(query)) {
-      searchSourceBuilder.query(QueryBuilders.wrapperQuery(query));
+    BoolQueryBuilder boolQuery = QueryBuilders.boolQuery();
+    if (!Strings.isNullOrEmpty(downloadFileWork.getQuery())) {
+      boolQuery.filter(QueryBuilders.wrapperQuery(downloadFileWork.getQuery()));
+    }
+    if (Objects.nonNull(downloadFileWork.getFromKey()) || Objects.nonNull(downloadFileWork.getToKey())) {
+      RangeQueryBuilder keyRange = QueryBuilders.rangeQuery(KEY_FIELD);
+      if (Objects.nonNull(downloadFileWork.getFromKey())) {
+        keyRange.gte(downloadFileWork.getFromKey());
+      }
+      if (Objects.nonNull(downloadFileWork.getToKey())) {
+        keyRange.lt(downloadFileWork.getToKey());
+      }
+      boolQuery.filter(keyRange);
+    }
+    if (boolQuery.hasClauses()) {
+      searchSourceBuilder.query(boolQuery);
     }
-    //key is required since this runs in a distributed installations where the natural order can't be guaranteed
+    //key is required since this runs in a distributed installations where the natural order can't be guaranteed,
+    //it's also the search_after cursor
     searchSourceBuilder.sort(KEY_FIELD, SortOrder.DESC);
+    //total hits are not used while streaming the results
+    searchSourceBuilder.trackTotalHits(false);
     return searchSourceBuilder;
   }
 
@@ -7,7 +7,7 @@ import org.gbif.dwc.terms.Term;
 import org.gbif.occurrence.common.TermUtils;
 import org.gbif.occurrence.common.download.DownloadUtils;
 import org.gbif.occurrence.download.file.DownloadFileWork;
-import org.gbif.occurrence.download.file.OccurrenceMapReader;
+import org.gbif.occurrence.download.file.OccurrenceRowEncoder;
 import org.gbif.occurrence.download.file.Result;
 import org.gbif.occurrence.download.file.common.DatasetUsagesCollector;
 import org.gbif.occurrence.download.file.common.SearchQueryProcessor;
@@ -35,9 +35,9 @@ import org.slf4j.LoggerFactory;
 import org.supercsv.cellprocessor.constraint.NotNull;
 import org.supercsv.cellprocessor.ift.CellProcessor;
 import org.supercsv.io.CsvBeanWriter;
-import org.supercsv.io.CsvMapWriter;
+import org.supercsv.io.CsvListWriter;
 import org.supercsv.io.ICsvBeanWriter;
-import org.supercsv.io.ICsvMapWriter;
+import org.supercsv.io.ICsvListWriter;
 import org.supercsv.prefs.CsvPreference;
 import org.supercsv.util.CsvContext;
 
@@ -55,10 +55,8 @@ public class DownloadDwcaActor extends UntypedActor {
     ConvertUtils.register(new DateConverter(null), Date.class);
   }
 
-  private static final String[] INT_COLUMNS =
-    Lists.transform(Lists.newArrayList(TermUtils.interpretedTerms()), Term::simpleName).toArray(new String[0]);
-  private static final String[] VERB_COLUMNS =
-    Lists.transform(Lists.newArrayList(TermUtils.verbatimTerms()), Term::simpleName).toArray(new String[0]);
+  private static final OccurrenceRowEncoder INT_ENCODER = OccurrenceRowEncoder.interpreted();
+  private static final OccurrenceRowEncoder VERB_ENCODER = OccurrenceRowEncoder.verbatim();
   private static final String[] MULTIMEDIA_COLUMNS =
     Lists.transform(Lists.newArrayList(TermUtils.multimediaTerms()), Term::simpleName).toArray(new String[0]);
   private static final CellProcessor[] MEDIA_CELL_PROCESSORS = {
@@ -94,42 +92,44 @@ public class DownloadDwcaActor extends UntypedActor {
   }
 
   /**
-   * Executes the job.query and creates a data file that will contains the records from job.from to job.to positions.
+   * Executes the job.query and creates a data file that will contains the records of the job key range.
    */
   public void doWork(DownloadFileWork work) throws IOException {
 
     DatasetUsagesCollector datasetUsagesCollector = new DatasetUsagesCollector();
 
     try (
-      ICsvMapWriter intCsvWriter = new CsvMapWriter(new FileWriterWithEncoding(work.getJobDataFileName()
-                                                                               + TableSuffixes.INTERPRETED_SUFFIX,
-                                                                               Charsets.UTF_8),
-                                                    CsvPreference.TAB_PREFERENCE);
-      ICsvMapWriter verbCsvWriter = new CsvMapWriter(new FileWriterWithEncoding(work.getJobDataFileName()
-                                                                                + TableSuffixes.VERBATIM_SUFFIX,
-                                                                                Charsets.UTF_8),
-                                                     CsvPreference.TAB_PREFERENCE);
+      ICsvListWriter intCsvWriter = new CsvListWriter(new FileWriterWithEncoding(work.getJobDataFileName()
+                                                                                 + TableSuffixes.INTERPRETED_SUFFIX,
+                                                                                 Charsets.UTF_8),
+                                                      CsvPreference.TAB_PREFERENCE);
+      ICsvListWriter verbCsvWriter = new CsvListWriter(new FileWriterWithEncoding(work.getJobDataFileName()
+                                                                                  + TableSuffixes.VERBATIM_SUFFIX,
+                                                                                  Charsets.UTF_8),
+                                                       CsvPreference.TAB_PREFERENCE);
       ICsvBeanWriter multimediaCsvWriter = new CsvBeanWriter(new FileWriterWithEncoding(work.getJobDataFileName()
                                                                                         + TableSuffixes.MULTIMEDIA_SUFFIX,
                                                                                         Charsets.UTF_8),
                                                              CsvPreference.TAB_PREFERENCE)) {
-      SearchQueryProcessor.processQuery(work, occurrence -> {
+      SearchQueryProcessor.processQuery(work, occurrence -> occurrence != null ? new DwcaRecord(occurrence) : null,
+                                        record -> {
           try {
-            // Writes the occurrence record obtained from Elasticsearch as Map<String,Object>.
-
-            if (occurrence != null) {
-              datasetUsagesCollector.incrementDatasetUsage(occurrence.getDatasetKey().toString());
-              intCsvWriter.write(OccurrenceMapReader.buildInterpretedOccurrenceMap(occurrence), INT_COLUMNS);
-              verbCsvWriter.write(OccurrenceMapReader.buildVerbatimOccurrenceMap(occurrence), VERB_COLUMNS);
-              writeMediaObjects(multimediaCsvWriter, occurrence);
+            // Writes the occurrence record obtained from Elasticsearch as rows of values.
+            if (record != null) {
+              datasetUsagesCollector.incrementDatasetUsage(record.occurrence.getDatasetKey());
+              intCsvWriter.write(record.interpreted);
+              verbCsvWriter.write(record.verbatim);
+              writeMediaObjects(multimediaCsvWriter, record.occurrence);
             }
-          } catch (Exception e) {
-            getSender().tell(e, getSelf()); // inform our master
+          } catch (IOException e) {
             throw Throwables.propagate(e);
           }
         });
 
       getSender().tell(new Result(work, datasetUsagesCollector.getDatasetUsages()), getSelf());
+    } catch (Exception e) {
+      getSender().tell(e, getSelf()); // inform our master
+      throw e;
     } finally {
       // Unlock the assigned lock.
       work.getLock().unlock();
@@ -146,6 +146,23 @@ public class DownloadDwcaActor extends UntypedActor {
     }
   }
 
+  /**
+   * Occurrence converted into the rows of interpreted and verbatim values.
+   * Instances are created concurrently by the search pipeline and written by the actor thread.
+   */
+  private static class DwcaRecord {
+
+    private final Occurrence occurrence;
+    private final String[] interpreted;
+    private final String[] verbatim;
+
+    DwcaRecord(Occurrence occurrence) {
+      this.occurrence = occurrence;
+      interpreted = INT_ENCODER.encode(occurrence);
+      verbatim = VERB_ENCODER.encode(occurrence);
+    }
+  }
+
   /**
    * Inner class used to export data into multimedia.txt files.
    * The structure must match the headers defined in MULTIMEDIA_COLUMNS.
@@ -19,6 +19,7 @@ import org.gbif.hadoop.compress.d2.zip.ModalZipOutputStream;
 import org.gbif.occurrence.common.download.DownloadException;
 import org.gbif.occurrence.download.conf.WorkflowConfiguration;
 import org.gbif.occurrence.download.file.DownloadJobConfiguration;
+import org.gbif.occurrence.download.inject.DownloadWorkflowModule;
 import org.gbif.occurrence.download.license.LicenseSelector;
 import org.gbif.occurrence.download.license.LicenseSelectors;
 import org.gbif.occurrence.download.util.HeadersFileUtil;
@@ -27,7 +28,6 @@ import org.gbif.occurrence.query.HumanPredicateBuilder;
 import org.gbif.occurrence.query.TitleLookupService;
 import org.gbif.occurrence.query.TitleLookupServiceFactory;
 import org.gbif.registry.metadata.EMLWriter;
-import org.gbif.utils.file.CompressionUtil;
 import org.gbif.utils.file.FileUtils;
 
 import java.io.BufferedOutputStream;
@@ -35,23 +35,29 @@ import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
@@ -102,6 +108,9 @@ public class DwcaArchiveBuilder {
   private static final String DATA_DESC_FORMAT = "Darwin Core Archive";
   private static final Splitter TAB_SPLITTER = Splitter.on('\t').trimResults();
   private static final EMLWriter EML_WRITER = EMLWriter.newInstance(true);
+  // number of pre-compressed parts opened and read ahead concurrently while they are appended
+  private static final int DEFAULT_READ_AHEAD_PARTS = 8;
+  private static final int READ_AHEAD_BUFFER_SIZE = 4 * 1024 * 1024;
 
   private final DatasetService datasetService;
 
@@ -113,6 +122,7 @@ public class DwcaArchiveBuilder {
   private final FileSystem targetFs;
   private final DownloadJobConfiguration configuration;
   private final LicenseSelector licenseSelector = LicenseSelectors.getMostRestrictiveLicenseSelector(License.CC0_1_0);
+  private final EmlCache emlCache;
 
   //constituents and citation are basically the same info, are keep in 2 separate collections to avoid rebuilding them
   private Set<Constituent> constituents = Sets.newTreeSet();
@@ -149,7 +159,7 @@ public class DwcaArchiveBuilder {
                                                           titleLookup,
                                                           configuration,
                                                           workflowConfiguration);
-    generator.buildArchive(new File(tmpDir, configuration.getDownloadKey() + ".zip"));
+    generator.buildArchive(configuration.getDownloadKey() + ".zip");
   }
 
   private static void writeCitation(Writer citationWriter, Dataset dataset)
@@ -191,20 +201,20 @@ public class DwcaArchiveBuilder {
     this.titleLookup = titleLookup;
     this.configuration = configuration;
     this.workflowConfiguration = workflowConfiguration;
+    emlCache = EmlCache.create(workflowConfiguration);
   }
 
   /**
    * Main method to assemble the dwc archive and do all the work until we have a final zip file.
+   * The zip file is written directly to the HDFS output path, no local copy of the archive is created.
    *
-   * @param zipFile the final zip file holding the entire archive
+   * @param zipFileName name of the final zip file holding the entire archive
    */
-  public void buildArchive(File zipFile) throws DownloadException {
-    LOG.info("Start building the archive {} ", zipFile.getPath());
+  public void buildArchive(String zipFileName) throws DownloadException {
+    Path target = new Path(workflowConfiguration.getHdfsOutputPath(), zipFileName);
+    LOG.info("Start building the archive {} ", target);
 
-    try {
-      if (zipFile.exists()) {
-        zipFile.delete();
-      }
+    try (MetadataFetcher metadataFetcher = MetadataFetcher.create(workflowConfiguration)) {
       if (!configuration.isSmallDownload()) {
         // oozie might try several times to run this job, so make sure our filesystem is clean
         cleanupFS();
@@ -214,7 +224,7 @@ public class DwcaArchiveBuilder {
       }
 
       // metadata, citation and rights
-      License downloadLicense = addConstituentMetadata();
+      License downloadLicense = addConstituentMetadata(metadataFetcher);
 
       // persist the License assigned to the download
       persistDownloadLicense(downloadLicense);
@@ -226,17 +236,11 @@ public class DwcaArchiveBuilder {
       DwcArchiveUtils.createArchiveDescriptor(archiveDir);
 
       // zip up
-      LOG.info("Zipping archive {}", archiveDir);
-      CompressionUtil.zipDir(archiveDir, zipFile, true);
-
-      // add the large download data files to the zip stream
-      if (!configuration.isSmallDownload()) {
-        appendPreCompressedFiles(zipFile);
-      }
-      targetFs.moveFromLocalFile(new Path(zipFile.getPath()),
-                                 new Path(workflowConfiguration.getHdfsOutputPath(), zipFile.getName()));
+      LOG.info("Zipping archive {} into {}", archiveDir, target);
+      writeArchive(target);
 
     } catch (IOException e) {
+      deleteQuietly(target);
       throw new DownloadException(e);
 
     } finally {
@@ -300,28 +304,17 @@ public class DwcaArchiveBuilder {
   }
 
   /**
-   * Rewrites the zip file by opening the original and appending the pre-compressed content on the fly.
+   * Writes the archive in a single pass: the local files of the archive directory are deflated into the zip stream,
+   * and the pre-compressed data files of large downloads are appended without decompressing them.
    */
-  private void appendPreCompressedFiles(File zipFile) throws IOException {
-
-    LOG.info("Appending pre-compressed occurrence content to the Zip: {}", zipFile.getAbsolutePath());
-
-    File tempZip = new File(archiveDir, zipFile.getName() + ".part");
-    boolean renameOk = zipFile.renameTo(tempZip);
-    if (renameOk) {
-      try (ZipInputStream zin = new ZipInputStream(new FileInputStream(tempZip));
-           ModalZipOutputStream out = new ModalZipOutputStream(new BufferedOutputStream(new FileOutputStream(zipFile)))
-      ) {
-
-        // copy existing entries
-        ZipEntry entry = zin.getNextEntry();
-        while (entry != null) {
-          out.putNextEntry(new org.gbif.hadoop.compress.d2.zip.ZipEntry(entry.getName()),
-                           ModalZipOutputStream.MODE.DEFAULT);
-          ByteStreams.copy(zin, out);
-          entry = zin.getNextEntry();
-        }
+  private void writeArchive(Path target) throws IOException {
+    try (ModalZipOutputStream out = new ModalZipOutputStream(new BufferedOutputStream(targetFs.create(target, true)))) {
+      // metadata, and the data files of small downloads
+      zipLocalFiles(out, archiveDir, "");
 
+      // add the large download data files to the zip stream
+      if (!configuration.isSmallDownload()) {
+        LOG.info("Appending pre-compressed occurrence content to the Zip: {}", target);
         // NOTE: hive lowercases all the paths
         appendPreCompressedFile(out,
                                 new Path(configuration.getInterpretedDataFileName()),
@@ -335,21 +328,47 @@ public class DwcaArchiveBuilder {
                                 new Path(configuration.getMultimediaDataFileName()),
                                 MULTIMEDIA_FILENAME,
                                 HeadersFileUtil.getMultimediaTableHeader());
+      }
+    }
+  }
 
-      } finally {
-        // we've rewritten so remove the original
-        if (tempZip != null) {
-          tempZip.delete();
-        }
+  /**
+   * Adds the files of a local directory and its subdirectories, entry names are relative to the archive directory.
+   * Like CompressionUtil.zipDir, hidden files are included and empty directories are not.
+   */
+  @VisibleForTesting
+  static void zipLocalFiles(ModalZipOutputStream out, File dir, String prefix) throws IOException {
+    File[] files = dir.listFiles();
+    if (files == null) {
+      return;
+    }
+    Arrays.sort(files);
+    for (File file : files) {
+      if (file.isDirectory()) {
+        zipLocalFiles(out, file, prefix + file.getName() + '/');
+      } else {
+        out.putNextEntry(new org.gbif.hadoop.compress.d2.zip.ZipEntry(prefix + file.getName()),
+                         ModalZipOutputStream.MODE.DEFAULT);
+        Files.copy(file.toPath(), out);
+        out.closeEntry();
       }
+    }
+  }
 
-    } else {
-      throw new IllegalStateException("Unable to rename existing zip, to allow appending occurrence data");
+  /**
+   * Deletes a partially written archive, errors are logged.
+   */
+  private void deleteQuietly(Path target) {
+    try {
+      targetFs.delete(target, false);
+    } catch (IOException ex) {
+      LOG.warn("Unable to delete incomplete archive {}", target, ex);
     }
   }
 
   /**
-   * Appends the compressed files found within the directory to the zip stream as the named file
+   * Appends the compressed files found within the directory to the zip stream as the named file.
+   * The files are opened and read ahead concurrently, so the splicing isn't bound by the latency of each file.
    */
   private void appendPreCompressedFile(ModalZipOutputStream out, Path dir, String filename, String headerRow)
     throws IOException {
@@ -358,40 +377,60 @@ public class DwcaArchiveBuilder {
 
     // Add the header first, which must also be compressed
     ByteArrayOutputStream header = new ByteArrayOutputStream();
-    D2Utils.compress(new ByteArrayInputStream(headerRow.getBytes()), header);
+    D2Utils.compress(new ByteArrayInputStream(headerRow.getBytes(StandardCharsets.UTF_8)), header);
     parts.add(new ByteArrayInputStream(header.toByteArray()));
 
     // Locate the streams to the compressed content on HDFS
+    List<Callable<InputStream>> sources = Lists.newArrayList();
     while (files.hasNext()) {
       LocatedFileStatus fs = files.next();
       Path path = fs.getPath();
       if (path.toString().endsWith(D2Utils.FILE_EXTENSION)) {
         LOG.info("Deflated content to merge: {} ", path);
-        parts.add(sourceFs.open(path));
+        sources.add(() -> sourceFs.open(path));
       }
     }
 
     // create the Zip entry, and write the compressed bytes
     org.gbif.hadoop.compress.d2.zip.ZipEntry ze = new org.gbif.hadoop.compress.d2.zip.ZipEntry(filename);
     out.putNextEntry(ze, ModalZipOutputStream.MODE.PRE_DEFLATED);
-    try (D2CombineInputStream in = new D2CombineInputStream(parts)) {
-      ByteStreams.copy(in, out);
-      in.close(); // important so counts are accurate
-      ze.setSize(in.getUncompressedLength()); // important to set the sizes and CRC
-      ze.setCompressedSize(in.getCompressedLength());
-      ze.setCrc(in.getCrc32());
+    int readAheadParts = workflowConfiguration.getIntSetting(DownloadWorkflowModule.DefaultSettings.ARCHIVE_READ_AHEAD_KEY,
+                                                             DEFAULT_READ_AHEAD_PARTS);
+    long start = System.currentTimeMillis();
+    try (ReadAheadInputStreams readAhead = new ReadAheadInputStreams(sources, readAheadParts, READ_AHEAD_BUFFER_SIZE)) {
+      parts.addAll(readAhead.getStreams());
+      try (D2CombineInputStream in = new D2CombineInputStream(parts)) {
+        ByteStreams.copy(in, out);
+        in.close(); // important so counts are accurate
+        ze.setSize(in.getUncompressedLength()); // important to set the sizes and CRC
+        ze.setCompressedSize(in.getCompressedLength());
+        ze.setCrc(in.getCrc32());
+        logThroughput(filename, sources.size(), in.getCompressedLength(), System.currentTimeMillis() - start);
+      }
     } finally {
       out.closeEntry();
     }
   }
 
+  /**
+   * Logs the throughput of splicing the pre-compressed parts of a file.
+   */
+  private static void logThroughput(String filename, int parts, long compressedBytes, long millis) {
+    double megabytes = compressedBytes / (1024d * 1024d);
+    LOG.info("Spliced {} parts into {}: {} MB in {} ms, {} MB/s", parts, filename, String.format("%.1f", megabytes),
+             millis, String.format("%.1f", megabytes * 1000 / Math.max(millis, 1)));
+  }
+
   /**
    * Adds an eml file per dataset involved into a subfolder "dataset" which is supported by our dwc archive reader.
    * Create a rights.txt and citation.txt file targeted at humans to quickly yield an overview about rights and
    * datasets involved.
    * This method returns the License that must be assigned to the occurrence download file.
+   * Dataset records and EML documents are fetched concurrently, the EML files are written while the rights and
+   * citations are. EML documents of datasets that haven't changed since a previous download are copied from the
+   * {@link EmlCache}.
    */
-  private License addConstituentMetadata() throws IOException {
+  private License addConstituentMetadata(MetadataFetcher metadataFetcher) throws IOException {
 
     Path citationSrc = new Path(configuration.getCitationDataFileName());
 
@@ -404,13 +443,19 @@ public class DwcaArchiveBuilder {
       return licenseSelector.getSelectedLicense();
     }
 
-    constituents = loadCitations(citationSrc);
+    constituents = loadCitations(citationSrc, metadataFetcher);
 
     File emlDir = new File(archiveDir, "dataset");
     if (!constituents.isEmpty()) {
       emlDir.mkdir();
     }
 
+    // EML files are fetched in the background, they are moved from pending to added as their constituents are added
+    Map<UUID, CompletableFuture<Void>> pendingEmlFiles = Maps.newLinkedHashMap();
+    constituents.forEach(constituent -> pendingEmlFiles.put(constituent.getKey(),
+                                                            fetchEmlFile(metadataFetcher, constituent, emlDir)));
+    List<CompletableFuture<Void>> emlFiles = Lists.newArrayList();
+
     try(Writer rightsWriter = FileUtils.startNewUtf8File(new File(archiveDir, RIGHTS_FILENAME));
         Writer citationWriter = FileUtils.startNewUtf8File(new File(archiveDir, CITATIONS_FILENAME))) {
         // write fixed citations header
@@ -429,7 +474,7 @@ public class DwcaArchiveBuilder {
             // rights
             writeRights(rightsWriter, constituent.getDataset());
             // eml file
-            createEmlFile(dataset.getKey(), emlDir);
+            emlFiles.add(pendingEmlFiles.remove(constituent.getKey()));
 
             // add original author as content provider to main dataset description
             DwcaContactsUtil.getContentProviderContact(constituent.getDataset())
@@ -439,10 +484,92 @@ public class DwcaArchiveBuilder {
             return licenseSelector.getSelectedLicense();
           }
         }
+    } finally {
+      // constituents not added after an error get no EML file, like they get no citation and rights
+      discardEmlFiles(pendingEmlFiles, emlDir);
+      awaitAll(emlFiles);
+      emlCache.evict();
     }
     return licenseSelector.getSelectedLicense();
   }
 
+  /**
+   * Copies the EML document of a constituent dataset from the cache, or fetches it, into the EML directory.
+   * The cached document is used if the version of the dataset record and metadata documents it was generated from
+   * hasn't changed. Errors are logged.
+   */
+  private CompletableFuture<Void> fetchEmlFile(MetadataFetcher metadataFetcher, Constituent constituent,
+                                               File emlDir) {
+    UUID constituentId = constituent.getKey();
+    File emlFile = new File(emlDir, constituentId + ".xml");
+    // the record version is calculated upfront, the contacts of the constituent datasets are changed afterwards,
+    // no version is needed if the cache is disabled
+    String datasetVersion = emlCache.isEnabled() && constituent.getDataset() != null
+      ? EmlCache.version(constituent.getDataset()) : null;
+    CompletableFuture<String> version = datasetVersion == null
+      ? CompletableFuture.completedFuture(null)
+      : metadataFetcher.fetch(() -> datasetService.listMetadata(constituentId, null))
+        .thenApply(metadata -> EmlCache.version(datasetVersion, metadata))
+        .exceptionally(ex -> {
+          LOG.warn("Error retrieving the metadata documents of datasetId {}, its EML isn't cached", constituentId, ex);
+          return null;
+        });
+    return version.thenCompose(emlVersion -> {
+        if (emlCache.copyTo(constituentId, emlVersion, emlFile)) {
+          return CompletableFuture.completedFuture(null);
+        }
+        return metadataFetcher.fetch(() -> {
+            try (InputStream in = datasetService.getMetadataDocument(constituentId)) {
+              return in == null ? null : ByteStreams.toByteArray(in);
+            }
+          })
+          .thenAccept(eml -> {
+            writeEmlFile(constituentId, eml, emlDir);
+            if (eml != null) {
+              emlCache.put(constituentId, emlVersion, eml);
+            }
+          });
+      })
+      .exceptionally(ex -> {
+        LOG.error("Error creating eml file for datasetId {}", constituentId, ex);
+        return null;
+      });
+  }
+
+  private static void writeEmlFile(UUID constituentId, byte[] eml, File emlDir) {
+    if (eml == null) {
+      LOG.error("Found no EML for datasetId {}", constituentId);
+      return;
+    }
+    try {
+      Files.write(new File(emlDir, constituentId + ".xml").toPath(), eml);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Waits for the EML files of constituents that are not added to the archive and deletes them.
+   */
+  private static void discardEmlFiles(Map<UUID, CompletableFuture<Void>> emlFiles, File emlDir) throws IOException {
+    awaitAll(emlFiles.values());
+    emlFiles.keySet().forEach(constituentId -> new File(emlDir, constituentId + ".xml").delete());
+  }
+
+  /**
+   * Waits for all the futures to complete, they are expected to handle their own errors.
+   */
+  private static void awaitAll(Collection<? extends CompletableFuture<?>> futures) throws IOException {
+    try {
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while fetching constituents metadata");
+    } catch (ExecutionException ex) {
+      throw new IOException(ex.getCause());
+    }
+  }
+
   /**
    * Creates a single EML metadata file for the entire archive.
    * Make sure we execute this method AFTER building the constituents metadata which adds to our dataset instance.
@@ -530,10 +657,12 @@ public class DwcaArchiveBuilder {
 
   /**
    * Creates Map with dataset UUIDs and its record counts.
+   * The dataset records are fetched concurrently, datasets that can't be retrieved are left out.
    */
-  private Set<Constituent> loadCitations(Path citationSrc) throws IOException {
+  private Set<Constituent> loadCitations(Path citationSrc, MetadataFetcher metadataFetcher) throws IOException {
     // the hive query result is a directory with one or more files - read them all into a uuid set
     Set<Constituent> datasets = Sets.newTreeSet(); // list of constituents datasets
+    Map<UUID, Long> counts = Maps.newLinkedHashMap();
     FileStatus[] citFiles = sourceFs.listStatus(citationSrc);
     int invalidUuids = 0;
     for (FileStatus fs : citFiles) {
@@ -549,9 +678,7 @@ public class DwcaArchiveBuilder {
                 Iterator<String> iter = TAB_SPLITTER.split(line).iterator();
                 // play safe and make sure we got a uuid - even though our api doesnt require it
                 UUID key = UUID.fromString(iter.next());
-                long count = Long.parseLong(iter.next());
-                datasets.add(new Constituent(key, count, datasetService.get(key)));
-                citations.put(key, count);
+                counts.put(key, Long.parseLong(iter.next()));
               } catch (Exception e) {
                 // ignore invalid UUIDs
                 LOG.info("Found invalid UUID as datasetId {}", line);
@@ -563,6 +690,24 @@ public class DwcaArchiveBuilder {
         }
       }
     }
+
+    Map<UUID, CompletableFuture<Dataset>> fetchedDatasets = Maps.newLinkedHashMap();
+    counts.keySet().forEach(key -> fetchedDatasets.put(key, metadataFetcher.fetch(() -> datasetService.get(key))));
+    for (Map.Entry<UUID, CompletableFuture<Dataset>> fetchedDataset : fetchedDatasets.entrySet()) {
+      UUID key = fetchedDataset.getKey();
+      try {
+        Dataset dataset = fetchedDataset.getValue().get();
+        datasets.add(new Constituent(key, counts.get(key), dataset));
+        citations.put(key, counts.get(key));
+      } catch (ExecutionException e) {
+        LOG.error("Error retrieving dataset {}", key, e.getCause());
+        invalidUuids++;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while fetching constituent datasets");
+      }
+    }
+
     if (invalidUuids > 0) {
       LOG.info("Found {} invalid dataset UUIDs", invalidUuids);
     } else {
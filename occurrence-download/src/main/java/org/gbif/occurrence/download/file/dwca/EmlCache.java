@@ -0,0 +1,220 @@
+package org.gbif.occurrence.download.file.dwca;
+
+import org.gbif.api.model.registry.Dataset;
+import org.gbif.api.model.registry.Metadata;
+import org.gbif.occurrence.download.conf.WorkflowConfiguration;
+import org.gbif.occurrence.download.inject.DownloadWorkflowModule;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local directory of dataset EML documents shared by the downloads running in the same node.
+ * Entries are keyed by dataset key and a version hashed from the content the registry generates the EML document
+ * from: the dataset record and its list of metadata documents. An entry is valid as long as neither changes, even if
+ * the modified date of the dataset isn't updated, and revalidating it only needs the small metadata list request.
+ * Entries are written atomically and can be read and evicted concurrently by several processes, the least recently
+ * used ones are deleted when the directory exceeds its maximum size.
+ */
+class EmlCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EmlCache.class);
+
+  // default maximum size in megabytes
+  static final int DEFAULT_MAX_SIZE_MB = 1024;
+
+  private static final String EXTENSION = ".xml";
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  // caches by directory, shared by all the archives built in the process
+  private static final ConcurrentMap<Path, EmlCache> CACHES = new ConcurrentHashMap<>();
+
+  // used when no cache directory is configured
+  private static final EmlCache DISABLED = new EmlCache(null, 0);
+
+  @Nullable
+  private final Path dir;
+
+  private final long maxSizeBytes;
+
+  EmlCache(@Nullable File dir, long maxSizeBytes) {
+    this.dir = dir == null ? null : dir.toPath();
+    this.maxSizeBytes = maxSizeBytes;
+  }
+
+  /**
+   * Gets the cache of the directory set in the metadata cache settings, the directory must be shared by the downloads
+   * of the node, like a local directory outside of the download working directories.
+   * Nothing is cached if no directory is set.
+   */
+  static EmlCache create(WorkflowConfiguration workflowConfiguration) {
+    String dir = workflowConfiguration.getSetting(DownloadWorkflowModule.DefaultSettings.METADATA_CACHE_DIR_KEY);
+    if (dir == null || dir.trim().isEmpty()) {
+      return DISABLED;
+    }
+    int maxSizeMb = workflowConfiguration.getIntSetting(DownloadWorkflowModule.DefaultSettings.METADATA_CACHE_MAX_SIZE_KEY,
+                                                        DEFAULT_MAX_SIZE_MB);
+    File cacheDir = new File(dir.trim());
+    return CACHES.computeIfAbsent(cacheDir.toPath().toAbsolutePath(),
+                                  path -> new EmlCache(cacheDir, maxSizeMb * 1024L * 1024L));
+  }
+
+  /**
+   * @return false if no cache directory is configured and nothing is cached
+   */
+  boolean isEnabled() {
+    return dir != null;
+  }
+
+  /**
+   * Version of a dataset record, a hash of its JSON.
+   *
+   * @return null if the version can't be calculated, documents without version aren't cached
+   */
+  @Nullable
+  static String version(Dataset dataset) {
+    return hash(dataset);
+  }
+
+  /**
+   * Version of the EML document generated from a dataset record and its metadata documents.
+   *
+   * @param datasetVersion version of the dataset record, see {@link #version(Dataset)}
+   */
+  @Nullable
+  static String version(@Nullable String datasetVersion, List<Metadata> metadata) {
+    return datasetVersion == null ? null : hash(Arrays.asList(datasetVersion, metadata));
+  }
+
+  @Nullable
+  private static String hash(Object value) {
+    try {
+      return Hashing.murmur3_128().hashBytes(MAPPER.writeValueAsBytes(value)).toString();
+    } catch (JsonProcessingException ex) {
+      LOG.warn("Error calculating the version of the EML sources", ex);
+      return null;
+    }
+  }
+
+  /**
+   * Copies the cached EML document of a dataset version into the target file.
+   *
+   * @return false if the document isn't cached
+   */
+  boolean copyTo(UUID datasetKey, @Nullable String version, File target) {
+    if (dir == null || version == null) {
+      return false;
+    }
+    Path entry = entry(datasetKey, version);
+    try {
+      Files.copy(entry, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      // the modification time of the entries tracks their last use
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+      return true;
+    } catch (NoSuchFileException ex) {
+      return false;
+    } catch (IOException ex) {
+      LOG.warn("Error reading cached EML of dataset {}", datasetKey, ex);
+      return false;
+    }
+  }
+
+  /**
+   * Stores the EML document of a dataset version, replacing the previous versions of the same dataset.
+   * Errors are logged, the cache is only an optimization.
+   */
+  void put(UUID datasetKey, @Nullable String version, byte[] eml) {
+    if (dir == null || version == null) {
+      return;
+    }
+    Path entry = entry(datasetKey, version);
+    try {
+      Files.createDirectories(dir);
+      Path tmp = Files.createTempFile(dir, datasetKey.toString(), ".tmp");
+      try {
+        Files.write(tmp, eml);
+        Files.move(tmp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        Files.deleteIfExists(tmp);
+      }
+      try (DirectoryStream<Path> versions = Files.newDirectoryStream(dir, datasetKey + "-*" + EXTENSION)) {
+        for (Path version : versions) {
+          if (!version.equals(entry)) {
+            Files.deleteIfExists(version);
+          }
+        }
+      }
+    } catch (IOException ex) {
+      LOG.warn("Error caching EML of dataset {}", datasetKey, ex);
+    }
+  }
+
+  /**
+   * Deletes the least recently used entries until the cache fits in its maximum size.
+   */
+  void evict() {
+    if (dir == null || !Files.isDirectory(dir)) {
+      return;
+    }
+    Map<Path, BasicFileAttributes> entries = new HashMap<>();
+    long size = 0;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + EXTENSION)) {
+      for (Path file : files) {
+        try {
+          BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+          entries.put(file, attributes);
+          size += attributes.size();
+        } catch (NoSuchFileException ex) {
+          // evicted by another download
+        }
+      }
+    } catch (IOException ex) {
+      LOG.warn("Error listing the EML cache {}", dir, ex);
+      return;
+    }
+    if (size <= maxSizeBytes) {
+      return;
+    }
+    List<Map.Entry<Path, BasicFileAttributes>> byLastUse = new ArrayList<>(entries.entrySet());
+    byLastUse.sort(Comparator.comparing(entry -> entry.getValue().lastModifiedTime()));
+    for (Map.Entry<Path, BasicFileAttributes> entry : byLastUse) {
+      if (size <= maxSizeBytes) {
+        break;
+      }
+      try {
+        Files.deleteIfExists(entry.getKey());
+        size -= entry.getValue().size();
+      } catch (IOException ex) {
+        LOG.warn("Error evicting cached EML {}", entry.getKey(), ex);
+      }
+    }
+  }
+
+  private Path entry(UUID datasetKey, String version) {
+    return dir.resolve(datasetKey + "-" + version + EXTENSION);
+  }
+}
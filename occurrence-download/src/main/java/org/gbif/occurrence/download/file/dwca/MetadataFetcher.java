@@ -0,0 +1,128 @@
+package org.gbif.occurrence.download.file.dwca;
+
+import org.gbif.occurrence.download.conf.WorkflowConfiguration;
+import org.gbif.occurrence.download.inject.DownloadWorkflowModule;
+
+import java.io.Closeable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Runs registry requests, like the dataset records and EML documents of the download constituents, concurrently in
+ * a bounded pool of threads.
+ * Each request is cancelled if it doesn't complete within the timeout, failed and cancelled requests are retried
+ * with an increasing wait between attempts.
+ */
+class MetadataFetcher implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MetadataFetcher.class);
+
+  static final int DEFAULT_THREADS = 10;
+
+  static final int DEFAULT_RETRIES = 3;
+
+  static final int DEFAULT_TIMEOUT_SECONDS = 60;
+
+  private static final long DEFAULT_RETRY_WAIT_MS = 1000;
+
+  // runs the fetch tasks, its size limits the number of concurrent requests
+  private final ExecutorService workers;
+
+  // runs each request attempt, so it can be abandoned when it times out.
+  // Abandoned requests blocked in IO keep their threads, the pool is bounded so new attempts wait for a free thread
+  // instead, within their timeout.
+  private final ExecutorService requests;
+
+  private final int retries;
+
+  private final long timeoutMs;
+
+  private final long retryWaitMs;
+
+  MetadataFetcher(int threads, int retries, long timeoutMs, long retryWaitMs) {
+    checkArgument(threads > 0, "At least one thread is required");
+    checkArgument(retries >= 0, "Retries can't be negative");
+    this.retries = retries;
+    this.timeoutMs = timeoutMs;
+    this.retryWaitMs = retryWaitMs;
+    workers = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setDaemon(true)
+                                                      .setNameFormat("metadata-fetcher-%d").build());
+    requests = Executors.newFixedThreadPool(2 * threads, new ThreadFactoryBuilder().setDaemon(true)
+                                                           .setNameFormat("metadata-request-%d").build());
+  }
+
+  /**
+   * Creates a fetcher using the metadata settings of the workflow configuration, or their defaults.
+   */
+  static MetadataFetcher create(WorkflowConfiguration workflowConfiguration) {
+    return new MetadataFetcher(
+      workflowConfiguration.getIntSetting(DownloadWorkflowModule.DefaultSettings.METADATA_FETCH_THREADS_KEY,
+                                          DEFAULT_THREADS),
+      workflowConfiguration.getIntSetting(DownloadWorkflowModule.DefaultSettings.METADATA_FETCH_RETRIES_KEY,
+                                          DEFAULT_RETRIES),
+      TimeUnit.SECONDS.toMillis(
+        workflowConfiguration.getIntSetting(DownloadWorkflowModule.DefaultSettings.METADATA_FETCH_TIMEOUT_KEY,
+                                            DEFAULT_TIMEOUT_SECONDS)),
+      DEFAULT_RETRY_WAIT_MS);
+  }
+
+  /**
+   * Submits a request, the returned future fails with the error of the last attempt if all of them fail.
+   * Dependent stages of the future run in the fetcher threads, so they are bounded too.
+   */
+  <T> CompletableFuture<T> fetch(Callable<T> request) {
+    return CompletableFuture.supplyAsync(() -> fetchWithRetries(request), workers);
+  }
+
+  private <T> T fetchWithRetries(Callable<T> request) {
+    for (int attempt = 1; ; attempt++) {
+      Future<T> call = requests.submit(request);
+      try {
+        return call.get(timeoutMs, TimeUnit.MILLISECONDS);
+      } catch (ExecutionException | TimeoutException ex) {
+        call.cancel(true);
+        Throwable error = ex instanceof ExecutionException ? ex.getCause() : ex;
+        if (attempt > retries) {
+          throw new CompletionException(error);
+        }
+        LOG.warn("Request failed on attempt {} of {}, retrying", attempt, retries + 1, error);
+        waitBeforeRetry(attempt);
+      } catch (InterruptedException ex) {
+        call.cancel(true);
+        Thread.currentThread().interrupt();
+        throw new CompletionException(ex);
+      }
+    }
+  }
+
+  private void waitBeforeRetry(int attempt) {
+    try {
+      Thread.sleep(retryWaitMs * attempt);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new CompletionException(ex);
+    }
+  }
+
+  /**
+   * Stops pending and running requests.
+   */
+  @Override
+  public void close() {
+    workers.shutdownNow();
+    requests.shutdownNow();
+  }
+}
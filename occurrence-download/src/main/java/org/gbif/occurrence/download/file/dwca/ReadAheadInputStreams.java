@@ -0,0 +1,245 @@
+package org.gbif.occurrence.download.file.dwca;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Sequence of input streams, like the part files of a Hive table, that are opened and partially read ahead of their
+ * use.
+ * While a stream is consumed the next ones are opened concurrently and their first bytes are read into buffers, so
+ * consuming the sequence isn't bound by the latency of opening each stream.
+ * At most readAhead streams are prefetched at any time and each buffer holds at most bufferSize bytes, the rest of
+ * each stream is read directly from its source.
+ * Streams must be consumed in order, as {@link java.io.SequenceInputStream} or the D2 combine stream do.
+ */
+class ReadAheadInputStreams implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReadAheadInputStreams.class);
+
+  // maximum time to wait for the running prefetches when the sequence is closed
+  private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+  private final List<Callable<InputStream>> sources;
+
+  private final List<Future<Prefetch>> prefetches = new ArrayList<>();
+
+  // streams opened by the prefetches and not closed by their consumers yet
+  private final Set<InputStream> openStreams = Collections.synchronizedSet(
+    Collections.newSetFromMap(new IdentityHashMap<>()));
+
+  private final int readAhead;
+
+  private final int bufferSize;
+
+  private final ExecutorService executor;
+
+  /**
+   * @param sources    opens each stream of the sequence
+   * @param readAhead  number of streams opened and read ahead concurrently
+   * @param bufferSize maximum number of bytes read ahead of each stream
+   */
+  ReadAheadInputStreams(List<Callable<InputStream>> sources, int readAhead, int bufferSize) {
+    checkArgument(readAhead > 0, "At least one stream must be read ahead");
+    this.sources = sources;
+    this.readAhead = readAhead;
+    this.bufferSize = bufferSize;
+    executor = Executors.newFixedThreadPool(readAhead, new ThreadFactoryBuilder().setDaemon(true)
+                                                         .setNameFormat("read-ahead-%d").build());
+  }
+
+  /**
+   * The streams of the sequence, they can be read and closed once.
+   */
+  synchronized List<InputStream> getStreams() {
+    List<InputStream> streams = new ArrayList<>(sources.size());
+    for (int i = 0; i < sources.size(); i++) {
+      streams.add(new ReadAheadInputStream(i));
+    }
+    // prefetches the first streams
+    schedule(readAhead - 1);
+    return streams;
+  }
+
+  /**
+   * Starts prefetching all the streams up to the index.
+   */
+  private synchronized Future<Prefetch> schedule(int index) {
+    int last = Math.min(index, sources.size() - 1);
+    while (prefetches.size() <= last) {
+      Callable<InputStream> source = sources.get(prefetches.size());
+      prefetches.add(executor.submit(() -> prefetch(source)));
+    }
+    return index < prefetches.size() ? prefetches.get(index) : null;
+  }
+
+  private Prefetch prefetch(Callable<InputStream> source) throws Exception {
+    InputStream in = source.call();
+    openStreams.add(in);
+    try {
+      byte[] buffer = new byte[bufferSize];
+      int length = ByteStreams.read(in, buffer, 0, bufferSize);
+      if (executor.isShutdown()) {
+        // the sequence was closed while reading ahead, it may have missed this stream
+        throw new InterruptedIOException("Read ahead streams closed");
+      }
+      return new Prefetch(buffer, length, in);
+    } catch (IOException ex) {
+      closeStream(in);
+      throw ex;
+    }
+  }
+
+  private void closeStream(InputStream in) throws IOException {
+    openStreams.remove(in);
+    in.close();
+  }
+
+  /**
+   * Stops the pending prefetches and closes the streams that were opened but not closed by their consumers, like the
+   * streams read ahead of a failed one.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    try {
+      if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        LOG.warn("Prefetches still running after {} seconds, their streams are closed when they complete",
+                 CLOSE_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    List<InputStream> streams;
+    synchronized (openStreams) {
+      streams = new ArrayList<>(openStreams);
+      openStreams.clear();
+    }
+    for (InputStream stream : streams) {
+      try {
+        stream.close();
+      } catch (IOException ex) {
+        LOG.warn("Error closing read ahead stream", ex);
+      }
+    }
+  }
+
+  /**
+   * First bytes of a stream and the stream positioned after them.
+   */
+  private static class Prefetch {
+
+    private final byte[] buffer;
+    private final int length;
+    private final InputStream rest;
+
+    Prefetch(byte[] buffer, int length, InputStream rest) {
+      this.buffer = buffer;
+      this.length = length;
+      this.rest = rest;
+    }
+  }
+
+  private class ReadAheadInputStream extends InputStream {
+
+    private final int index;
+    private Prefetch prefetch;
+    private int position;
+    private boolean consumed;
+
+    ReadAheadInputStream(int index) {
+      this.index = index;
+    }
+
+    private Prefetch prefetch() throws IOException {
+      if (prefetch == null) {
+        try {
+          prefetch = schedule(index).get();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while reading ahead stream " + index);
+        } catch (ExecutionException ex) {
+          throw ex.getCause() instanceof IOException ? (IOException) ex.getCause() : new IOException(ex.getCause());
+        }
+      }
+      return prefetch;
+    }
+
+    /**
+     * Once the buffer of this stream is consumed the next stream starts to be read ahead.
+     */
+    private void bufferConsumed() {
+      if (!consumed) {
+        consumed = true;
+        schedule(index + readAhead);
+      }
+    }
+
+    @Override
+    public int read() throws IOException {
+      Prefetch current = prefetch();
+      if (position < current.length) {
+        return current.buffer[position++] & 0xFF;
+      }
+      bufferConsumed();
+      return current.rest.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      Prefetch current = prefetch();
+      if (position < current.length) {
+        int count = Math.min(len, current.length - position);
+        System.arraycopy(current.buffer, position, b, off, count);
+        position += count;
+        return count;
+      }
+      bufferConsumed();
+      return current.rest.read(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (prefetch != null) {
+        closeStream(prefetch.rest);
+      } else {
+        // closed without being read, a prefetch still running is closed with the sequence
+        Future<Prefetch> pending = schedule(index);
+        if (pending.isDone() && !pending.isCancelled()) {
+          try {
+            closeStream(pending.get().rest);
+          } catch (ExecutionException ex) {
+            // the failed prefetch already closed its stream, the failure is only reported to readers
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+          }
+        } else {
+          pending.cancel(true);
+        }
+      }
+      bufferConsumed();
+    }
+  }
+}
@@ -1,7 +1,9 @@
 package org.gbif.occurrence.download.file.simpleavro;
 
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileConstants;
 import org.apache.avro.file.DataFileStream;
 import org.apache.avro.file.DataFileWriter;
 import org.apache.avro.generic.GenericContainer;
@@ -13,16 +15,27 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.gbif.occurrence.download.file.common.DownloadFileUtils;
 import org.gbif.occurrence.download.inject.DownloadWorkflowModule;
+import org.gbif.utils.file.FileUtils;
 import org.gbif.utils.file.properties.PropertiesUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Utility class that creates a single Avro file from a directory that stores Avro data (of a Hive table or search queries).
+ * Files are appended in order copying their blocks without decompressing them. The input files that use the output
+ * codec, as the ones written by Hive usually do, are appended directly, the others are staged concurrently into local
+ * files that use the output codec so the cost of recompression is spread across the worker threads.
  */
 public class SimpleAvroArchiveBuilder {
 
@@ -31,11 +44,26 @@ public class SimpleAvroArchiveBuilder {
   // Occurrences file name
   private static final String AVRO_EXTENSION = ".avro";
 
+  // Name of the output codec, see outputCodec()
+  private static final String OUTPUT_CODEC = DataFileConstants.DEFLATE_CODEC;
+
+  // Default number of input files staged concurrently
+  public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+
   /**
    * Merges the content of sourceFS:sourcePath into targetFS:outputPath in a file called downloadKey.avro.
    */
   public static void mergeToSingleAvro(final FileSystem sourceFS, FileSystem targetFS, String sourcePath,
                                        String targetPath, String downloadKey) throws IOException {
+    mergeToSingleAvro(sourceFS, targetFS, sourcePath, targetPath, downloadKey, DEFAULT_THREADS);
+  }
+
+  /**
+   * Merges the content of sourceFS:sourcePath into targetFS:outputPath in a file called downloadKey.avro, staging up
+   * to threads * 2 input files ahead of the one being appended.
+   */
+  public static void mergeToSingleAvro(final FileSystem sourceFS, FileSystem targetFS, String sourcePath,
+                                       String targetPath, String downloadKey, int threads) throws IOException {
 
     Path outputPath = new Path(targetPath, downloadKey + AVRO_EXTENSION);
 
@@ -43,6 +71,10 @@ public class SimpleAvroArchiveBuilder {
     ReflectDatumReader<GenericContainer> rdr = new ReflectDatumReader<>(GenericContainer.class);
     boolean first = false;
 
+    File stagingDir = FileUtils.createTempDir();
+    ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setDaemon(true)
+      .setNameFormat("avro-merge-%d").build());
+
     try (
       FSDataOutputStream zipped = targetFS.create(outputPath, true);
       DataFileWriter<GenericContainer> dfw = new DataFileWriter<>(rdw)
@@ -52,17 +84,37 @@ public class SimpleAvroArchiveBuilder {
 
       FileStatus[] hdfsFiles = sourceFS.listStatus(inputPath);
 
-      for (FileStatus fs : hdfsFiles) {
-        try(InputStream is = sourceFS.open(fs.getPath());
-            DataFileStream<GenericContainer> dfs = new DataFileStream<>(is, rdr)) {
+      // input files and their staged files, null if the input file is appended directly
+      Deque<Path> files = new ArrayDeque<>();
+      Deque<Future<File>> staged = new ArrayDeque<>();
+      int next = 0;
+
+      while (next < hdfsFiles.length || !staged.isEmpty()) {
+        while (next < hdfsFiles.length && staged.size() < threads * 2) {
+          Path file = hdfsFiles[next].getPath();
+          File stagedFile = new File(stagingDir, next + AVRO_EXTENSION);
+          files.add(file);
+          staged.add(executor.submit(() -> stage(sourceFS, file, stagedFile)));
+          next++;
+        }
+
+        Path file = files.poll();
+        File stagedFile = staged.poll().get();
+        try (InputStream is = stagedFile == null ? sourceFS.open(file) : new FileInputStream(stagedFile);
+             DataFileStream<GenericContainer> dfs = new DataFileStream<>(is, rdr)) {
           if (!first) {
-            dfw.setCodec(CodecFactory.deflateCodec(-1));
+            dfw.setCodec(outputCodec());
             dfw.setFlushOnEveryBlock(false);
             dfw.create(dfs.getSchema(), zipped);
             first = true;
           }
 
+          // codecs are the same, blocks are copied as they are
           dfw.appendAllFrom(dfs, false);
+        } finally {
+          if (stagedFile != null && !stagedFile.delete()) {
+            LOG.warn("Staged file {} could not be deleted", stagedFile);
+          }
         }
 
       }
@@ -74,7 +126,40 @@ public class SimpleAvroArchiveBuilder {
     } catch (Exception ex) {
       LOG.error("Error combining Avro files", ex);
       throw Throwables.propagate(ex);
+    } finally {
+      executor.shutdownNow();
+      FileUtils.deleteDirectoryRecursively(stagingDir);
+    }
+  }
+
+  /**
+   * Copies an input file into a local file that uses the output codec, recompressing its blocks, if the codec of the
+   * input file is a different one.
+   *
+   * @return the staged file, null if the input file uses the output codec and can be appended directly
+   */
+  private static File stage(FileSystem sourceFS, Path source, File target) throws IOException {
+    try (InputStream is = sourceFS.open(source);
+         DataFileStream<GenericContainer> dfs =
+           new DataFileStream<>(is, new ReflectDatumReader<>(GenericContainer.class))) {
+      String codec = dfs.getMetaString(DataFileConstants.CODEC);
+      if (OUTPUT_CODEC.equals(codec)) {
+        return null;
+      }
+      LOG.debug("Recompressing file {} with codec {}", source, codec);
+      try (DataFileWriter<GenericContainer> dfw =
+             new DataFileWriter<>(new ReflectDatumWriter<>(GenericContainer.class))) {
+        dfw.setCodec(outputCodec());
+        dfw.setFlushOnEveryBlock(false);
+        dfw.create(dfs.getSchema(), target);
+        dfw.appendAllFrom(dfs, false);
+      }
     }
+    return target;
+  }
+
+  private static CodecFactory outputCodec() {
+    return CodecFactory.deflateCodec(-1);
   }
 
   /**
@@ -91,7 +176,9 @@ public class SimpleAvroArchiveBuilder {
                       sourceFileSystem,
                       args[0],
                       args[1],
-                      args[2]);
+                      args[2],
+                      Integer.parseInt(properties.getProperty(DownloadWorkflowModule.DefaultSettings.ARCHIVE_MERGE_THREADS_KEY,
+                                                              String.valueOf(DEFAULT_THREADS))));
   }
 
   /**
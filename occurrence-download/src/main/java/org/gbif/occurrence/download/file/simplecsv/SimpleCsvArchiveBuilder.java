@@ -14,11 +14,17 @@ import org.gbif.utils.file.properties.PropertiesUtil;
 
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -26,6 +32,7 @@ import java.util.zip.ZipOutputStream;
 
 import com.google.common.base.Throwables;
 import com.google.common.io.ByteStreams;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.apache.curator.shaded.com.google.common.base.Preconditions;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
@@ -86,6 +93,57 @@ public class SimpleCsvArchiveBuilder {
     }
   }
 
+  /**
+   * Splices D2 compressed parts, in the given order, after the HEADER into the CSV entry of
+   * targetFS:targetPath/downloadKey.zip. The parts are not decompressed.
+   */
+  public void mergePreDeflatedToZip(FileSystem sourceFS, List<Path> parts, FileSystem targetFS, String targetPath,
+                                    String downloadKey) throws IOException {
+    Path outputPath = new Path(targetPath, downloadKey + ZIP_EXTENSION);
+    try (
+      FSDataOutputStream zipped = targetFS.create(outputPath, true);
+      ModalZipOutputStream zos = new ModalZipOutputStream(new BufferedOutputStream(zipped))
+    ) {
+      ByteArrayOutputStream compressedHeader = new ByteArrayOutputStream();
+      D2Utils.compress(new ByteArrayInputStream(header.getBytes(StandardCharsets.UTF_8)), compressedHeader);
+      List<InputStream> streams = new ArrayList<>(parts.size() + 1);
+      streams.add(new ByteArrayInputStream(compressedHeader.toByteArray()));
+      for (Path part : parts) {
+        streams.add(sourceFS.open(part));
+      }
+      appendPreDeflatedEntry(zos, streams, downloadKey);
+    }
+  }
+
+  /**
+   * Writes the HEADER and the content produced by the entryWriter into the CSV entry of
+   * targetFS:targetPath/downloadKey.zip, the content is deflated while it's written.
+   */
+  public void writeToZip(FileSystem targetFS, String targetPath, String downloadKey, EntryWriter entryWriter)
+    throws IOException {
+    Path outputPath = new Path(targetPath, downloadKey + ZIP_EXTENSION);
+    try (
+      FSDataOutputStream zipped = targetFS.create(outputPath, true);
+      ModalZipOutputStream zos = new ModalZipOutputStream(new BufferedOutputStream(zipped))
+    ) {
+      zos.putNextEntry(new ZipEntry(Paths.get(downloadKey + CSV_EXTENSION).toString()),
+                       ModalZipOutputStream.MODE.DEFAULT);
+      zos.write(header.getBytes(StandardCharsets.UTF_8));
+      // the writer can close the stream it receives without closing the zip
+      entryWriter.write(new CloseShieldOutputStream(zos));
+      zos.closeEntry();
+    }
+  }
+
+  /**
+   * Writes the content of a zip entry.
+   */
+  @FunctionalInterface
+  public interface EntryWriter {
+
+    void write(OutputStream out) throws IOException;
+  }
+
   /**
    * Merges the file using the standard java libraries java.util.zip.
    */
@@ -130,27 +188,33 @@ public class SimpleCsvArchiveBuilder {
       appendHeaderFile(sourceFS, inputPath, ModalZipOutputStream.MODE.PRE_DEFLATED);
 
       //Get all the files inside the directory and creates a list of InputStreams.
-      try {
-        D2CombineInputStream in =
-          new D2CombineInputStream(Arrays.stream(sourceFS.listStatus(inputPath)).map(fileStatus -> {
-            try {
-              return sourceFS.open(fileStatus.getPath());
-            } catch (IOException ex) {
-              throw Throwables.propagate(ex);
-            }
-          }).collect(Collectors.toList()));
-        ZipEntry ze = new ZipEntry(Paths.get(downloadKey + CSV_EXTENSION).toString());
-        zos.putNextEntry(ze, ModalZipOutputStream.MODE.PRE_DEFLATED);
-        ByteStreams.copy(in, zos);
-        in.close(); // required to get the sizes
-        ze.setSize(in.getUncompressedLength()); // important to set the sizes and CRC
-        ze.setCompressedSize(in.getCompressedLength());
-        ze.setCrc(in.getCrc32());
-        zos.closeEntry();
-      } catch (Exception ex) {
-        LOG.error(ERROR_ZIP_MSG, ex);
-        throw Throwables.propagate(ex);
-      }
+      appendPreDeflatedEntry(zos, Arrays.stream(sourceFS.listStatus(inputPath)).map(fileStatus -> {
+        try {
+          return sourceFS.open(fileStatus.getPath());
+        } catch (IOException ex) {
+          throw Throwables.propagate(ex);
+        }
+      }).collect(Collectors.toList()), downloadKey);
+    }
+  }
+
+  /**
+   * Combines the D2 compressed streams into the CSV entry.
+   */
+  private static void appendPreDeflatedEntry(ModalZipOutputStream zos, List<InputStream> parts, String downloadKey) {
+    try {
+      D2CombineInputStream in = new D2CombineInputStream(parts);
+      ZipEntry ze = new ZipEntry(Paths.get(downloadKey + CSV_EXTENSION).toString());
+      zos.putNextEntry(ze, ModalZipOutputStream.MODE.PRE_DEFLATED);
+      ByteStreams.copy(in, zos);
+      in.close(); // required to get the sizes
+      ze.setSize(in.getUncompressedLength()); // important to set the sizes and CRC
+      ze.setCompressedSize(in.getCompressedLength());
+      ze.setCrc(in.getCrc32());
+      zos.closeEntry();
+    } catch (Exception ex) {
+      LOG.error(ERROR_ZIP_MSG, ex);
+      throw Throwables.propagate(ex);
     }
   }
 
@@ -161,9 +225,9 @@ public class SimpleCsvArchiveBuilder {
     throws IOException {
     try (FSDataOutputStream fsDataOutputStream = fileSystem.create(new Path(dir, HEADER_FILE_NAME))) {
       if (ModalZipOutputStream.MODE.PRE_DEFLATED == mode) {
-        D2Utils.compress(new ByteArrayInputStream(header.getBytes()), fsDataOutputStream);
+        D2Utils.compress(new ByteArrayInputStream(header.getBytes(StandardCharsets.UTF_8)), fsDataOutputStream);
       } else {
-        fsDataOutputStream.write(header.getBytes());
+        fsDataOutputStream.write(header.getBytes(StandardCharsets.UTF_8));
       }
     }
   }
@@ -2,33 +2,38 @@ package org.gbif.occurrence.download.file.simplecsv;
 
 import org.gbif.dwc.terms.DcTerm;
 import org.gbif.dwc.terms.GbifTerm;
+import org.gbif.hadoop.compress.d2.D2Codec;
+import org.gbif.hadoop.compress.d2.D2Utils;
 import org.gbif.occurrence.download.file.DownloadFileWork;
+import org.gbif.occurrence.download.file.OccurrenceRowEncoder;
 import org.gbif.occurrence.download.file.Result;
 import org.gbif.occurrence.download.file.common.DatasetUsagesCollector;
 import org.gbif.occurrence.download.file.common.SearchQueryProcessor;
 import org.gbif.occurrence.download.hive.DownloadTerms;
 
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
-import java.util.Map;
 
 import akka.actor.UntypedActor;
 import com.google.common.base.Throwables;
 import org.apache.commons.beanutils.ConvertUtils;
 import org.apache.commons.beanutils.converters.DateConverter;
-import org.apache.commons.io.output.FileWriterWithEncoding;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.util.ReflectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.supercsv.io.CsvMapWriter;
-import org.supercsv.io.ICsvMapWriter;
+import org.supercsv.io.CsvListWriter;
+import org.supercsv.io.ICsvListWriter;
 import org.supercsv.prefs.CsvPreference;
 
-import static org.gbif.occurrence.download.file.OccurrenceMapReader.buildInterpretedOccurrenceMap;
-import static org.gbif.occurrence.download.file.OccurrenceMapReader.populateVerbatimCsvFields;
-
 /**
  * Actor that creates a part of the simple csv download file.
+ * Parts are D2 compressed, so they can be spliced into the zip file without deflating them again.
  */
 public class SimpleCsvDownloadActor extends UntypedActor {
 
@@ -39,9 +44,20 @@ public class SimpleCsvDownloadActor extends UntypedActor {
     ConvertUtils.register(new DateConverter(null), Date.class);
   }
 
-  private static final String[] COLUMNS = DownloadTerms.SIMPLE_DOWNLOAD_TERMS.stream()
-    .map(DownloadTerms::simpleName)
-    .toArray(String[]::new);
+  private static final OccurrenceRowEncoder ENCODER = OccurrenceRowEncoder.simpleCsv(DownloadTerms.SIMPLE_DOWNLOAD_TERMS);
+
+  private static final int DATASET_KEY_IDX = ENCODER.indexOf(GbifTerm.datasetKey.simpleName());
+
+  private static final int LICENSE_IDX = ENCODER.indexOf(DcTerm.license.simpleName());
+
+  private static final CompressionCodec D2_CODEC = ReflectionUtils.newInstance(D2Codec.class, new Configuration());
+
+  /**
+   * Name of the D2 compressed part file created for a job.
+   */
+  static String partFileName(DownloadFileWork work) {
+    return work.getJobDataFileName() + D2Utils.FILE_EXTENSION;
+  }
 
   @Override
   public void onReceive(Object message) throws Exception {
@@ -53,29 +69,26 @@ public class SimpleCsvDownloadActor extends UntypedActor {
   }
 
   /**
-   * Executes the job.query and creates a data file that will contains the records from job.from to job.to positions.
+   * Executes the job.query and creates a data file that will contains the records of the job key range.
    */
   private void doWork(DownloadFileWork work) throws IOException {
 
     final DatasetUsagesCollector datasetUsagesCollector = new DatasetUsagesCollector();
 
-    try (ICsvMapWriter csvMapWriter = new CsvMapWriter(new FileWriterWithEncoding(work.getJobDataFileName(),
-                                                                                  StandardCharsets.UTF_8),
-                                                       CsvPreference.TAB_PREFERENCE)) {
+    try (ICsvListWriter csvListWriter = new CsvListWriter(new OutputStreamWriter(
+                                                            D2_CODEC.createOutputStream(new BufferedOutputStream(
+                                                              new FileOutputStream(partFileName(work)))),
+                                                            StandardCharsets.UTF_8),
+                                                          CsvPreference.TAB_PREFERENCE)) {
 
-      SearchQueryProcessor.processQuery(work, occurrence -> {
+      SearchQueryProcessor.processQuery(work, ENCODER::encode, occurrenceRow -> {
           try {
-            Map<String, String> occurrenceRecordMap = buildInterpretedOccurrenceMap(occurrence, DownloadTerms.SIMPLE_DOWNLOAD_TERMS);
-            populateVerbatimCsvFields(occurrenceRecordMap, occurrence);
-
             //collect usages
-            datasetUsagesCollector.collectDatasetUsage(occurrenceRecordMap.get(GbifTerm.datasetKey.simpleName()),
-                    occurrenceRecordMap.get(DcTerm.license.simpleName()));
+            datasetUsagesCollector.collectDatasetUsage(occurrenceRow[DATASET_KEY_IDX], occurrenceRow[LICENSE_IDX]);
             //write results
-            csvMapWriter.write(occurrenceRecordMap, COLUMNS);
+            csvListWriter.write(occurrenceRow);
 
-          } catch (Exception e) {
-            getSender().tell(e, getSelf()); // inform our master
+          } catch (IOException e) {
             throw Throwables.propagate(e);
           }
         }
@@ -83,6 +96,9 @@ public class SimpleCsvDownloadActor extends UntypedActor {
 
       getSender().tell(new Result(work, datasetUsagesCollector.getDatasetUsages(),
         datasetUsagesCollector.getDatasetLicenses()), getSelf());
+    } catch (Exception e) {
+      getSender().tell(e, getSelf()); // inform our master
+      throw e;
     } finally {
       // Release the lock
       work.getLock().unlock();
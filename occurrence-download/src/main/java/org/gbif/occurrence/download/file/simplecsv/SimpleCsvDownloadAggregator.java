@@ -3,7 +3,6 @@ package org.gbif.occurrence.download.file.simplecsv;
 import org.gbif.api.model.occurrence.Download;
 import org.gbif.api.service.registry.OccurrenceDownloadService;
 import org.gbif.api.vocabulary.License;
-import org.gbif.hadoop.compress.d2.zip.ModalZipOutputStream;
 import org.gbif.occurrence.download.conf.WorkflowConfiguration;
 import org.gbif.occurrence.download.file.DownloadAggregator;
 import org.gbif.occurrence.download.file.DownloadJobConfiguration;
@@ -15,9 +14,10 @@ import org.gbif.occurrence.download.license.LicenseSelector;
 import org.gbif.occurrence.download.license.LicenseSelectors;
 import org.gbif.utils.file.FileUtils;
 
-import java.io.FileOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -37,11 +37,8 @@ public class SimpleCsvDownloadAggregator implements DownloadAggregator {
 
   private static final Logger LOG = LoggerFactory.getLogger(SimpleCsvDownloadAggregator.class);
 
-  private static final String CSV_EXTENSION = ".csv";
-
   private final DownloadJobConfiguration configuration;
   private final WorkflowConfiguration workflowConfiguration;
-  private final String outputFileName;
 
   private final OccurrenceDownloadService occurrenceDownloadService;
   private final LicenseSelector licenseSelector = LicenseSelectors.getMostRestrictiveLicenseSelector(License.CC0_1_0);
@@ -51,28 +48,24 @@ public class SimpleCsvDownloadAggregator implements DownloadAggregator {
                                      OccurrenceDownloadService occurrenceDownloadService) {
     this.configuration = configuration;
     this.workflowConfiguration = workflowConfiguration;
-    outputFileName =
-      configuration.getDownloadTempDir() + Path.SEPARATOR + configuration.getDownloadKey() + CSV_EXTENSION;
     this.occurrenceDownloadService = occurrenceDownloadService;
   }
 
   /**
    * Collects the results of each job.
    * Iterates over the list of futures to collect individual results.
+   * The D2 compressed parts of each job are spliced into the zip file in a single pass.
    */
   @Override
   public void aggregate(List<Result> results) {
     try {
-      if (!results.isEmpty()) {
-        mergeResults(results);
-      }
+      List<Path> parts = results.isEmpty() ? Collections.emptyList() : collectResults(results);
       SimpleCsvArchiveBuilder.withHeader(DownloadTerms.SIMPLE_DOWNLOAD_TERMS)
-                             .mergeToZip(FileSystem.getLocal(new Configuration()).getRawFileSystem(),
-                                         DownloadFileUtils.getHdfs(workflowConfiguration.getHdfsNameNode()),
-                                         configuration.getDownloadTempDir(),
-                                         workflowConfiguration.getHdfsOutputPath(),
-                                         configuration.getDownloadKey(),
-                                         ModalZipOutputStream.MODE.DEFAULT);
+                             .mergePreDeflatedToZip(FileSystem.getLocal(new Configuration()).getRawFileSystem(),
+                                                    parts,
+                                                    DownloadFileUtils.getHdfs(workflowConfiguration.getHdfsNameNode()),
+                                                    workflowConfiguration.getHdfsOutputPath(),
+                                                    configuration.getDownloadKey());
       //Delete the temp directory
       FileUtils.deleteDirectoryRecursively(Paths.get(configuration.getDownloadTempDir()).toFile());
     } catch (IOException ex) {
@@ -82,20 +75,22 @@ public class SimpleCsvDownloadAggregator implements DownloadAggregator {
   }
 
   /**
-   * Merges the files of each job into a single CSV file.
+   * Collects the usages and licenses of each job, and returns their part files following the original ordering.
    */
-  private void mergeResults(List<Result> results) {
-    try (FileOutputStream outputFileWriter = new FileOutputStream(outputFileName, true)) {
+  private List<Path> collectResults(List<Result> results) {
+    try {
       // Results are sorted to respect the original ordering
       Collections.sort(results);
       DatasetUsagesCollector datasetUsagesCollector = new DatasetUsagesCollector();
+      List<Path> parts = new ArrayList<>(results.size());
       for (Result result : results) {
         datasetUsagesCollector.sumUsages(result.getDatasetUsages());
         datasetUsagesCollector.mergeLicenses(result.getDatasetLicenses());
-        DownloadFileUtils.appendAndDelete(result.getDownloadFileWork().getJobDataFileName(), outputFileWriter);
+        parts.add(new Path(new File(SimpleCsvDownloadActor.partFileName(result.getDownloadFileWork())).toURI()));
       }
       occurrenceDownloadService.createUsages(configuration.getDownloadKey(), datasetUsagesCollector.getDatasetUsages());
       persistDownloadLicense(configuration.getDownloadKey(), datasetUsagesCollector.getDatasetLicenses());
+      return parts;
     } catch (Exception e) {
       LOG.error("Error merging results", e);
       throw Throwables.propagate(e);
@@ -3,54 +3,449 @@ package org.gbif.occurrence.download.file.specieslist;
 import org.gbif.dwc.terms.GbifTerm;
 import org.gbif.occurrence.download.hive.DownloadTerms;
 
-import java.util.HashMap;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.function.Consumer;
+
+import com.google.common.base.Throwables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Utility class which collects distinct species info.
+ * Species are aggregated by taxon key in an open-addressing table with primitive occurrence counters, the values of
+ * each species are kept once. When the estimated memory used by the table exceeds the memory budget, its species are
+ * spilled into a run file sorted by taxon key and the table is cleared. Species are read back merging the table and
+ * the runs by taxon key, so the number of distinct species isn't limited by the available memory.
+ * Instances are not thread-safe, {@link #close()} deletes the run files.
  */
-public class SpeciesListCollector {
+public class SpeciesListCollector implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SpeciesListCollector.class);
+
+  // Default memory budget of each collector
+  public static final int DEFAULT_MEMORY_BUDGET_MB = 64;
+
+  private static final String TAXON_KEY = GbifTerm.taxonKey.simpleName();
+
+  private static final String NUMBER_OF_OCCURRENCES = GbifTerm.numberOfOccurrences.simpleName();
+
+  // columns of the species records in download order
+  private static final String[] COLUMNS = DownloadTerms.SPECIES_LIST_DOWNLOAD_TERMS.stream()
+    .map(term -> term.getRight().simpleName())
+    .toArray(String[]::new);
+
+  // columns stored as values, all except the number of occurrences which is a counter
+  private static final String[] VALUE_COLUMNS = Arrays.stream(COLUMNS)
+    .filter(column -> !NUMBER_OF_OCCURRENCES.equals(column))
+    .toArray(String[]::new);
+
+  // taxon key of the records that don't have one
+  private static final int NO_TAXON_KEY = Integer.MIN_VALUE;
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  // approximate size of an entry without its values: table slot, key, counter and array of values
+  private static final int ENTRY_BYTES = 64 + 4 * VALUE_COLUMNS.length;
+
+  // approximate size of a String without its chars
+  private static final int STRING_BYTES = 40;
+
+  private final long memoryBudget;
+
+  private final File spillDir;
+
+  // run files sorted by taxon key
+  private final List<File> runs = new ArrayList<>();
 
-  private final Map<String, Map<String, String>> distinctSpeciesRecord = new HashMap<>();
+  // entry positions + 1 indexed by the hash of the taxon key, 0 means empty
+  private int[] slots;
+  private int[] taxonKeys;
+  private long[] counts;
+  private String[][] values;
+  private int size;
+  private long memoryUsed;
 
   /**
-   * @return set of records of distinct species.
+   * Collector that keeps all the species in memory, used for small results.
+   */
+  public SpeciesListCollector() {
+    this(Long.MAX_VALUE, null);
+  }
+
+  /**
+   * @param memoryBudget approximate number of bytes that species can use before being spilled
+   * @param spillDir     directory of the run files
+   */
+  public SpeciesListCollector(long memoryBudget, File spillDir) {
+    this.memoryBudget = memoryBudget;
+    this.spillDir = spillDir;
+    clear();
+  }
+
+  /**
+   * @return set of records of distinct species, all of them are loaded in memory.
    */
   public Set<Map<String, String>> getDistinctSpecies() {
-    return new HashSet<>(distinctSpeciesRecord.values());
+    Set<Map<String, String>> distinctSpecies = new HashSet<>();
+    forEachSpecies(distinctSpecies::add);
+    return distinctSpecies;
   }
 
   /**
-   * Gets the species record by taxon key.
+   * Gets the species record by taxon key, null if not found.
+   * The runs aren't indexed, so each call merges the table and all the runs: use {@link #forEachSpecies(Consumer)} to
+   * read more than a few species.
    */
   public Map<String, String> getByTaxonKey(String taxonKey) {
-    return distinctSpeciesRecord.get(taxonKey);
+    int key = toKey(taxonKey);
+    List<Map<String, String>> found = new ArrayList<>(1);
+    forEachEntry((entryKey, count, entryValues) -> {
+      if (entryKey == key) {
+        found.add(toRecord(count, entryValues));
+      }
+    });
+    return found.isEmpty() ? null : found.get(0);
+  }
+
+  /**
+   * Passes each distinct species to the consumer ordered by taxon key, records contain the species list download
+   * columns in download order.
+   */
+  public void forEachSpecies(Consumer<Map<String, String>> consumer) {
+    forEachEntry((key, count, entryValues) -> consumer.accept(toRecord(count, entryValues)));
   }
 
   /**
    * group results by taxon key and order them in {@link DownloadTerms} species list download order.
    */
   public void collect(Map<String, String> occurrenceRecord) {
-    String taxonKey = occurrenceRecord.get(GbifTerm.taxonKey.simpleName());
-
-    distinctSpeciesRecord.put(taxonKey, distinctSpeciesRecord.compute(taxonKey, (k, v) -> {
-      //if the values are already there increment
-      if (v != null) {
-        long count = Long.parseLong(v.get(GbifTerm.numberOfOccurrences.simpleName()))
-                     + Long.parseLong(occurrenceRecord.getOrDefault(GbifTerm.numberOfOccurrences.simpleName(), "1"));
-        v.put(GbifTerm.numberOfOccurrences.simpleName(), Long.toString(count));
-        return v;
+    String count = occurrenceRecord.get(NUMBER_OF_OCCURRENCES);
+    add(toKey(occurrenceRecord.get(TAXON_KEY)), count == null ? 1L : Long.parseLong(count), occurrenceRecord, null);
+  }
+
+  /**
+   * Adds the species of other collector, other can be closed afterwards.
+   */
+  public void collectAll(SpeciesListCollector other) {
+    other.forEachEntry((key, count, entryValues) -> add(key, count, null, entryValues));
+  }
+
+  /**
+   * Spills the species kept in memory into a run, so the collector only holds its run files until it's read, e.g.
+   * while it waits to be merged with other collectors. Nothing is spilled by collectors without spill directory.
+   */
+  public void spillAll() {
+    if (size > 0 && spillDir != null) {
+      spill();
+    }
+  }
+
+  /**
+   * Deletes the run files.
+   */
+  @Override
+  public void close() {
+    runs.forEach(run -> {
+      if (!run.delete()) {
+        LOG.warn("Species run file {} could not be deleted", run);
+      }
+    });
+    runs.clear();
+  }
+
+  /**
+   * Adds count to the species, its values are taken from the record or the array of values only when the species is
+   * new in the table.
+   */
+  private void add(int key, long count, Map<String, String> occurrenceRecord, String[] recordValues) {
+    int mask = slots.length - 1;
+    int slot = hash(key) & mask;
+    while (slots[slot] != 0) {
+      int entry = slots[slot] - 1;
+      if (taxonKeys[entry] == key) {
+        counts[entry] += count;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    String[] entryValues = recordValues;
+    if (entryValues == null) {
+      entryValues = new String[VALUE_COLUMNS.length];
+      for (int i = 0; i < VALUE_COLUMNS.length; i++) {
+        entryValues[i] = occurrenceRecord.get(VALUE_COLUMNS[i]);
+      }
+    }
+    if (size == taxonKeys.length) {
+      taxonKeys = Arrays.copyOf(taxonKeys, size * 2);
+      counts = Arrays.copyOf(counts, size * 2);
+      values = Arrays.copyOf(values, size * 2);
+    }
+    taxonKeys[size] = key;
+    counts[size] = count;
+    values[size] = entryValues;
+    slots[slot] = ++size;
+    memoryUsed += bytes(entryValues);
+
+    if ((long) size * 2 > slots.length) {
+      rehash(slots.length * 2);
+    }
+    if (memoryUsed > memoryBudget) {
+      spill();
+    }
+  }
+
+  /**
+   * Writes the entries of the table into a new run sorted by taxon key and clears the table.
+   */
+  private void spill() {
+    try {
+      spillDir.mkdirs();
+      File run = File.createTempFile("species-", ".run", spillDir);
+      runs.add(run);
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run)))) {
+        out.writeInt(size);
+        for (int entry : sortedEntries()) {
+          out.writeInt(taxonKeys[entry]);
+          out.writeLong(counts[entry]);
+          for (String value : values[entry]) {
+            writeValue(out, value);
+          }
+        }
+      }
+      LOG.debug("{} species spilled into {}", size, run);
+      clear();
+    } catch (IOException ex) {
+      throw Throwables.propagate(ex);
+    }
+  }
+
+  /**
+   * Merges the table and the runs, passing each distinct taxon key once with its total count.
+   */
+  private void forEachEntry(EntryConsumer consumer) {
+    List<Cursor> cursors = new ArrayList<>(runs.size() + 1);
+    try {
+      PriorityQueue<Cursor> queue = new PriorityQueue<>(runs.size() + 1, (c1, c2) -> Integer.compare(c1.key, c2.key));
+      cursors.add(new TableCursor(sortedEntries()));
+      for (File run : runs) {
+        cursors.add(new RunCursor(run));
+      }
+      for (Cursor cursor : cursors) {
+        if (cursor.next()) {
+          queue.add(cursor);
+        }
+      }
+      while (!queue.isEmpty()) {
+        Cursor cursor = queue.poll();
+        int key = cursor.key;
+        long count = cursor.count;
+        String[] entryValues = cursor.values;
+        if (cursor.next()) {
+          queue.add(cursor);
+        }
+        while (!queue.isEmpty() && queue.peek().key == key) {
+          Cursor same = queue.poll();
+          count += same.count;
+          if (same.next()) {
+            queue.add(same);
+          }
+        }
+        consumer.accept(key, count, entryValues);
+      }
+    } catch (IOException ex) {
+      throw Throwables.propagate(ex);
+    } finally {
+      cursors.forEach(Cursor::close);
+    }
+  }
+
+  /**
+   * Entry positions ordered by taxon key.
+   */
+  private int[] sortedEntries() {
+    // taxon key in the high bits, entry position in the low ones
+    long[] keyEntries = new long[size];
+    for (int i = 0; i < size; i++) {
+      keyEntries[i] = (long) taxonKeys[i] << 32 | i;
+    }
+    Arrays.sort(keyEntries);
+    int[] entries = new int[size];
+    for (int i = 0; i < size; i++) {
+      entries[i] = (int) keyEntries[i];
+    }
+    return entries;
+  }
+
+  private void clear() {
+    slots = new int[INITIAL_CAPACITY * 2];
+    taxonKeys = new int[INITIAL_CAPACITY];
+    counts = new long[INITIAL_CAPACITY];
+    values = new String[INITIAL_CAPACITY][];
+    size = 0;
+    memoryUsed = 0;
+  }
+
+  private void rehash(int capacity) {
+    slots = new int[capacity];
+    int mask = capacity - 1;
+    for (int entry = 0; entry < size; entry++) {
+      int slot = hash(taxonKeys[entry]) & mask;
+      while (slots[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      slots[slot] = entry + 1;
+    }
+  }
+
+  private static int hash(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private static long bytes(String[] entryValues) {
+    long bytes = ENTRY_BYTES;
+    for (String value : entryValues) {
+      if (value != null) {
+        bytes += STRING_BYTES + 2L * value.length();
+      }
+    }
+    return bytes;
+  }
+
+  private static int toKey(String taxonKey) {
+    return taxonKey == null ? NO_TAXON_KEY : Integer.parseInt(taxonKey);
+  }
+
+  private static Map<String, String> toRecord(long count, String[] entryValues) {
+    Map<String, String> record = new LinkedHashMap<>();
+    int valueIdx = 0;
+    for (String column : COLUMNS) {
+      if (NUMBER_OF_OCCURRENCES.equals(column)) {
+        record.put(column, Long.toString(count));
       } else {
-        occurrenceRecord.putIfAbsent(GbifTerm.numberOfOccurrences.simpleName(), Long.toString(1L));
-        // order the results according to download
-        return new LinkedHashMap<>(DownloadTerms.SPECIES_LIST_DOWNLOAD_TERMS.stream()
-                                     .collect(LinkedHashMap::new, (m, val) -> {
-                                       m.put(val.getRight().simpleName(), occurrenceRecord.get(val.getRight().simpleName()));
-                                     }, LinkedHashMap::putAll));
-      }
-    }));
+        record.put(column, entryValues[valueIdx++]);
+      }
+    }
+    return record;
+  }
+
+  private static void writeValue(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static String readValue(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @FunctionalInterface
+  private interface EntryConsumer {
+    void accept(int key, long count, String[] entryValues);
+  }
+
+  /**
+   * Position in a sorted source of entries.
+   */
+  private abstract static class Cursor implements Closeable {
+
+    int key;
+    long count;
+    String[] values;
+
+    /**
+     * Moves to the next entry, false if there are no more entries.
+     */
+    abstract boolean next() throws IOException;
+
+    @Override
+    public void close() {
+      // nothing to release by default
+    }
+  }
+
+  private class TableCursor extends Cursor {
+
+    private final int[] entries;
+    private int position;
+
+    TableCursor(int[] entries) {
+      this.entries = entries;
+    }
+
+    @Override
+    boolean next() {
+      if (position == entries.length) {
+        return false;
+      }
+      int entry = entries[position++];
+      key = taxonKeys[entry];
+      count = counts[entry];
+      values = SpeciesListCollector.this.values[entry];
+      return true;
+    }
+  }
+
+  private static class RunCursor extends Cursor {
+
+    private final DataInputStream in;
+    private int remaining;
+
+    RunCursor(File run) throws IOException {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(run)));
+      remaining = in.readInt();
+    }
+
+    @Override
+    boolean next() throws IOException {
+      if (remaining == 0) {
+        return false;
+      }
+      remaining--;
+      key = in.readInt();
+      count = in.readLong();
+      values = new String[VALUE_COLUMNS.length];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = readValue(in);
+      }
+      return true;
+    }
+
+    @Override
+    public void close() {
+      try {
+        in.close();
+      } catch (IOException ex) {
+        LOG.warn("Error closing species run", ex);
+      }
+    }
   }
 }
@@ -1,9 +1,9 @@
 package org.gbif.occurrence.download.file.specieslist;
 
 import static org.gbif.occurrence.download.file.OccurrenceMapReader.buildInterpretedOccurrenceMap;
+import java.io.File;
 import java.io.IOException;
 import java.util.Date;
-import java.util.Map;
 import org.apache.commons.beanutils.ConvertUtils;
 import org.apache.commons.beanutils.converters.DateConverter;
 import org.gbif.dwc.terms.DcTerm;
@@ -14,18 +14,24 @@ import org.gbif.occurrence.download.file.common.SearchQueryProcessor;
 import org.gbif.occurrence.download.hive.DownloadTerms;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import com.google.common.base.Throwables;
 import akka.actor.UntypedActor;
 
 public class SpeciesListDownloadActor extends UntypedActor {
   private static final Logger LOG = LoggerFactory.getLogger(SpeciesListDownloadActor.class);
 
+  // memory that the species of each job can use before being spilled to disk
+  private final long speciesListMemoryBudget;
+
   static {
     // https://issues.apache.org/jira/browse/BEANUTILS-387
     ConvertUtils.register(new DateConverter(null), Date.class);
   }
 
 
+  public SpeciesListDownloadActor(long speciesListMemoryBudget) {
+    this.speciesListMemoryBudget = speciesListMemoryBudget;
+  }
+
   @Override
   public void onReceive(Object message) throws Exception {
     if (message instanceof DownloadFileWork) {
@@ -36,31 +42,34 @@ public class SpeciesListDownloadActor extends UntypedActor {
   }
 
   /**
-   * Executes the job.query and creates a data file that will contains the records from job.from to
-   * job.to positions.
+   * Executes the job.query and collects the species of the records in the job key range.
    */
   private void doWork(DownloadFileWork work) throws IOException {
 
     DatasetUsagesCollector datasetUsagesCollector = new DatasetUsagesCollector();
-    SpeciesListCollector speciesCollector = new SpeciesListCollector();
+    // species are spilled next to the job data files, in the download temp directory
+    SpeciesListCollector speciesCollector =
+      new SpeciesListCollector(speciesListMemoryBudget, new File(work.getJobDataFileName()).getParentFile());
     try {
-      SearchQueryProcessor.processQuery(work, occurrence -> {
-        try {
-          Map<String, String> occurrenceRecordMap = buildInterpretedOccurrenceMap(occurrence, DownloadTerms.SPECIES_LIST_TERMS);
-          if (occurrenceRecordMap != null) {
-            // collect usages
-            datasetUsagesCollector.collectDatasetUsage(occurrenceRecordMap.get(GbifTerm.datasetKey.simpleName()),
-                occurrenceRecordMap.get(DcTerm.license.simpleName()));
-            speciesCollector.collect(occurrenceRecordMap);
-          }
-        } catch (Exception e) {
-          getSender().tell(e, getSelf()); // inform our master
-          throw Throwables.propagate(e);
+      SearchQueryProcessor.processQuery(work,
+                                        occurrence -> buildInterpretedOccurrenceMap(occurrence, DownloadTerms.SPECIES_LIST_TERMS),
+                                        occurrenceRecordMap -> {
+        if (occurrenceRecordMap != null) {
+          // collect usages
+          datasetUsagesCollector.collectDatasetUsage(occurrenceRecordMap.get(GbifTerm.datasetKey.simpleName()),
+              occurrenceRecordMap.get(DcTerm.license.simpleName()));
+          speciesCollector.collect(occurrenceRecordMap);
         }
       });
 
+      // the results of all the jobs wait for the aggregator, only their run files are kept
+      speciesCollector.spillAll();
       getSender().tell(new SpeciesListResult(work, datasetUsagesCollector.getDatasetUsages(), datasetUsagesCollector.getDatasetLicenses(),
-        speciesCollector.getDistinctSpecies()), getSelf());
+        speciesCollector), getSelf());
+    } catch (Exception e) {
+      speciesCollector.close();
+      getSender().tell(e, getSelf()); // inform our master
+      throw e;
     } finally {
       // Release the lock
       work.getLock().unlock();
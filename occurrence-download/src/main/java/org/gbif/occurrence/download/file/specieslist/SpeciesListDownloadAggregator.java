@@ -1,22 +1,20 @@
 package org.gbif.occurrence.download.file.specieslist;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.inject.Inject;
-import org.apache.commons.io.output.FileWriterWithEncoding;
-import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.fs.FileSystem;
-import org.apache.hadoop.fs.Path;
 import org.gbif.api.model.occurrence.Download;
 import org.gbif.api.service.registry.OccurrenceDownloadService;
 import org.gbif.api.vocabulary.License;
 import org.gbif.dwc.terms.Term;
-import org.gbif.hadoop.compress.d2.zip.ModalZipOutputStream;
 import org.gbif.occurrence.download.conf.WorkflowConfiguration;
 import org.gbif.occurrence.download.file.DownloadAggregator;
 import org.gbif.occurrence.download.file.DownloadJobConfiguration;
@@ -26,6 +24,7 @@ import org.gbif.occurrence.download.file.common.DownloadCount;
 import org.gbif.occurrence.download.file.common.DownloadFileUtils;
 import org.gbif.occurrence.download.file.simplecsv.SimpleCsvArchiveBuilder;
 import org.gbif.occurrence.download.hive.DownloadTerms;
+import org.gbif.occurrence.download.inject.DownloadWorkflowModule;
 import org.gbif.occurrence.download.license.LicenseSelector;
 import org.gbif.occurrence.download.license.LicenseSelectors;
 import org.gbif.utils.file.FileUtils;
@@ -35,6 +34,7 @@ import org.supercsv.io.CsvMapWriter;
 import org.supercsv.io.ICsvMapWriter;
 import org.supercsv.prefs.CsvPreference;
 import com.google.common.base.Throwables;
+import com.google.common.io.Closer;
 
 /**
  * Aggregates multiple files from different jobs and merge there result to final file.
@@ -44,15 +44,12 @@ public class SpeciesListDownloadAggregator implements DownloadAggregator {
 
   private static final Logger LOG = LoggerFactory.getLogger(SpeciesListDownloadAggregator.class);
 
-  private static final String CSV_EXTENSION = ".csv";
-
   private static final String[] COLUMNS = DownloadTerms.SPECIES_LIST_DOWNLOAD_TERMS.stream()
     .map(DownloadTerms::simpleName)
     .toArray(String[]::new);
 
   private final DownloadJobConfiguration configuration;
   private final WorkflowConfiguration workflowConfiguration;
-  private final String outputFileName;
 
   private final OccurrenceDownloadService occurrenceDownloadService;
   private final LicenseSelector licenseSelector = LicenseSelectors.getMostRestrictiveLicenseSelector(License.CC0_1_0);
@@ -62,56 +59,78 @@ public class SpeciesListDownloadAggregator implements DownloadAggregator {
       OccurrenceDownloadService occurrenceDownloadService) {
     this.configuration = configuration;
     this.workflowConfiguration = workflowConfiguration;
-    outputFileName = configuration.getDownloadTempDir() + Path.SEPARATOR + configuration.getDownloadKey() + CSV_EXTENSION;
     this.occurrenceDownloadService = occurrenceDownloadService;
   }
 
+  /**
+   * Merges the results and writes the species list straight into the zip file, without an intermediate CSV file.
+   */
   @Override
   public void aggregate(List<Result> results) {
-    try {
+    try (SpeciesListCollector speciesListCollector = new SpeciesListCollector(memoryBudget(),
+                                                                              new File(configuration.getDownloadTempDir()))) {
       if (!results.isEmpty()) {
-        mergeResults(results);
+        mergeResults(results, speciesListCollector);
+      }
+      AtomicLong speciesCount = new AtomicLong();
+      SimpleCsvArchiveBuilder.withHeader(DownloadTerms.SPECIES_LIST_DOWNLOAD_TERMS).writeToZip(
+          DownloadFileUtils.getHdfs(workflowConfiguration.getHdfsNameNode()), workflowConfiguration.getHdfsOutputPath(),
+          configuration.getDownloadKey(), out -> speciesCount.set(exportTo(out, speciesListCollector)));
+      if (!results.isEmpty()) {
+        // the number of distinct species is known once they have been merged
+        DownloadCount.persist(configuration.getDownloadKey(), speciesCount.get(), occurrenceDownloadService);
       }
-      SimpleCsvArchiveBuilder.withHeader(DownloadTerms.SPECIES_LIST_DOWNLOAD_TERMS).mergeToZip(
-          FileSystem.getLocal(new Configuration()).getRawFileSystem(), DownloadFileUtils.getHdfs(workflowConfiguration.getHdfsNameNode()),
-          configuration.getDownloadTempDir(), workflowConfiguration.getHdfsOutputPath(), configuration.getDownloadKey(),
-          ModalZipOutputStream.MODE.DEFAULT);
-      // Delete the temp directory
-      FileUtils.deleteDirectoryRecursively(Paths.get(configuration.getDownloadTempDir()).toFile());
     } catch (IOException ex) {
       LOG.error("Error aggregating download files", ex);
       throw Throwables.propagate(ex);
     }
+    // Delete the temp directory once the collector has deleted its run files
+    FileUtils.deleteDirectoryRecursively(Paths.get(configuration.getDownloadTempDir()).toFile());
+  }
+
+  /**
+   * Memory that the merged species can use before being spilled to disk.
+   */
+  private long memoryBudget() {
+    return workflowConfiguration.getIntSetting(DownloadWorkflowModule.DefaultSettings.SPECIES_LIST_MEMORY_BUDGET_KEY,
+                                               SpeciesListCollector.DEFAULT_MEMORY_BUDGET_MB) * 1024L * 1024L;
   }
 
   /**
-   * Merges the files of each job into a single CSV file.
+   * Merges the species of each job and persists the usages and licenses of the download.
    */
-  private void mergeResults(List<Result> results) {
+  private void mergeResults(List<Result> results, SpeciesListCollector speciesListCollector) throws IOException {
     // Results are sorted to respect the original ordering
     Collections.sort(results);
     DatasetUsagesCollector datasetUsagesCollector = new DatasetUsagesCollector();
-    SpeciesListCollector speciesListCollector = new SpeciesListCollector();
 
-    for (Result result : results) {
-      SpeciesListResult speciesResult = (SpeciesListResult) result;
-      datasetUsagesCollector.sumUsages(speciesResult.getDatasetUsages());
-      datasetUsagesCollector.mergeLicenses(speciesResult.getDatasetLicenses());
-      speciesResult.getDistinctSpecies().iterator().forEachRemaining(speciesListCollector::collect);
+    // the run files of every job are deleted even if merging one of them fails
+    try (Closer jobCollectors = Closer.create()) {
+      for (Result result : results) {
+        jobCollectors.register(((SpeciesListResult) result).getSpeciesListCollector());
+      }
+      for (Result result : results) {
+        SpeciesListResult speciesResult = (SpeciesListResult) result;
+        datasetUsagesCollector.sumUsages(speciesResult.getDatasetUsages());
+        datasetUsagesCollector.mergeLicenses(speciesResult.getDatasetLicenses());
+        speciesListCollector.collectAll(speciesResult.getSpeciesListCollector());
+      }
     }
-    exportToFile(outputFileName, speciesListCollector);
     occurrenceDownloadService.createUsages(configuration.getDownloadKey(), datasetUsagesCollector.getDatasetUsages());
     persistDownloadLicense(configuration.getDownloadKey(), datasetUsagesCollector.getDatasetLicenses());
-    DownloadCount.persist(configuration.getDownloadKey(), speciesListCollector.getDistinctSpecies().size(), occurrenceDownloadService);
   }
 
-  private void exportToFile(String outputFileName, SpeciesListCollector speciesListCollector) {
+  /**
+   * Writes the species ordered by taxon key, returns the number of species written.
+   */
+  private long exportTo(OutputStream out, SpeciesListCollector speciesListCollector) {
+    AtomicLong count = new AtomicLong();
     try (ICsvMapWriter csvMapWriter =
-        new CsvMapWriter(new FileWriterWithEncoding(outputFileName, StandardCharsets.UTF_8), CsvPreference.TAB_PREFERENCE)) {
-      Set<Map<String, String>> distinctSpecies = speciesListCollector.getDistinctSpecies();
-      distinctSpecies.iterator().forEachRemaining(speciesInfo -> {
+        new CsvMapWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), CsvPreference.TAB_PREFERENCE)) {
+      speciesListCollector.forEachSpecies(speciesInfo -> {
         try {
           csvMapWriter.write(speciesInfo, COLUMNS);
+          count.incrementAndGet();
         } catch (IOException e) {
           LOG.error("Error merging results", e);
           throw Throwables.propagate(e);
@@ -121,6 +140,7 @@ public class SpeciesListDownloadAggregator implements DownloadAggregator {
       LOG.error("Error merging results", e);
       throw Throwables.propagate(e);
     }
+    return count.get();
   }
   
   /**
@@ -9,20 +9,23 @@ import org.gbif.occurrence.download.file.Result;
 
 /**
  * 
- * Customizing {@link org.gbif.occurrence.download.file.Result} to add distinct species list.
+ * Customizing {@link org.gbif.occurrence.download.file.Result} to add the collector of distinct species.
  *
  */
 public class SpeciesListResult extends Result {
 
-  private final Set<Map<String, String>> distinctSpecies;
+  private final SpeciesListCollector speciesListCollector;
 
   public SpeciesListResult(DownloadFileWork work, Map<UUID, Long> datasetUsages, Set<License> datasetLicenses,
-      Set<Map<String, String>> distinctSpecies) {
+      SpeciesListCollector speciesListCollector) {
     super(work, datasetUsages, datasetLicenses);
-    this.distinctSpecies = distinctSpecies;
+    this.speciesListCollector = speciesListCollector;
   }
 
-  public Set<Map<String, String>> getDistinctSpecies() {
-    return distinctSpecies;
+  /**
+   * Species collected by the job, the receiver closes it once its species are merged.
+   */
+  public SpeciesListCollector getSpeciesListCollector() {
+    return speciesListCollector;
   }
 }
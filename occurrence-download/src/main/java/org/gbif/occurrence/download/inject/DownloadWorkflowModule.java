@@ -15,8 +15,10 @@ import org.gbif.occurrence.download.conf.WorkflowConfiguration;
 import org.gbif.occurrence.download.file.DownloadAggregator;
 import org.gbif.occurrence.download.file.DownloadJobConfiguration;
 import org.gbif.occurrence.download.file.DownloadMaster;
+import org.gbif.occurrence.download.file.common.SearchQueryProcessor;
 import org.gbif.occurrence.download.file.dwca.DwcaDownloadAggregator;
 import org.gbif.occurrence.download.file.simplecsv.SimpleCsvDownloadAggregator;
+import org.gbif.occurrence.download.file.specieslist.SpeciesListCollector;
 import org.gbif.occurrence.download.file.specieslist.SpeciesListDownloadAggregator;
 import org.gbif.occurrence.download.oozie.DownloadPrepareAction;
 import org.gbif.occurrence.search.es.EsConfig;
@@ -172,6 +174,11 @@ public class DownloadWorkflowModule  {
             .minNrOfRecords(workflowConfiguration.getIntSetting(DefaultSettings.JOB_MIN_RECORDS_KEY))
             .maximumNrOfRecords(workflowConfiguration.getIntSetting(DefaultSettings.MAX_RECORDS_KEY))
             .lockName(workflowConfiguration.getSetting(DefaultSettings.ZK_LOCK_NAME_KEY))
+            .pageSize(workflowConfiguration.getIntSetting(DefaultSettings.JOB_PAGE_SIZE_KEY,
+                                                          SearchQueryProcessor.DEFAULT_PAGE_SIZE))
+            .speciesListMemoryBudget(workflowConfiguration.getIntSetting(DefaultSettings.SPECIES_LIST_MEMORY_BUDGET_KEY,
+                                                                         SpeciesListCollector.DEFAULT_MEMORY_BUDGET_MB)
+                                     * 1024L * 1024L)
             .build();
   }
 
@@ -266,6 +273,7 @@ public class DownloadWorkflowModule  {
     }
     public static final String MAX_THREADS_KEY = PROPERTIES_PREFIX + "job.max_threads";
     public static final String JOB_MIN_RECORDS_KEY = PROPERTIES_PREFIX + "job.min_records";
+    public static final String JOB_PAGE_SIZE_KEY = PROPERTIES_PREFIX + "job.page_size";
     public static final String MAX_RECORDS_KEY = PROPERTIES_PREFIX + "file.max_records";
     public static final String ZK_LOCK_NAME_KEY = PROPERTIES_PREFIX + "zookeeper.lock_name";
     public static final String MAX_GLOBAL_THREADS_KEY = PROPERTIES_PREFIX + "max_global_threads";
@@ -276,6 +284,16 @@ public class DownloadWorkflowModule  {
     public static final String HDFS_OUTPUT_PATH_KEY = PROPERTIES_PREFIX + "hdfsOutputPath";
     public static final String TMP_DIR_KEY = PROPERTIES_PREFIX + "tmp.dir";
     public static final String HIVE_DB_PATH_KEY = PROPERTIES_PREFIX + "hive.hdfs.out";
+    public static final String METADATA_FETCH_THREADS_KEY = PROPERTIES_PREFIX + "metadata.fetch_threads";
+    public static final String METADATA_FETCH_RETRIES_KEY = PROPERTIES_PREFIX + "metadata.fetch_retries";
+    public static final String METADATA_FETCH_TIMEOUT_KEY = PROPERTIES_PREFIX + "metadata.fetch_timeout";
+    public static final String METADATA_CACHE_DIR_KEY = PROPERTIES_PREFIX + "metadata.cache_dir";
+    public static final String METADATA_CACHE_MAX_SIZE_KEY = PROPERTIES_PREFIX + "metadata.cache_max_size";
+    public static final String ARCHIVE_READ_AHEAD_KEY = PROPERTIES_PREFIX + "archive.read_ahead_parts";
+    public static final String ARCHIVE_DEFLATE_THREADS_KEY = PROPERTIES_PREFIX + "archive.deflate_threads";
+    public static final String ARCHIVE_DEFLATE_CHUNK_SIZE_KEY = PROPERTIES_PREFIX + "archive.deflate_chunk_size";
+    public static final String ARCHIVE_MERGE_THREADS_KEY = PROPERTIES_PREFIX + "archive.merge_threads";
+    public static final String SPECIES_LIST_MEMORY_BUDGET_KEY = PROPERTIES_PREFIX + "species_list.memory_budget";
 
 
     public static final String ZK_INDICES_NS_KEY = PROPERTIES_PREFIX + "zookeeper.indices.namespace";
@@ -0,0 +1,89 @@
+package org.gbif.occurrence.download.file;
+
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.License;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.occurrence.download.hive.DownloadTerms;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.supercsv.io.CsvListWriter;
+import org.supercsv.io.CsvMapWriter;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Test cases for the class {@link OccurrenceRowEncoder}, rows must be written exactly as the maps of
+ * {@link OccurrenceMapReader}.
+ */
+public class OccurrenceRowEncoderTest {
+
+  private static Occurrence testOccurrence() {
+    Occurrence occurrence = new Occurrence();
+    occurrence.setKey(1L);
+    occurrence.setBasisOfRecord(BasisOfRecord.PRESERVED_SPECIMEN);
+    occurrence.setScientificName("Puma concolor (Linnaeus, 1771)");
+    occurrence.setCountry(Country.DENMARK);
+    occurrence.setDatasetKey(UUID.randomUUID());
+    occurrence.setLicense(License.CC0_1_0);
+    occurrence.setDecimalLatitude(55.6);
+    occurrence.setDecimalLongitude(12.5);
+    occurrence.setEventDate(new Date());
+    occurrence.setIssues(Collections.singleton(OccurrenceIssue.RECORDED_DATE_MISMATCH));
+    occurrence.setVerbatimField(DwcTerm.scientificName, "Puma \"concolor\"");
+    occurrence.setVerbatimField(DwcTerm.locality, "Copenhagen\tHarbour\nNorth");
+    occurrence.setVerbatimField(DwcTerm.institutionCode, "NHMD");
+    return occurrence;
+  }
+
+  private static String writeMap(Map<String, String> map, String[] columns) throws IOException {
+    StringWriter writer = new StringWriter();
+    try (CsvMapWriter csvMapWriter = new CsvMapWriter(writer, CsvPreference.TAB_PREFERENCE)) {
+      csvMapWriter.write(map, columns);
+    }
+    return writer.toString();
+  }
+
+  private static String writeRow(String[] row) throws IOException {
+    StringWriter writer = new StringWriter();
+    try (CsvListWriter csvListWriter = new CsvListWriter(writer, CsvPreference.TAB_PREFERENCE)) {
+      csvListWriter.write(row);
+    }
+    return writer.toString();
+  }
+
+  @Test
+  public void testInterpretedRow() throws IOException {
+    Occurrence occurrence = testOccurrence();
+    OccurrenceRowEncoder encoder = OccurrenceRowEncoder.interpreted();
+    Assertions.assertEquals(writeMap(OccurrenceMapReader.buildInterpretedOccurrenceMap(occurrence), encoder.getColumns()),
+                            writeRow(encoder.encode(occurrence)));
+  }
+
+  @Test
+  public void testVerbatimRow() throws IOException {
+    Occurrence occurrence = testOccurrence();
+    OccurrenceRowEncoder encoder = OccurrenceRowEncoder.verbatim();
+    Assertions.assertEquals(writeMap(OccurrenceMapReader.buildVerbatimOccurrenceMap(occurrence), encoder.getColumns()),
+                            writeRow(encoder.encode(occurrence)));
+  }
+
+  @Test
+  public void testSimpleCsvRow() throws IOException {
+    Occurrence occurrence = testOccurrence();
+    OccurrenceRowEncoder encoder = OccurrenceRowEncoder.simpleCsv(DownloadTerms.SIMPLE_DOWNLOAD_TERMS);
+    Map<String, String> map =
+      OccurrenceMapReader.buildInterpretedOccurrenceMap(occurrence, DownloadTerms.SIMPLE_DOWNLOAD_TERMS);
+    OccurrenceMapReader.populateVerbatimCsvFields(map, occurrence);
+    Assertions.assertEquals(writeMap(map, encoder.getColumns()), writeRow(encoder.encode(occurrence)));
+  }
+}
@@ -0,0 +1,98 @@
+package org.gbif.occurrence.download.file.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelDeflateOutputStreamTest {
+
+  private static final int CHUNK_SIZE = 32 * 1024;
+
+  /**
+   * The content can be inflated as a single raw deflate stream, regardless of the chunk boundaries.
+   */
+  @Test
+  public void testRoundTrip() throws Exception {
+    ExecutorService executor = ParallelDeflateOutputStream.newExecutor(3);
+    try {
+      for (int size : new int[] {0, 1, CHUNK_SIZE - 1, CHUNK_SIZE, CHUNK_SIZE + 1, 10 * CHUNK_SIZE + 123}) {
+        byte[] content = content(size);
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+        ParallelDeflateOutputStream out = new ParallelDeflateOutputStream(deflated, executor, 3, CHUNK_SIZE);
+        // writes in pieces that don't match the chunks
+        for (int off = 0; off < size; off += 1000) {
+          out.write(content, off, Math.min(1000, size - off));
+        }
+        out.close();
+
+        assertArrayEquals(content, inflate(deflated.toByteArray(), size));
+        assertEquals(size, out.getUncompressedLength());
+        assertEquals(deflated.size(), out.getCompressedLength());
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        assertEquals(crc.getValue(), out.getCrc32());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Repetitions across chunks are compressed thanks to the dictionary.
+   */
+  @Test
+  public void testDictionary() throws Exception {
+    ExecutorService executor = ParallelDeflateOutputStream.newExecutor(2);
+    try {
+      byte[] block = content(CHUNK_SIZE);
+      ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+      try (ParallelDeflateOutputStream out = new ParallelDeflateOutputStream(deflated, executor, 2, CHUNK_SIZE)) {
+        for (int i = 0; i < 8; i++) {
+          out.write(block);
+        }
+      }
+      assertTrue(deflated.size() < 2 * CHUNK_SIZE, "Repeated chunks must be compressed");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static byte[] content(int size) {
+    Random random = new Random(size);
+    byte[] content = new byte[size];
+    for (int i = 0; i < size; i++) {
+      // compressible text-like content
+      content[i] = (byte) ('a' + random.nextInt(8));
+    }
+    return content;
+  }
+
+  private static byte[] inflate(byte[] deflated, int size) throws Exception {
+    Inflater inflater = new Inflater(true);
+    try {
+      // raw streams need an extra byte to signal the end of the input
+      byte[] input = new byte[deflated.length + 1];
+      System.arraycopy(deflated, 0, input, 0, deflated.length);
+      inflater.setInput(input);
+      ByteArrayOutputStream inflated = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      while (!inflater.finished()) {
+        int count = inflater.inflate(buffer);
+        assertTrue(count > 0 || inflater.finished(), "Incomplete deflate stream");
+        inflated.write(buffer, 0, count);
+      }
+      assertEquals(size, inflated.size());
+      return inflated.toByteArray();
+    } finally {
+      inflater.end();
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package org.gbif.occurrence.download.file.common;
+
+import org.gbif.api.vocabulary.License;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DatasetUsagesCollectorTest {
+
+  /**
+   * Every form of the keys counts the same usage, the table grows beyond its initial capacity.
+   */
+  @Test
+  public void testIncrementDatasetUsage() {
+    DatasetUsagesCollector collector = new DatasetUsagesCollector();
+    Map<UUID, Long> expected = new HashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      UUID key = new UUID(i * 31L - 500, -i);
+      long count = i % 3 + 1;
+      collector.incrementDatasetUsage(key.toString());
+      for (int j = 1; j < count; j++) {
+        switch (j) {
+          case 1:
+            collector.incrementDatasetUsage(key);
+            break;
+          default:
+            collector.incrementDatasetUsage(key.toString().toUpperCase());
+        }
+      }
+      expected.put(key, count);
+    }
+    collector.incrementDatasetUsage((String) null);
+    assertEquals(expected, collector.getDatasetUsages());
+  }
+
+  @Test
+  public void testNonCanonicalKeys() {
+    DatasetUsagesCollector collector = new DatasetUsagesCollector();
+    collector.incrementDatasetUsage("1-2-3-4-5");
+    collector.incrementDatasetUsage("00000001-0002-0003-0004-000000000005");
+    assertEquals(ImmutableMap.of(UUID.fromString("1-2-3-4-5"), 2L), collector.getDatasetUsages());
+    assertThrows(IllegalArgumentException.class, () -> collector.incrementDatasetUsage("not a dataset key"));
+    assertThrows(IllegalArgumentException.class,
+                 () -> collector.incrementDatasetUsage("0000000x-0002-0003-0004-000000000005"));
+  }
+
+  @Test
+  public void testSumUsages() {
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    DatasetUsagesCollector collector = new DatasetUsagesCollector();
+    collector.incrementDatasetUsage(first);
+    collector.sumUsages(ImmutableMap.of(first, 10L, second, 5L));
+    collector.sumUsages(ImmutableMap.of(second, 1L));
+    assertEquals(ImmutableMap.of(first, 11L, second, 6L), collector.getDatasetUsages());
+  }
+
+  @Test
+  public void testCollectLicenses() {
+    DatasetUsagesCollector collector = new DatasetUsagesCollector();
+    String datasetKey = UUID.randomUUID().toString();
+    collector.collectDatasetUsage(datasetKey, License.CC0_1_0.name());
+    collector.collectDatasetUsage(datasetKey, License.CC0_1_0.name());
+    collector.collectDatasetUsage(datasetKey, License.CC_BY_4_0.name());
+    collector.collectDatasetUsage(null, License.CC_BY_NC_4_0.name());
+    collector.collectDatasetUsage(UUID.randomUUID().toString(), null);
+    assertEquals(ImmutableSet.of(License.CC0_1_0, License.CC_BY_4_0, License.CC_BY_NC_4_0),
+                 collector.getDatasetLicenses());
+    assertEquals(3L, collector.getDatasetUsages().get(UUID.fromString(datasetKey)).longValue());
+    assertEquals(2, collector.getDatasetUsages().size());
+  }
+}
@@ -0,0 +1,45 @@
+package org.gbif.occurrence.download.file.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class DownloadFileUtilsTest {
+
+  @Test
+  public void testAppendAndDelete() throws IOException {
+    File dir = Files.createTempDirectory("append").toFile();
+    try {
+      File output = new File(dir, "output.txt");
+      try (FileOutputStream out = new FileOutputStream(output, true)) {
+        out.write("header\n".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < 3; i++) {
+          File part = new File(dir, "part" + i);
+          Files.write(part.toPath(), ("line" + i + '\n').getBytes(StandardCharsets.UTF_8));
+          DownloadFileUtils.appendAndDelete(part.getPath(), out);
+          assertFalse(part.exists());
+        }
+        out.write("footer\n".getBytes(StandardCharsets.UTF_8));
+      }
+      assertEquals("header\nline0\nline1\nline2\nfooter\n",
+                   new String(Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8));
+
+      // other output streams are copied
+      File part = new File(dir, "part");
+      Files.write(part.toPath(), "line\n".getBytes(StandardCharsets.UTF_8));
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      DownloadFileUtils.appendAndDelete(part.getPath(), out);
+      assertEquals("line\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    } finally {
+      org.gbif.utils.file.FileUtils.deleteDirectoryRecursively(dir);
+    }
+  }
+}
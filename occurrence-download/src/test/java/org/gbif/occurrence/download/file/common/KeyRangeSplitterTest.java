@@ -0,0 +1,32 @@
+package org.gbif.occurrence.download.file.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class KeyRangeSplitterTest {
+
+  @Test
+  public void testSplitKeys() {
+    Long[] splitKeys = KeyRangeSplitter.toSplitKeys(new double[] {10.2, 20.0, 30.7}, null);
+    assertArrayEquals(new Long[] {null, 11L, 20L, 31L, null}, splitKeys);
+  }
+
+  /**
+   * Approximated percentiles must not produce overlapping ranges.
+   */
+  @Test
+  public void testSplitKeysNonDecreasing() {
+    Long[] splitKeys = KeyRangeSplitter.toSplitKeys(new double[] {20.0, 15.0, Double.NaN}, null);
+    assertArrayEquals(new Long[] {null, 20L, 20L, Long.MAX_VALUE, null}, splitKeys);
+  }
+
+  /**
+   * Truncated results keep the greatest keys.
+   */
+  @Test
+  public void testSplitKeysLowerBound() {
+    Long[] splitKeys = KeyRangeSplitter.toSplitKeys(new double[] {10.0, 50.0}, 40L);
+    assertArrayEquals(new Long[] {40L, 40L, 50L, null}, splitKeys);
+  }
+}
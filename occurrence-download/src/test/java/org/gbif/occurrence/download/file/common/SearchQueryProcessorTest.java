@@ -0,0 +1,98 @@
+package org.gbif.occurrence.download.file.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SearchQueryProcessorTest {
+
+  /**
+   * Fetches the pages of a list, null when there are no more pages.
+   */
+  private static <P> SearchQueryProcessor.PageFetcher<P> pages(List<P> pages) {
+    Iterator<P> iterator = pages.iterator();
+    return () -> iterator.hasNext() ? iterator.next() : null;
+  }
+
+  private static List<List<Integer>> pagesOf(int nrOfPages, int pageSize) {
+    return IntStream.range(0, nrOfPages)
+      .mapToObj(page -> IntStream.range(page * pageSize, (page + 1) * pageSize).boxed().collect(Collectors.toList()))
+      .collect(Collectors.toList());
+  }
+
+  @Test
+  public void testResultsHandledInOrder() {
+    List<String> results = new ArrayList<>();
+    SearchQueryProcessor.process(pages(pagesOf(20, 10)),
+                                 page -> page.stream().map(String::valueOf).collect(Collectors.toList()),
+                                 results::add);
+
+    assertEquals(IntStream.range(0, 200).mapToObj(String::valueOf).collect(Collectors.toList()), results);
+  }
+
+  @Test
+  public void testNoPages() {
+    List<Integer> results = new ArrayList<>();
+    SearchQueryProcessor.<List<Integer>, Integer>process(() -> null, page -> page, results::add);
+    assertTrue(results.isEmpty());
+  }
+
+  @Test
+  public void testFetchErrorPropagated() {
+    AtomicInteger fetched = new AtomicInteger();
+    List<Integer> results = new ArrayList<>();
+    IllegalStateException ex = assertThrows(IllegalStateException.class, () ->
+      SearchQueryProcessor.<List<Integer>, Integer>process(() -> {
+        if (fetched.incrementAndGet() > 2) {
+          throw new IllegalStateException("fetch failed");
+        }
+        return Arrays.asList(fetched.get());
+      }, page -> page, results::add));
+
+    assertEquals("fetch failed", ex.getMessage());
+    // the pages fetched before the error are handled
+    assertEquals(Arrays.asList(1, 2), results);
+  }
+
+  @Test
+  public void testConversionErrorPropagated() {
+    IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
+      SearchQueryProcessor.process(pages(pagesOf(5, 10)), page -> {
+        if (page.contains(25)) {
+          throw new IllegalArgumentException("conversion failed");
+        }
+        return page;
+      }, result -> { }));
+    assertEquals("conversion failed", ex.getMessage());
+  }
+
+  /**
+   * Errors of the handler stop the fetcher, which would otherwise be blocked on the full queue of pages.
+   */
+  @Test
+  public void testHandlerErrorStopsFetcher() throws InterruptedException {
+    AtomicInteger fetched = new AtomicInteger();
+    assertThrows(IllegalStateException.class, () ->
+      SearchQueryProcessor.<List<Integer>, Integer>process(() -> Arrays.asList(fetched.incrementAndGet()),
+                                                           page -> page,
+                                                           result -> {
+                                                             throw new IllegalStateException("handler failed");
+                                                           }));
+
+    // the fetcher is cancelled, no more pages are requested
+    Thread.sleep(200);
+    int fetchedPages = fetched.get();
+    Thread.sleep(200);
+    assertEquals(fetchedPages, fetched.get());
+  }
+}
@@ -0,0 +1,136 @@
+package org.gbif.occurrence.download.file.dwca;
+
+import org.gbif.api.model.registry.Dataset;
+import org.gbif.api.model.registry.Metadata;
+import org.gbif.api.vocabulary.MetadataType;
+import org.gbif.occurrence.download.conf.WorkflowConfiguration;
+import org.gbif.occurrence.download.inject.DownloadWorkflowModule;
+import org.gbif.utils.file.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EmlCacheTest {
+
+  private static final byte[] EML = "<eml/>".getBytes(StandardCharsets.UTF_8);
+
+  private File dir;
+
+  @BeforeEach
+  public void setup() throws IOException {
+    dir = Files.createTempDirectory("eml-cache").toFile();
+  }
+
+  @AfterEach
+  public void cleanup() {
+    FileUtils.deleteDirectoryRecursively(dir);
+  }
+
+  @Test
+  public void testVersions() throws IOException {
+    EmlCache cache = new EmlCache(new File(dir, "cache"), 1024);
+    UUID key = UUID.randomUUID();
+    File target = new File(dir, "eml.xml");
+    String version = "v1";
+
+    assertFalse(cache.copyTo(key, version, target));
+    cache.put(key, version, EML);
+    assertTrue(cache.copyTo(key, version, target));
+    assertArrayEquals(EML, Files.readAllBytes(target.toPath()));
+
+    // a newer version of the dataset replaces the cached one
+    assertFalse(cache.copyTo(key, "v2", target));
+    cache.put(key, "v2", "<eml>v2</eml>".getBytes(StandardCharsets.UTF_8));
+    assertFalse(cache.copyTo(key, version, target));
+    assertTrue(cache.copyTo(key, "v2", target));
+    assertEquals(1, new File(dir, "cache").list().length);
+
+    // documents without version are not cached
+    cache.put(key, null, EML);
+    assertFalse(cache.copyTo(key, null, target));
+  }
+
+  @Test
+  public void testEvict() throws IOException {
+    EmlCache cache = new EmlCache(dir, EML.length * 2);
+    UUID[] keys = {UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()};
+    String version = "v1";
+    long lastUse = System.currentTimeMillis() - 10000;
+    for (UUID key : keys) {
+      cache.put(key, version, EML);
+      Files.setLastModifiedTime(new File(dir, key + "-v1.xml").toPath(), FileTime.fromMillis(lastUse++));
+    }
+    // the first entry is used again, so the second one is the least recently used
+    File target = new File(dir, "eml.out");
+    assertTrue(cache.copyTo(keys[0], version, target));
+
+    cache.evict();
+    assertTrue(cache.copyTo(keys[0], version, target));
+    assertFalse(cache.copyTo(keys[1], version, target));
+    assertTrue(cache.copyTo(keys[2], version, target));
+  }
+
+  /**
+   * Changes of the dataset record or its metadata documents change the version, even if the modified date doesn't.
+   */
+  @Test
+  public void testVersion() {
+    Dataset dataset = new Dataset();
+    dataset.setKey(UUID.randomUUID());
+    dataset.setTitle("Dataset");
+    dataset.setModified(new Date(1000));
+    Metadata metadata = new Metadata();
+    metadata.setKey(1);
+    metadata.setDatasetKey(dataset.getKey());
+    metadata.setType(MetadataType.EML);
+    metadata.setModified(new Date(1000));
+    List<Metadata> documents = Collections.singletonList(metadata);
+
+    String version = EmlCache.version(EmlCache.version(dataset), documents);
+    assertEquals(version, EmlCache.version(EmlCache.version(dataset), documents));
+
+    dataset.setTitle("New title");
+    String newVersion = EmlCache.version(EmlCache.version(dataset), documents);
+    assertNotEquals(version, newVersion);
+
+    metadata.setKey(2);
+    assertNotEquals(newVersion, EmlCache.version(EmlCache.version(dataset), documents));
+    assertNotEquals(newVersion, EmlCache.version(EmlCache.version(dataset), Collections.emptyList()));
+  }
+
+  @Test
+  public void testCreate() {
+    Properties settings = new Properties();
+    settings.setProperty(DownloadWorkflowModule.DefaultSettings.NAME_NODE_KEY, "file:///");
+    EmlCache disabled = EmlCache.create(new WorkflowConfiguration(settings));
+    disabled.put(UUID.randomUUID(), "v1", EML);
+    assertEquals(0, dir.list().length);
+
+    // downloads using the same directory share the cache
+    settings.setProperty(DownloadWorkflowModule.DefaultSettings.METADATA_CACHE_DIR_KEY, dir.getAbsolutePath());
+    EmlCache cache = EmlCache.create(new WorkflowConfiguration(settings));
+    assertSame(cache, EmlCache.create(new WorkflowConfiguration(settings)));
+    UUID key = UUID.randomUUID();
+    cache.put(key, "v1", EML);
+    assertTrue(new File(dir, key + "-v1.xml").exists());
+  }
+}
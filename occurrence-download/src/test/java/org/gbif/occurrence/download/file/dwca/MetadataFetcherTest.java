@@ -0,0 +1,90 @@
+package org.gbif.occurrence.download.file.dwca;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetadataFetcherTest {
+
+  @Test
+  public void testRetries() throws Exception {
+    try (MetadataFetcher fetcher = new MetadataFetcher(2, 2, 1000, 1)) {
+      AtomicInteger attempts = new AtomicInteger();
+      CompletableFuture<String> result = fetcher.fetch(() -> {
+        if (attempts.incrementAndGet() < 3) {
+          throw new IOException("Unavailable");
+        }
+        return "dataset";
+      });
+      assertEquals("dataset", result.get());
+      assertEquals(3, attempts.get());
+    }
+  }
+
+  @Test
+  public void testFailureAfterRetries() {
+    try (MetadataFetcher fetcher = new MetadataFetcher(2, 1, 1000, 1)) {
+      AtomicInteger attempts = new AtomicInteger();
+      CompletableFuture<String> result = fetcher.fetch(() -> {
+        attempts.incrementAndGet();
+        throw new IOException("Unavailable");
+      });
+      ExecutionException ex = assertThrows(ExecutionException.class, result::get);
+      assertTrue(ex.getCause() instanceof IOException);
+      assertEquals(2, attempts.get());
+    }
+  }
+
+  @Test
+  public void testTimeout() throws Exception {
+    try (MetadataFetcher fetcher = new MetadataFetcher(2, 1, 100, 1)) {
+      AtomicInteger attempts = new AtomicInteger();
+      CompletableFuture<String> result = fetcher.fetch(() -> {
+        if (attempts.incrementAndGet() == 1) {
+          Thread.sleep(10000);
+        }
+        return "dataset";
+      });
+      assertEquals("dataset", result.get());
+
+      ExecutionException ex = assertThrows(ExecutionException.class, fetcher.fetch(() -> {
+        Thread.sleep(10000);
+        return "never";
+      })::get);
+      assertTrue(ex.getCause() instanceof TimeoutException);
+    }
+  }
+
+  /**
+   * Requests ignoring interruptions keep their threads, new attempts wait for a free thread instead of adding more.
+   */
+  @Test
+  public void testBoundedRequests() {
+    CountDownLatch release = new CountDownLatch(1);
+    Set<String> requestThreads = ConcurrentHashMap.newKeySet();
+    try (MetadataFetcher fetcher = new MetadataFetcher(1, 3, 50, 1)) {
+      CompletableFuture<String> result = fetcher.fetch(() -> {
+        requestThreads.add(Thread.currentThread().getName());
+        Uninterruptibles.awaitUninterruptibly(release);
+        return "dataset";
+      });
+      ExecutionException ex = assertThrows(ExecutionException.class, result::get);
+      assertTrue(ex.getCause() instanceof TimeoutException);
+      assertEquals(2, requestThreads.size());
+    } finally {
+      release.countDown();
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package org.gbif.occurrence.download.file.dwca;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.io.ByteStreams;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReadAheadInputStreamsTest {
+
+  /**
+   * The sequence contains the same bytes as the sources, regardless of the buffer size.
+   */
+  @Test
+  public void testContent() throws IOException {
+    Random random = new Random(7);
+    List<byte[]> contents = new ArrayList<>();
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    for (int size : new int[] {0, 1, 10, 100, 1000, 5, 0, 64}) {
+      byte[] content = new byte[size];
+      random.nextBytes(content);
+      contents.add(content);
+      expected.write(content);
+    }
+    for (int bufferSize : new int[] {1, 8, 64, 2000}) {
+      List<Callable<InputStream>> sources = new ArrayList<>();
+      contents.forEach(content -> sources.add(() -> new ByteArrayInputStream(content)));
+      try (ReadAheadInputStreams readAhead = new ReadAheadInputStreams(sources, 3, bufferSize);
+           InputStream in = new SequenceInputStream(Collections.enumeration(readAhead.getStreams()))) {
+        assertArrayEquals(expected.toByteArray(), ByteStreams.toByteArray(in));
+      }
+    }
+  }
+
+  /**
+   * Streams are not opened further than the read ahead limit.
+   */
+  @Test
+  public void testReadAheadLimit() throws Exception {
+    AtomicInteger opened = new AtomicInteger();
+    List<Callable<InputStream>> sources = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      sources.add(() -> {
+        opened.incrementAndGet();
+        return new ByteArrayInputStream(new byte[100]);
+      });
+    }
+    try (ReadAheadInputStreams readAhead = new ReadAheadInputStreams(sources, 2, 10)) {
+      List<InputStream> streams = readAhead.getStreams();
+      assertEquals(0, streams.get(0).read());
+      Thread.sleep(100);
+      assertEquals(2, opened.get());
+      // consuming the buffer of the first stream starts reading ahead the third one
+      ByteStreams.toByteArray(streams.get(0));
+      streams.get(0).close();
+      Thread.sleep(100);
+      assertEquals(3, opened.get());
+      for (InputStream stream : streams) {
+        stream.close();
+      }
+      assertTrue(opened.get() <= 10);
+    }
+  }
+
+  @Test
+  public void testErrors() {
+    List<Callable<InputStream>> sources = new ArrayList<>();
+    sources.add(() -> {
+      throw new IOException("Missing part");
+    });
+    try (ReadAheadInputStreams readAhead = new ReadAheadInputStreams(sources, 2, 10)) {
+      InputStream stream = readAhead.getStreams().get(0);
+      assertThrows(IOException.class, stream::read);
+    }
+  }
+
+  /**
+   * Closing a stream that wasn't read doesn't report the failure of its prefetch.
+   */
+  @Test
+  public void testCloseFailedUnread() throws Exception {
+    List<Callable<InputStream>> sources = new ArrayList<>();
+    sources.add(() -> {
+      throw new IOException("Missing part");
+    });
+    try (ReadAheadInputStreams readAhead = new ReadAheadInputStreams(sources, 2, 10)) {
+      InputStream stream = readAhead.getStreams().get(0);
+      Thread.sleep(100);
+      stream.close();
+    }
+  }
+
+  /**
+   * Streams read ahead but never consumed, like the ones after a failed stream, are closed with the sequence.
+   */
+  @Test
+  public void testCloseUnconsumed() throws Exception {
+    List<TrackedInputStream> opened = new CopyOnWriteArrayList<>();
+    List<Callable<InputStream>> sources = new ArrayList<>();
+    sources.add(() -> {
+      throw new IOException("Missing part");
+    });
+    for (int i = 0; i < 3; i++) {
+      sources.add(() -> {
+        TrackedInputStream in = new TrackedInputStream(new byte[100]);
+        opened.add(in);
+        return in;
+      });
+    }
+    try (ReadAheadInputStreams readAhead = new ReadAheadInputStreams(sources, 4, 10)) {
+      InputStream stream = readAhead.getStreams().get(0);
+      assertThrows(IOException.class, stream::read);
+      Thread.sleep(100);
+      assertEquals(3, opened.size());
+      assertFalse(opened.get(0).closed);
+    }
+    assertTrue(opened.stream().allMatch(in -> in.closed));
+  }
+
+  private static class TrackedInputStream extends ByteArrayInputStream {
+
+    private volatile boolean closed;
+
+    TrackedInputStream(byte[] content) {
+      super(content);
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+      super.close();
+    }
+  }
+}
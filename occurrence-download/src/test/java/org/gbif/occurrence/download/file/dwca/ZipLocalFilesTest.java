@@ -0,0 +1,88 @@
+package org.gbif.occurrence.download.file.dwca;
+
+import org.gbif.hadoop.compress.d2.zip.ModalZipOutputStream;
+import org.gbif.utils.file.CompressionUtil;
+import org.gbif.utils.file.FileUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import com.google.common.io.ByteStreams;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The local files of an archive are zipped with the same entries CompressionUtil.zipDir used to create.
+ */
+public class ZipLocalFilesTest {
+
+  private File dir;
+
+  @BeforeEach
+  public void setup() throws IOException {
+    dir = Files.createTempDirectory("archive").toFile();
+  }
+
+  @AfterEach
+  public void cleanup() {
+    FileUtils.deleteDirectoryRecursively(dir);
+  }
+
+  private static void write(File file, String content) throws IOException {
+    file.getParentFile().mkdirs();
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static Map<String, String> entries(File zip) throws IOException {
+    Map<String, String> entries = new HashMap<>();
+    try (ZipFile zipFile = new ZipFile(zip)) {
+      Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+      while (zipEntries.hasMoreElements()) {
+        ZipEntry entry = zipEntries.nextElement();
+        try (InputStream in = zipFile.getInputStream(entry)) {
+          entries.put(entry.getName(), new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8));
+        }
+      }
+    }
+    return entries;
+  }
+
+  @Test
+  public void testSameEntriesAsZipDir() throws IOException {
+    File archiveDir = new File(dir, "0000001-200101000000000");
+    write(new File(archiveDir, "meta.xml"), "<archive/>");
+    write(new File(archiveDir, "metadata.xml"), "<eml/>");
+    write(new File(archiveDir, "rights.txt"), "Dataset: Birds");
+    write(new File(archiveDir, ".occurrence.txt.crc"), "crc");
+    write(new File(archiveDir, "dataset/d596fccb-2319-42eb-b13b-986c932780ad.xml"), "<eml>constituent</eml>");
+    new File(archiveDir, "empty").mkdirs();
+
+    File zipDir = new File(dir, "zipDir.zip");
+    CompressionUtil.zipDir(archiveDir, zipDir, true);
+
+    File zipLocalFiles = new File(dir, "zipLocalFiles.zip");
+    try (ModalZipOutputStream out =
+           new ModalZipOutputStream(new BufferedOutputStream(new FileOutputStream(zipLocalFiles)))) {
+      DwcaArchiveBuilder.zipLocalFiles(out, archiveDir, "");
+    }
+
+    Map<String, String> entries = entries(zipLocalFiles);
+    assertEquals(entries(zipDir), entries);
+    assertTrue(entries.containsKey(".occurrence.txt.crc"));
+    assertEquals("<eml>constituent</eml>", entries.get("dataset/d596fccb-2319-42eb-b13b-986c932780ad.xml"));
+  }
+}
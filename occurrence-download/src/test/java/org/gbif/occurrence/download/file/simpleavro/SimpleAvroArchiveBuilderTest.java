@@ -0,0 +1,83 @@
+package org.gbif.occurrence.download.file.simpleavro;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SimpleAvroArchiveBuilderTest {
+
+  private static final Schema SCHEMA = SchemaBuilder.record("Occurrence").fields()
+    .requiredLong("gbifid")
+    .optionalString("scientificname")
+    .endRecord();
+
+  /**
+   * Files with different codecs are merged into a single file that keeps the order of the input files.
+   */
+  @Test
+  public void testMergeToSingleAvro() throws Exception {
+    FileSystem sourceFileSystem = new LocalFileSystem();
+    sourceFileSystem.initialize(URI.create("file:///"), new Configuration());
+
+    File sourceDir = Files.createTempDirectory("simple-avro-source").toFile();
+    CodecFactory[] codecs = {CodecFactory.nullCodec(), CodecFactory.deflateCodec(-1), CodecFactory.deflateCodec(1)};
+    for (int i = 0; i < 10; i++) {
+      File file = new File(sourceDir, String.format("%06d_0", i));
+      try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<>(SCHEMA))) {
+        writer.setCodec(codecs[i % codecs.length]);
+        writer.create(SCHEMA, file);
+        for (long key = i * 1000L; key < i * 1000L + 500; key++) {
+          GenericRecord record = new GenericData.Record(SCHEMA);
+          record.put("gbifid", key);
+          record.put("scientificname", "Puma concolor " + key);
+          writer.append(record);
+        }
+      }
+    }
+    // records are expected in the order of the file listing
+    List<Long> expected = new ArrayList<>();
+    for (FileStatus status : sourceFileSystem.listStatus(new Path(sourceDir.getAbsolutePath()))) {
+      long first = Long.parseLong(status.getPath().getName().substring(0, 6)) * 1000L;
+      for (long key = first; key < first + 500; key++) {
+        expected.add(key);
+      }
+    }
+    String targetPath = Files.createTempDirectory("simple-avro-target").toString();
+
+    SimpleAvroArchiveBuilder.mergeToSingleAvro(sourceFileSystem, sourceFileSystem, sourceDir.getAbsolutePath(),
+                                               targetPath, "testDownload", 2);
+
+    List<Long> keys = new ArrayList<>();
+    try (InputStream is = new FileInputStream(new File(targetPath, "testDownload.avro"));
+         DataFileStream<GenericRecord> dfs = new DataFileStream<>(is, new GenericDatumReader<>())) {
+      assertEquals("deflate", dfs.getMetaString("avro.codec"));
+      for (GenericRecord record : dfs) {
+        keys.add((Long) record.get("gbifid"));
+        assertEquals("Puma concolor " + record.get("gbifid"), record.get("scientificname").toString());
+      }
+    }
+    assertEquals(expected, keys);
+  }
+}
@@ -0,0 +1,85 @@
+package org.gbif.occurrence.download.file.simplecsv;
+
+import org.gbif.hadoop.compress.d2.D2Codec;
+import org.gbif.utils.file.FileUtils;
+import org.gbif.utils.file.InputStreamUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SimpleCsvArchiveBuilderTest {
+
+  @Test
+  public void testMergePreDeflatedToZip() throws Exception {
+    File dir = Files.createTempDirectory("simplecsv").toFile();
+    try {
+      FileSystem fileSystem = new LocalFileSystem();
+      fileSystem.initialize(URI.create("file:///"), new Configuration());
+      CompressionCodec codec = ReflectionUtils.newInstance(D2Codec.class, new Configuration());
+
+      // parts are merged in the given order, not by name
+      List<Path> parts = new ArrayList<>();
+      String[] contents = {"b\t2\n", "", "a\t1\n"};
+      for (int i = 0; i < contents.length; i++) {
+        File part = new File(dir, "part" + (contents.length - i));
+        try (OutputStream out = codec.createOutputStream(new FileOutputStream(part))) {
+          out.write(contents[i].getBytes(StandardCharsets.UTF_8));
+        }
+        parts.add(new Path(part.toURI()));
+      }
+
+      SimpleCsvArchiveBuilder.withHeader("key\tvalue")
+        .mergePreDeflatedToZip(fileSystem, parts, fileSystem, dir.getAbsolutePath(), "download");
+
+      assertEquals("key\tvalue\nb\t2\na\t1\n", readEntry(new File(dir, "download.zip"), "download.csv"));
+    } finally {
+      FileUtils.deleteDirectoryRecursively(dir);
+    }
+  }
+
+  @Test
+  public void testWriteToZip() throws Exception {
+    File dir = Files.createTempDirectory("simplecsv").toFile();
+    try {
+      FileSystem fileSystem = new LocalFileSystem();
+      fileSystem.initialize(URI.create("file:///"), new Configuration());
+
+      SimpleCsvArchiveBuilder.withHeader("key\tvalue")
+        .writeToZip(fileSystem, dir.getAbsolutePath(), "download", out -> {
+          try (OutputStream closingOut = out) {
+            closingOut.write("a\t1\n".getBytes(StandardCharsets.UTF_8));
+          }
+        });
+
+      assertEquals("key\tvalue\na\t1\n", readEntry(new File(dir, "download.zip"), "download.csv"));
+    } finally {
+      FileUtils.deleteDirectoryRecursively(dir);
+    }
+  }
+
+  private static String readEntry(File zip, String entryName) throws IOException {
+    try (ZipFile zipFile = new ZipFile(zip)) {
+      ZipEntry entry = zipFile.getEntry(entryName);
+      return new InputStreamUtils().readEntireStream(zipFile.getInputStream(entry));
+    }
+  }
+}
@@ -2,12 +2,17 @@ package org.gbif.occurrence.download.file.specieslist;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.gbif.dwc.terms.DwcTerm;
 import org.gbif.dwc.terms.GbifTerm;
@@ -58,6 +63,64 @@ public class SpeciesListCollectorTest {
     assertEquals(collector.getByTaxonKey("2").get(GbifTerm.numberOfOccurrences.simpleName()), "100");
   }
 
+  /**
+   * Species spilled to disk are merged with the ones in memory, in taxon key order.
+   */
+  @Test
+  public void testSpill() throws IOException {
+    File spillDir = Files.createTempDirectory("species-spill").toFile();
+    // a small budget spills every few species
+    SpeciesListCollector collector = new SpeciesListCollector(2048, spillDir);
+    SpeciesListCollector other = new SpeciesListCollector(2048, spillDir);
+    for (int i = 0; i < 1000; i++) {
+      Map<String, String> speciesRecord = buildTestRecord(Integer.toString(i % 100), null);
+      speciesRecord.put(DwcTerm.scientificName.simpleName(), "Species " + i % 100);
+      (i % 2 == 0 ? collector : other).collect(speciesRecord);
+    }
+    assertTrue(spillDir.list().length > 0);
+
+    collector.collectAll(other);
+    other.close();
+    assertEquals("10", collector.getByTaxonKey("42").get(GbifTerm.numberOfOccurrences.simpleName()));
+
+    List<String> taxonKeys = new ArrayList<>();
+    collector.forEachSpecies(species -> {
+      taxonKeys.add(species.get(GbifTerm.taxonKey.simpleName()));
+      assertEquals("Species " + species.get(GbifTerm.taxonKey.simpleName()),
+                   species.get(DwcTerm.scientificName.simpleName()));
+      assertEquals("10", species.get(GbifTerm.numberOfOccurrences.simpleName()));
+    });
+    assertEquals(IntStream.range(0, 100).mapToObj(Integer::toString).collect(Collectors.toList()), taxonKeys);
+
+    collector.close();
+    assertEquals(0, spillDir.list().length);
+  }
+
+  /**
+   * All the species in memory are spilled into a single run, and are read back merged as they were.
+   */
+  @Test
+  public void testSpillAll() throws IOException {
+    File spillDir = Files.createTempDirectory("species-spill").toFile();
+    SpeciesListCollector collector = new SpeciesListCollector(1024 * 1024, spillDir);
+    collector.collect(buildTestRecord("1", 2L));
+    collector.collect(buildTestRecord("2", null));
+    assertEquals(0, spillDir.list().length);
+
+    collector.spillAll();
+    assertEquals(1, spillDir.list().length);
+    // nothing left to spill
+    collector.spillAll();
+    assertEquals(1, spillDir.list().length);
+
+    collector.collect(buildTestRecord("1", null));
+    assertEquals("3", collector.getByTaxonKey("1").get(GbifTerm.numberOfOccurrences.simpleName()));
+    assertEquals("1", collector.getByTaxonKey("2").get(GbifTerm.numberOfOccurrences.simpleName()));
+
+    collector.close();
+    assertEquals(0, spillDir.list().length);
+  }
+
   /**
    * Creates test records using taxonKey and numOfOccurrences values.
    */
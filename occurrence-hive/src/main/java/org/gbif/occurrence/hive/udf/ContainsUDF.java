@@ -1,19 +1,34 @@
 package org.gbif.occurrence.hive.udf;
 
 import java.text.ParseException;
-import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
-import com.google.common.collect.Maps;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.locationtech.spatial4j.exception.InvalidShapeException;
 import org.locationtech.spatial4j.io.WKTReader;
 import org.apache.hadoop.hive.ql.exec.Description;
-import org.apache.hadoop.hive.ql.exec.UDF;
+import org.apache.hadoop.hive.ql.exec.UDFArgumentException;
+import org.apache.hadoop.hive.ql.exec.UDFArgumentTypeException;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDF;
+import org.apache.hadoop.hive.serde2.objectinspector.ConstantObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorConverter;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorUtils;
 import org.apache.hadoop.io.BooleanWritable;
 import org.apache.hadoop.io.Text;
 import org.locationtech.spatial4j.context.jts.DatelineRule;
 import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
 import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.jts.JtsGeometry;
 import org.locationtech.spatial4j.shape.jts.JtsShapeFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,22 +44,46 @@ import org.slf4j.LoggerFactory;
  *
  * Therefore, such polygons (e.g a rough polygon of the Pacific Ocean) should have interpolated points added by the
  * client.
+ *
+ * Geometries are parsed once and prepared: JTS geometries are indexed so each point is located in logarithmic time
+ * instead of visiting every vertex. A query usually uses a constant geometry, which is prepared once when the UDF is
+ * initialized. Geometries read from columns are compared with the one of the previous row, since readers reuse the
+ * same Text instance with different values, and other geometries are kept in a bounded cache keyed by a digest of
+ * their WKT.
  */
 /*
  * Interpolating here would be rather difficult — the WKTReader doesn't give access to the coordinates until the
  * polygon has been broken, and the alternative is parsing WKT or making difficult changes to Spatial4J.
  */
 @Description(name = "contains", value = "_FUNC_(geom_wkt, latitude, longitude)")
-public class ContainsUDF extends UDF {
+public class ContainsUDF extends GenericUDF {
 
   private static final Logger LOG = LoggerFactory.getLogger(ContainsUDF.class);
 
+  // maximum number of prepared geometries kept by each UDF instance
+  private static final int GEOMETRY_CACHE_SIZE = 100;
+
+  private static final HashFunction WKT_DIGEST = Hashing.murmur3_128();
+
   private final WKTReader wktReader;
-  private final Map<String, Shape> geometryCache = Maps.newHashMap();
+  private final Cache<HashCode, Shape> geometryCache =
+    CacheBuilder.newBuilder().maximumSize(GEOMETRY_CACHE_SIZE).build();
   private final BooleanWritable isContained = new BooleanWritable();
 
   private final JtsShapeFactory shapeFactory;
 
+  private PrimitiveObjectInspectorConverter.TextConverter geometryConverter;
+  private PrimitiveObjectInspector latitudeInspector;
+  private PrimitiveObjectInspector longitudeInspector;
+
+  // geometry of a constant WKT, prepared once
+  private boolean constantGeometry;
+  private Shape geometry;
+
+  // WKT and geometry of the previous row
+  private final Text lastGeometryAsWKT = new Text();
+  private Shape lastGeometry;
+
   public ContainsUDF () {
     JtsSpatialContextFactory spatialContextFactory = new JtsSpatialContextFactory();
     spatialContextFactory.normWrapLongitude = true;
@@ -57,33 +96,120 @@ public class ContainsUDF extends UDF {
     shapeFactory = new JtsShapeFactory(spatialContextFactory.newSpatialContext(), spatialContextFactory);
   }
 
-  public BooleanWritable evaluate(Text geometryAsWKT, Double latitude, Double longitude) {
-    isContained.set(false);
-
-    try {
-      // sanitize the input
-      if (geometryAsWKT == null || latitude == null || longitude == null || latitude > 90 || latitude < -90
-        || longitude > 180 || longitude < -180) {
-        return isContained;
+  @Override
+  public ObjectInspector initialize(ObjectInspector[] arguments) throws UDFArgumentException {
+    if (arguments.length != 3) {
+      throw new UDFArgumentException("contains takes a geometry, a latitude and a longitude as arguments");
+    }
+    for (int i = 0; i < arguments.length; i++) {
+      if (arguments[i].getCategory() != ObjectInspector.Category.PRIMITIVE) {
+        throw new UDFArgumentTypeException(i, "contains takes primitive arguments");
       }
-      String geoWKTStr = geometryAsWKT.toString();
-      Shape geom = geometryCache.get(geoWKTStr);
-      if (geom == null) {
-        geom = wktReader.read(geoWKTStr);
-        geometryCache.put(geoWKTStr, geom);
+    }
+    geometryConverter = new PrimitiveObjectInspectorConverter.TextConverter((PrimitiveObjectInspector) arguments[0]);
+    latitudeInspector = (PrimitiveObjectInspector) arguments[1];
+    longitudeInspector = (PrimitiveObjectInspector) arguments[2];
+
+    if (arguments[0] instanceof ConstantObjectInspector) {
+      constantGeometry = true;
+      Text geometryAsWKT = geometryConverter.convert(((ConstantObjectInspector) arguments[0]).getWritableConstantValue());
+      if (geometryAsWKT != null) {
+        try {
+          geometry = prepare(geometryAsWKT.toString());
+        } catch (ParseException | InvalidShapeException e) {
+          // like for other invalid geometries no point is contained
+          LOG.error("Invalid geometry received: {}", geometryAsWKT, e);
+        }
       }
+    }
+    return PrimitiveObjectInspectorFactory.writableBooleanObjectInspector;
+  }
 
-      // support any geometry - up to the user to make a sensible query
-      Point point = shapeFactory.pointXY(longitude, latitude);
+  @Override
+  public BooleanWritable evaluate(DeferredObject[] arguments) throws HiveException {
+    Object latitude = arguments[1].get();
+    Object longitude = arguments[2].get();
+    if (latitude == null || longitude == null) {
+      isContained.set(false);
+      return isContained;
+    }
+    double lat = PrimitiveObjectInspectorUtils.getDouble(latitude, latitudeInspector);
+    double lng = PrimitiveObjectInspectorUtils.getDouble(longitude, longitudeInspector);
+    if (constantGeometry) {
+      return evaluate(geometry, lat, lng);
+    }
+    return evaluate(geometryConverter.convert(arguments[0].get()), lat, lng);
+  }
 
-      isContained.set(geom.relate(point).intersects());
+  @Override
+  public String getDisplayString(String[] children) {
+    return "contains(" + String.join(", ", children) + ")";
+  }
 
+  private BooleanWritable evaluate(Text geometryAsWKT, double latitude, double longitude) {
+    isContained.set(false);
+    if (geometryAsWKT == null) {
+      return isContained;
+    }
+    try {
+      return evaluate(getGeometry(geometryAsWKT), latitude, longitude);
     } catch (ParseException | InvalidShapeException e) {
       LOG.error("Invalid geometry received: {}", geometryAsWKT.toString(), e);
     } catch (Exception e) {
       LOG.error("Error applying UDF", e);
     }
+    return isContained;
+  }
 
+  private BooleanWritable evaluate(Shape geom, double latitude, double longitude) {
+    isContained.set(false);
+    // sanitize the input
+    if (geom == null || latitude > 90 || latitude < -90 || longitude > 180 || longitude < -180) {
+      return isContained;
+    }
+    try {
+      // support any geometry - up to the user to make a sensible query
+      Point point = shapeFactory.pointXY(longitude, latitude);
+      isContained.set(geom.relate(point).intersects());
+    } catch (Exception e) {
+      LOG.error("Error applying UDF", e);
+    }
     return isContained;
   }
+
+  /**
+   * Gets the prepared geometry of a WKT, comparing the WKT bytes with the previous row is cheaper than any lookup.
+   */
+  private Shape getGeometry(Text geometryAsWKT) throws ParseException {
+    if (lastGeometry != null && lastGeometryAsWKT.equals(geometryAsWKT)) {
+      return lastGeometry;
+    }
+    HashCode digest = WKT_DIGEST.hashBytes(geometryAsWKT.getBytes(), 0, geometryAsWKT.getLength());
+    Shape geom;
+    try {
+      geom = geometryCache.get(digest, () -> prepare(geometryAsWKT.toString()));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof ParseException) {
+        throw (ParseException) e.getCause();
+      }
+      if (e.getCause() instanceof InvalidShapeException) {
+        throw (InvalidShapeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+    lastGeometryAsWKT.set(geometryAsWKT);
+    lastGeometry = geom;
+    return geom;
+  }
+
+  /**
+   * Parses the WKT and indexes JTS geometries, other shapes (rectangles, points, circles) are already cheap to test.
+   */
+  private Shape prepare(String geometryAsWKT) throws ParseException {
+    Shape geom = wktReader.read(geometryAsWKT);
+    if (geom instanceof JtsGeometry) {
+      ((JtsGeometry) geom).index();
+    }
+    return geom;
+  }
 }
@@ -31,6 +31,8 @@ import org.slf4j.LoggerFactory;
  * If coordinates are present, then country and coordinates are returned only if they don't contradict, otherwise they
  * are BOTH dropped.
  * Note: This is used for the GBIF EU BON analysis.
+ * The apiUrl can also be a local geocode polygons file prefixed with file:, e.g. added with ADD FILE, to reverse
+ * geocode coordinates without calls to the API, see {@link org.gbif.occurrence.processor.interpreting.util.LocalGeocodeKVStore}.
  */
 @Description(name = "parseCoordinates", value = "_FUNC_(apiUrl, latitude, longitude, verbatim_country)")
 public class CoordinateCountryParseUDF extends GenericUDF {
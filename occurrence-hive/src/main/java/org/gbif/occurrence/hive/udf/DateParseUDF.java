@@ -6,8 +6,8 @@ import org.gbif.common.parsers.date.TemporalAccessorUtils;
 import org.gbif.occurrence.processor.interpreting.TemporalInterpreter;
 
 import java.time.temporal.TemporalAccessor;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.hadoop.hive.ql.exec.Description;
@@ -20,6 +20,7 @@ import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
 /**
  * Parses year month and day only.
+ * This UDF can't be vectorized since it returns a struct, rows are parsed once and the result is reused across rows.
  */
 @Description(
   name = "parseDate",
@@ -28,6 +29,9 @@ public class DateParseUDF extends GenericUDF {
 
   private ObjectInspectorConverters.Converter[] converters;
 
+  // year, month, day and epoch of the current row, reused across rows
+  private final List<Object> result = Arrays.asList(new Object[4]);
+
   @Override
   public Object evaluate(GenericUDF.DeferredObject[] arguments) throws HiveException {
     assert arguments.length == 4;
@@ -36,23 +40,16 @@ public class DateParseUDF extends GenericUDF {
     String month = getArgument(1, arguments);
     String day = getArgument(2, arguments);
     String event_date = getArgument(3, arguments);
-    List<Object> result = new ArrayList<Object>(4);
+    Collections.fill(result, null);
     try {
-      OccurrenceParseResult<AtomizedLocalDate> parsed =
-        TemporalInterpreter.interpretEventDate(year, month, day, event_date);
       OccurrenceParseResult<TemporalAccessor> parsed2 =
               TemporalInterpreter.interpretRecordedDate(year, month, day, event_date);
+      OccurrenceParseResult<AtomizedLocalDate> parsed = TemporalInterpreter.toEventDate(parsed2);
       if (parsed.isSuccessful() && parsed.getIssues().isEmpty()) {
-        result.add(parsed.getPayload().getYear());
-        result.add(parsed.getPayload().getMonth());
-        result.add(parsed.getPayload().getDay());
-        result.add(TemporalAccessorUtils.toDate(parsed2.getPayload(), true).getTime());
-      }
-      else{
-        result.add(null);
-        result.add(null);
-        result.add(null);
-        result.add(null);
+        result.set(0, parsed.getPayload().getYear());
+        result.set(1, parsed.getPayload().getMonth());
+        result.set(2, parsed.getPayload().getDay());
+        result.set(3, TemporalAccessorUtils.toDate(parsed2.getPayload(), true).getTime());
       }
     } catch (Exception e) {
       // not much to do - indicates bad data
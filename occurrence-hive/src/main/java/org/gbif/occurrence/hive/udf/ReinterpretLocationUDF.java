@@ -25,6 +25,8 @@ import org.slf4j.LoggerFactory;
  *
  * Reinterpret location (latitude, longitude, country) based on verbatim fields.
  * This is used to test addition or changes to location interpretation algorithm.
+ * The apiUrl can also be a local geocode polygons file prefixed with file:, e.g. added with ADD FILE, to reverse
+ * geocode coordinates without calls to the API, see {@link org.gbif.occurrence.processor.interpreting.util.LocalGeocodeKVStore}.
  *
  *
  */
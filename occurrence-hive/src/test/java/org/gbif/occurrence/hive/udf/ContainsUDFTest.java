@@ -1,5 +1,11 @@
 package org.gbif.occurrence.hive.udf;
 
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDF.DeferredJavaObject;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDF.DeferredObject;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
 import org.apache.hadoop.io.Text;
 import org.junit.Test;
 
@@ -8,7 +14,7 @@ import static org.junit.Assert.*;
 public class ContainsUDFTest {
 
   @Test
-  public void evaluateTest() {
+  public void evaluateTest() throws HiveException {
 
     // Simple rectangle (has Rectangle JTS structure)
     assertTrue(contains(" POLYGON ((30 10, 30 20, 15 20, 15 10, 30 10))", 15.0, 20.0));
@@ -74,7 +80,65 @@ public class ContainsUDFTest {
     assertFalse(contains("POLYGON ((-78.13477 -50.88867, -78.13477 49.13086, 105.0293 49.13086, 105.0293 -50.88867, -78.13477 -50.88867))", 10.0, 10.0));
   }
 
-  private boolean contains(String geom, Double latitude, Double longitude) {
-    return new ContainsUDF().evaluate(new Text(geom), latitude, longitude).get();
+  /**
+   * The same instance evaluates rows with different geometries, as happens when the geometry is a column.
+   */
+  @Test
+  public void evaluateChangingGeometriesTest() throws HiveException {
+    ContainsUDF udf = new ContainsUDF();
+    udf.initialize(new ObjectInspector[] {PrimitiveObjectInspectorFactory.writableStringObjectInspector,
+      PrimitiveObjectInspectorFactory.javaDoubleObjectInspector, PrimitiveObjectInspectorFactory.javaDoubleObjectInspector});
+    String square = "POLYGON ((30 10, 30 20, 15 20, 15 10, 30 10))";
+    String triangle = "POLYGON ((0 0, 10 0, 0 10, 0 0))";
+    for (int i = 0; i < 3; i++) {
+      assertTrue(evaluate(udf, new Text(square), 15.0, 20.0));
+      assertFalse(evaluate(udf, new Text(square), 2.0, 2.0));
+      assertTrue(evaluate(udf, new Text(triangle), 2.0, 2.0));
+      assertFalse(evaluate(udf, new Text(triangle), 8.0, 8.0));
+      assertFalse(evaluate(udf, new Text("POLYGON ((0 0, 10 0"), 2.0, 2.0));
+    }
+
+    // the same Text instance is reused by Hive with different values
+    Text wkt = new Text(square);
+    assertTrue(evaluate(udf, wkt, 15.0, 20.0));
+    wkt.set(triangle);
+    assertFalse(evaluate(udf, wkt, 15.0, 20.0));
+    assertTrue(evaluate(udf, wkt, 2.0, 2.0));
+    assertFalse(evaluate(udf, null, 2.0, 2.0));
+    assertFalse(evaluate(udf, wkt, null, 2.0));
+  }
+
+  /**
+   * A constant geometry is prepared when the UDF is initialized.
+   */
+  @Test
+  public void evaluateConstantGeometryTest() throws HiveException {
+    ContainsUDF udf = constantContains("POLYGON ((30 10, 10 20, 20 40, 40 40, 30 10))");
+    assertTrue(evaluate(udf, null, 30.0, 20.0));
+    assertFalse(evaluate(udf, null, 45.0, 20.0));
+    assertFalse(evaluate(udf, null, 95.0, 20.0));
+
+    ContainsUDF invalid = constantContains("POLYGON ((0 0, 10 0");
+    assertFalse(evaluate(invalid, null, 2.0, 2.0));
+  }
+
+  private static ContainsUDF constantContains(String geom) throws HiveException {
+    ContainsUDF udf = new ContainsUDF();
+    udf.initialize(new ObjectInspector[] {
+      PrimitiveObjectInspectorFactory.getPrimitiveWritableConstantObjectInspector(TypeInfoFactory.stringTypeInfo, new Text(geom)),
+      PrimitiveObjectInspectorFactory.javaDoubleObjectInspector, PrimitiveObjectInspectorFactory.javaDoubleObjectInspector});
+    return udf;
+  }
+
+  private static boolean evaluate(ContainsUDF udf, Object geom, Double latitude, Double longitude) throws HiveException {
+    return udf.evaluate(new DeferredObject[] {new DeferredJavaObject(geom), new DeferredJavaObject(latitude),
+      new DeferredJavaObject(longitude)}).get();
+  }
+
+  private boolean contains(String geom, Double latitude, Double longitude) throws HiveException {
+    ContainsUDF udf = new ContainsUDF();
+    udf.initialize(new ObjectInspector[] {PrimitiveObjectInspectorFactory.javaStringObjectInspector,
+      PrimitiveObjectInspectorFactory.javaDoubleObjectInspector, PrimitiveObjectInspectorFactory.javaDoubleObjectInspector});
+    return evaluate(udf, geom, latitude, longitude);
   }
 }
@@ -5,16 +5,23 @@ import org.gbif.api.model.occurrence.VerbatimOccurrence;
 import org.gbif.occurrence.test.extensions.ElasticsearchInitializer;
 import org.gbif.occurrence.test.extensions.FragmentInitializer;
 import org.gbif.occurrence.test.extensions.OccurrenceRelationshipInitializer;
+import org.gbif.occurrence.test.servers.EsManageServer;
 import org.gbif.occurrence.ws.client.OccurrenceWsClient;
+import org.gbif.occurrence.ws.client.OccurrenceWsSearchClient;
 import org.gbif.occurrence.ws.provider.OccurrenceDwcXMLConverter;
 import org.gbif.occurrence.ws.provider.OccurrenceVerbatimDwcXMLConverter;
 import org.gbif.occurrence.ws.resources.OccurrenceResource;
 import org.gbif.ws.client.ClientFactory;
 import org.gbif.ws.json.JacksonJsonObjectMapperProvider;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -24,6 +31,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -45,6 +53,12 @@ public class OccurrenceResourceIT {
 
   private static final Long RELATION_TEST_KEY = 1019596829L;
 
+  private static final Long MISSING_TEST_KEY = 1L;
+
+  // keys of documents indexed with the id of each other
+  private static final Long OTHER_ID_TEST_KEY_1 = 999999001L;
+  private static final Long OTHER_ID_TEST_KEY_2 = 999999002L;
+
   @RegisterExtension
   static FragmentInitializer fragmentInitializer = FragmentInitializer.builder()
                                                     .testDataFile(TEST_DATA_FILE)
@@ -66,12 +80,15 @@ public class OccurrenceResourceIT {
 
   private final OccurrenceWsClient occurrenceWsClient;
 
+  private final OccurrenceWsSearchClient occurrenceWsSearchClient;
+
   @Autowired
   public OccurrenceResourceIT(@LocalServerPort int localServerPort,
                               OccurrenceResource occurrenceResource) {
     this.occurrenceResource = occurrenceResource;
     ClientFactory clientFactory = new ClientFactory("http://localhost:" + localServerPort);
     occurrenceWsClient = clientFactory.newInstance(OccurrenceWsClient.class);
+    occurrenceWsSearchClient = clientFactory.newInstance(OccurrenceWsSearchClient.class);
   }
 
   @Test
@@ -80,12 +97,82 @@ public class OccurrenceResourceIT {
     Assertions.assertNotNull(occurrence, "Empty occurrence received");
   }
 
+  @Test
+  public void testGetByKeys() {
+    List<Occurrence> occurrences = occurrenceWsSearchClient.get(Arrays.asList(636002L, MISSING_TEST_KEY, TEST_KEY));
+    Assertions.assertEquals(Arrays.asList(636002L, TEST_KEY),
+                            occurrences.stream().map(Occurrence::getKey).collect(Collectors.toList()),
+                            "Occurrences found must follow the order of the keys");
+  }
+
+  /**
+   * Documents indexed with an id other than their gbifId are found by the query on the gbifId, the ids of the two
+   * documents are swapped so reading by id finds the wrong document.
+   */
+  @Test
+  public void testGetByKeysOtherId() {
+    EsManageServer esServer = elasticsearchInitializer.getEsServer();
+    JsonNode testDoc = null;
+    for (JsonNode doc : esServer.loadJsonFile(new ClassPathResource("occurrences-test.json"))) {
+      if (doc.get("gbifId").asLong() == TEST_KEY) {
+        testDoc = doc;
+      }
+    }
+    Assertions.assertNotNull(testDoc, "Test document not found");
+    ObjectNode doc1 = testDoc.deepCopy();
+    doc1.put("gbifId", OTHER_ID_TEST_KEY_1);
+    ObjectNode doc2 = testDoc.deepCopy();
+    doc2.put("gbifId", OTHER_ID_TEST_KEY_2);
+    esServer.index(doc1, OTHER_ID_TEST_KEY_2.toString());
+    esServer.index(doc2, OTHER_ID_TEST_KEY_1.toString());
+    try {
+      Assertions.assertEquals(OTHER_ID_TEST_KEY_1, occurrenceWsClient.get(OTHER_ID_TEST_KEY_1).getKey());
+      List<Occurrence> occurrences =
+        occurrenceWsSearchClient.get(Arrays.asList(OTHER_ID_TEST_KEY_2, MISSING_TEST_KEY, TEST_KEY,
+                                                   OTHER_ID_TEST_KEY_1));
+      Assertions.assertEquals(Arrays.asList(OTHER_ID_TEST_KEY_2, TEST_KEY, OTHER_ID_TEST_KEY_1),
+                              occurrences.stream().map(Occurrence::getKey).collect(Collectors.toList()),
+                              "Occurrences found must follow the order of the keys");
+    } finally {
+      esServer.delete(OTHER_ID_TEST_KEY_1.toString());
+      esServer.delete(OTHER_ID_TEST_KEY_2.toString());
+    }
+  }
+
   @Test
   public void testGetFragment() {
     String fragment = occurrenceWsClient.getFragment(TEST_KEY);
     Assertions.assertNotNull(fragment, "Empty fragment received");
   }
 
+  @Test
+  public void testGetFragments() {
+    List<String> fragments = occurrenceResource.getFragments(Arrays.asList(TEST_KEY, 636002L));
+    Assertions.assertEquals(Arrays.asList(occurrenceWsClient.getFragment(TEST_KEY),
+                                          occurrenceWsClient.getFragment(636002L)),
+                            fragments,
+                            "Fragments must follow the order of the keys");
+  }
+
+  @Test
+  public void testGetFragmentsMissing() {
+    Assertions.assertEquals(Arrays.asList(null, null),
+                            occurrenceResource.getFragments(Arrays.asList(MISSING_TEST_KEY, 2L)),
+                            "Missing fragments must be null");
+  }
+
+  @Test
+  public void testGetFragmentsMixed() {
+    List<String> fragments = occurrenceResource.getFragments(Arrays.asList(636002L, MISSING_TEST_KEY, TEST_KEY,
+                                                                           636002L));
+    Assertions.assertEquals(4, fragments.size());
+    Assertions.assertEquals(occurrenceWsClient.getFragment(636002L), fragments.get(0));
+    Assertions.assertNull(fragments.get(1), "Missing fragment must be null");
+    Assertions.assertEquals(occurrenceWsClient.getFragment(TEST_KEY), fragments.get(2));
+    Assertions.assertEquals(fragments.get(0), fragments.get(3), "Repeated keys must get the same fragment");
+    Assertions.assertNotEquals(fragments.get(0), fragments.get(2));
+  }
+
   @Test
   public void testGetVerbatim() {
     VerbatimOccurrence verbatim = occurrenceWsClient.getVerbatim(TEST_KEY);
@@ -95,7 +182,7 @@ public class OccurrenceResourceIT {
   @Test
   @SneakyThrows
   public void testRelatedOccurrences() {
-    String relatedOccurrences = occurrenceResource.getRelatedOccurrences(RELATION_TEST_KEY);
+    String relatedOccurrences = occurrenceResource.getRelatedOccurrences(RELATION_TEST_KEY, null, 20);
     Assertions.assertNotNull(relatedOccurrences, "Empty related occurrence response");
 
     JsonNode jsonNode = MAPPER.readTree(relatedOccurrences);
@@ -106,6 +193,22 @@ public class OccurrenceResourceIT {
     Assertions.assertNotNull(currentOccurrence);
   }
 
+  @Test
+  @SneakyThrows
+  public void testRelatedOccurrencesPages() {
+    JsonNode firstPage = MAPPER.readTree(occurrenceResource.getRelatedOccurrences(RELATION_TEST_KEY, null, 2));
+    Assertions.assertEquals(2, firstPage.get("relatedOccurrences").size());
+    Assertions.assertTrue(firstPage.get("next").isTextual(), "First page must have a next cursor");
+
+    JsonNode secondPage = MAPPER.readTree(occurrenceResource.getRelatedOccurrences(RELATION_TEST_KEY,
+                                                                                   firstPage.get("next").asText(),
+                                                                                   2));
+    Assertions.assertEquals(1, secondPage.get("relatedOccurrences").size());
+    Assertions.assertTrue(secondPage.get("next").isNull(), "Last page can't have a next cursor");
+    Assertions.assertNotEquals(firstPage.get("relatedOccurrences").get(0).get("occurrence"),
+                               secondPage.get("relatedOccurrences").get(0).get("occurrence"));
+  }
+
   @Test
   public void testGetAnnosysVerbatim() {
     String annosysVerbatim = occurrenceResource.getAnnosysVerbatim(TEST_KEY);
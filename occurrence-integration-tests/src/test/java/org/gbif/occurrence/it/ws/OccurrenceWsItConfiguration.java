@@ -5,6 +5,7 @@ import org.gbif.api.service.checklistbank.NameUsageMatchingService;
 import org.gbif.api.service.occurrence.DownloadRequestService;
 import org.gbif.api.service.registry.OccurrenceDownloadService;
 import org.gbif.api.vocabulary.UserRole;
+import org.gbif.occurrence.common.cache.OccurrenceCache;
 import org.gbif.occurrence.common.config.OccHBaseConfiguration;
 import org.gbif.occurrence.download.service.CallbackService;
 import org.gbif.occurrence.download.service.DownloadRequestServiceImpl;
@@ -36,6 +37,7 @@ import org.gbif.registry.surety.UserChallengeCodeManager;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.hbase.client.Connection;
 import org.elasticsearch.client.RestHighLevelClient;
@@ -226,6 +228,14 @@ public class OccurrenceWsItConfiguration {
     return occHBaseConfiguration;
   }
 
+  /**
+   * Cache of records read by key.
+   */
+  @Bean
+  public OccurrenceCache occurrenceCache() {
+    return new OccurrenceCache(1000, 1, TimeUnit.MINUTES);
+  }
+
   @Bean
   public UserMapper userMapperMock() {
     UserMapper userMapper = new UserMapperMock();
@@ -24,6 +24,7 @@ import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.util.Properties;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import lombok.Builder;
@@ -36,6 +37,7 @@ import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
 import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestClient;
@@ -173,6 +175,28 @@ public class EsManageServer implements DisposableBean, InitializingBean {
     return restClient.bulk(bulkRequest, RequestOptions.DEFAULT);
   }
 
+  /**
+   * Indexes a single document with the given id, the index is refreshed afterwards.
+   */
+  @SneakyThrows
+  public void index(JsonNode doc, String id) {
+    restClient.index(new IndexRequest()
+                       .index(indexName)
+                       .type(type)
+                       .source(MAPPER.writeValueAsString(doc), XContentType.JSON)
+                       .id(id), RequestOptions.DEFAULT);
+    refresh();
+  }
+
+  /**
+   * Deletes a single document by id, the index is refreshed afterwards.
+   */
+  @SneakyThrows
+  public void delete(String id) {
+    restClient.delete(new DeleteRequest(indexName, type, id), RequestOptions.DEFAULT);
+    refresh();
+  }
+
   @SneakyThrows
   public ArrayNode loadJsonFile(Resource dataFile) {
     try(InputStream testFile = dataFile.getInputStream()) {
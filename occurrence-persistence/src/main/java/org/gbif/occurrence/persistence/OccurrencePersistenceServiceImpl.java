@@ -1,15 +1,19 @@
 package org.gbif.occurrence.persistence;
 
-import com.google.common.collect.Lists;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.*;
+import org.apache.hadoop.hbase.filter.PageFilter;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.gbif.api.exception.ServiceUnavailableException;
 import org.gbif.api.model.occurrence.Occurrence;
 import org.gbif.api.model.occurrence.VerbatimOccurrence;
 import org.gbif.api.service.occurrence.OccurrenceService;
+import org.gbif.occurrence.common.cache.OccurrenceCache;
 import org.gbif.occurrence.common.config.OccHBaseConfiguration;
+import org.gbif.occurrence.persistence.experimental.OccurrenceFragmentService;
 import org.gbif.occurrence.persistence.experimental.OccurrenceRelationshipService;
+import org.gbif.occurrence.persistence.experimental.RelatedOccurrence;
+import org.gbif.occurrence.persistence.experimental.RelatedOccurrences;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,61 +21,117 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * An implementation of OccurrenceService for retrieving Occurrence objects in HBase.
  */
 @Component
-public class OccurrencePersistenceServiceImpl implements OccurrenceService, OccurrenceRelationshipService {
+public class OccurrencePersistenceServiceImpl implements OccurrenceService, OccurrenceRelationshipService,
+  OccurrenceFragmentService {
 
   private static final Logger LOG = LoggerFactory.getLogger(OccurrencePersistenceServiceImpl.class);
 
-  private final String fragmenterTableName;
+  // Maximum number of gets sent in a single request
+  private static final int MAX_GETS_PER_BATCH = 500;
+
+  // namespace of the fragments in the occurrence cache
+  private static final String FRAGMENT_CACHE_NAMESPACE = "fragment";
+
+  private static final byte[] FRAGMENT_FAMILY = Bytes.toBytes("fragment");
+  private static final byte[] FRAGMENT_QUALIFIER = Bytes.toBytes("record");
+
+  private static final byte[] RELATIONSHIP_FAMILY = Bytes.toBytes("o");
+  private static final byte[] REASONS_QUALIFIER = Bytes.toBytes("reasons");
+  private static final byte[] OCCURRENCE1_QUALIFIER = Bytes.toBytes("occurrence1");
+  private static final byte[] OCCURRENCE2_QUALIFIER = Bytes.toBytes("occurrence2");
+
+  private final TableName fragmenterTableName;
   private final int fragmenterSalt;
-  private final String relationshipTableName;
+  private final TableName relationshipTableName;
   private final int relationshipSalt;
   private final Connection connection;
+  private final OccurrenceCache occurrenceCache;
 
   @Autowired
-  public OccurrencePersistenceServiceImpl(OccHBaseConfiguration cfg, Connection connection) {
-    this.fragmenterTableName = checkNotNull(cfg.fragmenterTable, "fragmenterTable can't be null");
+  public OccurrencePersistenceServiceImpl(OccHBaseConfiguration cfg, Connection connection,
+                                          OccurrenceCache occurrenceCache) {
+    this.fragmenterTableName = TableName.valueOf(checkNotNull(cfg.fragmenterTable, "fragmenterTable can't be null"));
     this.fragmenterSalt = cfg.fragmenterSalt;
-    this.relationshipTableName = cfg.relationshipTable;
+    this.relationshipTableName = cfg.relationshipTable == null ? null : TableName.valueOf(cfg.relationshipTable);
     this.relationshipSalt = cfg.relationshipSalt;
     this.connection = checkNotNull(connection, "connection can't be null");
+    this.occurrenceCache = checkNotNull(occurrenceCache, "occurrenceCache can't be null");
   }
 
   /**
    * Note that the returned fragment here is a String that holds the actual xml or json snippet for this occurrence,
    * and not the Fragment object that is used elsewhere.
+   * Fragments are read through the occurrence cache.
    *
    * @param key that identifies an occurrence
    * @return a String holding the original xml or json snippet for this occurrence
    */
   @Override
   public String getFragment(long key) {
-    String fragment = null;
-    try (Table table = connection.getTable(TableName.valueOf(fragmenterTableName))) {
-
-      String saltedKey = getSaltedKey(key);
+    String fragment = occurrenceCache.get(FRAGMENT_CACHE_NAMESPACE, key,
+                                          k -> getFragments(Collections.singletonList(k)).get(0));
+    if (fragment == null) {
+      LOG.info("Couldn't find occurrence for id [{}], returning null", key);
+    }
+    return fragment;
+  }
 
-      Get get = new Get(Bytes.toBytes(saltedKey));
-      Result result = table.get(get);
-      if (result == null || result.isEmpty()) {
-        LOG.info("Couldn't find occurrence for id [{}], returning null", key);
-        return null;
-      }
-      byte[] rawFragment = result.getValue(Bytes.toBytes("fragment"), Bytes.toBytes("record"));
-      if (rawFragment != null) {
-        fragment = Bytes.toString(rawFragment);
+  /**
+   * Gets the fragments of several occurrences using batches of gets over a single table handle.
+   * Keys are grouped by salt, so the gets of each batch hit a reduced number of regions.
+   * Unlike {@link #getFragment(long)}, fragments are read straight from HBase and not through the occurrence cache.
+   *
+   * @param keys that identify the occurrences
+   * @return the fragments in the same order as the keys, null if the fragment of a key doesn't exist
+   */
+  @Override
+  public List<String> getFragments(Collection<Long> keys) {
+    byte[][] rows = keys.stream().map(key -> Bytes.toBytes(getSaltedKey(key))).toArray(byte[][]::new);
+    // positions of the keys ordered by salted row
+    Integer[] positions = new Integer[rows.length];
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = i;
+    }
+    Arrays.sort(positions, (p1, p2) -> Bytes.compareTo(rows[p1], rows[p2]));
+
+    String[] fragments = new String[rows.length];
+    int missing = 0;
+    try (Table table = connection.getTable(fragmenterTableName)) {
+      for (int start = 0; start < positions.length; start += MAX_GETS_PER_BATCH) {
+        int end = Math.min(positions.length, start + MAX_GETS_PER_BATCH);
+        List<Get> gets = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+          gets.add(new Get(rows[positions[i]]).addColumn(FRAGMENT_FAMILY, FRAGMENT_QUALIFIER));
+        }
+        Result[] results = table.get(gets);
+        for (int i = start; i < end; i++) {
+          Result result = results[i - start];
+          byte[] rawFragment = result == null ? null : result.getValue(FRAGMENT_FAMILY, FRAGMENT_QUALIFIER);
+          if (rawFragment != null) {
+            fragments[positions[i]] = Bytes.toString(rawFragment);
+          } else {
+            missing++;
+          }
+        }
       }
     } catch (IOException e) {
       throw new ServiceUnavailableException("Could not read from HBase", e);
     }
-    return fragment;
+    LOG.debug("{} fragments read, {} not found", rows.length, missing);
+    return Arrays.asList(fragments);
   }
 
   @Nullable
@@ -86,48 +146,57 @@ public class OccurrencePersistenceServiceImpl implements OccurrenceService, Occu
   }
 
   @Override
-  public List<String> getRelatedOccurrences(long key) {
-    List<String> result = Lists.newArrayList();
+  public RelatedOccurrences getRelatedOccurrences(long key, @Nullable String cursor, int limit) {
+    checkArgument(limit > 0, "limit must be greater than 0");
+    List<RelatedOccurrence> relatedOccurrences = new ArrayList<>();
+    String next = null;
     if (this.relationshipTableName != null) {
-      try (Table table = connection.getTable(TableName.valueOf(relationshipTableName))) {
-        Scan scan = new Scan();
-        scan.addFamily(Bytes.toBytes("o"));
-        int salt = Math.abs(String.valueOf(key).hashCode()) % relationshipSalt;
-        scan.setRowPrefixFilter(Bytes.toBytes(salt + ":" + key));
-        ResultScanner s = table.getScanner(scan);
-
-        Result row = s.next();
-        int count=0;
-        while (row != null && count++<100) {
-          String reasons = Bytes.toString(row.getValue(Bytes.toBytes("o"), Bytes.toBytes("reasons")));
-          // convert a -> ["a"] or a,b,c -> ["a","b", "c"]
-          String reasonsAsJsonArray = "[\"" + reasons.replaceAll(",", "\",\"") + "\"]";
-
-          String occurrence = Bytes.toString(row.getValue(Bytes.toBytes("o"), Bytes.toBytes("occurrence2")));
-          result.add(String.format("{\n  \"reasons\": %s,\n  \"occurrence\":%s\n}", reasonsAsJsonArray, occurrence));
-          row = s.next();
+      byte[] prefix = relationshipPrefix(key);
+      Scan scan = new Scan();
+      scan.setRowPrefixFilter(prefix);
+      if (cursor != null) {
+        scan.setStartRow(Bytes.add(prefix, Bytes.toBytes(cursor)));
+      }
+      scan.addColumn(RELATIONSHIP_FAMILY, REASONS_QUALIFIER);
+      scan.addColumn(RELATIONSHIP_FAMILY, OCCURRENCE2_QUALIFIER);
+      // an extra row tells the cursor of the next page
+      scan.setFilter(new PageFilter(limit + 1L));
+      scan.setCaching(limit + 1);
+      try (Table table = connection.getTable(relationshipTableName);
+           ResultScanner scanner = table.getScanner(scan)) {
+        for (Result row : scanner) {
+          if (relatedOccurrences.size() == limit) {
+            // rows are keyed by salt:key:relatedKey
+            next = Bytes.toString(row.getRow(), prefix.length, row.getRow().length - prefix.length);
+            break;
+          }
+          String reasons = Bytes.toString(row.getValue(RELATIONSHIP_FAMILY, REASONS_QUALIFIER));
+          relatedOccurrences.add(new RelatedOccurrence(reasons == null ? Collections.emptyList()
+                                                         : Arrays.asList(reasons.split(",")),
+                                                       Bytes.toString(row.getValue(RELATIONSHIP_FAMILY,
+                                                                                   OCCURRENCE2_QUALIFIER))));
         }
-
       } catch (IOException e) {
         LOG.error("Could not read from HBase", e);
         throw new ServiceUnavailableException("Could not read from HBase [" + e.getMessage()+ "]");
       }
     }
-    return result;
+    return new RelatedOccurrences(relatedOccurrences, next);
   }
 
   @Override
   public String getCurrentOccurrence(long key) {
     if (this.relationshipTableName != null) {
-      try (Table table = connection.getTable(TableName.valueOf(relationshipTableName))) {
-        Scan scan = new Scan();
-        scan.addFamily(Bytes.toBytes("o"));
-        int salt = Math.abs(String.valueOf(key).hashCode()) % relationshipSalt;
-        scan.setRowPrefixFilter(Bytes.toBytes(salt + ":" + key));
-        ResultScanner s = table.getScanner(scan);
+      Scan scan = new Scan();
+      scan.setRowPrefixFilter(relationshipPrefix(key));
+      scan.addColumn(RELATIONSHIP_FAMILY, OCCURRENCE1_QUALIFIER);
+      scan.setFilter(new PageFilter(1));
+      scan.setCaching(1);
+      try (Table table = connection.getTable(relationshipTableName);
+           ResultScanner s = table.getScanner(scan)) {
         Result row = s.next();
         if (row != null) {
-          return Bytes.toString(row.getValue(Bytes.toBytes("o"), Bytes.toBytes("occurrence1")));
+          return Bytes.toString(row.getValue(RELATIONSHIP_FAMILY, OCCURRENCE1_QUALIFIER));
         }
 
       } catch (IOException e) {
@@ -138,8 +207,15 @@ public class OccurrencePersistenceServiceImpl implements OccurrenceService, Occu
     return "{}";
   }
 
+  /**
+   * Prefix of the relationship rows of an occurrence, the separator after the key avoids matching longer keys.
+   */
+  private byte[] relationshipPrefix(long key) {
+    int salt = Math.abs(String.valueOf(key).hashCode()) % relationshipSalt;
+    return Bytes.toBytes(salt + ":" + key + ":");
+  }
 
-    private String getSaltedKey(long key) {
+  private String getSaltedKey(long key) {
     long mod = key % fragmenterSalt;
     String saltedKey = mod + ":" + key;
     return mod >= 10 ? saltedKey : "0" + saltedKey;
@@ -0,0 +1,18 @@
+package org.gbif.occurrence.persistence.experimental;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Provides the fragments of several occurrences in a single call.
+ * If this proves useful it will be merged in to the OccurrenceService interface.
+ */
+public interface OccurrenceFragmentService {
+
+  /**
+   * Provides the fragments of the occurrences, the String holding the original xml or json snippet of each one.
+   * @param keys The record keys of the occurrences
+   * @return The fragments in the same order as the keys, null if the fragment of a key doesn't exist
+   */
+  List<String> getFragments(Collection<Long> keys);
+}
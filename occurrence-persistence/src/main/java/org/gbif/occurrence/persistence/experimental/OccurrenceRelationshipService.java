@@ -1,6 +1,6 @@
 package org.gbif.occurrence.persistence.experimental;
 
-import java.util.List;
+import javax.annotation.Nullable;
 
 /**
  * Provides the assertions for an occurrence linking it to similar records.
@@ -9,11 +9,13 @@ import java.util.List;
 public interface OccurrenceRelationshipService {
 
   /**
-   * Provides the occurrences that relate to the given key.
+   * Provides a page of the occurrences that relate to the given key.
    * @param key The record key for which we seek related occurrences
-   * @return A list of related occurrences in the structure stored in the table (a JSON String)
+   * @param cursor The next cursor of the previous page, null to get the first page
+   * @param limit The maximum number of related occurrences in the page
+   * @return A page of related occurrences, each one in the structure stored in the table (a JSON String)
    */
-  List<String> getRelatedOccurrences(long key);
+  RelatedOccurrences getRelatedOccurrences(long key, @Nullable String cursor, int limit);
 
   /**
    * Provides the cached view of the "current" occurrence within the relationship (it may be stale compared to live
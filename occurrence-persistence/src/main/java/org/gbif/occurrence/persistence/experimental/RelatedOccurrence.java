@@ -0,0 +1,31 @@
+package org.gbif.occurrence.persistence.experimental;
+
+import java.util.List;
+
+/**
+ * An occurrence related to another one and the reasons of the relationship.
+ */
+public class RelatedOccurrence {
+
+  private final List<String> reasons;
+  private final String occurrence;
+
+  public RelatedOccurrence(List<String> reasons, String occurrence) {
+    this.reasons = reasons;
+    this.occurrence = occurrence;
+  }
+
+  /**
+   * @return the reasons of the relationship, e.g. SAME_ACCEPTED_SPECIES
+   */
+  public List<String> getReasons() {
+    return reasons;
+  }
+
+  /**
+   * @return the related occurrence as stored in the table (a JSON String)
+   */
+  public String getOccurrence() {
+    return occurrence;
+  }
+}
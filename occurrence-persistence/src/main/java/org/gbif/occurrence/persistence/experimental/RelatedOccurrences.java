@@ -0,0 +1,30 @@
+package org.gbif.occurrence.persistence.experimental;
+
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * A page of the occurrences related to an occurrence.
+ */
+public class RelatedOccurrences {
+
+  private final List<RelatedOccurrence> relatedOccurrences;
+  private final String next;
+
+  public RelatedOccurrences(List<RelatedOccurrence> relatedOccurrences, @Nullable String next) {
+    this.relatedOccurrences = relatedOccurrences;
+    this.next = next;
+  }
+
+  public List<RelatedOccurrence> getRelatedOccurrences() {
+    return relatedOccurrences;
+  }
+
+  /**
+   * @return cursor of the next page, null if this is the last one
+   */
+  @Nullable
+  public String getNext() {
+    return next;
+  }
+}
@@ -29,6 +29,12 @@ public class ApiClientConfiguration {
   @Min(10)
   public int maxConnections = 100;
 
+  /**
+   * maximum number of species match responses cached by each taxonomy interpreter.
+   */
+  @Parameter(names = "--match-cache-size")
+  @Min(0)
+  public int matchCacheSize = 100000;
 
   @Override
   public String toString() {
@@ -36,6 +42,7 @@ public class ApiClientConfiguration {
       .add("url", url)
       .add("timeout", timeout)
       .add("maxConnections", maxConnections)
+      .add("matchCacheSize", matchCacheSize)
       .toString();
   }
 }
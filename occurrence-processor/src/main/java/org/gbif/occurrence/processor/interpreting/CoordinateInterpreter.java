@@ -9,6 +9,7 @@ import org.gbif.kvs.KeyValueStore;
 import org.gbif.kvs.geocode.GeocodeKVStoreFactory;
 import org.gbif.occurrence.processor.interpreting.result.CoordinateResult;
 import org.gbif.occurrence.processor.interpreting.util.CountryMaps;
+import org.gbif.occurrence.processor.interpreting.util.LocalGeocodeKVStore;
 import org.gbif.occurrence.processor.interpreting.util.Wgs84Projection;
 import org.gbif.rest.client.configuration.ClientConfiguration;
 import org.gbif.rest.client.geocode.GeocodeResponse;
@@ -44,7 +45,10 @@ public class CoordinateInterpreter {
   // Antarctica: "Territories south of 60° south latitude"
   private static final double ANTARCTICA_LATITUDE = -60;
 
-  private KeyValueStore<org.gbif.kvs.geocode.LatLng, GeocodeResponse> kvStore;
+  // Prefix of the local geocode polygon files, see LocalGeocodeKVStore
+  public static final String LOCAL_GEOCODE_PREFIX = "file:";
+
+  private final KeyValueStore<org.gbif.kvs.geocode.LatLng, GeocodeResponse> kvStore;
 
   static {
     TRANSFORMS.put(Collections.emptyList(), LatLng::new);
@@ -57,11 +61,23 @@ public class CoordinateInterpreter {
 
   /**
    * Should not be instantiated.
-   * @param apisWsUrl API webservice base URL
+   * @param apisWsUrl API webservice base URL, or the path of a local geocode polygons file prefixed with
+   *                  {@link #LOCAL_GEOCODE_PREFIX} to reverse geocode without network calls
    */
   @Autowired
   public CoordinateInterpreter(String apisWsUrl) {
-    kvStore = GeocodeKVStoreFactory.simpleGeocodeKVStore(ClientConfiguration.builder().withBaseApiUrl(apisWsUrl).build());
+    this(apisWsUrl.startsWith(LOCAL_GEOCODE_PREFIX)
+           ? LocalGeocodeKVStore.fromFile(apisWsUrl.substring(LOCAL_GEOCODE_PREFIX.length()))
+           : GeocodeKVStoreFactory.simpleGeocodeKVStore(ClientConfiguration.builder()
+                                                          .withBaseApiUrl(apisWsUrl)
+                                                          .build()));
+  }
+
+  /**
+   * @param kvStore store used to reverse geocode coordinates
+   */
+  public CoordinateInterpreter(KeyValueStore<org.gbif.kvs.geocode.LatLng, GeocodeResponse> kvStore) {
+    this.kvStore = kvStore;
   }
 
   /**
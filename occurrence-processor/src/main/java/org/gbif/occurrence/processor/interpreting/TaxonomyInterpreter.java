@@ -28,14 +28,24 @@ import org.gbif.rest.client.configuration.ClientConfiguration;
 import org.gbif.ws.client.ClientFactory;
 
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -52,29 +62,66 @@ public class TaxonomyInterpreter implements Serializable {
   private static final RankParser RANK_PARSER = RankParser.getInstance();
 
 
+  // default maximum number of species match responses cached
+  public static final int DEFAULT_MATCH_CACHE_SIZE = 100000;
+
   private final KeyValueStore<SpeciesMatchRequest, org.gbif.rest.client.species.NameUsageMatch> matchingWs;
   private final KeyValueStore<String,NameUsage> speciesWs;
 
+  private final int matchCacheSize;
+  // species match responses by cleaned request, see cacheKey, absent when the webservice returned no response
+  private transient Cache<List<String>, Optional<org.gbif.rest.client.species.NameUsageMatch>> matchCache;
+
   @Inject
   public TaxonomyInterpreter(String apiUrl) {
-    matchingWs = NameUsageMatchKVStoreFactory.nameUsageMatchKVStore(ClientConfiguration.builder().withBaseApiUrl(apiUrl).build());
+    this(apiUrl, DEFAULT_MATCH_CACHE_SIZE);
+  }
 
-    speciesWs = new KeyValueStore<String, NameUsage>(){
-      private SpeciesWsClient speciesWsClient = new ClientFactory(apiUrl).newInstance(SpeciesWsClient.class);
-      @Override
-      public NameUsage get(String nubKey) {
-        return speciesWsClient.get(nubKey);
-      }
+  public TaxonomyInterpreter(ApiClientConfiguration cfg) {
+    this(cfg.url, cfg.matchCacheSize);
+  }
 
-      @Override
-      public void close() throws IOException {
-      //do nothing
-      }
-    };
+  /**
+   * @param apiUrl           API webservice base URL
+   * @param matchCacheSize   maximum number of species match responses cached, least recently used are evicted first
+   */
+  public TaxonomyInterpreter(String apiUrl, int matchCacheSize) {
+    this(NameUsageMatchKVStoreFactory.nameUsageMatchKVStore(ClientConfiguration.builder().withBaseApiUrl(apiUrl).build()),
+         new KeyValueStore<String, NameUsage>(){
+           private SpeciesWsClient speciesWsClient = new ClientFactory(apiUrl).newInstance(SpeciesWsClient.class);
+           @Override
+           public NameUsage get(String nubKey) {
+             return speciesWsClient.get(nubKey);
+           }
+
+           @Override
+           public void close() throws IOException {
+             //do nothing
+           }
+         },
+         matchCacheSize);
   }
 
-  public TaxonomyInterpreter(ApiClientConfiguration cfg) {
-    this(cfg.url);
+  @VisibleForTesting
+  TaxonomyInterpreter(KeyValueStore<SpeciesMatchRequest, org.gbif.rest.client.species.NameUsageMatch> matchingWs,
+                      KeyValueStore<String, NameUsage> speciesWs, int matchCacheSize) {
+    Preconditions.checkArgument(matchCacheSize >= 0, "Match cache size can't be negative");
+    this.matchingWs = matchingWs;
+    this.speciesWs = speciesWs;
+    this.matchCacheSize = matchCacheSize;
+    init();
+  }
+
+  private void init() {
+    matchCache = CacheBuilder.newBuilder().maximumSize(matchCacheSize).recordStats().build();
+  }
+
+  /**
+   * The cache isn't serialized, a new one is created.
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    init();
   }
 
   /**
@@ -138,8 +185,6 @@ public class TaxonomyInterpreter implements Serializable {
 
     String sciname = buildScientificName(scientificName, cleanAuthorship, cleanGenericName, cleanGenus,
                                                cleanSpecificEpithet, cleanInfraspecificEpithet);
-    OccurrenceParseResult<NameUsageMatch> result;
-
     SpeciesMatchRequest.Builder speciesRequestBuilder =
 
       SpeciesMatchRequest.builder()
@@ -155,37 +200,74 @@ public class TaxonomyInterpreter implements Serializable {
       speciesRequestBuilder.withRank(rank.name());
     }
 
-    LOG.debug("Attempt to match name [{}]", sciname);
+    return match(speciesRequestBuilder.build());
+  }
 
+  /**
+   * Matches a request with cleaned values, like the ones built by
+   * {@link #match(String, String, String, String, String, String, String, String, String, String, String, Rank)}.
+   * Responses are cached by request.
+   */
+  public OccurrenceParseResult<NameUsageMatch> match(SpeciesMatchRequest request) {
+    LOG.debug("Attempt to match name [{}]", request.getScientificName());
 
+    OccurrenceParseResult<NameUsageMatch> result;
     try {
-      NameUsageMatch lookup = toNameUsageMatch(matchingWs.get(speciesRequestBuilder.build()));
-
+      NameUsageMatch lookup = matchCache.get(cacheKey(request), () -> Optional.ofNullable(matchingWs.get(request)))
+        .map(this::toNameUsageMatch)
+        .orElseGet(TaxonomyInterpreter::noMatch);
 
       result = OccurrenceParseResult.success(ParseResult.CONFIDENCE.DEFINITE, lookup);
       switch (lookup.getMatchType()) {
         case NONE:
           result = OccurrenceParseResult.fail(lookup, OccurrenceIssue.TAXON_MATCH_NONE);
-          LOG.info("match for [{}] returned no match. Lookup note: [{}]", scientificName, lookup.getNote());
+          LOG.info("match for [{}] returned no match. Lookup note: [{}]", request.getScientificName(), lookup.getNote());
           break;
         case FUZZY:
           result.addIssue(OccurrenceIssue.TAXON_MATCH_FUZZY);
-          LOG.debug("match for [{}] was fuzzy. Match note: [{}]", scientificName, lookup.getNote());
+          LOG.debug("match for [{}] was fuzzy. Match note: [{}]", request.getScientificName(), lookup.getNote());
           break;
         case HIGHERRANK:
           result.addIssue(OccurrenceIssue.TAXON_MATCH_HIGHERRANK);
-          LOG.debug("match for [{}] was to higher rank only. Match note: [{}]", scientificName, lookup.getNote());
+          LOG.debug("match for [{}] was to higher rank only. Match note: [{}]", request.getScientificName(),
+                    lookup.getNote());
           break;
       }
     } catch (Exception e) {
       // Log the error
-      LOG.error("Failed WS call with {}", speciesRequestBuilder, e);
-      result = OccurrenceParseResult.error(e);
+      LOG.error("Failed WS call with {}", request, e);
+      result = OccurrenceParseResult.error(e instanceof ExecutionException || e instanceof UncheckedExecutionException
+                                             ? e.getCause() : e);
     }
 
     return result;
   }
 
+  /**
+   * Hits, misses and evictions of the species match cache of this interpreter.
+   */
+  public CacheStats getMatchCacheStats() {
+    return matchCache.stats();
+  }
+
+  /**
+   * Match returned when the webservice doesn't respond with a match.
+   */
+  private static NameUsageMatch noMatch() {
+    NameUsageMatch match = new NameUsageMatch();
+    match.setMatchType(NameUsageMatch.MatchType.NONE);
+    match.setNote("No match response");
+    return match;
+  }
+
+  /**
+   * Values of a request used as cache key, two requests with the same values get the same response.
+   */
+  private static List<String> cacheKey(SpeciesMatchRequest request) {
+    return Arrays.asList(request.getKingdom(), request.getPhylum(), request.getClazz(), request.getOrder(),
+                         request.getFamily(), request.getGenus(), request.getScientificName(), request.getRank());
+  }
+
   private NameUsageMatch toNameUsageMatch(org.gbif.rest.client.species.NameUsageMatch match) {
 
     NameUsageMatch nameUsageMatch = new NameUsageMatch();
@@ -102,7 +102,14 @@ public class TemporalInterpreter {
 
   public static OccurrenceParseResult<AtomizedLocalDate> interpretEventDate(String year, String month, String day,
                                                                               String dateString) {
-    OccurrenceParseResult<TemporalAccessor> ta = interpretRecordedDate(year,  month,  day, dateString);
+    return toEventDate(interpretRecordedDate(year,  month,  day, dateString));
+  }
+
+  /**
+   * Converts the result of {@link #interpretRecordedDate(String, String, String, String)} into the result of
+   * {@link #interpretEventDate(String, String, String, String)}, for callers that need both.
+   */
+  public static OccurrenceParseResult<AtomizedLocalDate> toEventDate(OccurrenceParseResult<TemporalAccessor> ta) {
     return new OccurrenceParseResult<>(ta.getStatus(), ta.getConfidence(),
       AtomizedLocalDate.fromTemporalAccessor(ta.getPayload()), null, ta.getError());
   }
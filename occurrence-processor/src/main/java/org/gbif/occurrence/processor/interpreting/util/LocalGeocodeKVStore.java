@@ -0,0 +1,148 @@
+package org.gbif.occurrence.processor.interpreting.util;
+
+import org.gbif.kvs.KeyValueStore;
+import org.gbif.kvs.geocode.LatLng;
+import org.gbif.rest.client.geocode.GeocodeResponse;
+import org.gbif.rest.client.geocode.Location;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.base.Splitter;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reverse geocoding store that answers lookups in process using a spatial index of polygons loaded from a local file,
+ * it can replace the geocode webservice store when network calls have to be avoided, e.g. in Hive UDFs.
+ * The file has one polygon per line with the tab separated columns: id, type, ISO 3166-1 alpha-2 country code,
+ * title and the geometry as WKT in WGS84 longitude/latitude. Empty lines and lines starting with # are ignored.
+ * Locations are returned in the order of the file, like the webservice the polygons of adjacent countries can overlap
+ * along the borders to return both countries near them.
+ * Instances are immutable and thread-safe.
+ */
+public class LocalGeocodeKVStore implements KeyValueStore<LatLng, GeocodeResponse> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LocalGeocodeKVStore.class);
+
+  private static final int COLUMNS = 5;
+
+  private static final Splitter TAB_SPLITTER = Splitter.on('\t').limit(COLUMNS);
+
+  // stores by file, the polygons are loaded once per JVM
+  private static final Map<Path, LocalGeocodeKVStore> STORES = new ConcurrentHashMap<>();
+
+  private final GeometryFactory geometryFactory = new GeometryFactory();
+
+  private final STRtree index = new STRtree();
+
+  /**
+   * Gets the store of the polygons of a file, loading them if that hasn't been done before.
+   *
+   * @param file path of the polygons file
+   */
+  public static LocalGeocodeKVStore fromFile(String file) {
+    return STORES.computeIfAbsent(Paths.get(file).toAbsolutePath(), LocalGeocodeKVStore::load);
+  }
+
+  private static LocalGeocodeKVStore load(Path file) {
+    LOG.info("Loading geocode polygons from {}", file);
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      LocalGeocodeKVStore store = new LocalGeocodeKVStore(reader);
+      LOG.info("Loaded {} geocode polygons from {}", store.index.size(), file);
+      return store;
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Creates a store with the polygons read from the reader.
+   */
+  LocalGeocodeKVStore(BufferedReader reader) throws IOException {
+    WKTReader wktReader = new WKTReader(geometryFactory);
+    String line;
+    int lineNumber = 0;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.trim().isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      List<String> columns = TAB_SPLITTER.splitToList(line);
+      if (columns.size() != COLUMNS) {
+        throw new IllegalArgumentException("Expected " + COLUMNS + " columns in line " + lineNumber);
+      }
+      try {
+        PreparedGeometry geometry = PreparedGeometryFactory.prepare(wktReader.read(columns.get(4)));
+        Location location = new Location();
+        location.setId(columns.get(0));
+        location.setType(columns.get(1));
+        location.setIsoCountryCode2Digit(columns.get(2).isEmpty() ? null : columns.get(2));
+        location.setTitle(columns.get(3));
+        index.insert(geometry.getGeometry().getEnvelopeInternal(), new IndexedPolygon(lineNumber, geometry, location));
+      } catch (ParseException ex) {
+        throw new IllegalArgumentException("Invalid geometry in line " + lineNumber, ex);
+      }
+    }
+    index.build();
+  }
+
+  /**
+   * Locations whose polygon covers the coordinate, in the order of the file.
+   */
+  @Override
+  public GeocodeResponse get(LatLng latLng) {
+    Coordinate coordinate = new Coordinate(latLng.getLongitude(), latLng.getLatitude());
+    Point point = geometryFactory.createPoint(coordinate);
+    @SuppressWarnings("unchecked")
+    List<IndexedPolygon> candidates = index.query(new Envelope(coordinate));
+    List<Location> locations = new ArrayList<>(candidates.size());
+    candidates.stream()
+      .filter(polygon -> polygon.geometry.covers(point))
+      .sorted(Comparator.comparingInt(polygon -> polygon.order))
+      .forEach(polygon -> locations.add(polygon.location));
+    GeocodeResponse response = new GeocodeResponse();
+    response.setLocations(locations);
+    return response;
+  }
+
+  @Override
+  public void close() {
+    // nothing to release, the index is shared by all the users of the file
+  }
+
+  /**
+   * Indexed polygon and the location it represents.
+   */
+  private static class IndexedPolygon {
+
+    private final int order;
+    private final PreparedGeometry geometry;
+    private final Location location;
+
+    IndexedPolygon(int order, PreparedGeometry geometry, Location location) {
+      this.order = order;
+      this.geometry = geometry;
+      this.location = location;
+    }
+  }
+}
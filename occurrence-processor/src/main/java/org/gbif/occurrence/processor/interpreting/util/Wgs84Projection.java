@@ -6,12 +6,20 @@ import org.gbif.common.parsers.core.ParseResult;
 import org.gbif.common.parsers.geospatial.DatumParser;
 import org.gbif.common.parsers.geospatial.LatLng;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import org.geotools.factory.BasicFactories;
 import org.geotools.factory.FactoryRegistryException;
 import org.geotools.referencing.CRS;
@@ -34,6 +42,24 @@ public class Wgs84Projection {
   private static final DatumParser PARSER = DatumParser.getInstance();
   private static final double SUSPICIOUS_SHIFT = 0.1d;
   private static DatumAuthorityFactory DATUM_FACTORY;
+  // maximum number of distinct datum values whose transformation is kept
+  private static final int TRANSFORMS_CACHE_SIZE = 1000;
+  // transformations by normalized datum, only resolved transformations are kept
+  private static final LoadingCache<String, DatumTransform> TRANSFORMS = CacheBuilder.newBuilder()
+    .maximumSize(TRANSFORMS_CACHE_SIZE)
+    .build(new CacheLoader<String, DatumTransform>() {
+      @Override
+      public DatumTransform load(String datum) {
+        return resolve(datum);
+      }
+    });
+  // datums that couldn't be resolved, kept briefly since failures can be transient, e.g. the SRS database not being
+  // available, but resolving them on every record is expensive
+  private static final long FAILURES_EXPIRY_SECONDS = 60;
+  private static final Cache<String, DatumTransform> FAILURES = CacheBuilder.newBuilder()
+    .maximumSize(TRANSFORMS_CACHE_SIZE)
+    .expireAfterWrite(FAILURES_EXPIRY_SECONDS, TimeUnit.SECONDS)
+    .build();
 
   static {
     try {
@@ -57,60 +83,170 @@ public class Wgs84Projection {
    * @return the reprojected coordinates or the original ones in case transformation failed
    */
   public static OccurrenceParseResult<LatLng> reproject(double lat, double lon, String datum) {
-    Preconditions.checkArgument(lat >= -90d && lat <= 90d);
-    Preconditions.checkArgument(lon >= -180d && lon <= 180d);
+    return reproject(new double[] {lat}, new double[] {lon}, datum).get(0);
+  }
 
-    Set<OccurrenceIssue> issues = EnumSet.noneOf(OccurrenceIssue.class);
+  /**
+   * Reproject a batch of coordinates that share the same datum or SRS into WGS84 coordinates.
+   * The transformation is resolved once and applied to all the coordinates in a single call, each coordinate gets the
+   * same result {@link #reproject(double, double, String)} would produce.
+   *
+   * @param lats  the original latitudes
+   * @param lons  the original longitudes, in the same order as the latitudes
+   * @param datum the original geodetic datum all the coordinates are in
+   *
+   * @return the result of each coordinate, in the same order as the input coordinates
+   */
+  public static List<OccurrenceParseResult<LatLng>> reproject(double[] lats, double[] lons, String datum) {
+    Preconditions.checkArgument(lats.length == lons.length, "Latitudes and longitudes must have the same length");
+    for (int i = 0; i < lats.length; i++) {
+      Preconditions.checkArgument(lats[i] >= -90d && lats[i] <= 90d);
+      Preconditions.checkArgument(lons[i] >= -180d && lons[i] <= 180d);
+    }
 
+    List<OccurrenceParseResult<LatLng>> results = new ArrayList<>(lats.length);
     if (Strings.isNullOrEmpty(datum)) {
-      issues.add(OccurrenceIssue.GEODETIC_DATUM_ASSUMED_WGS84);
-      return OccurrenceParseResult.success(ParseResult.CONFIDENCE.DEFINITE, new LatLng(lat, lon), issues);
+      for (int i = 0; i < lats.length; i++) {
+        results.add(OccurrenceParseResult.success(ParseResult.CONFIDENCE.DEFINITE, new LatLng(lats[i], lons[i]),
+                                                  EnumSet.of(OccurrenceIssue.GEODETIC_DATUM_ASSUMED_WGS84)));
+      }
+      return results;
+    }
+
+    String normalizedDatum = normalize(datum);
+    DatumTransform datumTransform = FAILURES.getIfPresent(normalizedDatum);
+    if (datumTransform == null) {
+      datumTransform = TRANSFORMS.getUnchecked(normalizedDatum);
+      if (datumTransform.transform == null) {
+        TRANSFORMS.invalidate(normalizedDatum);
+        FAILURES.put(normalizedDatum, datumTransform);
+      }
+    }
+    if (datumTransform.failure != null) {
+      LOG.debug("Coordinate reprojection failed with datum={}: {}", datum, datumTransform.failure.getMessage());
+      for (int i = 0; i < lats.length; i++) {
+        results.add(OccurrenceParseResult.fail(new LatLng(lats[i], lons[i]),
+                                               EnumSet.of(OccurrenceIssue.COORDINATE_REPROJECTION_FAILED)));
+      }
+    } else if (datumTransform.transform == null) {
+      for (int i = 0; i < lats.length; i++) {
+        results.add(OccurrenceParseResult.fail(new LatLng(lats[i], lons[i]),
+                                               EnumSet.of(OccurrenceIssue.GEODETIC_DATUM_INVALID,
+                                                          OccurrenceIssue.GEODETIC_DATUM_ASSUMED_WGS84)));
+      }
+    } else {
+      if (!datumTransform.latLon) {
+        LOG.debug("Use lon/lat ordering for reprojection with datum={}", datum);
+      }
+      double[] reprojected = transform(datumTransform, lats, lons, datum);
+      for (int i = 0; i < lats.length; i++) {
+        results.add(toResult(lats[i], lons[i], reprojected[2 * i], reprojected[2 * i + 1], datum));
+      }
     }
+    return results;
+  }
 
+  /**
+   * Transforms the coordinates into pairs of WGS84 lat/lon, NaN pairs are used for the coordinates that can't be
+   * transformed.
+   * All the coordinates are transformed in a single call, if that fails they are transformed one by one so a bad
+   * coordinate doesn't affect the rest.
+   */
+  private static double[] transform(DatumTransform datumTransform, double[] lats, double[] lons, String datum) {
+    MathTransform transform = datumTransform.transform;
+    int srcDim = transform.getSourceDimensions();
+    int dstDim = transform.getTargetDimensions();
+    // different CRS may swap the x/y axis for lat lon
+    double[] srcPts = new double[lats.length * srcDim];
+    for (int i = 0; i < lats.length; i++) {
+      srcPts[i * srcDim] = datumTransform.latLon ? lats[i] : lons[i];
+      srcPts[i * srcDim + 1] = datumTransform.latLon ? lons[i] : lats[i];
+    }
+    double[] dstPts = new double[lats.length * dstDim];
     try {
-      CoordinateReferenceSystem crs = parseCRS(datum);
-      if (crs == null) {
-        issues.add(OccurrenceIssue.GEODETIC_DATUM_INVALID);
-        issues.add(OccurrenceIssue.GEODETIC_DATUM_ASSUMED_WGS84);
-
-      } else {
-        MathTransform transform = CRS.findMathTransform(crs, DefaultGeographicCRS.WGS84, true);
-        // different CRS may swap the x/y axis for lat lon, so check first:
-        double[] srcPt;
-        double[] dstPt = new double[3];
-        if (CRS.getAxisOrder(crs) == CRS.AxisOrder.NORTH_EAST) {
-          // lat lon
-          srcPt = new double[] {lat, lon, 0};
-        } else {
-          // lon lat
-          LOG.debug("Use lon/lat ordering for reprojection with datum={} and lat/lon={}/{}", datum, lat, lon);
-          srcPt = new double[] {lon, lat, 0};
+      transform.transform(srcPts, 0, dstPts, 0, lats.length);
+    } catch (Exception e) {
+      for (int i = 0; i < lats.length; i++) {
+        try {
+          transform.transform(srcPts, i * srcDim, dstPts, i * dstDim, 1);
+        } catch (Exception e1) {
+          LOG.debug("Coordinate reprojection failed with datum={} and lat/lon={}/{}: {}", datum, lats[i], lons[i],
+                    e1.getMessage());
+          dstPts[i * dstDim] = Double.NaN;
+          dstPts[i * dstDim + 1] = Double.NaN;
         }
+      }
+    }
 
-        transform.transform(srcPt, 0, dstPt, 0, 1);
+    double[] latLons = new double[lats.length * 2];
+    for (int i = 0; i < lats.length; i++) {
+      latLons[2 * i] = dstPts[i * dstDim + 1];
+      latLons[2 * i + 1] = dstPts[i * dstDim];
+    }
+    return latLons;
+  }
 
-        double lat2 = dstPt[1];
-        double lon2 = dstPt[0];
-        // verify the datum shift is reasonable
-        if (Math.abs(lat - lat2) > SUSPICIOUS_SHIFT || Math.abs(lon - lon2) > SUSPICIOUS_SHIFT) {
-          issues.add(OccurrenceIssue.COORDINATE_REPROJECTION_SUSPICIOUS);
-          LOG.debug("Found suspicious shift for datum={} and lat/lon={}/{} so returning failure and keeping orig coord",
-            datum, lat, lon);
-          return OccurrenceParseResult.fail(new LatLng(lat, lon), issues);
-        }
-        // flag the record if coords actually changed
-        if (lat != lat2 || lon != lon2) {
-          issues.add(OccurrenceIssue.COORDINATE_REPROJECTED);
-        }
-        return OccurrenceParseResult.success(ParseResult.CONFIDENCE.DEFINITE, new LatLng(lat2, lon2), issues);
+  /**
+   * Result of a single reprojected coordinate, NaN reprojected values are failed transformations.
+   */
+  private static OccurrenceParseResult<LatLng> toResult(double lat, double lon, double lat2, double lon2,
+                                                        String datum) {
+    Set<OccurrenceIssue> issues = EnumSet.noneOf(OccurrenceIssue.class);
+    if (Double.isNaN(lat2) || Double.isNaN(lon2)) {
+      issues.add(OccurrenceIssue.COORDINATE_REPROJECTION_FAILED);
+      return OccurrenceParseResult.fail(new LatLng(lat, lon), issues);
+    }
+    // verify the datum shift is reasonable
+    if (Math.abs(lat - lat2) > SUSPICIOUS_SHIFT || Math.abs(lon - lon2) > SUSPICIOUS_SHIFT) {
+      issues.add(OccurrenceIssue.COORDINATE_REPROJECTION_SUSPICIOUS);
+      LOG.debug("Found suspicious shift for datum={} and lat/lon={}/{} so returning failure and keeping orig coord",
+        datum, lat, lon);
+      return OccurrenceParseResult.fail(new LatLng(lat, lon), issues);
+    }
+    // flag the record if coords actually changed
+    if (lat != lat2 || lon != lon2) {
+      issues.add(OccurrenceIssue.COORDINATE_REPROJECTED);
+    }
+    return OccurrenceParseResult.success(ParseResult.CONFIDENCE.DEFINITE, new LatLng(lat2, lon2), issues);
+  }
+
+  /**
+   * @return true if the transformation of the datum is cached
+   */
+  @VisibleForTesting
+  static boolean isCached(String datum) {
+    return TRANSFORMS.getIfPresent(normalize(datum)) != null;
+  }
+
+  /**
+   * @return true if the failure to resolve the datum is cached
+   */
+  @VisibleForTesting
+  static boolean isFailureCached(String datum) {
+    return FAILURES.getIfPresent(normalize(datum)) != null;
+  }
+
+  /**
+   * Datum values are matched ignoring case and surrounding whitespace, like the datum parser does.
+   */
+  private static String normalize(String datum) {
+    return datum.trim().toUpperCase(Locale.ROOT);
+  }
 
+  /**
+   * Resolves the transformation into WGS84 of a datum or SRS.
+   */
+  private static DatumTransform resolve(String datum) {
+    try {
+      CoordinateReferenceSystem crs = parseCRS(datum);
+      if (crs == null) {
+        return DatumTransform.INVALID;
       }
+      return new DatumTransform(CRS.findMathTransform(crs, DefaultGeographicCRS.WGS84, true),
+                                CRS.getAxisOrder(crs) == CRS.AxisOrder.NORTH_EAST, null);
     } catch (Exception e) {
-      issues.add(OccurrenceIssue.COORDINATE_REPROJECTION_FAILED);
-      LOG.debug("Coordinate reprojection failed with datum={} and lat/lon={}/{}: {}", datum, lat, lon, e.getMessage());
+      return new DatumTransform(null, false, e);
     }
-
-    return OccurrenceParseResult.fail(new LatLng(lat, lon), issues);
   }
 
   /**
@@ -144,4 +280,23 @@ public class Wgs84Projection {
     }
     return crs;
   }
+
+  /**
+   * Resolved transformation of a datum into WGS84 and the axis order of its coordinates.
+   * Datums that can't be parsed have no transformation and datums that can't be transformed keep the failure.
+   */
+  private static class DatumTransform {
+
+    private static final DatumTransform INVALID = new DatumTransform(null, false, null);
+
+    private final MathTransform transform;
+    private final boolean latLon;
+    private final Exception failure;
+
+    DatumTransform(MathTransform transform, boolean latLon, Exception failure) {
+      this.transform = transform;
+      this.latLon = latLon;
+      this.failure = failure;
+    }
+  }
 }
@@ -0,0 +1,128 @@
+package org.gbif.occurrence.processor.interpreting;
+
+import org.gbif.api.model.checklistbank.NameUsage;
+import org.gbif.api.model.checklistbank.NameUsageMatch;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.common.parsers.core.OccurrenceParseResult;
+import org.gbif.kvs.KeyValueStore;
+import org.gbif.kvs.species.SpeciesMatchRequest;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the match cache of the interpreter against an in memory species match webservice.
+ */
+public class TaxonomyInterpreterMatchTest {
+
+  // responses by scientific name of the webservice
+  private final Map<String, org.gbif.rest.client.species.NameUsageMatch> responses = new HashMap<>();
+  {
+    responses.put("Puma concolor", response(2435099, "Puma concolor"));
+  }
+
+  // number of requests per scientific name received by the webservice
+  private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+  private TaxonomyInterpreter interpreter(int matchCacheSize) {
+    return new TaxonomyInterpreter(new KeyValueStore<SpeciesMatchRequest, org.gbif.rest.client.species.NameUsageMatch>() {
+      @Override
+      public org.gbif.rest.client.species.NameUsageMatch get(SpeciesMatchRequest request) {
+        calls.computeIfAbsent(request.getScientificName(), name -> new AtomicInteger()).incrementAndGet();
+        return responses.get(request.getScientificName());
+      }
+
+      @Override
+      public void close() {
+        //do nothing
+      }
+    }, new KeyValueStore<String, NameUsage>() {
+      @Override
+      public NameUsage get(String nubKey) {
+        return null;
+      }
+
+      @Override
+      public void close() {
+        //do nothing
+      }
+    }, matchCacheSize);
+  }
+
+  private static org.gbif.rest.client.species.NameUsageMatch response(int usageKey, String name) {
+    org.gbif.rest.client.species.NameUsageMatch match =
+      mock(org.gbif.rest.client.species.NameUsageMatch.class, RETURNS_DEEP_STUBS);
+    when(match.getAcceptedUsage()).thenReturn(null);
+    when(match.getUsage().getKey()).thenReturn(usageKey);
+    when(match.getUsage().getName()).thenReturn(name);
+    when(match.getUsage().getRank()).thenReturn(Rank.SPECIES);
+    when(match.getDiagnostics().getMatchType()).thenReturn(NameUsageMatch.MatchType.EXACT);
+    when(match.getDiagnostics().getAlternatives()).thenReturn(null);
+    when(match.getClassification()).thenReturn(Collections.emptyList());
+    return match;
+  }
+
+  private static SpeciesMatchRequest request(String scientificName) {
+    return SpeciesMatchRequest.builder().withKingdom("Animalia").withScientificName(scientificName).build();
+  }
+
+  private int calls(String scientificName) {
+    return calls.getOrDefault(scientificName, new AtomicInteger()).get();
+  }
+
+  @Test
+  public void testMatchCached() {
+    TaxonomyInterpreter interpreter = interpreter(100);
+
+    OccurrenceParseResult<NameUsageMatch> result = interpreter.match(request("Puma concolor"));
+    assertTrue(result.isSuccessful());
+    assertEquals(2435099, result.getPayload().getUsageKey().intValue());
+
+    result = interpreter.match(request("Puma concolor"));
+    assertEquals(2435099, result.getPayload().getUsageKey().intValue());
+    assertEquals(1, calls("Puma concolor"));
+    assertEquals(1, interpreter.getMatchCacheStats().hitCount());
+    assertEquals(1, interpreter.getMatchCacheStats().missCount());
+
+    // a different request isn't served from the cache
+    interpreter.match(SpeciesMatchRequest.builder().withScientificName("Puma concolor").build());
+    assertEquals(2, calls("Puma concolor"));
+  }
+
+  @Test
+  public void testMatchNotCached() {
+    TaxonomyInterpreter interpreter = interpreter(0);
+    interpreter.match(request("Puma concolor"));
+    interpreter.match(request("Puma concolor"));
+    assertEquals(2, calls("Puma concolor"));
+  }
+
+  /**
+   * Requests without a response from the webservice are no matches.
+   */
+  @Test
+  public void testNoResponse() {
+    TaxonomyInterpreter interpreter = interpreter(100);
+
+    OccurrenceParseResult<NameUsageMatch> result = interpreter.match(request("Unknown name"));
+    assertFalse(result.isSuccessful());
+    assertEquals(NameUsageMatch.MatchType.NONE, result.getPayload().getMatchType());
+    assertEquals(Collections.singleton(OccurrenceIssue.TAXON_MATCH_NONE), result.getIssues());
+
+    // no matches are cached too
+    interpreter.match(request("Unknown name"));
+    assertEquals(1, calls("Unknown name"));
+  }
+}
@@ -0,0 +1,65 @@
+package org.gbif.occurrence.processor.interpreting.util;
+
+import org.gbif.api.vocabulary.Country;
+import org.gbif.common.parsers.core.OccurrenceParseResult;
+import org.gbif.kvs.geocode.LatLng;
+import org.gbif.occurrence.processor.interpreting.CoordinateInterpreter;
+import org.gbif.occurrence.processor.interpreting.result.CoordinateResult;
+import org.gbif.rest.client.geocode.GeocodeResponse;
+import org.gbif.rest.client.geocode.Location;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LocalGeocodeKVStoreTest {
+
+  // two adjacent squares that overlap along their border and a marine area overlapping the first one
+  private static final String POLYGONS = "# id\ttype\tisoCountryCode2Digit\ttitle\tgeometry\n"
+                                         + "DNK\tPolitical\tDK\tDenmark\tPOLYGON((8 54, 13 54, 13 58, 8 58, 8 54))\n"
+                                         + "\n"
+                                         + "SWE\tPolitical\tSE\tSweden\tPOLYGON((12.99 54, 20 54, 20 58, 12.99 58, 12.99 54))\n"
+                                         + "DNK_EEZ\tEEZ\tDK\tDanish EEZ\tPOLYGON((4 54, 9 54, 9 58, 4 58, 4 54))\n";
+
+  private static LocalGeocodeKVStore store() throws IOException {
+    return new LocalGeocodeKVStore(new BufferedReader(new StringReader(POLYGONS)));
+  }
+
+  private static List<String> locationIds(GeocodeResponse response) {
+    return response.getLocations().stream().map(Location::getId).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testGet() throws IOException {
+    LocalGeocodeKVStore store = store();
+    assertEquals(1, store.get(new LatLng(56.0, 10.0)).getLocations().size());
+    assertEquals("DK", store.get(new LatLng(56.0, 10.0)).getLocations().iterator().next().getIsoCountryCode2Digit());
+    // locations follow the order of the file
+    assertEquals(Arrays.asList("DNK", "SWE"), locationIds(store.get(new LatLng(56.0, 12.995))));
+    assertEquals(Arrays.asList("DNK", "DNK_EEZ"), locationIds(store.get(new LatLng(56.0, 8.5))));
+    // polygon edges are included
+    assertEquals(Arrays.asList("SWE"), locationIds(store.get(new LatLng(58.0, 20.0))));
+    assertTrue(store.get(new LatLng(-56.0, 10.0)).getLocations().isEmpty());
+  }
+
+  @Test
+  public void testCoordinateInterpreter() throws IOException {
+    CoordinateInterpreter interpreter = new CoordinateInterpreter(store());
+
+    OccurrenceParseResult<CoordinateResult> result = interpreter.interpretCoordinate("56.0", "10.0", null, null);
+    assertEquals(Country.DENMARK, result.getPayload().getCountry());
+
+    // swapped coordinates are detected without calls to the webservice
+    result = interpreter.interpretCoordinate("16.0", "56.0", null, Country.SWEDEN);
+    assertEquals(Country.SWEDEN, result.getPayload().getCountry());
+    assertEquals(56.0, result.getPayload().getLatitude(), 0.0001);
+  }
+}
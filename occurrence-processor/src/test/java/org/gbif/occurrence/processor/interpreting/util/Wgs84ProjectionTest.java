@@ -5,6 +5,8 @@ import org.gbif.common.parsers.core.OccurrenceParseResult;
 import org.gbif.common.parsers.core.ParseResult;
 import org.gbif.common.parsers.geospatial.LatLng;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -29,6 +31,24 @@ public class Wgs84ProjectionTest {
     assertNotNull(Wgs84Projection.parseCRS("EPSG:3857"));
   }
 
+  /**
+   * Failures are cached apart from the resolved transformations, for a short time since they could be transient.
+   */
+  @Test
+  public void testFailuresCached() {
+    assertTrue(Wgs84Projection.reproject(10d, 10d, "unknown datum").getIssues()
+                 .contains(OccurrenceIssue.GEODETIC_DATUM_INVALID));
+    assertFalse(Wgs84Projection.isCached("unknown datum"));
+    assertTrue(Wgs84Projection.isFailureCached(" Unknown Datum"));
+    // the cached failure gives the same result
+    assertTrue(Wgs84Projection.reproject(10d, 10d, "unknown datum").getIssues()
+                 .contains(OccurrenceIssue.GEODETIC_DATUM_INVALID));
+
+    Wgs84Projection.reproject(10d, 10d, "ED50");
+    assertTrue(Wgs84Projection.isCached(" ed50 "));
+    assertFalse(Wgs84Projection.isFailureCached("ED50"));
+  }
+
   @Test
   public void testReproject() {
     // EUROPE
@@ -108,6 +128,27 @@ public class Wgs84ProjectionTest {
 
   }
 
+  /**
+   * Batches of coordinates get the same results as single coordinates, regardless of the datum case.
+   */
+  @Test
+  public void testBatchReproject() {
+    double[] lats = {40.0, 52.61267058, -34.0, 30.2};
+    double[] lngs = {-73.0, -1.72851506, 138.0, -97.7};
+    for (String datum : new String[] {"NAD27", " nad27 ", "WGS84", "bla bla bla", "EPSG:3857", null}) {
+      List<OccurrenceParseResult<LatLng>> results = Wgs84Projection.reproject(lats, lngs, datum);
+      assertEquals(lats.length, results.size());
+      for (int i = 0; i < lats.length; i++) {
+        OccurrenceParseResult<LatLng> single = Wgs84Projection.reproject(lats[i], lngs[i], datum);
+        assertEquals(single.getStatus(), results.get(i).getStatus());
+        assertEquals(single.getIssues(), results.get(i).getIssues());
+        assertEquals(single.getPayload().getLat(), results.get(i).getPayload().getLat());
+        assertEquals(single.getPayload().getLng(), results.get(i).getPayload().getLng());
+      }
+    }
+    assertLatLon(Wgs84Projection.reproject(lats, lngs, " nad27 ").get(0), 40.0 - 0.00002, -73.0 + 0.000534, false, true);
+  }
+
   private void assertSameTrans(Integer datumCode, Integer crsCode) {
     double lat = 43.0;
     double lng = 79.0;
@@ -3,9 +3,18 @@ package org.gbif.occurrence.search;
 import org.gbif.api.model.occurrence.Occurrence;
 import org.gbif.api.model.occurrence.VerbatimOccurrence;
 
+import java.util.List;
+
 public interface OccurrenceGetByKey {
 
   Occurrence get(Long key);
 
+  /**
+   * Gets several occurrences by key, keys not found are skipped.
+   *
+   * @return the occurrences found, in the same order as the keys
+   */
+  List<Occurrence> get(List<Long> keys);
+
   VerbatimOccurrence getVerbatim(Long key);
 }
@@ -10,15 +10,23 @@ import org.gbif.api.model.occurrence.search.OccurrenceSearchRequest;
 import org.gbif.api.service.checklistbank.NameUsageMatchingService;
 import org.gbif.api.service.occurrence.OccurrenceSearchService;
 import org.gbif.dwc.terms.Term;
+import org.gbif.occurrence.common.cache.OccurrenceCache;
 import org.gbif.occurrence.search.OccurrenceGetByKey;
 import org.gbif.occurrence.search.SearchException;
 import org.gbif.occurrence.search.SearchTermService;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -27,8 +35,12 @@ import javax.validation.constraints.Min;
 import com.google.common.base.Preconditions;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
@@ -48,19 +60,36 @@ public class OccurrenceSearchEsImpl implements OccurrenceSearchService, Occurren
 
   private static final Logger LOG = LoggerFactory.getLogger(OccurrenceSearchEsImpl.class);
 
+  // namespace of the document sources in the occurrence cache
+  private static final String SOURCE_CACHE_NAMESPACE = "source";
+
+  // time multi-gets are skipped when the index can't be read by id, e.g. an alias of several indices
+  private static final long MULTI_GET_RETRY_INTERVAL_MS = TimeUnit.MINUTES.toMillis(5);
+
+  // consecutive multi-gets that found documents only by the gbifId query before the multi-gets are skipped
+  private static final int MAX_MISSED_MULTI_GETS = 3;
+
   private final NameUsageMatchingService nameUsageMatchingService;
   private final RestHighLevelClient esClient;
   private final String esIndex;
   private final int maxLimit;
   private final int maxOffset;
+  private final OccurrenceCache occurrenceCache;
+  private final boolean indexedByGbifId;
+
+  // multi-gets are skipped until this time, after all the items of a multi-get failed or weren't found by id
+  private volatile long multiGetDisabledUntil;
+  private final AtomicInteger missedMultiGets = new AtomicInteger();
 
   @Autowired
   public OccurrenceSearchEsImpl(
       RestHighLevelClient esClient,
       NameUsageMatchingService nameUsageMatchingService,
+      OccurrenceCache occurrenceCache,
       @Value("${occurrence.search.max.offset}") int maxOffset,
       @Value("${occurrence.search.max.limit}") int maxLimit,
-      @Value("${occurrence.search.es.index}") String esIndex) {
+      @Value("${occurrence.search.es.index}") String esIndex,
+      @Value("${occurrence.search.es.indexed_by_gbif_id:false}") boolean indexedByGbifId) {
     Preconditions.checkArgument(maxOffset > 0, "Max offset must be greater than zero");
     Preconditions.checkArgument(maxLimit > 0, "Max limit must be greater than zero");
     this.maxOffset = maxOffset;
@@ -69,43 +98,158 @@ public class OccurrenceSearchEsImpl implements OccurrenceSearchService, Occurren
     // create ES client
     this.esClient = esClient;
     this.nameUsageMatchingService = nameUsageMatchingService;
+    this.occurrenceCache = occurrenceCache;
+    this.indexedByGbifId = indexedByGbifId;
+  }
+
+  /**
+   * Gets a record by key, the source of the document is read through the occurrence cache and converted on each call,
+   * so callers never share a mutable record.
+   */
+  private <T extends VerbatimOccurrence> T getByKey(Long key, Function<BytesReference, T> mapper) {
+    BytesReference source = occurrenceCache.get(SOURCE_CACHE_NAMESPACE, key,
+                                                k -> getSourcesByKeys(Collections.singletonList(k)).get(k),
+                                                OccurrenceSearchEsImpl::datasetKey);
+    return source == null ? null : mapper.apply(source);
+  }
+
+  /**
+   * Gets the sources of documents by key with a query on the gbifId field.
+   * If the index is configured as indexed by gbifId the keys are first read with a multi-get on the document ids, so
+   * each key is read from a single shard, and only the keys whose document can't be read by id, or whose document has
+   * another gbifId, are looked up with the query.
+   * Multi-gets are skipped for a while if all their items fail, e.g. on aliases of several indices, or if several
+   * consecutive multi-gets only found documents with the query, i.e. the index isn't really indexed by gbifId.
+   *
+   * @return the sources found by key
+   */
+  private Map<Long, BytesReference> getSourcesByKeys(Collection<Long> keys) {
+    try {
+      if (!indexedByGbifId || System.currentTimeMillis() < multiGetDisabledUntil) {
+        return searchSourcesByKeys(keys);
+      }
+      Map<Long, BytesReference> results = new HashMap<>();
+      List<Long> pending = new ArrayList<>();
+      MultiGetRequest multiGetRequest = new MultiGetRequest();
+      keys.forEach(key -> multiGetRequest.add(new MultiGetRequest.Item(esIndex, null, key.toString())));
+      MultiGetItemResponse[] items = esClient.mget(multiGetRequest, HEADERS.get()).getResponses();
+      String failure = null;
+      int failed = 0;
+      for (MultiGetItemResponse item : items) {
+        Long key = Long.valueOf(item.getId());
+        if (item.isFailed()) {
+          failure = item.getFailure().getMessage();
+          failed++;
+          pending.add(key);
+        } else if (item.getResponse().isExists()
+                   && key.equals(OccurrenceSourceParser.KEYS.parse(item.getResponse().getSourceAsBytesRef(), false)
+                                   .getKey())) {
+          results.put(key, copy(item.getResponse().getSourceAsBytesRef()));
+        } else {
+          // the document may have been indexed with another id
+          pending.add(key);
+        }
+      }
+      if (failed > 0 && failed == items.length) {
+        LOG.warn("Occurrences can't be read by id from index {}, using search requests: {}", esIndex, failure);
+        disableMultiGets();
+      } else if (failed > 0) {
+        LOG.debug("{} occurrences couldn't be read by id from index {}: {}", failed, esIndex, failure);
+      }
+      if (!results.isEmpty()) {
+        missedMultiGets.set(0);
+      }
+      if (!pending.isEmpty()) {
+        Map<Long, BytesReference> searchResults = searchSourcesByKeys(pending);
+        if (results.isEmpty() && !searchResults.isEmpty()
+            && missedMultiGets.incrementAndGet() >= MAX_MISSED_MULTI_GETS) {
+          LOG.warn("Occurrences of index {} are only found by the gbifId query, using search requests", esIndex);
+          disableMultiGets();
+        }
+        results.putAll(searchResults);
+      }
+      return results;
+    } catch (IOException ex) {
+      throw new SearchException(ex);
+    }
   }
 
-  private <T> T searchByKey(Long key, Function<SearchHit, T> mapper) {
-    //This should be changed to use GetRequest once ElasticSearch stores id correctly
+  private void disableMultiGets() {
+    missedMultiGets.set(0);
+    multiGetDisabledUntil = System.currentTimeMillis() + MULTI_GET_RETRY_INTERVAL_MS;
+  }
+
+  private Map<Long, BytesReference> searchSourcesByKeys(Collection<Long> keys) throws IOException {
     SearchRequest searchRequest = new SearchRequest();
     SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    searchSourceBuilder.size(1);
+    searchSourceBuilder.size(keys.size());
     searchRequest.indices(esIndex);
-    searchSourceBuilder.query(QueryBuilders.termQuery(OccurrenceEsField.GBIF_ID.getFieldName(), key));
+    searchSourceBuilder.query(QueryBuilders.termsQuery(OccurrenceEsField.GBIF_ID.getFieldName(), keys));
     searchRequest.source(searchSourceBuilder);
-    try {
-      SearchHits hits = esClient.search(searchRequest, HEADERS.get()).getHits();
-      if (hits != null && hits.totalHits > 0) {
-        return mapper.apply(hits.getAt(0));
+    Map<Long, BytesReference> results = new HashMap<>();
+    SearchHits hits = esClient.search(searchRequest, HEADERS.get()).getHits();
+    if (hits != null) {
+      for (SearchHit hit : hits.getHits()) {
+        BytesReference source = copy(hit.getSourceRef());
+        results.put(OccurrenceSourceParser.KEYS.parse(source, false).getKey(), source);
       }
-      return null;
-    } catch (IOException ex) {
-      throw new SearchException(ex);
     }
+    return results;
+  }
+
+  /**
+   * Copies a source, so a cached source doesn't retain the buffer of the whole response.
+   */
+  private static BytesReference copy(BytesReference source) {
+    return new BytesArray(BytesReference.toBytes(source));
+  }
+
+  /**
+   * Dataset of a document, used to drop the cached sources of a dataset.
+   */
+  private static UUID datasetKey(BytesReference source) {
+    return OccurrenceSourceParser.KEYS.parse(source, false).getDatasetKey();
+  }
+
+  /**
+   * Converts a document into an Occurrence, the verbatim fields are copied into a new map.
+   */
+  private static Occurrence toOccurrence(BytesReference source) {
+    Occurrence occurrence = EsResponseParser.toOccurrence(source, true);
+    Map<Term, String> verbatim = occurrence.getVerbatimFields()
+      .entrySet()
+      .stream()
+      .collect(Collectors.toMap(Entry::getKey, Entry::getValue));
+    occurrence.setVerbatimFields(verbatim);
+    return occurrence;
   }
 
   @Override
   public Occurrence get(Long key) {
-    return searchByKey(key, hit -> {
-      Occurrence occurrence = EsResponseParser.toOccurrence(hit, true);
-      Map<Term, String> verbatim = occurrence.getVerbatimFields()
-        .entrySet()
-        .stream()
-        .collect(Collectors.toMap(Entry::getKey, Entry::getValue));
-      occurrence.setVerbatimFields(verbatim);
-      return occurrence;
-    });
+    return getByKey(key, OccurrenceSearchEsImpl::toOccurrence);
+  }
+
+  /**
+   * Gets several occurrences by key, keys not found are skipped.
+   *
+   * @return the occurrences found, in the same order as the keys
+   */
+  @Override
+  public List<Occurrence> get(List<Long> keys) {
+    Map<Long, BytesReference> sources = occurrenceCache.getAll(SOURCE_CACHE_NAMESPACE, keys,
+                                                               this::getSourcesByKeys,
+                                                               OccurrenceSearchEsImpl::datasetKey);
+    return keys.stream()
+      .distinct()
+      .map(sources::get)
+      .filter(Objects::nonNull)
+      .map(OccurrenceSearchEsImpl::toOccurrence)
+      .collect(Collectors.toList());
   }
 
   @Override
   public VerbatimOccurrence getVerbatim(Long key) {
-    return searchByKey(key, EsResponseParser::toVerbatimOccurrence);
+    return getByKey(key, EsResponseParser::toVerbatimOccurrence);
   }
 
   @Override
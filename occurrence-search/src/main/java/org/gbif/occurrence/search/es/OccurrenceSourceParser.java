@@ -0,0 +1,663 @@
+package org.gbif.occurrence.search.es;
+
+import org.gbif.api.model.common.Identifier;
+import org.gbif.api.model.common.MediaObject;
+import org.gbif.api.model.occurrence.AgentIdentifier;
+import org.gbif.api.model.occurrence.Gadm;
+import org.gbif.api.model.occurrence.GadmFeature;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.occurrence.OccurrenceRelation;
+import org.gbif.api.model.occurrence.VerbatimOccurrence;
+import org.gbif.api.util.VocabularyUtils;
+import org.gbif.api.vocabulary.AgentIdentifierType;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Continent;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.EndpointType;
+import org.gbif.api.vocabulary.EstablishmentMeans;
+import org.gbif.api.vocabulary.Extension;
+import org.gbif.api.vocabulary.License;
+import org.gbif.api.vocabulary.LifeStage;
+import org.gbif.api.vocabulary.MediaType;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.api.vocabulary.OccurrenceStatus;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.api.vocabulary.Sex;
+import org.gbif.api.vocabulary.TaxonomicStatus;
+import org.gbif.api.vocabulary.TypeStatus;
+import org.gbif.dwc.terms.DcTerm;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.GbifTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.terms.TermFactory;
+import org.gbif.dwc.terms.UnknownTerm;
+import org.gbif.occurrence.common.TermUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.ElasticsearchParseException;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.gbif.occurrence.search.es.EsQueryUtils.STRING_TO_DATE;
+import static org.gbif.occurrence.search.es.OccurrenceEsField.*;
+
+/**
+ * Converts the _source of occurrence documents into occurrences reading the JSON once with a streaming parser.
+ * The fields of a document are dispatched to the setters registered for their path in a table built once per kind of
+ * record, nested objects have their own table and the fields not registered are skipped without being read.
+ * Values are converted as they were from the source maps of the Elasticsearch client: scalars are read as text and
+ * decimal numbers as doubles, empty values are ignored and values that can't be converted are logged and skipped.
+ */
+final class OccurrenceSourceParser<T extends VerbatimOccurrence> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OccurrenceSourceParser.class);
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final TermFactory TERM_FACTORY = TermFactory.instance();
+
+  // terms of the verbatim field names, the lookups in the term factory normalise the names on each call
+  private static final ConcurrentMap<String, Term> VERBATIM_TERMS = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, Term> OCCURRENCE_TERMS = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, Optional<Extension>> EXTENSIONS = new ConcurrentHashMap<>();
+
+  static final OccurrenceSourceParser<Occurrence> OCCURRENCE = occurrenceParser();
+  static final OccurrenceSourceParser<VerbatimOccurrence> VERBATIM = verbatimParser();
+  static final OccurrenceSourceParser<VerbatimOccurrence> KEYS = keysParser();
+
+  private final Supplier<T> factory;
+  private final ObjectHandler<T> fields = new ObjectHandler<>();
+
+  @VisibleForTesting
+  OccurrenceSourceParser(Supplier<T> factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * Converts the source of a document.
+   *
+   * @param excludeInterpreted skips the verbatim fields that are interpreted, only used by the occurrence parser
+   */
+  T parse(BytesReference source, boolean excludeInterpreted) {
+    Record<T> record = new Record<>(factory.get(), excludeInterpreted);
+    // the source is usually a slice of the response buffer, it's parsed in place
+    BytesRef bytes = source.toBytesRef();
+    try (JsonParser parser = JSON_FACTORY.createParser(bytes.bytes, bytes.offset, bytes.length)) {
+      parser.nextToken();
+      fields.parse(parser, record);
+    } catch (IOException ex) {
+      throw new ElasticsearchParseException("Failed to parse occurrence source", ex);
+    }
+    setIdentifier(record.id, record.occurrence);
+    return record.occurrence;
+  }
+
+  private static OccurrenceSourceParser<Occurrence> occurrenceParser() {
+    OccurrenceSourceParser<Occurrence> parser = new OccurrenceSourceParser<>(() -> {
+      Occurrence occ = new Occurrence();
+      occ.setGadm(new Gadm());
+      return occ;
+    });
+    addRecordFields(parser);
+
+    // occurrence fields
+    parser.field(BASIS_OF_RECORD, BasisOfRecord::valueOf, Occurrence::setBasisOfRecord);
+    parser.field(ESTABLISHMENT_MEANS, EstablishmentMeans::valueOf, Occurrence::setEstablishmentMeans);
+    parser.field(LIFE_STAGE, LifeStage::valueOf, Occurrence::setLifeStage);
+    parser.field(MODIFIED, STRING_TO_DATE, Occurrence::setModified);
+    parser.field(REFERENCES, URI::create, Occurrence::setReferences);
+    parser.field(SEX, Sex::valueOf, Occurrence::setSex);
+    parser.field(TYPE_STATUS, TypeStatus::valueOf, Occurrence::setTypeStatus);
+    parser.field(TYPIFIED_NAME, Function.identity(), Occurrence::setTypifiedName);
+    parser.field(INDIVIDUAL_COUNT, Integer::valueOf, Occurrence::setIndividualCount);
+    // FIXME: should we have a list of identifiers in the schema?
+    parser.field(IDENTIFIER, Function.identity(), (occ, v) -> {
+      Identifier identifier = new Identifier();
+      identifier.setIdentifier(v);
+      occ.setIdentifiers(Collections.singletonList(identifier));
+    });
+    // FIXME: should we have a list in the schema and all the info of the enum?
+    parser.field(RELATION, Function.identity(), (occ, v) -> {
+      OccurrenceRelation occRelation = new OccurrenceRelation();
+      occRelation.setId(v);
+      occ.setRelations(Collections.singletonList(occRelation));
+    });
+    parser.field(PROJECT_ID, Function.identity(), Occurrence::setProjectId);
+    parser.field(PROGRAMME, Function.identity(), Occurrence::setProgrammeAcronym);
+    parser.field(SAMPLE_SIZE_UNIT, Function.identity(), Occurrence::setSampleSizeUnit);
+    parser.field(SAMPLE_SIZE_VALUE, Double::valueOf, Occurrence::setSampleSizeValue);
+    parser.field(ORGANISM_QUANTITY, Double::valueOf, Occurrence::setOrganismQuantity);
+    parser.field(ORGANISM_QUANTITY_TYPE, Function.identity(), Occurrence::setOrganismQuantityType);
+    parser.field(RELATIVE_ORGANISM_QUANTITY, Double::valueOf, Occurrence::setRelativeOrganismQuantity);
+    parser.field(OCCURRENCE_STATUS, OccurrenceStatus::valueOf, Occurrence::setOccurrenceStatus);
+
+    // location fields
+    parser.field(CONTINENT, Continent::valueOf, Occurrence::setContinent);
+    parser.field(STATE_PROVINCE, Function.identity(), Occurrence::setStateProvince);
+    parser.field(COUNTRY_CODE, Country::fromIsoCode, Occurrence::setCountry);
+    parser.field(COORDINATE_ACCURACY, Double::valueOf, Occurrence::setCoordinateAccuracy);
+    parser.field(COORDINATE_PRECISION, Double::valueOf, Occurrence::setCoordinatePrecision);
+    parser.field(COORDINATE_UNCERTAINTY_IN_METERS, Double::valueOf, Occurrence::setCoordinateUncertaintyInMeters);
+    parser.field(LATITUDE, Double::valueOf, Occurrence::setDecimalLatitude);
+    parser.field(LONGITUDE, Double::valueOf, Occurrence::setDecimalLongitude);
+    parser.field(DEPTH, Double::valueOf, Occurrence::setDepth);
+    parser.field(DEPTH_ACCURACY, Double::valueOf, Occurrence::setDepthAccuracy);
+    parser.field(ELEVATION, Double::valueOf, Occurrence::setElevation);
+    parser.field(ELEVATION_ACCURACY, Double::valueOf, Occurrence::setElevationAccuracy);
+    parser.field(WATER_BODY, Function.identity(), Occurrence::setWaterBody);
+    addGadmLevel(parser, GADM_LEVEL_0_GID, GADM_LEVEL_0_NAME, Gadm::getLevel0, Gadm::setLevel0);
+    addGadmLevel(parser, GADM_LEVEL_1_GID, GADM_LEVEL_1_NAME, Gadm::getLevel1, Gadm::setLevel1);
+    addGadmLevel(parser, GADM_LEVEL_2_GID, GADM_LEVEL_2_NAME, Gadm::getLevel2, Gadm::setLevel2);
+    addGadmLevel(parser, GADM_LEVEL_3_GID, GADM_LEVEL_3_NAME, Gadm::getLevel3, Gadm::setLevel3);
+
+    // temporal fields
+    parser.field(DATE_IDENTIFIED, STRING_TO_DATE, Occurrence::setDateIdentified);
+    parser.field(DAY, Integer::valueOf, Occurrence::setDay);
+    parser.field(MONTH, Integer::valueOf, Occurrence::setMonth);
+    parser.field(YEAR, Integer::valueOf, Occurrence::setYear);
+    parser.field(EVENT_DATE, STRING_TO_DATE, Occurrence::setEventDate);
+
+    // crawling and dataset fields
+    parser.field(LAST_INTERPRETED, STRING_TO_DATE, Occurrence::setLastInterpreted);
+    parser.field(LICENSE, v -> License.fromString(v).orElse(null), Occurrence::setLicense);
+    parser.field(HOSTING_ORGANIZATION_KEY, UUID::fromString, Occurrence::setHostingOrganizationKey);
+
+    // taxon fields
+    parser.field(KINGDOM_KEY, Integer::valueOf, Occurrence::setKingdomKey);
+    parser.field(KINGDOM, Function.identity(), Occurrence::setKingdom);
+    parser.field(PHYLUM_KEY, Integer::valueOf, Occurrence::setPhylumKey);
+    parser.field(PHYLUM, Function.identity(), Occurrence::setPhylum);
+    parser.field(CLASS_KEY, Integer::valueOf, Occurrence::setClassKey);
+    parser.field(CLASS, Function.identity(), Occurrence::setClazz);
+    parser.field(ORDER_KEY, Integer::valueOf, Occurrence::setOrderKey);
+    parser.field(ORDER, Function.identity(), Occurrence::setOrder);
+    parser.field(FAMILY_KEY, Integer::valueOf, Occurrence::setFamilyKey);
+    parser.field(FAMILY, Function.identity(), Occurrence::setFamily);
+    parser.field(GENUS_KEY, Integer::valueOf, Occurrence::setGenusKey);
+    parser.field(GENUS, Function.identity(), Occurrence::setGenus);
+    parser.field(SUBGENUS_KEY, Integer::valueOf, Occurrence::setSubgenusKey);
+    parser.field(SUBGENUS, Function.identity(), Occurrence::setSubgenus);
+    parser.field(SPECIES_KEY, Integer::valueOf, Occurrence::setSpeciesKey);
+    parser.field(SPECIES, Function.identity(), Occurrence::setSpecies);
+    parser.field(SCIENTIFIC_NAME, Function.identity(), Occurrence::setScientificName);
+    parser.field(SPECIFIC_EPITHET, Function.identity(), Occurrence::setSpecificEpithet);
+    parser.field(INFRA_SPECIFIC_EPITHET, Function.identity(), Occurrence::setInfraspecificEpithet);
+    parser.field(GENERIC_NAME, Function.identity(), Occurrence::setGenericName);
+    parser.field(TAXON_RANK, Rank::valueOf, Occurrence::setTaxonRank);
+    parser.field(USAGE_TAXON_KEY, Integer::valueOf, Occurrence::setTaxonKey);
+    parser.field(ACCEPTED_TAXON_KEY, Integer::valueOf, Occurrence::setAcceptedTaxonKey);
+    parser.field(ACCEPTED_SCIENTIFIC_NAME, Function.identity(), Occurrence::setAcceptedScientificName);
+    parser.field(TAXONOMIC_STATUS, TaxonomicStatus::valueOf, Occurrence::setTaxonomicStatus);
+
+    // grscicoll fields
+    parser.field(INSTITUTION_KEY, Function.identity(), Occurrence::setInstitutionKey);
+    parser.field(COLLECTION_KEY, Function.identity(), Occurrence::setCollectionKey);
+
+    parser.listField(ISSUE, v -> VocabularyUtils.lookup(v, OccurrenceIssue.class).orElse(null),
+                     (occ, issues) -> occ.setIssues(new HashSet<>(issues)));
+    parser.objectListField(MEDIA_ITEMS, OccurrenceSourceParser::toMediaObject, Occurrence::setMedia);
+    parser.objectListField(RECORDED_BY_ID, OccurrenceSourceParser::toAgentIdentifier, Occurrence::setRecordedByIds);
+    parser.objectListField(IDENTIFIED_BY_ID, OccurrenceSourceParser::toAgentIdentifier, Occurrence::setIdentifiedByIds);
+
+    // verbatim fields, the extensions aren't added to occurrences
+    parser.handler("verbatim.core", (jsonParser, record) -> readTerms(jsonParser, OccurrenceSourceParser::occurrenceTerm,
+      record.excludeInterpreted, record.occurrence.getVerbatimFields()));
+    return parser;
+  }
+
+  private static OccurrenceSourceParser<VerbatimOccurrence> verbatimParser() {
+    OccurrenceSourceParser<VerbatimOccurrence> parser = new OccurrenceSourceParser<>(VerbatimOccurrence::new);
+    addRecordFields(parser);
+    parser.handler("verbatim.core", (jsonParser, record) -> readTerms(jsonParser, OccurrenceSourceParser::verbatimTerm,
+      false, record.occurrence.getVerbatimFields()));
+    parser.handler("verbatim.extensions", (jsonParser, record) -> readExtensions(jsonParser, record.occurrence));
+    return parser;
+  }
+
+  /**
+   * Reads only the key and the dataset key of a record, the rest of the document is skipped.
+   */
+  private static OccurrenceSourceParser<VerbatimOccurrence> keysParser() {
+    OccurrenceSourceParser<VerbatimOccurrence> parser = new OccurrenceSourceParser<>(VerbatimOccurrence::new);
+    parser.field(GBIF_ID, Long::valueOf, VerbatimOccurrence::setKey);
+    parser.field(DATASET_KEY, UUID::fromString, VerbatimOccurrence::setDatasetKey);
+    return parser;
+  }
+
+  /**
+   * Fields of both occurrences and verbatim records.
+   */
+  private static <T extends VerbatimOccurrence> void addRecordFields(OccurrenceSourceParser<T> parser) {
+    parser.field(GBIF_ID, Long::valueOf, (occ, id) -> {
+      occ.setKey(id);
+      // a gbifID in the verbatim fields takes precedence
+      occ.getVerbatimFields().putIfAbsent(GbifTerm.gbifID, String.valueOf(id));
+    });
+    parser.field(PUBLISHING_COUNTRY, v -> Country.fromIsoCode(v.toUpperCase()), VerbatimOccurrence::setPublishingCountry);
+    parser.field(DATASET_KEY, UUID::fromString, VerbatimOccurrence::setDatasetKey);
+    parser.field(INSTALLATION_KEY, UUID::fromString, VerbatimOccurrence::setInstallationKey);
+    parser.field(PUBLISHING_ORGANIZATION_KEY, UUID::fromString, VerbatimOccurrence::setPublishingOrgKey);
+    parser.field(PROTOCOL, EndpointType::fromString, VerbatimOccurrence::setProtocol);
+    parser.listField(NETWORK_KEY, UUID::fromString, VerbatimOccurrence::setNetworkKeys);
+    parser.field(CRAWL_ID, Integer::valueOf, VerbatimOccurrence::setCrawlId);
+    parser.field(LAST_PARSED, STRING_TO_DATE, VerbatimOccurrence::setLastParsed);
+    parser.field(LAST_CRAWLED, STRING_TO_DATE, VerbatimOccurrence::setLastCrawled);
+    parser.valueHandler(ID.getFieldName()).setters.add((record, v) -> record.id = v);
+  }
+
+  private static void addGadmLevel(OccurrenceSourceParser<Occurrence> parser, OccurrenceEsField gidField,
+                                   OccurrenceEsField nameField, Function<Gadm, GadmFeature> getter,
+                                   BiConsumer<Gadm, GadmFeature> setter) {
+    Function<Occurrence, GadmFeature> feature = occ -> {
+      GadmFeature gadmFeature = getter.apply(occ.getGadm());
+      if (gadmFeature == null) {
+        gadmFeature = new GadmFeature();
+        setter.accept(occ.getGadm(), gadmFeature);
+      }
+      return gadmFeature;
+    };
+    parser.field(gidField, Function.identity(), (occ, gid) -> feature.apply(occ).setGid(gid));
+    parser.field(nameField, Function.identity(), (occ, name) -> feature.apply(occ).setName(name));
+  }
+
+  /**
+   * Registers a scalar field, several fields can share the same path.
+   */
+  @VisibleForTesting
+  <V> void field(OccurrenceEsField esField, Function<String, V> mapper, BiConsumer<? super T, V> setter) {
+    String fieldName = esField.getFieldName();
+    valueHandler(fieldName).setters.add((record, value) -> {
+      V mappedValue = convert(fieldName, value, mapper);
+      if (mappedValue != null) {
+        setter.accept(record.occurrence, mappedValue);
+      }
+    });
+  }
+
+  /**
+   * Registers a list of scalars, the setter is called if the list is not empty.
+   */
+  private <V> void listField(OccurrenceEsField esField, Function<String, V> mapper,
+                             BiConsumer<? super T, List<V>> setter) {
+    String fieldName = esField.getFieldName();
+    handler(fieldName, (parser, record) -> {
+      List<V> values = new ArrayList<>();
+      readValues(parser, value -> {
+        V mappedValue = convert(fieldName, value, mapper);
+        if (mappedValue != null) {
+          values.add(mappedValue);
+        }
+      });
+      if (!values.isEmpty()) {
+        setter.accept(record.occurrence, values);
+      }
+    });
+  }
+
+  /**
+   * Registers a list of objects, each one is read as a map of its scalar fields.
+   */
+  @VisibleForTesting
+  <V> void objectListField(OccurrenceEsField esField, Function<Map<String, String>, V> mapper,
+                           BiConsumer<? super T, List<V>> setter) {
+    handler(esField.getFieldName(), (parser, record) -> {
+      List<V> values = new ArrayList<>();
+      readObjects(parser, object -> values.add(mapper.apply(object)));
+      if (!values.isEmpty()) {
+        setter.accept(record.occurrence, values);
+      }
+    });
+  }
+
+  /**
+   * Gets the handler of a scalar field, shared by all the setters of its path.
+   */
+  private ValueHandler<T> valueHandler(String path) {
+    FieldHandler<T> handler = parentHandler(path).fields.computeIfAbsent(name(path), k -> new ValueHandler<>());
+    if (!(handler instanceof ValueHandler)) {
+      throw new IllegalStateException("Field " + path + " can't be read as a scalar, it's already registered as an "
+                                      + "object or with its own handler");
+    }
+    return (ValueHandler<T>) handler;
+  }
+
+  private void handler(String path, FieldHandler<T> handler) {
+    if (parentHandler(path).fields.putIfAbsent(name(path), handler) != null) {
+      throw new IllegalStateException("Field " + path + " is already registered");
+    }
+  }
+
+  /**
+   * Gets the handler of the object containing a field, nested fields are separated by dots.
+   */
+  private ObjectHandler<T> parentHandler(String path) {
+    ObjectHandler<T> parent = fields;
+    String[] names = path.split("\\.");
+    for (int i = 0; i < names.length - 1; i++) {
+      FieldHandler<T> handler = parent.fields.computeIfAbsent(names[i], k -> new ObjectHandler<>());
+      if (!(handler instanceof ObjectHandler)) {
+        throw new IllegalStateException("Field " + path + " can't be nested in "
+                                        + String.join(".", Arrays.copyOf(names, i + 1))
+                                        + ", it's already registered as a field");
+      }
+      parent = (ObjectHandler<T>) handler;
+    }
+    return parent;
+  }
+
+  private static String name(String path) {
+    return path.substring(path.lastIndexOf('.') + 1);
+  }
+
+  private static MediaObject toMediaObject(Map<String, String> fields) {
+    MediaObject mediaObject = new MediaObject();
+    setValue(fields, "type", MediaType::valueOf, mediaObject::setType);
+    setValue(fields, "identifier", URI::create, mediaObject::setIdentifier);
+    setValue(fields, "references", URI::create, mediaObject::setReferences);
+    setValue(fields, "created", STRING_TO_DATE, mediaObject::setCreated);
+    setValue(fields, "format", Function.identity(), mediaObject::setFormat);
+    setValue(fields, "audience", Function.identity(), mediaObject::setAudience);
+    setValue(fields, "contributor", Function.identity(), mediaObject::setContributor);
+    setValue(fields, "creator", Function.identity(), mediaObject::setCreator);
+    setValue(fields, "description", Function.identity(), mediaObject::setDescription);
+    setValue(fields, "publisher", Function.identity(), mediaObject::setPublisher);
+    setValue(fields, "rightsHolder", Function.identity(), mediaObject::setRightsHolder);
+    setValue(fields, "source", Function.identity(), mediaObject::setSource);
+    setValue(fields, "title", Function.identity(), mediaObject::setTitle);
+    setValue(fields, "license", license ->
+      License.fromString(license)
+        .map(l -> Optional.ofNullable(l.getLicenseUrl()).orElse(license))
+        .orElse(license), mediaObject::setLicense);
+    return mediaObject;
+  }
+
+  private static AgentIdentifier toAgentIdentifier(Map<String, String> fields) {
+    AgentIdentifier ai = new AgentIdentifier();
+    setValue(fields, "type", AgentIdentifierType::valueOf, ai::setType);
+    setValue(fields, "value", Function.identity(), ai::setValue);
+    return ai;
+  }
+
+  private static <V> void setValue(Map<String, String> fields, String fieldName, Function<String, V> mapper,
+                                   Consumer<V> setter) {
+    String value = fields.get(fieldName);
+    if (!Strings.isNullOrEmpty(value)) {
+      V mappedValue = convert(fieldName, value, mapper);
+      if (mappedValue != null) {
+        setter.accept(mappedValue);
+      }
+    }
+  }
+
+  private static <V> V convert(String fieldName, String value, Function<String, V> mapper) {
+    try {
+      return mapper.apply(value);
+    } catch (Exception ex) {
+      LOG.error("Error extracting field {} with value {}", fieldName, value);
+      return null;
+    }
+  }
+
+  /**
+   * The id (the <id> reference in the DWCA meta.xml) is an identifier local to the DWCA, and could only have been
+   * used for "un-starring" a DWCA star record. However, we've exposed it as DcTerm.identifier for a long time in
+   * our public API v1, so we continue to do this.
+   */
+  private static void setIdentifier(String id, VerbatimOccurrence occ) {
+    if (id == null) {
+      return;
+    }
+
+    String institutionCode = occ.getVerbatimField(DwcTerm.institutionCode);
+    String collectionCode = occ.getVerbatimField(DwcTerm.collectionCode);
+    String catalogNumber = occ.getVerbatimField(DwcTerm.catalogNumber);
+
+    // id format following the convention of DwC (http://rs.tdwg.org/dwc/terms/#occurrenceID)
+    String triplet = String.join(":", "urn:catalog", institutionCode, collectionCode, catalogNumber);
+
+    String gbifId = Optional.ofNullable(occ.getKey()).map(x -> Long.toString(x)).orElse("");
+    String occId = occ.getVerbatimField(DwcTerm.occurrenceID);
+
+    if (!id.equals(gbifId) && (!Strings.isNullOrEmpty(occId) || !id.equals(triplet))) {
+      occ.getVerbatimFields().put(DcTerm.identifier, id);
+    }
+  }
+
+  /**
+   * Reads the verbatim values of an object into a map of terms, null and nested values are skipped.
+   *
+   * @param terms term of each field name, null for the fields to skip
+   */
+  private static void readTerms(JsonParser parser, Function<String, Term> terms, boolean excludeInterpreted,
+                                Map<Term, String> values) throws IOException {
+    if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      Term term = terms.apply(parser.getCurrentName());
+      parser.nextToken();
+      String value = scalarText(parser);
+      if (term != null && value != null && !(excludeInterpreted && TermUtils.isInterpretedSourceTerm(term))) {
+        values.put(term, value);
+      }
+    }
+  }
+
+  /**
+   * Reads the verbatim extensions, an object with the records of each extension by row type.
+   */
+  private static void readExtensions(JsonParser parser, VerbatimOccurrence occ) throws IOException {
+    Map<Extension, List<Map<Term, String>>> extensions = new HashMap<>();
+    if (parser.getCurrentToken() == JsonToken.START_OBJECT) {
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        Extension extension = extension(parser.getCurrentName());
+        if (parser.nextToken() != JsonToken.START_ARRAY || extension == null) {
+          parser.skipChildren();
+          continue;
+        }
+        List<Map<Term, String>> records = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          Map<Term, String> record = new HashMap<>();
+          readTerms(parser, OccurrenceSourceParser::verbatimTerm, false, record);
+          records.add(record);
+        }
+        extensions.put(extension, records);
+      }
+    } else {
+      parser.skipChildren();
+    }
+    occ.setExtensions(extensions);
+  }
+
+  /**
+   * Reads a scalar or an array of scalars, nested values are skipped.
+   */
+  private static void readValues(JsonParser parser, Consumer<String> consumer) throws IOException {
+    if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+      String value = scalarText(parser);
+      if (value != null) {
+        consumer.accept(value);
+      }
+      return;
+    }
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      String value = scalarText(parser);
+      if (value != null) {
+        consumer.accept(value);
+      }
+    }
+  }
+
+  /**
+   * Reads an array of objects as maps of their scalar fields, nested values are skipped.
+   */
+  private static void readObjects(JsonParser parser, Consumer<Map<String, String>> consumer) throws IOException {
+    if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+        parser.skipChildren();
+        continue;
+      }
+      Map<String, String> object = new HashMap<>();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        parser.nextToken();
+        String value = scalarText(parser);
+        if (value != null) {
+          object.put(name, value);
+        }
+      }
+      consumer.accept(object);
+    }
+  }
+
+  /**
+   * Text of the current scalar value, as the String.valueOf of the values of the source maps.
+   * Returns null for null values, objects and arrays are skipped and also return null.
+   */
+  private static String scalarText(JsonParser parser) throws IOException {
+    switch (parser.getCurrentToken()) {
+      case VALUE_STRING:
+      case VALUE_NUMBER_INT:
+      case VALUE_TRUE:
+      case VALUE_FALSE:
+        return parser.getText();
+      case VALUE_NUMBER_FLOAT:
+        return String.valueOf(parser.getDoubleValue());
+      case START_OBJECT:
+      case START_ARRAY:
+        parser.skipChildren();
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Term of a verbatim field name as it's exposed in verbatim records, "extensions" is not a term.
+   */
+  private static Term verbatimTerm(String name) {
+    if (name.equalsIgnoreCase("extensions")) {
+      return null;
+    }
+    Term term = VERBATIM_TERMS.get(name);
+    return term != null ? term : VERBATIM_TERMS.computeIfAbsent(name, TERM_FACTORY::findTerm);
+  }
+
+  /**
+   * Term of a verbatim field name as it's exposed in occurrences.
+   * Unknown terms are re-mapped because Pipelines preserve Unknown terms and do not add the URI for unknown terms.
+   */
+  private static Term occurrenceTerm(String name) {
+    Term term = OCCURRENCE_TERMS.get(name);
+    return term != null ? term : OCCURRENCE_TERMS.computeIfAbsent(name, n -> {
+      Term found = TERM_FACTORY.findTerm(n);
+      return found instanceof UnknownTerm ? UnknownTerm.build(found.simpleName(), false) : found;
+    });
+  }
+
+  private static Extension extension(String rowType) {
+    return EXTENSIONS.computeIfAbsent(rowType, r -> {
+      // first parse into a term cause the extension lookup by rowType is very strict
+      Extension extension = Extension.fromRowType(TERM_FACTORY.findTerm(r).qualifiedName());
+      if (extension == null) {
+        LOG.debug("Ignore unknown extension {}", r);
+      }
+      return Optional.ofNullable(extension);
+    }).orElse(null);
+  }
+
+  /**
+   * Record being parsed and the values that are needed once all the fields are read.
+   */
+  private static final class Record<T extends VerbatimOccurrence> {
+
+    private final T occurrence;
+    private final boolean excludeInterpreted;
+    private String id;
+
+    private Record(T occurrence, boolean excludeInterpreted) {
+      this.occurrence = occurrence;
+      this.excludeInterpreted = excludeInterpreted;
+    }
+  }
+
+  @FunctionalInterface
+  private interface FieldHandler<T extends VerbatimOccurrence> {
+
+    /**
+     * Reads the value of a field, the parser is on the first token of the value and is left on its last token.
+     */
+    void parse(JsonParser parser, Record<T> record) throws IOException;
+  }
+
+  /**
+   * Dispatches the fields of an object to their handlers, fields without handler are skipped.
+   */
+  private static final class ObjectHandler<T extends VerbatimOccurrence> implements FieldHandler<T> {
+
+    private final Map<String, FieldHandler<T>> fields = new HashMap<>();
+
+    @Override
+    public void parse(JsonParser parser, Record<T> record) throws IOException {
+      if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+        parser.skipChildren();
+        return;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        FieldHandler<T> handler = fields.get(parser.getCurrentName());
+        parser.nextToken();
+        if (handler != null) {
+          handler.parse(parser, record);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads a scalar once and passes it to all the setters of its path, null and empty values are ignored.
+   */
+  private static final class ValueHandler<T extends VerbatimOccurrence> implements FieldHandler<T> {
+
+    private final List<BiConsumer<Record<T>, String>> setters = new ArrayList<>();
+
+    @Override
+    public void parse(JsonParser parser, Record<T> record) throws IOException {
+      String value = scalarText(parser);
+      if (value != null && !value.isEmpty()) {
+        for (BiConsumer<Record<T>, String> setter : setters) {
+          setter.accept(record, value);
+        }
+      }
+    }
+  }
+}
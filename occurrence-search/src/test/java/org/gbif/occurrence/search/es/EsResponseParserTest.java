@@ -0,0 +1,127 @@
+package org.gbif.occurrence.search.es;
+
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.occurrence.VerbatimOccurrence;
+import org.gbif.api.vocabulary.AgentIdentifierType;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.Extension;
+import org.gbif.api.vocabulary.License;
+import org.gbif.api.vocabulary.MediaType;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.api.vocabulary.TaxonomicStatus;
+import org.gbif.dwc.terms.DcTerm;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.GbifTerm;
+import org.gbif.dwc.terms.UnknownTerm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.UUID;
+
+import com.google.common.io.ByteStreams;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EsResponseParserTest {
+
+  private static BytesReference source() throws IOException {
+    try (InputStream in = EsResponseParserTest.class.getResourceAsStream("/es-occurrence.json")) {
+      return new BytesArray(ByteStreams.toByteArray(in));
+    }
+  }
+
+  @Test
+  public void toOccurrenceTest() throws IOException {
+    Occurrence occ = EsResponseParser.toOccurrence(source(), false);
+
+    assertEquals(Long.valueOf(648006), occ.getKey());
+    assertEquals(UUID.fromString("d596fccb-2319-42eb-b13b-986c932780ad"), occ.getDatasetKey());
+    assertEquals(Country.UNITED_KINGDOM, occ.getPublishingCountry());
+    assertEquals(Collections.singletonList(UUID.fromString("4b0d6a5f-8a8d-4a1f-9f61-8f7a1d8b9e31")),
+                 occ.getNetworkKeys());
+    assertEquals(Integer.valueOf(83), occ.getCrawlId());
+    assertNotNull(occ.getLastInterpreted());
+    assertEquals(occ.getLastInterpreted(), occ.getLastParsed());
+    assertNotNull(occ.getLastCrawled());
+    assertEquals(License.CC_BY_4_0, occ.getLicense());
+    assertEquals(BasisOfRecord.MATERIAL_SAMPLE, occ.getBasisOfRecord());
+    // invalid and empty values are skipped
+    assertNull(occ.getSex());
+    assertNull(occ.getTypifiedName());
+    assertEquals(Collections.singleton(OccurrenceIssue.COUNTRY_DERIVED_FROM_COORDINATES), occ.getIssues());
+    assertEquals(Double.valueOf(1936518), occ.getSampleSizeValue());
+    assertEquals(Double.valueOf(0.000009295033663513585), occ.getRelativeOrganismQuantity());
+    assertEquals(Integer.valueOf(2010), occ.getYear());
+    assertEquals(Double.valueOf(-35.2421), occ.getDecimalLatitude());
+    assertNull(occ.getDecimalLongitude());
+    assertEquals(Country.SOUTH_AFRICA, occ.getCountry());
+
+    // nested fields
+    assertEquals("ZAF", occ.getGadm().getLevel0().getGid());
+    assertEquals("South Africa", occ.getGadm().getLevel0().getName());
+    assertEquals("ZAF.1_1", occ.getGadm().getLevel1().getGid());
+    assertEquals("Eastern Cape", occ.getGadm().getLevel1().getName());
+    assertNull(occ.getGadm().getLevel2());
+    assertEquals(Integer.valueOf(2), occ.getTaxonKey());
+    assertEquals("Archaea", occ.getScientificName());
+    assertEquals(Rank.KINGDOM, occ.getTaxonRank());
+    assertEquals(TaxonomicStatus.ACCEPTED, occ.getTaxonomicStatus());
+    assertEquals(Integer.valueOf(2), occ.getKingdomKey());
+    assertEquals("Archaea", occ.getKingdom());
+    assertNull(occ.getAcceptedTaxonKey());
+
+    // lists of objects
+    assertEquals(1, occ.getMedia().size());
+    assertEquals(MediaType.StillImage, occ.getMedia().get(0).getType());
+    assertEquals(URI.create("http://example.org/image.jpg"), occ.getMedia().get(0).getIdentifier());
+    assertEquals(License.CC_BY_4_0.getLicenseUrl(), occ.getMedia().get(0).getLicense());
+    assertNull(occ.getMedia().get(0).getCreated());
+    assertEquals(1, occ.getRecordedByIds().size());
+    assertEquals(AgentIdentifierType.ORCID, occ.getRecordedByIds().get(0).getType());
+    assertEquals("https://orcid.org/0000-0002-1825-0097", occ.getRecordedByIds().get(0).getValue());
+
+    // verbatim fields
+    assertEquals("648006", occ.getVerbatimField(GbifTerm.gbifID));
+    assertEquals("MGYA00167265_Archaea", occ.getVerbatimField(DwcTerm.occurrenceID));
+    assertEquals("MATERIAL_SAMPLE", occ.getVerbatimField(DwcTerm.basisOfRecord));
+    assertTrue(occ.getVerbatimFields().entrySet().stream()
+                 .anyMatch(e -> e.getKey() instanceof UnknownTerm && "customTerm".equals(e.getKey().simpleName())
+                                && "custom value".equals(e.getValue())));
+    assertFalse(occ.getVerbatimFields().containsKey(DwcTerm.recordedBy));
+    assertEquals("MGYA00167265_Archaea", occ.getVerbatimField(DcTerm.identifier));
+  }
+
+  @Test
+  public void toOccurrenceExcludeInterpretedTest() throws IOException {
+    Occurrence occ = EsResponseParser.toOccurrence(source(), true);
+
+    assertEquals("MGYA00167265_Archaea", occ.getVerbatimField(DwcTerm.occurrenceID));
+    assertFalse(occ.getVerbatimFields().containsKey(DwcTerm.basisOfRecord));
+    assertFalse(occ.getVerbatimFields().containsKey(DwcTerm.scientificName));
+  }
+
+  @Test
+  public void toVerbatimOccurrenceTest() throws IOException {
+    VerbatimOccurrence vOcc = EsResponseParser.toVerbatimOccurrence(source());
+
+    assertEquals(Long.valueOf(648006), vOcc.getKey());
+    assertEquals(UUID.fromString("d596fccb-2319-42eb-b13b-986c932780ad"), vOcc.getDatasetKey());
+    assertNotNull(vOcc.getLastParsed());
+    assertEquals("648006", vOcc.getVerbatimField(GbifTerm.gbifID));
+    assertEquals("Archaea", vOcc.getVerbatimField(DwcTerm.scientificName));
+    assertEquals("MGYA00167265_Archaea", vOcc.getVerbatimField(DcTerm.identifier));
+
+    // unknown extensions are skipped
+    assertEquals(Collections.singleton(Extension.MULTIMEDIA), vOcc.getExtensions().keySet());
+    assertEquals(1, vOcc.getExtensions().get(Extension.MULTIMEDIA).size());
+    assertEquals("http://example.org/image.jpg",
+                 vOcc.getExtensions().get(Extension.MULTIMEDIA).get(0).get(DcTerm.identifier));
+  }
+}
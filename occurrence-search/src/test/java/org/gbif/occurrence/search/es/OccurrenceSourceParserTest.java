@@ -0,0 +1,321 @@
+package org.gbif.occurrence.search.es;
+
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.occurrence.VerbatimOccurrence;
+import org.gbif.api.vocabulary.Extension;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.dwc.terms.DcTerm;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.GbifTerm;
+import org.gbif.occurrence.common.TermUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.junit.jupiter.api.Test;
+
+import static org.gbif.occurrence.search.es.OccurrenceEsField.IDENTIFIED_BY_ID;
+import static org.gbif.occurrence.search.es.OccurrenceEsField.IDENTIFIED_BY_ID_VALUE;
+import static org.gbif.occurrence.search.es.OccurrenceEsField.RECORDED_BY_ID;
+import static org.gbif.occurrence.search.es.OccurrenceEsField.RECORDED_BY_ID_VALUE;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the records read by {@link OccurrenceSourceParser} with the ones of the source maps read by
+ * {@link SourceMapParser}, the documents the map conversion fails on are only checked with the stream parser.
+ */
+public class OccurrenceSourceParserTest {
+
+  private static final String MULTIMEDIA_ROW_TYPE = "http://rs.gbif.org/terms/1.0/Multimedia";
+
+  /**
+   * Documents of the integration tests, the last two have multimedia items and verbatim extensions.
+   */
+  @SuppressWarnings("unchecked")
+  private static List<Map<String, Object>> documents() throws IOException {
+    try (InputStream in = OccurrenceSourceParserTest.class.getResourceAsStream("/occurrences-test.json");
+         XContentParser parser = XContentType.JSON.xContent()
+           .createParser(NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, in)) {
+      return parser.list().stream().map(doc -> (Map<String, Object>) doc).collect(Collectors.toList());
+    }
+  }
+
+  private static Map<String, Object> multimediaDocument() throws IOException {
+    return documents().stream().filter(doc -> doc.containsKey("multimediaItems")).findFirst().get();
+  }
+
+  private static BytesReference source(Map<String, Object> doc) throws IOException {
+    try (XContentBuilder builder = XContentFactory.jsonBuilder()) {
+      return BytesReference.bytes(builder.map(doc));
+    }
+  }
+
+  private static BytesReference source(String json) {
+    return new BytesArray(json);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> verbatim(Map<String, Object> doc) {
+    return (Map<String, Object>) doc.get("verbatim");
+  }
+
+  private static Map<String, Object> newVerbatim(Map<String, Object> core, Map<String, Object> extensions) {
+    Map<String, Object> verbatim = new LinkedHashMap<>();
+    verbatim.put("core", core);
+    if (extensions != null) {
+      verbatim.put("extensions", extensions);
+    }
+    return verbatim;
+  }
+
+  /**
+   * Asserts the stream parser reads the same occurrence and verbatim records the source map was converted to.
+   */
+  private static void assertSameRecords(Map<String, Object> doc) throws IOException {
+    BytesReference source = source(doc);
+    Map<String, Object> sourceMap = XContentHelper.convertToMap(source, false, XContentType.JSON).v2();
+    for (boolean excludeInterpreted : new boolean[] {false, true}) {
+      assertEquals(SourceMapParser.toOccurrence(sourceMap, excludeInterpreted),
+                   OccurrenceSourceParser.OCCURRENCE.parse(source, excludeInterpreted),
+                   "Different occurrence " + doc.get("gbifId") + " excluding interpreted " + excludeInterpreted);
+    }
+    assertEquals(SourceMapParser.toVerbatimOccurrence(sourceMap),
+                 OccurrenceSourceParser.VERBATIM.parse(source, false),
+                 "Different verbatim record " + doc.get("gbifId"));
+  }
+
+  @Test
+  public void testDocuments() throws IOException {
+    List<Map<String, Object>> documents = documents();
+    assertEquals(10, documents.size());
+    for (Map<String, Object> doc : documents) {
+      assertSameRecords(doc);
+
+      // the records aren't equal just because they are empty
+      Occurrence occ = OccurrenceSourceParser.OCCURRENCE.parse(source(doc), false);
+      assertEquals(Long.valueOf(doc.get("gbifId").toString()), occ.getKey());
+      assertNotNull(occ.getDatasetKey());
+      assertNotNull(occ.getBasisOfRecord());
+      assertEquals(doc.containsKey("multimediaItems"), !occ.getMedia().isEmpty());
+      assertFalse(occ.getVerbatimFields().isEmpty());
+    }
+  }
+
+  @Test
+  public void testExcludeInterpreted() throws IOException {
+    BytesReference source = source(multimediaDocument());
+
+    Occurrence occ = OccurrenceSourceParser.OCCURRENCE.parse(source, false);
+    assertTrue(occ.getVerbatimFields().keySet().stream().anyMatch(TermUtils::isInterpretedSourceTerm));
+
+    Occurrence excluded = OccurrenceSourceParser.OCCURRENCE.parse(source, true);
+    assertTrue(excluded.getVerbatimFields().keySet().stream().noneMatch(TermUtils::isInterpretedSourceTerm));
+    assertEquals("prope Calico (Valdiv.), Chile", excluded.getVerbatimField(DwcTerm.locality));
+    assertEquals(occ.getScientificName(), excluded.getScientificName());
+    assertEquals(occ.getMedia(), excluded.getMedia());
+
+    // the verbatim parser reads all the verbatim fields
+    assertEquals(OccurrenceSourceParser.VERBATIM.parse(source, false).getVerbatimFields(),
+                 OccurrenceSourceParser.VERBATIM.parse(source, true).getVerbatimFields());
+  }
+
+  @Test
+  public void testMissingFields() throws IOException {
+    Map<String, Object> doc = multimediaDocument();
+    doc.remove("multimediaItems");
+    doc.remove("issues");
+    doc.remove("countryCode");
+    doc.remove("id");
+    doc.put("year", null);
+    doc.put("license", null);
+    doc.put("networkKeys", null);
+    verbatim(doc).remove("extensions");
+    assertSameRecords(doc);
+
+    Occurrence occ = OccurrenceSourceParser.OCCURRENCE.parse(source(doc), false);
+    assertTrue(occ.getMedia().isEmpty());
+    assertTrue(occ.getIssues().isEmpty());
+    assertNull(occ.getCountry());
+    assertNull(occ.getYear());
+    assertNull(occ.getLicense());
+    assertTrue(OccurrenceSourceParser.VERBATIM.parse(source(doc), false).getExtensions().isEmpty());
+  }
+
+  /**
+   * Null values the source maps fail to convert.
+   */
+  @Test
+  public void testNullValues() {
+    BytesReference source = source("{\"gbifId\": \"1\", \"gadm\": null, \"multimediaItems\": null,"
+                                   + " \"verbatim\": {\"core\": {\"http://rs.tdwg.org/dwc/terms/recordedBy\": null,"
+                                   + " \"http://rs.tdwg.org/dwc/terms/locality\": \"Calico\"}, \"extensions\": null}}");
+    Occurrence occ = OccurrenceSourceParser.OCCURRENCE.parse(source, false);
+    assertEquals(Long.valueOf(1), occ.getKey());
+    assertNull(occ.getGadm().getLevel0());
+    assertTrue(occ.getMedia().isEmpty());
+    assertFalse(occ.hasVerbatimField(DwcTerm.recordedBy));
+    assertEquals("Calico", occ.getVerbatimField(DwcTerm.locality));
+
+    VerbatimOccurrence verbatim = OccurrenceSourceParser.VERBATIM.parse(source, false);
+    assertFalse(verbatim.hasVerbatimField(DwcTerm.recordedBy));
+    assertTrue(verbatim.getExtensions().isEmpty());
+
+    // documents without verbatim fields
+    occ = OccurrenceSourceParser.OCCURRENCE.parse(source("{\"gbifId\": 2}"), false);
+    assertEquals(Long.valueOf(2), occ.getKey());
+    assertEquals(Collections.singletonMap(GbifTerm.gbifID, "2"), occ.getVerbatimFields());
+  }
+
+  @Test
+  public void testArrays() throws IOException {
+    Map<String, Object> doc = multimediaDocument();
+    doc.put("issues", Arrays.asList("ZERO_COORDINATE", "UNKNOWN_ISSUE", "COUNTRY_MISMATCH"));
+    doc.put("networkKeys", Collections.emptyList());
+    Map<String, Object> agent = new LinkedHashMap<>();
+    agent.put("type", "ORCID");
+    agent.put("value", "https://orcid.org/0000-0002-1825-0097");
+    doc.put(RECORDED_BY_ID.getFieldName(), Arrays.asList(agent, Collections.singletonMap("value", "Lechler")));
+    doc.put(IDENTIFIED_BY_ID.getFieldName(), Collections.emptyList());
+    assertSameRecords(doc);
+
+    Occurrence occ = OccurrenceSourceParser.OCCURRENCE.parse(source(doc), false);
+    assertEquals(EnumSet.of(OccurrenceIssue.ZERO_COORDINATE, OccurrenceIssue.COUNTRY_MISMATCH), occ.getIssues());
+    assertEquals(2, occ.getRecordedByIds().size());
+    assertEquals("Lechler", occ.getRecordedByIds().get(1).getValue());
+  }
+
+  /**
+   * Scalars where lists are expected and the other way round, the source maps fail to convert or join the first.
+   */
+  @Test
+  public void testArraysAndScalars() {
+    Occurrence occ = OccurrenceSourceParser.OCCURRENCE.parse(
+      source("{\"gbifId\": 3, \"issues\": \"ZERO_COORDINATE\", \"year\": [2010, 2011], \"month\": 5,"
+             + " \"multimediaItems\": {\"type\": \"StillImage\"}, \"gadm\": [{\"level0Gid\": \"ZAF\"}],"
+             + " \"verbatim\": {\"core\": {\"http://rs.tdwg.org/dwc/terms/locality\": [\"Calico\"]}}}"), false);
+    assertEquals(Long.valueOf(3), occ.getKey());
+    assertEquals(Collections.singleton(OccurrenceIssue.ZERO_COORDINATE), occ.getIssues());
+    assertNull(occ.getYear());
+    assertEquals(Integer.valueOf(5), occ.getMonth());
+    assertTrue(occ.getMedia().isEmpty());
+    assertNull(occ.getGadm().getLevel0());
+    assertFalse(occ.hasVerbatimField(DwcTerm.locality));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testVerbatimExtensions() throws IOException {
+    Map<String, Object> doc = multimediaDocument();
+    Map<String, Object> identification = new HashMap<>();
+    identification.put("http://rs.tdwg.org/dwc/terms/identifiedBy", "Phil.");
+    identification.put("http://rs.tdwg.org/dwc/terms/dateIdentified", "1856");
+    Map<String, Object> extensions = new LinkedHashMap<>();
+    extensions.put("http://example.org/terms/Unknown", Collections.singletonList(identification));
+    Map<String, Object> docExtensions = (Map<String, Object>) verbatim(doc).get("extensions");
+    extensions.put(MULTIMEDIA_ROW_TYPE, docExtensions.get(MULTIMEDIA_ROW_TYPE));
+    extensions.put(Extension.IDENTIFICATION.getRowType(), Arrays.asList(identification, new HashMap<>()));
+    doc.put("verbatim", newVerbatim((Map<String, Object>) verbatim(doc).get("core"), extensions));
+    assertSameRecords(doc);
+
+    VerbatimOccurrence verbatim = OccurrenceSourceParser.VERBATIM.parse(source(doc), false);
+    assertEquals(EnumSet.of(Extension.MULTIMEDIA, Extension.IDENTIFICATION), verbatim.getExtensions().keySet());
+    assertEquals("jpg", verbatim.getExtensions().get(Extension.MULTIMEDIA).get(0)
+      .get(DcTerm.format));
+    assertEquals(2, verbatim.getExtensions().get(Extension.IDENTIFICATION).size());
+    assertEquals("Phil.", verbatim.getExtensions().get(Extension.IDENTIFICATION).get(0).get(DwcTerm.identifiedBy));
+
+    // the extensions aren't added to occurrences
+    assertTrue(OccurrenceSourceParser.OCCURRENCE.parse(source(doc), false).getExtensions().isEmpty());
+  }
+
+  @Test
+  public void testGbifIdPrecedence() throws IOException {
+    Map<String, Object> core = new LinkedHashMap<>();
+    core.put(GbifTerm.gbifID.qualifiedName(), "1");
+    core.put(DwcTerm.locality.qualifiedName(), "Calico");
+
+    // the gbifID of the verbatim fields takes precedence whichever comes first
+    Map<String, Object> keyFirst = new LinkedHashMap<>();
+    keyFirst.put("gbifId", 2);
+    keyFirst.put("verbatim", newVerbatim(core, null));
+    Map<String, Object> verbatimFirst = new LinkedHashMap<>();
+    verbatimFirst.put("verbatim", newVerbatim(core, null));
+    verbatimFirst.put("gbifId", 2);
+
+    for (Map<String, Object> doc : Arrays.asList(keyFirst, verbatimFirst)) {
+      assertSameRecords(doc);
+      for (OccurrenceSourceParser<?> parser : Arrays.asList(OccurrenceSourceParser.OCCURRENCE,
+                                                            OccurrenceSourceParser.VERBATIM)) {
+        VerbatimOccurrence record = parser.parse(source(doc), false);
+        assertEquals(Long.valueOf(2), record.getKey());
+        assertEquals("1", record.getVerbatimField(GbifTerm.gbifID));
+      }
+    }
+
+    // the key is used without a gbifID in the verbatim fields
+    core.remove(GbifTerm.gbifID.qualifiedName());
+    assertSameRecords(keyFirst);
+    assertEquals("2", OccurrenceSourceParser.OCCURRENCE.parse(source(keyFirst), false)
+      .getVerbatimField(GbifTerm.gbifID));
+  }
+
+  @Test
+  public void testUnknownFields() throws IOException {
+    Map<String, Object> doc = multimediaDocument();
+    Occurrence expected = OccurrenceSourceParser.OCCURRENCE.parse(source(doc), false);
+
+    Map<String, Object> unknownObject = new LinkedHashMap<>();
+    unknownObject.put("value", "unknown");
+    unknownObject.put("values", Arrays.asList(1, 2.5, true));
+    unknownObject.put("nested", Collections.singletonMap("gbifId", 4));
+    doc.put("unknownScalar", "unknown");
+    doc.put("unknownObject", unknownObject);
+    doc.put("unknownArray", Arrays.asList(unknownObject, "unknown"));
+    doc.put("gadm", Collections.singletonMap("unknown", unknownObject));
+    verbatim(doc).put("unknown", unknownObject);
+    assertSameRecords(doc);
+    assertEquals(expected, OccurrenceSourceParser.OCCURRENCE.parse(source(doc), false));
+  }
+
+  /**
+   * Fields registered as scalars and as objects fail when the parser is built.
+   */
+  @Test
+  public void testPathConflicts() {
+    OccurrenceSourceParser<Occurrence> objectFirst = new OccurrenceSourceParser<>(Occurrence::new);
+    objectFirst.objectListField(RECORDED_BY_ID, Function.identity(), (occ, v) -> {});
+    IllegalStateException ex = assertThrows(IllegalStateException.class, () ->
+      objectFirst.field(RECORDED_BY_ID_VALUE, Function.identity(), Occurrence::setRecordedBy));
+    assertTrue(ex.getMessage().contains(RECORDED_BY_ID_VALUE.getFieldName()));
+    ex = assertThrows(IllegalStateException.class, () ->
+      objectFirst.field(RECORDED_BY_ID, Function.identity(), Occurrence::setRecordedBy));
+    assertTrue(ex.getMessage().contains(RECORDED_BY_ID.getFieldName()));
+
+    OccurrenceSourceParser<Occurrence> scalarFirst = new OccurrenceSourceParser<>(Occurrence::new);
+    scalarFirst.field(IDENTIFIED_BY_ID_VALUE, Function.identity(), Occurrence::setIdentifiedBy);
+    ex = assertThrows(IllegalStateException.class, () ->
+      scalarFirst.objectListField(IDENTIFIED_BY_ID, Function.identity(), (occ, v) -> {}));
+    assertTrue(ex.getMessage().contains(IDENTIFIED_BY_ID.getFieldName()));
+    ex = assertThrows(IllegalStateException.class, () ->
+      scalarFirst.objectListField(IDENTIFIED_BY_ID_VALUE, Function.identity(), (occ, v) -> {}));
+    assertTrue(ex.getMessage().contains(IDENTIFIED_BY_ID_VALUE.getFieldName()));
+  }
+}
@@ -0,0 +1,479 @@
+package org.gbif.occurrence.search.es;
+
+import org.gbif.api.model.common.Identifier;
+import org.gbif.api.model.common.MediaObject;
+import org.gbif.api.model.occurrence.AgentIdentifier;
+import org.gbif.api.model.occurrence.Gadm;
+import org.gbif.api.model.occurrence.GadmFeature;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.occurrence.OccurrenceRelation;
+import org.gbif.api.model.occurrence.VerbatimOccurrence;
+import org.gbif.api.util.VocabularyUtils;
+import org.gbif.api.vocabulary.*;
+import org.gbif.dwc.terms.DcTerm;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.GbifTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.terms.TermFactory;
+import org.gbif.dwc.terms.UnknownTerm;
+import org.gbif.occurrence.common.TermUtils;
+
+import java.net.URI;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.collect.Maps;
+import org.elasticsearch.common.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.gbif.occurrence.search.es.EsQueryUtils.STRING_TO_DATE;
+import static org.gbif.occurrence.search.es.OccurrenceEsField.RELATION;
+import static org.gbif.occurrence.search.es.OccurrenceEsField.*;
+
+/**
+ * Converts the source maps of occurrence documents as EsResponseParser did before the sources were read with
+ * {@link OccurrenceSourceParser}, kept to check that both produce the same records.
+ */
+class SourceMapParser {
+
+  private static final Pattern NESTED_PATTERN = Pattern.compile("^\\w+(\\.\\w+)+$");
+  private static final Predicate<String> IS_NESTED = s -> NESTED_PATTERN.matcher(s).find();
+  private static final TermFactory TERM_FACTORY = TermFactory.instance();
+
+  private static final Logger LOG = LoggerFactory.getLogger(SourceMapParser.class);
+
+  private SourceMapParser() {
+    //DO NOTHING
+  }
+
+  /**
+   * Transforms the source of an occurrence document into a suitable Verbatim map of terms.
+   */
+  static VerbatimOccurrence toVerbatimOccurrence(Map<String, Object> source) {
+    VerbatimOccurrence vOcc = new VerbatimOccurrence();
+    getValue(source, PUBLISHING_COUNTRY, v -> Country.fromIsoCode(v.toUpperCase()))
+      .ifPresent(vOcc::setPublishingCountry);
+    getValue(source, DATASET_KEY, UUID::fromString).ifPresent(vOcc::setDatasetKey);
+    getValue(source, INSTALLATION_KEY, UUID::fromString).ifPresent(vOcc::setInstallationKey);
+    getValue(source, PUBLISHING_ORGANIZATION_KEY, UUID::fromString)
+      .ifPresent(vOcc::setPublishingOrgKey);
+    getValue(source, PROTOCOL, EndpointType::fromString).ifPresent(vOcc::setProtocol);
+
+    getListValue(source, NETWORK_KEY)
+      .ifPresent(
+        v -> vOcc.setNetworkKeys(v.stream().map(UUID::fromString).collect(Collectors.toList())));
+    getValue(source, CRAWL_ID, Integer::valueOf).ifPresent(vOcc::setCrawlId);
+    getDateValue(source, LAST_PARSED).ifPresent(vOcc::setLastParsed);
+    getDateValue(source, LAST_CRAWLED).ifPresent(vOcc::setLastCrawled);
+    getValue(source, GBIF_ID, Long::valueOf)
+      .ifPresent(
+        id -> {
+          vOcc.setKey(id);
+          vOcc.getVerbatimFields().put(GbifTerm.gbifID, String.valueOf(id));
+        });
+    // add verbatim fields
+    Map<String, Object> verbatimData = (Map<String, Object>) source.get("verbatim");
+
+    vOcc.getVerbatimFields().putAll(parseVerbatimTermMap((Map<String, Object>)(verbatimData).get("core")));
+    setIdentifier(source, vOcc);
+
+    if (verbatimData.containsKey("extensions" )) {
+      vOcc.setExtensions(parseExtensionsMap((Map<String, Object>)verbatimData.get("extensions")));
+    }
+
+    return vOcc;
+  }
+
+  private static Map<Extension, List<Map<Term, String>>> parseExtensionsMap(Map<String, Object> extensions) {
+    // parse extensions
+    Map<Extension, List<Map<Term, String>>> extTerms = Maps.newHashMap();
+    for (String rowType : extensions.keySet()) {
+      // first pare into a term cause the extension lookup by rowType is very strict
+      Term rowTypeTerm = TERM_FACTORY.findTerm(rowType);
+      Extension ext = Extension.fromRowType(rowTypeTerm.qualifiedName());
+      if (ext == null) {
+        LOG.debug("Ignore unknown extension {}", rowType);
+      } else {
+        List<Map<Term, String>> records = new ArrayList<>();
+        // transform records to term based map
+        for (Map<String, Object> rawRecord : (List<Map<String, Object>>) extensions.get(rowType)) {
+          records.add(parseVerbatimTermMap(rawRecord));
+        }
+        extTerms.put(ext, records);
+      }
+    }
+    return extTerms;
+  }
+
+  /**
+   * Parses a simple string based map into a Term based map, ignoring any non term entries and not parsing nested
+   * e.g. extensions data.
+   * This produces a Map of verbatim data.
+   */
+  private static Map<Term, String> parseVerbatimTermMap(Map<String, Object> data) {
+
+    Map<Term, String> terms = Maps.newHashMap();
+    data.forEach( (simpleTermName,value) -> {
+      if (Objects.nonNull(value) && !simpleTermName.equalsIgnoreCase("extensions")) {
+        Term term = TERM_FACTORY.findTerm(simpleTermName);
+        terms.put(term, value.toString());
+      }
+    });
+
+    return terms;
+  }
+
+  /**
+   * Transforms the source of an occurrence document, e.g. read by id, into an Occurrence.
+   */
+  static Occurrence toOccurrence(Map<String, Object> source, boolean excludeInterpreted) {
+    // create occurrence
+    Occurrence occ = new Occurrence();
+
+    // set fields
+    setOccurrenceFields(source, occ);
+    setLocationFields(source, occ);
+    setTemporalFields(source, occ);
+    setCrawlingFields(source, occ);
+    setDatasetFields(source, occ);
+    setTaxonFields(source, occ);
+    setGrscicollFields(source, occ);
+
+    // issues
+    getListValue(source, ISSUE)
+        .ifPresent(
+            v ->
+                occ.setIssues(
+                    v.stream().map(issue -> VocabularyUtils.lookup(issue, OccurrenceIssue.class))
+                      .filter(Optional::isPresent)
+                      .map(Optional::get)
+                      .collect(Collectors.toSet())));
+
+    // multimedia extension
+    parseMultimediaItems(source, occ);
+
+    parseAgentIds(source, occ);
+
+    // add verbatim fields
+    occ.getVerbatimFields().putAll(extractVerbatimFields(source, excludeInterpreted));
+    // TODO: add verbatim extensions
+
+    setIdentifier(source, occ);
+
+    return occ;
+  }
+
+  /**
+   * The id (the <id> reference in the DWCA meta.xml) is an identifier local to the DWCA, and could only have been
+   * used for "un-starring" a DWCA star record. However, we've exposed it as DcTerm.identifier for a long time in
+   * our public API v1, so we continue to do this.
+   */
+  private static void setIdentifier(Map<String, Object> source, VerbatimOccurrence occ) {
+
+    String institutionCode = occ.getVerbatimField(DwcTerm.institutionCode);
+    String collectionCode = occ.getVerbatimField(DwcTerm.collectionCode);
+    String catalogNumber = occ.getVerbatimField(DwcTerm.catalogNumber);
+
+    // id format following the convention of DwC (http://rs.tdwg.org/dwc/terms/#occurrenceID)
+    String triplet = String.join(":", "urn:catalog", institutionCode, collectionCode, catalogNumber);
+
+    String gbifId = Optional.ofNullable(occ.getKey()).map(x -> Long.toString(x)).orElse("");
+    String occId = occ.getVerbatimField(DwcTerm.occurrenceID);
+
+    getStringValue(source, ID)
+      .filter(k -> !k.equals(gbifId) && (!Strings.isNullOrEmpty(occId) || !k.equals(triplet)))
+      .ifPresent(result -> occ.getVerbatimFields().put(DcTerm.identifier, result));
+  }
+
+  private static void setOccurrenceFields(Map<String, Object> source, Occurrence occ) {
+    getValue(source, GBIF_ID, Long::valueOf)
+        .ifPresent(
+            id -> {
+              occ.setKey(id);
+              occ.getVerbatimFields().put(GbifTerm.gbifID, String.valueOf(id));
+            });
+    getValue(source, BASIS_OF_RECORD, BasisOfRecord::valueOf).ifPresent(occ::setBasisOfRecord);
+    getValue(source, ESTABLISHMENT_MEANS, EstablishmentMeans::valueOf).ifPresent(occ::setEstablishmentMeans);
+    getValue(source, LIFE_STAGE, LifeStage::valueOf).ifPresent(occ::setLifeStage);
+    getDateValue(source, MODIFIED).ifPresent(occ::setModified);
+    getValue(source, REFERENCES, URI::create).ifPresent(occ::setReferences);
+    getValue(source, SEX, Sex::valueOf).ifPresent(occ::setSex);
+    getValue(source, TYPE_STATUS, TypeStatus::valueOf).ifPresent(occ::setTypeStatus);
+    getStringValue(source, TYPIFIED_NAME).ifPresent(occ::setTypifiedName);
+    getValue(source, INDIVIDUAL_COUNT, Integer::valueOf).ifPresent(occ::setIndividualCount);
+    // FIXME: should we have a list of identifiers in the schema?
+    getStringValue(source, IDENTIFIER)
+        .ifPresent(
+            v -> {
+              Identifier identifier = new Identifier();
+              identifier.setIdentifier(v);
+              occ.setIdentifiers(Collections.singletonList(identifier));
+            });
+
+    // FIXME: should we have a list in the schema and all the info of the enum?
+    getStringValue(source, RELATION)
+        .ifPresent(
+            v -> {
+              OccurrenceRelation occRelation = new OccurrenceRelation();
+              occRelation.setId(v);
+              occ.setRelations(Collections.singletonList(occRelation));
+            });
+    getStringValue(source, PROJECT_ID).ifPresent(occ::setProjectId);
+    getStringValue(source, PROGRAMME).ifPresent(occ::setProgrammeAcronym);
+
+    getStringValue(source, SAMPLE_SIZE_UNIT).ifPresent(occ::setSampleSizeUnit);
+    getDoubleValue(source, SAMPLE_SIZE_VALUE).ifPresent(occ::setSampleSizeValue);
+    getDoubleValue(source, ORGANISM_QUANTITY).ifPresent(occ::setOrganismQuantity);
+    getStringValue(source, ORGANISM_QUANTITY_TYPE).ifPresent(occ::setOrganismQuantityType);
+    getDoubleValue(source, RELATIVE_ORGANISM_QUANTITY).ifPresent(occ::setRelativeOrganismQuantity);
+
+    getValue(source, OCCURRENCE_STATUS, OccurrenceStatus::valueOf).ifPresent(occ::setOccurrenceStatus);
+  }
+
+  private static void parseAgentIds(Map<String, Object> source, Occurrence occ) {
+    Function<Map<String, Object>, AgentIdentifier> mapFn = m -> {
+      AgentIdentifier ai = new AgentIdentifier();
+      extractValue(m, "type", AgentIdentifierType::valueOf).ifPresent(ai::setType);
+      extractStringValue(m, "value").ifPresent(ai::setValue);
+      return ai;
+    };
+
+    getObjectsListValue(source, RECORDED_BY_ID)
+      .map(i -> i.stream().map(mapFn).collect(Collectors.toList()))
+      .ifPresent(occ::setRecordedByIds);
+
+    getObjectsListValue(source, IDENTIFIED_BY_ID)
+      .map(i -> i.stream().map(mapFn).collect(Collectors.toList()))
+      .ifPresent(occ::setIdentifiedByIds);
+  }
+
+  private static void setTemporalFields(Map<String, Object> source, Occurrence occ) {
+    getDateValue(source, DATE_IDENTIFIED).ifPresent(occ::setDateIdentified);
+    getValue(source, DAY, Integer::valueOf).ifPresent(occ::setDay);
+    getValue(source, MONTH, Integer::valueOf).ifPresent(occ::setMonth);
+    getValue(source, YEAR, Integer::valueOf).ifPresent(occ::setYear);
+    getDateValue(source, EVENT_DATE).ifPresent(occ::setEventDate);
+  }
+
+  private static void setLocationFields(Map<String, Object> source, Occurrence occ) {
+    getValue(source, CONTINENT, Continent::valueOf).ifPresent(occ::setContinent);
+    getStringValue(source, STATE_PROVINCE).ifPresent(occ::setStateProvince);
+    getValue(source, COUNTRY_CODE, Country::fromIsoCode).ifPresent(occ::setCountry);
+    getDoubleValue(source, COORDINATE_ACCURACY).ifPresent(occ::setCoordinateAccuracy);
+    getDoubleValue(source, COORDINATE_PRECISION).ifPresent(occ::setCoordinatePrecision);
+    getDoubleValue(source, COORDINATE_UNCERTAINTY_IN_METERS).ifPresent(occ::setCoordinateUncertaintyInMeters);
+    getDoubleValue(source, LATITUDE).ifPresent(occ::setDecimalLatitude);
+    getDoubleValue(source, LONGITUDE).ifPresent(occ::setDecimalLongitude);
+    getDoubleValue(source, DEPTH).ifPresent(occ::setDepth);
+    getDoubleValue(source, DEPTH_ACCURACY).ifPresent(occ::setDepthAccuracy);
+    getDoubleValue(source, ELEVATION).ifPresent(occ::setElevation);
+    getDoubleValue(source, ELEVATION_ACCURACY).ifPresent(occ::setElevationAccuracy);
+    getStringValue(source, WATER_BODY).ifPresent(occ::setWaterBody);
+
+    Gadm g = new Gadm();
+    getStringValue(source, GADM_LEVEL_0_GID).ifPresent(gid -> {
+      g.setLevel0(new GadmFeature());
+      g.getLevel0().setGid(gid);
+    });
+    getStringValue(source, GADM_LEVEL_1_GID).ifPresent(gid -> {
+      g.setLevel1(new GadmFeature());
+      g.getLevel1().setGid(gid);
+    });
+    getStringValue(source, GADM_LEVEL_2_GID).ifPresent(gid -> {
+      g.setLevel2(new GadmFeature());
+      g.getLevel2().setGid(gid);
+    });
+    getStringValue(source, GADM_LEVEL_3_GID).ifPresent(gid -> {
+      g.setLevel3(new GadmFeature());
+      g.getLevel3().setGid(gid);
+    });
+    getStringValue(source, GADM_LEVEL_0_NAME).ifPresent(name -> g.getLevel0().setName(name));
+    getStringValue(source, GADM_LEVEL_1_NAME).ifPresent(name -> g.getLevel1().setName(name));
+    getStringValue(source, GADM_LEVEL_2_NAME).ifPresent(name -> g.getLevel2().setName(name));
+    getStringValue(source, GADM_LEVEL_3_NAME).ifPresent(name -> g.getLevel3().setName(name));
+
+    occ.setGadm(g);
+  }
+
+  private static void setTaxonFields(Map<String, Object> source, Occurrence occ) {
+    getIntValue(source, KINGDOM_KEY).ifPresent(occ::setKingdomKey);
+    getStringValue(source, KINGDOM).ifPresent(occ::setKingdom);
+    getIntValue(source, PHYLUM_KEY).ifPresent(occ::setPhylumKey);
+    getStringValue(source, PHYLUM).ifPresent(occ::setPhylum);
+    getIntValue(source, CLASS_KEY).ifPresent(occ::setClassKey);
+    getStringValue(source, CLASS).ifPresent(occ::setClazz);
+    getIntValue(source, ORDER_KEY).ifPresent(occ::setOrderKey);
+    getStringValue(source, ORDER).ifPresent(occ::setOrder);
+    getIntValue(source, FAMILY_KEY).ifPresent(occ::setFamilyKey);
+    getStringValue(source, FAMILY).ifPresent(occ::setFamily);
+    getIntValue(source, GENUS_KEY).ifPresent(occ::setGenusKey);
+    getStringValue(source, GENUS).ifPresent(occ::setGenus);
+    getIntValue(source, SUBGENUS_KEY).ifPresent(occ::setSubgenusKey);
+    getStringValue(source, SUBGENUS).ifPresent(occ::setSubgenus);
+    getIntValue(source, SPECIES_KEY).ifPresent(occ::setSpeciesKey);
+    getStringValue(source, SPECIES).ifPresent(occ::setSpecies);
+    getStringValue(source, SCIENTIFIC_NAME).ifPresent(occ::setScientificName);
+    getStringValue(source, SPECIFIC_EPITHET).ifPresent(occ::setSpecificEpithet);
+    getStringValue(source, INFRA_SPECIFIC_EPITHET).ifPresent(occ::setInfraspecificEpithet);
+    getStringValue(source, GENERIC_NAME).ifPresent(occ::setGenericName);
+    getStringValue(source, TAXON_RANK).ifPresent(v -> occ.setTaxonRank(Rank.valueOf(v)));
+    getIntValue(source, USAGE_TAXON_KEY).ifPresent(occ::setTaxonKey);
+    getIntValue(source, ACCEPTED_TAXON_KEY).ifPresent(occ::setAcceptedTaxonKey);
+    getStringValue(source, ACCEPTED_SCIENTIFIC_NAME).ifPresent(occ::setAcceptedScientificName);
+    getValue(source, TAXONOMIC_STATUS, TaxonomicStatus::valueOf).ifPresent(occ::setTaxonomicStatus);
+  }
+
+  private static void setGrscicollFields(Map<String, Object> source, Occurrence occ) {
+    getStringValue(source, INSTITUTION_KEY).ifPresent(occ::setInstitutionKey);
+    getStringValue(source, COLLECTION_KEY).ifPresent(occ::setCollectionKey);
+  }
+
+  private static void setDatasetFields(Map<String, Object> source, Occurrence occ) {
+    getValue(source, PUBLISHING_COUNTRY, v -> Country.fromIsoCode(v.toUpperCase()))
+        .ifPresent(occ::setPublishingCountry);
+    getValue(source, DATASET_KEY, UUID::fromString).ifPresent(occ::setDatasetKey);
+    getValue(source, INSTALLATION_KEY, UUID::fromString).ifPresent(occ::setInstallationKey);
+    getValue(source, PUBLISHING_ORGANIZATION_KEY, UUID::fromString)
+        .ifPresent(occ::setPublishingOrgKey);
+    getValue(source, LICENSE, v -> License.fromString(v).orElse(null)).ifPresent(occ::setLicense);
+    getValue(source, PROTOCOL, EndpointType::fromString).ifPresent(occ::setProtocol);
+    getValue(source, HOSTING_ORGANIZATION_KEY, UUID::fromString).ifPresent(occ::setHostingOrganizationKey);
+
+    getListValue(source, NETWORK_KEY)
+        .ifPresent(
+            v -> occ.setNetworkKeys(v.stream().map(UUID::fromString).collect(Collectors.toList())));
+  }
+
+  private static void setCrawlingFields(Map<String, Object> source, Occurrence occ) {
+    getValue(source, CRAWL_ID, Integer::valueOf).ifPresent(occ::setCrawlId);
+    getDateValue(source, LAST_INTERPRETED).ifPresent(occ::setLastInterpreted);
+    getDateValue(source, LAST_PARSED).ifPresent(occ::setLastParsed);
+    getDateValue(source, LAST_CRAWLED).ifPresent(occ::setLastCrawled);
+  }
+
+  private static void parseMultimediaItems(Map<String, Object> source, Occurrence occ) {
+
+    Function<Map<String, Object>, MediaObject> mapFn = m -> {
+      MediaObject mediaObject = new MediaObject();
+
+      extractValue(m, "type", MediaType::valueOf).ifPresent(mediaObject::setType);
+      extractValue(m, "identifier", URI::create).ifPresent(mediaObject::setIdentifier);
+      extractValue(m, "references", URI::create).ifPresent(mediaObject::setReferences);
+      extractValue(m, "created", STRING_TO_DATE).ifPresent(mediaObject::setCreated);
+      extractStringValue(m, "format").ifPresent(mediaObject::setFormat);
+      extractStringValue(m, "audience").ifPresent(mediaObject::setAudience);
+      extractStringValue(m, "contributor").ifPresent(mediaObject::setContributor);
+      extractStringValue(m, "creator").ifPresent(mediaObject::setCreator);
+      extractStringValue(m, "description").ifPresent(mediaObject::setDescription);
+      extractStringValue(m, "publisher").ifPresent(mediaObject::setPublisher);
+      extractStringValue(m, "rightsHolder").ifPresent(mediaObject::setRightsHolder);
+      extractStringValue(m, "source").ifPresent(mediaObject::setSource);
+      extractStringValue(m, "title").ifPresent(mediaObject::setTitle);
+      extractStringValue(m, "license")
+        .map(license ->
+          License.fromString(license)
+            .map(l -> Optional.ofNullable(l.getLicenseUrl()).orElse(license))
+            .orElse(license))
+        .ifPresent(mediaObject::setLicense);
+
+      return mediaObject;
+    };
+
+    getObjectsListValue(source, MEDIA_ITEMS)
+      .map(i -> i.stream().map(mapFn).collect(Collectors.toList()))
+      .ifPresent(occ::setMedia);
+  }
+
+  private static Optional<String> getStringValue(Map<String, Object> source, OccurrenceEsField esField) {
+    return getValue(source, esField, Function.identity());
+  }
+
+  private static Optional<Integer> getIntValue(Map<String, Object> source, OccurrenceEsField esField) {
+    return getValue(source, esField, Integer::valueOf);
+  }
+
+  private static Optional<Double> getDoubleValue(Map<String, Object> source, OccurrenceEsField esField) {
+    return getValue(source, esField, Double::valueOf);
+  }
+
+  private static Optional<Date> getDateValue(Map<String, Object> source, OccurrenceEsField esField) {
+    return getValue(source, esField, STRING_TO_DATE);
+  }
+
+  private static Optional<List<String>> getListValue(Map<String, Object> source, OccurrenceEsField esField) {
+    return Optional.ofNullable(source.get(esField.getFieldName()))
+        .map(v -> (List<String>) v)
+        .filter(v -> !v.isEmpty());
+  }
+
+  private static Optional<List<Map<String, Object>>> getObjectsListValue(Map<String, Object> source, OccurrenceEsField esField) {
+    return Optional.ofNullable(source.get(esField.getFieldName()))
+        .map(v -> (List<Map<String, Object>>) v)
+        .filter(v -> !v.isEmpty());
+  }
+
+  private static <T> Optional<T> getValue(Map<String, Object> source, OccurrenceEsField esField, Function<String, T> mapper) {
+    String fieldName = esField.getFieldName();
+    Map<String, Object> fields = source;
+    if (IS_NESTED.test(esField.getFieldName())) {
+      // take all paths till the field name
+      String[] paths = esField.getFieldName().split("\\.");
+      for (int i = 0; i < paths.length - 1 && fields.containsKey(paths[i]); i++) {
+        // update the fields with the current path
+        fields = (Map<String, Object>) fields.get(paths[i]);
+      }
+      // the last path is the field name
+      fieldName = paths[paths.length - 1];
+    }
+
+    return extractValue(fields, fieldName, mapper);
+  }
+
+  private static <T> Optional<T> extractValue(Map<String, Object> fields, String fieldName, Function<String, T> mapper) {
+    return Optional.ofNullable(fields.get(fieldName))
+      .map(String::valueOf)
+      .filter(v -> !v.isEmpty())
+      .map(v -> {
+        try {
+          return mapper.apply(v);
+        } catch (Exception ex) {
+          LOG.error("Error extracting field {} with value {}", fieldName, v);
+          return null;
+        }
+      });
+  }
+
+  private static Optional<String> extractStringValue(Map<String, Object> fields, String fieldName) {
+    return extractValue(fields, fieldName, Function.identity());
+  }
+
+  private static Map<Term, String> extractVerbatimFields(Map<String, Object> source, boolean excludeInterpreted) {
+    Map<String, Object> verbatimFields = (Map<String, Object>) source.get("verbatim");
+    Map<String, String> verbatimCoreFields = (Map<String, String>) verbatimFields.get("core");
+    Stream<AbstractMap.SimpleEntry<Term, String>> termMap =
+    verbatimCoreFields.entrySet().stream()
+      .map(e -> new SimpleEntry<>(mapTerm(e.getKey()), e.getValue()));
+    if (excludeInterpreted) {
+      termMap = termMap.filter(e -> !TermUtils.isInterpretedSourceTerm(e.getKey()));
+    }
+    return termMap.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+  }
+
+  /**
+   * Re-maps terms to handle Unknown terms.
+   * This has to be done because Pipelines preserve Unknown terms and do not add the URI for unknown terms.
+   */
+  private static Term mapTerm(String verbatimTerm) {
+    Term term  = TERM_FACTORY.findTerm(verbatimTerm);
+    if (term instanceof UnknownTerm) {
+      return UnknownTerm.build(term.simpleName(), false);
+    }
+    return term;
+  }
+}
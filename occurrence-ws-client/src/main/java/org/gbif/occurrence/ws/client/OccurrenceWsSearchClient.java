@@ -46,6 +46,21 @@ public interface OccurrenceWsSearchClient extends  OccurrenceSearchService {
 
   String SEARCH_PATH ="search/";
 
+  String BATCH_PATH = "batch";
+
+  /**
+   * Gets several occurrences by key, keys not found are skipped.
+   *
+   * @param keys occurrence keys, at most 300
+   * @return the occurrences found, in the same order as the keys
+   */
+  @RequestMapping(
+    method = RequestMethod.GET,
+    value = BATCH_PATH
+  )
+  @ResponseBody
+  List<Occurrence> get(@RequestParam("key") List<Long> keys);
+
   @RequestMapping(
     method = RequestMethod.GET,
     value = SEARCH_PATH
@@ -0,0 +1,113 @@
+package org.gbif.occurrence.ws.cache;
+
+import org.gbif.api.model.registry.Dataset;
+import org.gbif.api.ws.mixin.Mixins;
+import org.gbif.common.messaging.AbstractMessageCallback;
+import org.gbif.common.messaging.ConnectionParameters;
+import org.gbif.common.messaging.DefaultMessageRegistry;
+import org.gbif.common.messaging.MessageListener;
+import org.gbif.common.messaging.api.messages.DeleteDatasetOccurrencesMessage;
+import org.gbif.common.messaging.api.messages.RegistryChangeMessage;
+import org.gbif.occurrence.common.cache.OccurrenceCache;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the cached records of datasets updated or deleted in the registry, and of datasets whose occurrences are
+ * deleted. Records of unknown dataset, like fragments, are raw crawled data: registry changes don't affect them, so
+ * they are only dropped when the occurrences of a dataset are deleted.
+ * It listens to the same {@link RegistryChangeMessage} and {@link DeleteDatasetOccurrencesMessage} messages handled
+ * by the registry-sync and dataset deleter services, using its own queues: every instance of the WS must be
+ * configured with a different occurrence.cache.invalidation.queue, otherwise the messages are split among them.
+ */
+@Component
+@ConditionalOnProperty("occurrence.cache.invalidation.queue")
+public class OccurrenceCacheInvalidator implements DisposableBean {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OccurrenceCacheInvalidator.class);
+
+  private final MessageListener listener;
+
+  @Autowired
+  public OccurrenceCacheInvalidator(OccurrenceCache occurrenceCache,
+                                    @Value("${occurrence.cache.invalidation.queue}") String queue,
+                                    @Value("${occurrence.cache.invalidation.messaging.host}") String host,
+                                    @Value("${occurrence.cache.invalidation.messaging.port:5672}") int port,
+                                    @Value("${occurrence.cache.invalidation.messaging.username}") String username,
+                                    @Value("${occurrence.cache.invalidation.messaging.password}") String password,
+                                    @Value("${occurrence.cache.invalidation.messaging.virtualHost}") String virtualHost)
+    throws IOException {
+    listener = new MessageListener(new ConnectionParameters(host, port, username, password, virtualHost),
+                                   new DefaultMessageRegistry(), createObjectMapper(), 1);
+    listener.listen(queue + "-registry-change", 1, new RegistryChangeCallback(occurrenceCache));
+    listener.listen(queue + "-delete-dataset", 1, new DeleteDatasetCallback(occurrenceCache));
+    LOG.info("Occurrence cache invalidated by the dataset changes of queue {}", queue);
+  }
+
+  @Override
+  public void destroy() throws Exception {
+    listener.close();
+  }
+
+  /**
+   * Registry objects are deserialized ignoring unknown properties, like the registry-sync service.
+   */
+  private static ObjectMapper createObjectMapper() {
+    ObjectMapper objectMapper = new ObjectMapper();
+    objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    Mixins.getPredefinedMixins().forEach(objectMapper::addMixIn);
+    return objectMapper;
+  }
+
+  private static class RegistryChangeCallback extends AbstractMessageCallback<RegistryChangeMessage> {
+
+    private final OccurrenceCache occurrenceCache;
+
+    private RegistryChangeCallback(OccurrenceCache occurrenceCache) {
+      this.occurrenceCache = occurrenceCache;
+    }
+
+    @Override
+    public void handleMessage(RegistryChangeMessage message) {
+      if (!Dataset.class.equals(message.getObjectClass())) {
+        return;
+      }
+      switch (message.getChangeType()) {
+        case UPDATED:
+          occurrenceCache.invalidateDataset(((Dataset) message.getNewObject()).getKey());
+          break;
+        case DELETED:
+          occurrenceCache.invalidateDataset(((Dataset) message.getOldObject()).getKey());
+          break;
+        default:
+          // new datasets have no cached records
+      }
+    }
+  }
+
+  private static class DeleteDatasetCallback extends AbstractMessageCallback<DeleteDatasetOccurrencesMessage> {
+
+    private final OccurrenceCache occurrenceCache;
+
+    private DeleteDatasetCallback(OccurrenceCache occurrenceCache) {
+      this.occurrenceCache = occurrenceCache;
+    }
+
+    @Override
+    public void handleMessage(DeleteDatasetOccurrencesMessage message) {
+      occurrenceCache.invalidateDataset(message.getDatasetUuid());
+      // fragments don't have a dataset, only the deletion of occurrences can change them
+      occurrenceCache.invalidateUnknownDataset();
+    }
+  }
+}
@@ -1,6 +1,8 @@
 package org.gbif.occurrence.ws.config;
 
 import org.gbif.api.service.registry.OccurrenceDownloadService;
+import org.gbif.occurrence.common.cache.OccurrenceCache;
+import org.gbif.occurrence.common.config.OccurrenceCacheConfiguration;
 import org.gbif.occurrence.common.download.DownloadUtils;
 import org.gbif.occurrence.download.service.workflow.DownloadWorkflowParameters;
 import org.gbif.occurrence.persistence.configuration.OccurrencePersistenceConfiguration;
@@ -15,6 +17,9 @@ import java.util.Map;
 
 import com.google.common.collect.ImmutableMap;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.apache.oozie.client.OozieClient;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -23,6 +28,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.validation.annotation.Validated;
 
 @Configuration
 public class OccurrenceWsConfiguration {
@@ -78,6 +84,37 @@ public class OccurrenceWsConfiguration {
     return clientFactory.newInstance(OccurrenceDownloadClient.class);
   }
 
+  @Bean
+  @Validated
+  @ConfigurationProperties("occurrence.cache")
+  public OccurrenceCacheConfiguration occurrenceCacheConfiguration() {
+    return new OccurrenceCacheConfiguration();
+  }
+
+  /**
+   * Cache of records read by key, shared by the HBase and Elasticsearch services.
+   */
+  @Bean
+  public OccurrenceCache occurrenceCache(OccurrenceCacheConfiguration occurrenceCacheConfiguration) {
+    return new OccurrenceCache(occurrenceCacheConfiguration);
+  }
+
+  /**
+   * Exposes the size and hit ratio of the occurrence cache in the actuator metrics.
+   */
+  @Bean
+  public MeterBinder occurrenceCacheMetrics(OccurrenceCache occurrenceCache) {
+    return registry -> {
+      Gauge.builder("occurrence.cache.size", occurrenceCache, OccurrenceCache::size).register(registry);
+      Gauge.builder("occurrence.cache.hit.ratio", occurrenceCache, OccurrenceCache::hitRate).register(registry);
+      FunctionCounter.builder("occurrence.cache.hits", occurrenceCache, OccurrenceCache::hitCount).register(registry);
+      FunctionCounter.builder("occurrence.cache.misses", occurrenceCache, OccurrenceCache::missCount)
+        .register(registry);
+      FunctionCounter.builder("occurrence.cache.evictions", occurrenceCache, OccurrenceCache::evictionCount)
+        .register(registry);
+    };
+  }
+
   @Configuration
   public static class OccurrenceSearchConfigurationWs extends OccurrenceSearchConfiguration {
 
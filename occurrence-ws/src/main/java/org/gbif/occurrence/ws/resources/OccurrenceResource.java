@@ -5,14 +5,22 @@ import org.gbif.api.annotation.NullToNotFound;
 import org.gbif.api.model.occurrence.Occurrence;
 import org.gbif.api.model.occurrence.VerbatimOccurrence;
 import org.gbif.api.service.occurrence.OccurrenceService;
+import org.gbif.occurrence.persistence.experimental.OccurrenceFragmentService;
 import org.gbif.occurrence.persistence.experimental.OccurrenceRelationshipService;
+import org.gbif.occurrence.persistence.experimental.RelatedOccurrence;
+import org.gbif.occurrence.persistence.experimental.RelatedOccurrences;
 import org.gbif.occurrence.search.OccurrenceGetByKey;
 import org.gbif.occurrence.ws.provider.OccurrenceDwcXMLConverter;
 import org.gbif.occurrence.ws.provider.OccurrenceVerbatimDwcXMLConverter;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.List;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +29,7 @@ import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -43,19 +52,33 @@ public class OccurrenceResource {
 
   private static final Logger LOG = LoggerFactory.getLogger(OccurrenceResource.class);
 
+  private static final int DEFAULT_RELATED_LIMIT = 100;
+
+  private static final int MAX_RELATED_LIMIT = 100;
+
+  @VisibleForTesting
+  public static final String BATCH_PATH = "batch";
+
+  private static final int MAX_BATCH_SIZE = 300;
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
   private final OccurrenceService occurrenceService;
   private final OccurrenceRelationshipService occurrenceRelationshipService;
+  private final OccurrenceFragmentService occurrenceFragmentService;
   private final OccurrenceGetByKey occurrenceGetByKey;
 
   @Autowired
   public OccurrenceResource(
     OccurrenceService occurrenceService,
     OccurrenceGetByKey occurrenceGetByKey,
-    OccurrenceRelationshipService occurrenceRelationshipService
+    OccurrenceRelationshipService occurrenceRelationshipService,
+    OccurrenceFragmentService occurrenceFragmentService
   ) {
     this.occurrenceService = occurrenceService;
     this.occurrenceGetByKey = occurrenceGetByKey;
     this.occurrenceRelationshipService = occurrenceRelationshipService;
+    this.occurrenceFragmentService = occurrenceFragmentService;
   }
 
   /**
@@ -71,6 +94,19 @@ public class OccurrenceResource {
     return occurrenceGetByKey.get(key);
   }
 
+  /**
+   * This retrieves several Occurrence details by their keys from the occurrence store.
+   *
+   * @param keys Occurrence keys, at most 300
+   * @return the Occurrences found, in the same order as the keys
+   */
+  @GetMapping(BATCH_PATH)
+  public List<Occurrence> get(@RequestParam("key") List<Long> keys) {
+    LOG.debug("Request Occurrences {}:", keys);
+    Preconditions.checkArgument(keys.size() <= MAX_BATCH_SIZE, "At most " + MAX_BATCH_SIZE + " keys can be requested");
+    return occurrenceGetByKey.get(keys);
+  }
+
   /**
    * This retrieves a single occurrence fragment in its raw form as a string.
    *
@@ -85,6 +121,19 @@ public class OccurrenceResource {
     return occurrenceService.getFragment(key);
   }
 
+  /**
+   * This retrieves several occurrence fragments in their raw form as strings.
+   *
+   * @param keys Occurrence keys, at most 300
+   * @return the fragments in the same order as the keys, null for the keys whose fragment could not be found
+   */
+  @GetMapping(BATCH_PATH + "/" + FRAGMENT_PATH)
+  public List<String> getFragments(@RequestParam("key") List<Long> keys) {
+    LOG.debug("Request occurrence fragments {}:", keys);
+    Preconditions.checkArgument(keys.size() <= MAX_BATCH_SIZE, "At most " + MAX_BATCH_SIZE + " keys can be requested");
+    return occurrenceFragmentService.getFragments(keys);
+  }
+
   /**
    * This retrieves a single VerbatimOccurrence detail by its key from the occurrence store and transforms it into the API
    * version which uses Maps.
@@ -100,17 +149,52 @@ public class OccurrenceResource {
   }
 
   /**
-   * Provides a list of related occurrence records in JSON.
+   * Provides a page of related occurrence records in JSON, the next page is requested using the returned next cursor.
+   * The stored JSON of the occurrences is written as it is, without parsing it.
+   * The response isn't streamed: the page is already held in memory by the service and it's bounded to 100 related
+   * occurrences, so streaming would only save a copy of it.
    * @return A list of related occurrences or an empty list if relatinships are not configured or none exist.
    */
   @GetMapping("/{key}/experimental/related")
-  public String getRelatedOccurrences(@PathVariable("key") Long key) {
+  public String getRelatedOccurrences(@PathVariable("key") Long key,
+                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                      @RequestParam(value = "limit", defaultValue = "" + DEFAULT_RELATED_LIMIT) int limit) {
     LOG.debug("Request RelatedOccurrences [{}]:", key);
-    List<String> relationshipsAsJsonSnippets = occurrenceRelationshipService.getRelatedOccurrences(key);
+    RelatedOccurrences relatedOccurrences =
+      occurrenceRelationshipService.getRelatedOccurrences(key, cursor, Math.max(1, Math.min(limit, MAX_RELATED_LIMIT)));
     String currentOccurrenceAsJson = occurrenceRelationshipService.getCurrentOccurrence(key);
-    return String.format("{\"currentOccurrence\":%s,\"relatedOccurrences\":[%s]}",
-      currentOccurrenceAsJson,
-      String.join(",", relationshipsAsJsonSnippets));
+    StringWriter writer = new StringWriter();
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+      generator.writeStartObject();
+      generator.writeFieldName("currentOccurrence");
+      if (currentOccurrenceAsJson == null) {
+        generator.writeNull();
+      } else {
+        generator.writeRawValue(currentOccurrenceAsJson);
+      }
+      generator.writeArrayFieldStart("relatedOccurrences");
+      for (RelatedOccurrence relatedOccurrence : relatedOccurrences.getRelatedOccurrences()) {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("reasons");
+        for (String reason : relatedOccurrence.getReasons()) {
+          generator.writeString(reason);
+        }
+        generator.writeEndArray();
+        generator.writeFieldName("occurrence");
+        if (relatedOccurrence.getOccurrence() == null) {
+          generator.writeNull();
+        } else {
+          generator.writeRawValue(relatedOccurrence.getOccurrence());
+        }
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+      generator.writeStringField("next", relatedOccurrences.getNext());
+      generator.writeEndObject();
+    } catch (IOException e) {
+      throw new IllegalStateException("Error writing related occurrences of " + key, e);
+    }
+    return writer.toString();
   }
 
   /**